@@ -1,5 +1,7 @@
 package com.mycompany.myapp.config;
 
+import java.util.ArrayList;
+import java.util.List;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -10,9 +12,429 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  */
 @ConfigurationProperties(prefix = "application", ignoreUnknownFields = false)
 public class ApplicationProperties {
+
+    private final Autocomplete autocomplete = new Autocomplete();
+
+    private final BorrowRetention borrowRetention = new BorrowRetention();
+
+    private final BorrowStatistics borrowStatistics = new BorrowStatistics();
+
+    private final BulkImport bulkImport = new BulkImport();
+
+    private final Cache cache = new Cache();
+
+    private final Facets facets = new Facets();
+
+    private final Mail mail = new Mail();
+
+    private final Password password = new Password();
+
+    private final Projections projections = new Projections();
+
     // jhipster-needle-application-properties-property
 
+    public Autocomplete getAutocomplete() {
+        return autocomplete;
+    }
+
+    public BorrowRetention getBorrowRetention() {
+        return borrowRetention;
+    }
+
+    public BorrowStatistics getBorrowStatistics() {
+        return borrowStatistics;
+    }
+
+    public BulkImport getBulkImport() {
+        return bulkImport;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public Facets getFacets() {
+        return facets;
+    }
+
+    public Mail getMail() {
+        return mail;
+    }
+
+    public Password getPassword() {
+        return password;
+    }
+
+    public Projections getProjections() {
+        return projections;
+    }
+
     // jhipster-needle-application-properties-property-getter
 
+    /**
+     * Autocomplete of the titles, authors and member names: each prefix keeps its {@code max-suggestions} most borrowed
+     * completions.
+     */
+    public static class Autocomplete {
+
+        private int maxSuggestions = 10;
+
+        public int getMaxSuggestions() {
+            return maxSuggestions;
+        }
+
+        public void setMaxSuggestions(int maxSuggestions) {
+            this.maxSuggestions = maxSuggestions;
+        }
+    }
+
+    /**
+     * Purge of the old returned borrows, in chunks. A {@code retention-days} of {@code 0} keeps the borrows forever, and an
+     * empty {@code archive-directory} doesn't archive the purged borrows.
+     */
+    public static class BorrowRetention {
+
+        private String cron = "0 30 2 * * ?";
+
+        private int retentionDays = 0;
+
+        private int chunkSize = 500;
+
+        private long pauseMillis = 200;
+
+        private String archiveDirectory = "";
+
+        public String getCron() {
+            return cron;
+        }
+
+        public void setCron(String cron) {
+            this.cron = cron;
+        }
+
+        public int getRetentionDays() {
+            return retentionDays;
+        }
+
+        public void setRetentionDays(int retentionDays) {
+            this.retentionDays = retentionDays;
+        }
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+
+        public long getPauseMillis() {
+            return pauseMillis;
+        }
+
+        public void setPauseMillis(long pauseMillis) {
+            this.pauseMillis = pauseMillis;
+        }
+
+        public String getArchiveDirectory() {
+            return archiveDirectory;
+        }
+
+        public void setArchiveDirectory(String archiveDirectory) {
+            this.archiveDirectory = archiveDirectory;
+        }
+    }
+
+    /**
+     * Statistics of the borrows: a borrow still out, or returned, more than {@code loan-days} after it was borrowed is
+     * overdue.
+     */
+    public static class BorrowStatistics {
+
+        private int loanDays = 14;
+
+        public int getLoanDays() {
+            return loanDays;
+        }
+
+        public void setLoanDays(int loanDays) {
+            this.loanDays = loanDays;
+        }
+    }
+
+    /**
+     * Imports of entities sent as NDJSON, one entity per line.
+     */
+    public static class BulkImport {
+
+        private int batchSize = 1000;
+
+        private int maxReportedErrors = 100;
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getMaxReportedErrors() {
+            return maxReportedErrors;
+        }
+
+        public void setMaxReportedErrors(int maxReportedErrors) {
+            this.maxReportedErrors = maxReportedErrors;
+        }
+    }
+
+    public static class Cache {
+
+        private final EntityCache entities = new EntityCache();
+
+        private final JwtCache jwt = new JwtCache();
+
+        private final UserCache users = new UserCache();
+
+        public EntityCache getEntities() {
+            return entities;
+        }
+
+        public JwtCache getJwt() {
+            return jwt;
+        }
+
+        public UserCache getUsers() {
+            return users;
+        }
+    }
+
+    /**
+     * Local cache of the entities read by id. A {@code max-entries} or {@code time-to-live-seconds} of {@code 0} disables it.
+     * <p>
+     * The entities missing from the cache are read at once when no other read is in flight, otherwise with the other ids
+     * requested within {@code batch-window-millis}, up to {@code batch-max-size} ids per query. A
+     * {@code batch-window-millis} of {@code 0} reads each entity alone.
+     */
+    public static class EntityCache {
+
+        private long timeToLiveSeconds = 600;
+
+        private long maxEntries = 10000;
+
+        private long batchWindowMillis = 2;
+
+        private int batchMaxSize = 500;
+
+        public long getTimeToLiveSeconds() {
+            return timeToLiveSeconds;
+        }
+
+        public void setTimeToLiveSeconds(long timeToLiveSeconds) {
+            this.timeToLiveSeconds = timeToLiveSeconds;
+        }
+
+        public long getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(long maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+
+        public long getBatchWindowMillis() {
+            return batchWindowMillis;
+        }
+
+        public void setBatchWindowMillis(long batchWindowMillis) {
+            this.batchWindowMillis = batchWindowMillis;
+        }
+
+        public int getBatchMaxSize() {
+            return batchMaxSize;
+        }
+
+        public void setBatchMaxSize(int batchMaxSize) {
+            this.batchMaxSize = batchMaxSize;
+        }
+    }
+
+    /**
+     * Cache of the verified JWTs, until they expire. A {@code max-entries} of {@code 0} disables it.
+     */
+    public static class JwtCache {
+
+        private long maxEntries = 10000;
+
+        public long getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(long maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+    }
+
+    /**
+     * Cache of the users authenticating, by login and by email. A {@code max-entries} or {@code time-to-live-seconds} of
+     * {@code 0} disables it.
+     */
+    public static class UserCache {
+
+        private long timeToLiveSeconds = 300;
+
+        private long maxEntries = 10000;
+
+        public long getTimeToLiveSeconds() {
+            return timeToLiveSeconds;
+        }
+
+        public void setTimeToLiveSeconds(long timeToLiveSeconds) {
+            this.timeToLiveSeconds = timeToLiveSeconds;
+        }
+
+        public long getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(long maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+    }
+
+    /**
+     * Facet counts of the books: the {@code price-bands} are the bounds between the price bands, in increasing order, and
+     * each facet returns its {@code max-values} values with the most books.
+     */
+    public static class Facets {
+
+        private List<Double> priceBands = new ArrayList<>(List.of(10d, 20d, 50d));
+
+        private int maxValues = 20;
+
+        public List<Double> getPriceBands() {
+            return priceBands;
+        }
+
+        public void setPriceBands(List<Double> priceBands) {
+            this.priceBands = priceBands;
+        }
+
+        public int getMaxValues() {
+            return maxValues;
+        }
+
+        public void setMaxValues(int maxValues) {
+            this.maxValues = maxValues;
+        }
+    }
+
+    /**
+     * Queue and workers sending the emails, off the request threads.
+     */
+    public static class Mail {
+
+        private int queueCapacity = 1000;
+
+        private int workers = 2;
+
+        private int batchSize = 50;
+
+        private int maxAttempts = 3;
+
+        private long initialBackoffMillis = 1000;
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public int getWorkers() {
+            return workers;
+        }
+
+        public void setWorkers(int workers) {
+            this.workers = workers;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+
+        public long getInitialBackoffMillis() {
+            return initialBackoffMillis;
+        }
+
+        public void setInitialBackoffMillis(long initialBackoffMillis) {
+            this.initialBackoffMillis = initialBackoffMillis;
+        }
+    }
+
+    /**
+     * Password hashing, on its own threads. A {@code hashing-threads} of {@code 0} uses one thread per processor.
+     */
+    public static class Password {
+
+        private int bcryptStrength = 10;
+
+        private int hashingThreads = 0;
+
+        private int hashingQueueCapacity = 100;
+
+        public int getBcryptStrength() {
+            return bcryptStrength;
+        }
+
+        public void setBcryptStrength(int bcryptStrength) {
+            this.bcryptStrength = bcryptStrength;
+        }
+
+        public int getHashingThreads() {
+            return hashingThreads;
+        }
+
+        public void setHashingThreads(int hashingThreads) {
+            this.hashingThreads = hashingThreads;
+        }
+
+        public int getHashingQueueCapacity() {
+            return hashingQueueCapacity;
+        }
+
+        public void setHashingQueueCapacity(int hashingQueueCapacity) {
+            this.hashingQueueCapacity = hashingQueueCapacity;
+        }
+    }
+
+    /**
+     * The indexes and counters kept in memory: the requests wait up to {@code ready-timeout-millis} for their first load.
+     */
+    public static class Projections {
+
+        private long readyTimeoutMillis = 5000;
+
+        public long getReadyTimeoutMillis() {
+            return readyTimeoutMillis;
+        }
+
+        public void setReadyTimeoutMillis(long readyTimeoutMillis) {
+            this.readyTimeoutMillis = readyTimeoutMillis;
+        }
+    }
     // jhipster-needle-application-properties-property-class
 }
@@ -3,8 +3,10 @@ package com.mycompany.myapp.config;
 import static com.mycompany.myapp.security.SecurityUtils.JWT_ALGORITHM;
 
 import com.mycompany.myapp.management.SecurityMetersService;
+import com.mycompany.myapp.security.CachingReactiveJwtDecoder;
 import com.nimbusds.jose.jwk.source.ImmutableSecret;
 import com.nimbusds.jose.util.Base64;
+import io.micrometer.core.instrument.MeterRegistry;
 import javax.crypto.SecretKey;
 import javax.crypto.spec.SecretKeySpec;
 import org.slf4j.Logger;
@@ -26,7 +28,18 @@ public class SecurityJwtConfiguration {
     private String jwtKey;
 
     @Bean
-    public ReactiveJwtDecoder jwtDecoder(SecurityMetersService metersService) {
+    public ReactiveJwtDecoder jwtDecoder(
+        SecurityMetersService metersService,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        ReactiveJwtDecoder jwtDecoder = meteredJwtDecoder(metersService);
+        long maxEntries = applicationProperties.getCache().getJwt().getMaxEntries();
+        // the cache only holds valid tokens: the invalid ones always reach the metered decoder
+        return maxEntries > 0 ? new CachingReactiveJwtDecoder(jwtDecoder, maxEntries, meterRegistry) : jwtDecoder;
+    }
+
+    private ReactiveJwtDecoder meteredJwtDecoder(SecurityMetersService metersService) {
         NimbusReactiveJwtDecoder jwtDecoder = NimbusReactiveJwtDecoder.withSecretKey(getSecretKey()).macAlgorithm(JWT_ALGORITHM).build();
         return token -> {
             try {
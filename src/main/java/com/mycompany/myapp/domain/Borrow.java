@@ -1,5 +1,6 @@
 package com.mycompany.myapp.domain;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import jakarta.validation.constraints.*;
 import java.io.Serializable;
 import java.time.Instant;
@@ -27,10 +28,13 @@ public class Borrow implements Serializable {
     @Column("return_date")
     private Instant returnDate;
 
+    // the relations are only read on request, and left out of the JSON otherwise
     @org.springframework.data.annotation.Transient
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private Member member;
 
     @org.springframework.data.annotation.Transient
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private Book book;
 
     @Column("member_id")
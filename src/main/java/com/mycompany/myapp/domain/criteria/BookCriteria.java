@@ -0,0 +1,209 @@
+package com.mycompany.myapp.domain.criteria;
+
+import java.io.Serializable;
+import java.util.Objects;
+import java.util.Optional;
+import org.springdoc.core.annotations.ParameterObject;
+import tech.jhipster.service.Criteria;
+import tech.jhipster.service.filter.BooleanFilter;
+import tech.jhipster.service.filter.DoubleFilter;
+import tech.jhipster.service.filter.IntegerFilter;
+import tech.jhipster.service.filter.LongFilter;
+import tech.jhipster.service.filter.StringFilter;
+
+/**
+ * Criteria class for the {@link com.mycompany.myapp.domain.Book} entity. This class is used
+ * in {@link com.mycompany.myapp.web.rest.BookResource} to receive all the possible filtering options from
+ * the Http GET request parameters.
+ * For example the following could be a valid request:
+ * {@code /books?author.contains=Tolkien&publishedYear.greaterThan=1950&price.in=9.99,19.99&available.equals=true}
+ * As Spring is unable to properly convert the types, unless specific {@link tech.jhipster.service.filter.Filter} class are used,
+ * we need to use fix type specific filters.
+ * <p>
+ * Only the indexed columns can be filtered on.
+ */
+@ParameterObject
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class BookCriteria implements Serializable, Criteria {
+
+    private static final long serialVersionUID = 1L;
+
+    private LongFilter id;
+
+    private StringFilter author;
+
+    private IntegerFilter publishedYear;
+
+    private DoubleFilter price;
+
+    private BooleanFilter available;
+
+    private Boolean distinct;
+
+    public BookCriteria() {}
+
+    public BookCriteria(BookCriteria other) {
+        this.id = other.optionalId().map(LongFilter::copy).orElse(null);
+        this.author = other.optionalAuthor().map(StringFilter::copy).orElse(null);
+        this.publishedYear = other.optionalPublishedYear().map(IntegerFilter::copy).orElse(null);
+        this.price = other.optionalPrice().map(DoubleFilter::copy).orElse(null);
+        this.available = other.optionalAvailable().map(BooleanFilter::copy).orElse(null);
+        this.distinct = other.distinct;
+    }
+
+    @Override
+    public BookCriteria copy() {
+        return new BookCriteria(this);
+    }
+
+    public LongFilter getId() {
+        return id;
+    }
+
+    public Optional<LongFilter> optionalId() {
+        return Optional.ofNullable(id);
+    }
+
+    public LongFilter id() {
+        if (id == null) {
+            setId(new LongFilter());
+        }
+        return id;
+    }
+
+    public void setId(LongFilter id) {
+        this.id = id;
+    }
+
+    public StringFilter getAuthor() {
+        return author;
+    }
+
+    public Optional<StringFilter> optionalAuthor() {
+        return Optional.ofNullable(author);
+    }
+
+    public StringFilter author() {
+        if (author == null) {
+            setAuthor(new StringFilter());
+        }
+        return author;
+    }
+
+    public void setAuthor(StringFilter author) {
+        this.author = author;
+    }
+
+    public IntegerFilter getPublishedYear() {
+        return publishedYear;
+    }
+
+    public Optional<IntegerFilter> optionalPublishedYear() {
+        return Optional.ofNullable(publishedYear);
+    }
+
+    public IntegerFilter publishedYear() {
+        if (publishedYear == null) {
+            setPublishedYear(new IntegerFilter());
+        }
+        return publishedYear;
+    }
+
+    public void setPublishedYear(IntegerFilter publishedYear) {
+        this.publishedYear = publishedYear;
+    }
+
+    public DoubleFilter getPrice() {
+        return price;
+    }
+
+    public Optional<DoubleFilter> optionalPrice() {
+        return Optional.ofNullable(price);
+    }
+
+    public DoubleFilter price() {
+        if (price == null) {
+            setPrice(new DoubleFilter());
+        }
+        return price;
+    }
+
+    public void setPrice(DoubleFilter price) {
+        this.price = price;
+    }
+
+    public BooleanFilter getAvailable() {
+        return available;
+    }
+
+    public Optional<BooleanFilter> optionalAvailable() {
+        return Optional.ofNullable(available);
+    }
+
+    public BooleanFilter available() {
+        if (available == null) {
+            setAvailable(new BooleanFilter());
+        }
+        return available;
+    }
+
+    public void setAvailable(BooleanFilter available) {
+        this.available = available;
+    }
+
+    public Boolean getDistinct() {
+        return distinct;
+    }
+
+    public Optional<Boolean> optionalDistinct() {
+        return Optional.ofNullable(distinct);
+    }
+
+    public Boolean distinct() {
+        if (distinct == null) {
+            setDistinct(true);
+        }
+        return distinct;
+    }
+
+    public void setDistinct(Boolean distinct) {
+        this.distinct = distinct;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final BookCriteria that = (BookCriteria) o;
+        return (
+            Objects.equals(id, that.id) &&
+            Objects.equals(author, that.author) &&
+            Objects.equals(publishedYear, that.publishedYear) &&
+            Objects.equals(price, that.price) &&
+            Objects.equals(available, that.available) &&
+            Objects.equals(distinct, that.distinct)
+        );
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, author, publishedYear, price, available, distinct);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "BookCriteria{" +
+            optionalId().map(f -> "id=" + f + ", ").orElse("") +
+            optionalAuthor().map(f -> "author=" + f + ", ").orElse("") +
+            optionalPublishedYear().map(f -> "publishedYear=" + f + ", ").orElse("") +
+            optionalPrice().map(f -> "price=" + f + ", ").orElse("") +
+            optionalAvailable().map(f -> "available=" + f + ", ").orElse("") +
+            optionalDistinct().map(f -> "distinct=" + f + ", ").orElse("") +
+        "}";
+    }
+}
@@ -0,0 +1,206 @@
+package com.mycompany.myapp.domain.criteria;
+
+import java.io.Serializable;
+import java.util.Objects;
+import java.util.Optional;
+import org.springdoc.core.annotations.ParameterObject;
+import tech.jhipster.service.Criteria;
+import tech.jhipster.service.filter.InstantFilter;
+import tech.jhipster.service.filter.LongFilter;
+
+/**
+ * Criteria class for the {@link com.mycompany.myapp.domain.Borrow} entity. This class is used
+ * in {@link com.mycompany.myapp.web.rest.BorrowResource} to receive all the possible filtering options from
+ * the Http GET request parameters.
+ * For example the following could be a valid request:
+ * {@code /borrows?memberId.equals=1500&returnDate.specified=false}
+ * As Spring is unable to properly convert the types, unless specific {@link tech.jhipster.service.filter.Filter} class are used,
+ * we need to use fix type specific filters.
+ * <p>
+ * Only the indexed columns can be filtered on.
+ */
+@ParameterObject
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class BorrowCriteria implements Serializable, Criteria {
+
+    private static final long serialVersionUID = 1L;
+
+    private LongFilter id;
+
+    private InstantFilter borrowDate;
+
+    private InstantFilter returnDate;
+
+    private LongFilter memberId;
+
+    private LongFilter bookId;
+
+    private Boolean distinct;
+
+    public BorrowCriteria() {}
+
+    public BorrowCriteria(BorrowCriteria other) {
+        this.id = other.optionalId().map(LongFilter::copy).orElse(null);
+        this.borrowDate = other.optionalBorrowDate().map(InstantFilter::copy).orElse(null);
+        this.returnDate = other.optionalReturnDate().map(InstantFilter::copy).orElse(null);
+        this.memberId = other.optionalMemberId().map(LongFilter::copy).orElse(null);
+        this.bookId = other.optionalBookId().map(LongFilter::copy).orElse(null);
+        this.distinct = other.distinct;
+    }
+
+    @Override
+    public BorrowCriteria copy() {
+        return new BorrowCriteria(this);
+    }
+
+    public LongFilter getId() {
+        return id;
+    }
+
+    public Optional<LongFilter> optionalId() {
+        return Optional.ofNullable(id);
+    }
+
+    public LongFilter id() {
+        if (id == null) {
+            setId(new LongFilter());
+        }
+        return id;
+    }
+
+    public void setId(LongFilter id) {
+        this.id = id;
+    }
+
+    public InstantFilter getBorrowDate() {
+        return borrowDate;
+    }
+
+    public Optional<InstantFilter> optionalBorrowDate() {
+        return Optional.ofNullable(borrowDate);
+    }
+
+    public InstantFilter borrowDate() {
+        if (borrowDate == null) {
+            setBorrowDate(new InstantFilter());
+        }
+        return borrowDate;
+    }
+
+    public void setBorrowDate(InstantFilter borrowDate) {
+        this.borrowDate = borrowDate;
+    }
+
+    public InstantFilter getReturnDate() {
+        return returnDate;
+    }
+
+    public Optional<InstantFilter> optionalReturnDate() {
+        return Optional.ofNullable(returnDate);
+    }
+
+    public InstantFilter returnDate() {
+        if (returnDate == null) {
+            setReturnDate(new InstantFilter());
+        }
+        return returnDate;
+    }
+
+    public void setReturnDate(InstantFilter returnDate) {
+        this.returnDate = returnDate;
+    }
+
+    public LongFilter getMemberId() {
+        return memberId;
+    }
+
+    public Optional<LongFilter> optionalMemberId() {
+        return Optional.ofNullable(memberId);
+    }
+
+    public LongFilter memberId() {
+        if (memberId == null) {
+            setMemberId(new LongFilter());
+        }
+        return memberId;
+    }
+
+    public void setMemberId(LongFilter memberId) {
+        this.memberId = memberId;
+    }
+
+    public LongFilter getBookId() {
+        return bookId;
+    }
+
+    public Optional<LongFilter> optionalBookId() {
+        return Optional.ofNullable(bookId);
+    }
+
+    public LongFilter bookId() {
+        if (bookId == null) {
+            setBookId(new LongFilter());
+        }
+        return bookId;
+    }
+
+    public void setBookId(LongFilter bookId) {
+        this.bookId = bookId;
+    }
+
+    public Boolean getDistinct() {
+        return distinct;
+    }
+
+    public Optional<Boolean> optionalDistinct() {
+        return Optional.ofNullable(distinct);
+    }
+
+    public Boolean distinct() {
+        if (distinct == null) {
+            setDistinct(true);
+        }
+        return distinct;
+    }
+
+    public void setDistinct(Boolean distinct) {
+        this.distinct = distinct;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final BorrowCriteria that = (BorrowCriteria) o;
+        return (
+            Objects.equals(id, that.id) &&
+            Objects.equals(borrowDate, that.borrowDate) &&
+            Objects.equals(returnDate, that.returnDate) &&
+            Objects.equals(memberId, that.memberId) &&
+            Objects.equals(bookId, that.bookId) &&
+            Objects.equals(distinct, that.distinct)
+        );
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, borrowDate, returnDate, memberId, bookId, distinct);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "BorrowCriteria{" +
+            optionalId().map(f -> "id=" + f + ", ").orElse("") +
+            optionalBorrowDate().map(f -> "borrowDate=" + f + ", ").orElse("") +
+            optionalReturnDate().map(f -> "returnDate=" + f + ", ").orElse("") +
+            optionalMemberId().map(f -> "memberId=" + f + ", ").orElse("") +
+            optionalBookId().map(f -> "bookId=" + f + ", ").orElse("") +
+            optionalDistinct().map(f -> "distinct=" + f + ", ").orElse("") +
+        "}";
+    }
+}
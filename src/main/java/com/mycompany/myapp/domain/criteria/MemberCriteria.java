@@ -0,0 +1,183 @@
+package com.mycompany.myapp.domain.criteria;
+
+import java.io.Serializable;
+import java.util.Objects;
+import java.util.Optional;
+import org.springdoc.core.annotations.ParameterObject;
+import tech.jhipster.service.Criteria;
+import tech.jhipster.service.filter.InstantFilter;
+import tech.jhipster.service.filter.LongFilter;
+import tech.jhipster.service.filter.StringFilter;
+
+/**
+ * Criteria class for the {@link com.mycompany.myapp.domain.Member} entity. This class is used
+ * in {@link com.mycompany.myapp.web.rest.MemberResource} to receive all the possible filtering options from
+ * the Http GET request parameters.
+ * For example the following could be a valid request:
+ * {@code /members?name.contains=Smith&joinDate.greaterThanOrEqual=2024-01-01T00:00:00Z}
+ * As Spring is unable to properly convert the types, unless specific {@link tech.jhipster.service.filter.Filter} class are used,
+ * we need to use fix type specific filters.
+ * <p>
+ * Only the indexed columns can be filtered on.
+ */
+@ParameterObject
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class MemberCriteria implements Serializable, Criteria {
+
+    private static final long serialVersionUID = 1L;
+
+    private LongFilter id;
+
+    private StringFilter name;
+
+    private StringFilter email;
+
+    private InstantFilter joinDate;
+
+    private Boolean distinct;
+
+    public MemberCriteria() {}
+
+    public MemberCriteria(MemberCriteria other) {
+        this.id = other.optionalId().map(LongFilter::copy).orElse(null);
+        this.name = other.optionalName().map(StringFilter::copy).orElse(null);
+        this.email = other.optionalEmail().map(StringFilter::copy).orElse(null);
+        this.joinDate = other.optionalJoinDate().map(InstantFilter::copy).orElse(null);
+        this.distinct = other.distinct;
+    }
+
+    @Override
+    public MemberCriteria copy() {
+        return new MemberCriteria(this);
+    }
+
+    public LongFilter getId() {
+        return id;
+    }
+
+    public Optional<LongFilter> optionalId() {
+        return Optional.ofNullable(id);
+    }
+
+    public LongFilter id() {
+        if (id == null) {
+            setId(new LongFilter());
+        }
+        return id;
+    }
+
+    public void setId(LongFilter id) {
+        this.id = id;
+    }
+
+    public StringFilter getName() {
+        return name;
+    }
+
+    public Optional<StringFilter> optionalName() {
+        return Optional.ofNullable(name);
+    }
+
+    public StringFilter name() {
+        if (name == null) {
+            setName(new StringFilter());
+        }
+        return name;
+    }
+
+    public void setName(StringFilter name) {
+        this.name = name;
+    }
+
+    public StringFilter getEmail() {
+        return email;
+    }
+
+    public Optional<StringFilter> optionalEmail() {
+        return Optional.ofNullable(email);
+    }
+
+    public StringFilter email() {
+        if (email == null) {
+            setEmail(new StringFilter());
+        }
+        return email;
+    }
+
+    public void setEmail(StringFilter email) {
+        this.email = email;
+    }
+
+    public InstantFilter getJoinDate() {
+        return joinDate;
+    }
+
+    public Optional<InstantFilter> optionalJoinDate() {
+        return Optional.ofNullable(joinDate);
+    }
+
+    public InstantFilter joinDate() {
+        if (joinDate == null) {
+            setJoinDate(new InstantFilter());
+        }
+        return joinDate;
+    }
+
+    public void setJoinDate(InstantFilter joinDate) {
+        this.joinDate = joinDate;
+    }
+
+    public Boolean getDistinct() {
+        return distinct;
+    }
+
+    public Optional<Boolean> optionalDistinct() {
+        return Optional.ofNullable(distinct);
+    }
+
+    public Boolean distinct() {
+        if (distinct == null) {
+            setDistinct(true);
+        }
+        return distinct;
+    }
+
+    public void setDistinct(Boolean distinct) {
+        this.distinct = distinct;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final MemberCriteria that = (MemberCriteria) o;
+        return (
+            Objects.equals(id, that.id) &&
+            Objects.equals(name, that.name) &&
+            Objects.equals(email, that.email) &&
+            Objects.equals(joinDate, that.joinDate) &&
+            Objects.equals(distinct, that.distinct)
+        );
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, name, email, joinDate, distinct);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "MemberCriteria{" +
+            optionalId().map(f -> "id=" + f + ", ").orElse("") +
+            optionalName().map(f -> "name=" + f + ", ").orElse("") +
+            optionalEmail().map(f -> "email=" + f + ", ").orElse("") +
+            optionalJoinDate().map(f -> "joinDate=" + f + ", ").orElse("") +
+            optionalDistinct().map(f -> "distinct=" + f + ", ").orElse("") +
+        "}";
+    }
+}
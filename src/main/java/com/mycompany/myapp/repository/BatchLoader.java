@@ -0,0 +1,142 @@
+package com.mycompany.myapp.repository;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Batches the reads of single entities by id: the ids requested within a short window are read with one
+ * {@code WHERE id IN (...)} query, instead of one query each.
+ * <p>
+ * An id requested while no read is in flight is read at once, so a lone request doesn't wait. The window starts with the
+ * first id requested while a read is in flight, and the batch is read when it ends, or as soon as it holds
+ * {@code max-size} ids. The batched query runs on its own connection, so the reads made within a read-write transaction
+ * aren't batched: they must see the writes of their transaction, and must not wait for its locks.
+ *
+ * @param <T> the type of the entities.
+ */
+class BatchLoader<T> {
+
+    private final Function<Collection<Long>, Flux<T>> loader;
+    private final Function<T, Long> idExtractor;
+    private final Duration window;
+    private final int maxSize;
+
+    private final Object lock = new Object();
+    private Batch<T> pending;
+    private int inFlight;
+
+    /**
+     * @param loader reads the entities with the given ids, in any order, without the missing ones.
+     * @param idExtractor returns the id of an entity.
+     * @param window how long the ids are collected before being read, {@link Duration#ZERO} reads each id alone.
+     * @param maxSize the maximum number of ids read at once.
+     */
+    BatchLoader(Function<Collection<Long>, Flux<T>> loader, Function<T, Long> idExtractor, Duration window, int maxSize) {
+        this.loader = loader;
+        this.idExtractor = idExtractor;
+        this.window = window;
+        this.maxSize = Math.max(1, maxSize);
+    }
+
+    /**
+     * Read an entity, with the other ids requested within the same window.
+     * @param id the id of the entity.
+     * @return the entity, or an empty {@link Mono} if it doesn't exist.
+     */
+    Mono<T> load(Long id) {
+        if (window.isZero() || window.isNegative()) {
+            return loader.apply(List.of(id)).next();
+        }
+        return isInReadWriteTransaction().flatMap(inTransaction -> inTransaction ? loader.apply(List.of(id)).next() : enqueue(id));
+    }
+
+    private Mono<T> enqueue(Long id) {
+        return Mono.defer(() -> {
+            Sinks.One<T> sink;
+            Batch<T> ready = null;
+            synchronized (lock) {
+                if (pending == null && inFlight == 0) {
+                    // nothing to batch with, the id is read alone
+                    ready = new Batch<>();
+                    sink = ready.sinks.computeIfAbsent(id, key -> Sinks.one());
+                } else {
+                    boolean started = false;
+                    if (pending == null) {
+                        pending = new Batch<>();
+                        started = true;
+                    }
+                    Batch<T> batch = pending;
+                    sink = batch.sinks.computeIfAbsent(id, key -> Sinks.one());
+                    if (batch.sinks.size() >= maxSize) {
+                        pending = null;
+                        ready = batch;
+                    } else if (started) {
+                        Mono.delay(window).subscribe(tick -> dispatch(batch));
+                    }
+                }
+            }
+            if (ready != null) {
+                dispatch(ready);
+            }
+            return sink.asMono();
+        });
+    }
+
+    private void dispatch(Batch<T> batch) {
+        synchronized (lock) {
+            if (batch.dispatched) {
+                return;
+            }
+            batch.dispatched = true;
+            if (pending == batch) {
+                pending = null;
+            }
+            inFlight++;
+        }
+        loader
+            .apply(List.copyOf(batch.sinks.keySet()))
+            .doFinally(signal -> {
+                synchronized (lock) {
+                    inFlight--;
+                }
+            })
+            .subscribe(
+                entity -> {
+                    Sinks.One<T> sink = batch.sinks.get(idExtractor.apply(entity));
+                    if (sink != null) {
+                        sink.tryEmitValue(entity);
+                    }
+                },
+                error -> batch.sinks.values().forEach(sink -> sink.tryEmitError(error)),
+                // the ids without entity don't exist, the emitted sinks ignore this
+                () -> batch.sinks.values().forEach(Sinks.One::tryEmitEmpty)
+            );
+    }
+
+    private static Mono<Boolean> isInReadWriteTransaction() {
+        return TransactionSynchronizationManager.forCurrentTransaction()
+            .map(
+                synchronizationManager ->
+                    synchronizationManager.isActualTransactionActive() && !synchronizationManager.isCurrentTransactionReadOnly()
+            )
+            .onErrorResume(NoTransactionException.class, e -> Mono.just(false));
+    }
+
+    /**
+     * The ids collected in a window, with the subscribers waiting for them.
+     */
+    private static final class Batch<T> {
+
+        private final Map<Long, Sinks.One<T>> sinks = new LinkedHashMap<>();
+        private boolean dispatched;
+    }
+}
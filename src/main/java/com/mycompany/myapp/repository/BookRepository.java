@@ -1,6 +1,9 @@
 package com.mycompany.myapp.repository;
 
 import com.mycompany.myapp.domain.Book;
+import com.mycompany.myapp.domain.criteria.BookCriteria;
+import java.util.Collection;
+import java.util.List;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
@@ -32,20 +35,67 @@ public interface BookRepository extends ReactiveCrudRepository<Book, Long>, Book
     // @Query("SELECT YEAR(borrow_date) AS BorrowYear, COUNT(*) AS TotalBorrowed FROM borrow GROUP BY YEAR(borrow_date) ORDER BY BorrowYear;")
     // Mono<Void> FindTotalBorrowedBookWithYears();
 
-    @Query(
-        "SELECT TOP 3 bk.id, bk.title, bk.author, COUNT(b.id) AS TotalBorrowed FROM borrow b JOIN book bk ON b.book_id = bk.id GROUP BY bk.id, bk.title, bk.author ORDER BY COUNT(b.id) DESC;"
-    )
-    Flux<Book> findTop3Books();
 }
 
 interface BookRepositoryInternal {
     <S extends Book> Mono<S> save(S entity);
 
+    Mono<Void> deleteById(Long id);
+
     Flux<Book> findAllBy(Pageable pageable);
 
     Flux<Book> findAll();
 
     Mono<Book> findById(Long id);
-    // this is not supported at the moment because of https://github.com/jhipster/generator-jhipster/issues/18269
-    // Flux<Book> findAllBy(Pageable pageable, Criteria criteria);
+
+    /**
+     * Read several books by id, with a single query for the ones which aren't cached.
+     * @param ids the ids of the books.
+     * @return the books, in the order of the ids, without the duplicate ids and the books which don't exist.
+     */
+    Flux<Book> findAllByIds(Collection<Long> ids);
+
+    /**
+     * Mark the book as unavailable, only if it is available, with a single conditional update.
+     * @param id the id of the book.
+     * @return {@code true} if the book was available, {@code false} if it is already lent or doesn't exist.
+     */
+    Mono<Boolean> markUnavailable(Long id);
+
+    /**
+     * Mark the book as available, only if it is unavailable, with a single conditional update.
+     * @param id the id of the book.
+     * @return {@code true} if the book was unavailable, {@code false} if it is already available or doesn't exist.
+     */
+    Mono<Boolean> markAvailable(Long id);
+
+    /**
+     * Insert new books with multi-row inserts, without reading their generated ids back.
+     * @param books the books to insert, without id.
+     * @return the number of inserted books.
+     */
+    Mono<Long> insertAll(List<Book> books);
+
+    /**
+     * Read the books matching a criteria.
+     * @param criteria the filters on the indexed columns of the books.
+     * @return the books.
+     */
+    Flux<Book> findByCriteria(BookCriteria criteria);
+
+    /**
+     * Read the next books matching a criteria after an id.
+     * @param criteria the filters on the indexed columns of the books.
+     * @param afterId the id the books come after, or {@code null} from the first book.
+     * @param size the maximum number of books.
+     * @return the books, ordered by id.
+     */
+    Flux<Book> findByCriteria(BookCriteria criteria, Long afterId, int size);
+
+    /**
+     * Count the books matching a criteria.
+     * @param criteria the filters on the indexed columns of the books.
+     * @return the number of books.
+     */
+    Mono<Long> countByCriteria(BookCriteria criteria);
 }
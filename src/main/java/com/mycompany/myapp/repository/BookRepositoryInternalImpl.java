@@ -1,23 +1,30 @@
 package com.mycompany.myapp.repository;
 
+import com.mycompany.myapp.config.ApplicationProperties;
 import com.mycompany.myapp.domain.Book;
+import com.mycompany.myapp.domain.criteria.BookCriteria;
 import com.mycompany.myapp.repository.rowmapper.BookRowMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.r2dbc.spi.Row;
 import io.r2dbc.spi.RowMetadata;
+import java.time.Duration;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.r2dbc.convert.R2dbcConverter;
 import org.springframework.data.r2dbc.core.R2dbcEntityOperations;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
-import org.springframework.data.r2dbc.repository.support.SimpleR2dbcRepository;
 import org.springframework.data.relational.core.sql.Comparison;
 import org.springframework.data.relational.core.sql.Condition;
 import org.springframework.data.relational.core.sql.Conditions;
 import org.springframework.data.relational.core.sql.Expression;
+import org.springframework.data.relational.core.sql.SQL;
 import org.springframework.data.relational.core.sql.Select;
 import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoin;
 import org.springframework.data.relational.core.sql.Table;
-import org.springframework.data.relational.repository.support.MappingRelationalEntityInformation;
 import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.r2dbc.core.RowsFetchSpec;
 import reactor.core.publisher.Flux;
@@ -27,45 +34,114 @@ import reactor.core.publisher.Mono;
  * Spring Data R2DBC custom repository implementation for the Book entity.
  */
 @SuppressWarnings("unused")
-class BookRepositoryInternalImpl extends SimpleR2dbcRepository<Book, Long> implements BookRepositoryInternal {
+class BookRepositoryInternalImpl extends CachedEntityRepository<Book> implements BookRepositoryInternal {
 
     private final DatabaseClient db;
     private final R2dbcEntityTemplate r2dbcEntityTemplate;
     private final EntityManager entityManager;
 
     private final BookRowMapper bookMapper;
+    private final BatchLoader<Book> batchLoader;
 
     private static final Table entityTable = Table.aliased("book", EntityManager.ENTITY_ALIAS);
 
+    // conditions only hold bind markers, so each query shape is rendered once by the EntityManager
+    private static final Comparison ID_AFTER = Conditions.isGreater(entityTable.column("id"), SQL.bindMarker(":afterId"));
+    private static final Condition ID_IN = Conditions.in(entityTable.column("id"), SQL.bindMarker(":ids"));
+
+    // a book without availability is considered available
+    private static final String MARK_UNAVAILABLE = "UPDATE book SET available = 0 WHERE id = :id AND (available = 1 OR available IS NULL)";
+
+    private static final String MARK_AVAILABLE = "UPDATE book SET available = 1 WHERE id = :id AND available = 0";
+
     public BookRepositoryInternalImpl(
         R2dbcEntityTemplate template,
         EntityManager entityManager,
         BookRowMapper bookMapper,
         R2dbcEntityOperations entityOperations,
-        R2dbcConverter converter
+        R2dbcConverter converter,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
     ) {
         super(
-            new MappingRelationalEntityInformation(converter.getMappingContext().getRequiredPersistentEntity(Book.class)),
+            Book.class,
             entityOperations,
-            converter
+            converter,
+            new EntityCache<>(
+                "books",
+                applicationProperties.getCache().getEntities().getMaxEntries(),
+                applicationProperties.getCache().getEntities().getTimeToLiveSeconds(),
+                BookRepositoryInternalImpl::copy,
+                meterRegistry
+            ),
+            Book::getId
         );
         this.db = template.getDatabaseClient();
         this.r2dbcEntityTemplate = template;
         this.entityManager = entityManager;
         this.bookMapper = bookMapper;
+        ApplicationProperties.EntityCache properties = applicationProperties.getCache().getEntities();
+        this.batchLoader = new BatchLoader<>(
+            this::findAllByIdInDatabase,
+            Book::getId,
+            Duration.ofMillis(properties.getBatchWindowMillis()),
+            properties.getBatchMaxSize()
+        );
     }
 
     @Override
     public Flux<Book> findAllBy(Pageable pageable) {
-        return createQuery(pageable, null).all();
+        return createQuery("all", pageable, null, Map.of()).all();
     }
 
-    RowsFetchSpec<Book> createQuery(Pageable pageable, Condition whereClause) {
+    RowsFetchSpec<Book> createQuery(String shape, Pageable pageable, Condition whereClause, Map<String, Object> parameters) {
+        EntityManager.SelectKey key = EntityManager.SelectKey.of(Book.class, shape, pageable);
+        String select = entityManager.createSelect(key, () -> renderSelect(pageable, whereClause));
+        return db.sql(select).bindValues(parameters).map(this::process);
+    }
+
+    private String renderSelect(Pageable pageable, Condition whereClause) {
         List<Expression> columns = BookSqlHelper.getColumns(entityTable, EntityManager.ENTITY_ALIAS);
         SelectFromAndJoin selectFrom = Select.builder().select(columns).from(entityTable);
-        // we do not support Criteria here for now as of https://github.com/jhipster/generator-jhipster/issues/18269
-        String select = entityManager.createSelect(selectFrom, Book.class, pageable, whereClause);
-        return db.sql(select).map(this::process);
+        return entityManager.createSelect(selectFrom, Book.class, pageable, whereClause);
+    }
+
+    @Override
+    public Flux<Book> findByCriteria(BookCriteria criteria) {
+        FilterConditions filter = filter(criteria);
+        return createQuery("criteria" + filter.shape(), null, filter.condition(), filter.parameters()).all();
+    }
+
+    @Override
+    public Flux<Book> findByCriteria(BookCriteria criteria, Long afterId, int size) {
+        Pageable pageable = PageRequest.of(0, size, Sort.by("id"));
+        FilterConditions filter = filter(criteria);
+        if (afterId != null) {
+            filter.and(ID_AFTER, "afterId", Map.of("afterId", afterId));
+        }
+        return createQuery("criteria" + filter.shape(), pageable, filter.condition(), filter.parameters()).all();
+    }
+
+    @Override
+    public Mono<Long> countByCriteria(BookCriteria criteria) {
+        FilterConditions filter = filter(criteria);
+        EntityManager.SelectKey key = EntityManager.SelectKey.of(Book.class, "count" + filter.shape(), null);
+        String select = entityManager.createSelect(key, () -> entityManager.createSelect(filter.count(entityTable)));
+        return db
+            .sql(select)
+            .bindValues(filter.parameters())
+            .map(row -> row.get(0, Number.class).longValue())
+            .one();
+    }
+
+    // only the indexed columns can be filtered on, the criteria don't expose the others
+    private static FilterConditions filter(BookCriteria criteria) {
+        return new FilterConditions()
+            .add(criteria.getId(), entityTable.column("id"))
+            .add(criteria.getAuthor(), entityTable.column("author"))
+            .add(criteria.getPublishedYear(), entityTable.column("published_year"))
+            .add(criteria.getPrice(), entityTable.column("price"))
+            .add(criteria.getAvailable(), entityTable.column("available"));
     }
 
     @Override
@@ -75,8 +151,44 @@ class BookRepositoryInternalImpl extends SimpleR2dbcRepository<Book, Long> imple
 
     @Override
     public Mono<Book> findById(Long id) {
-        Comparison whereClause = Conditions.isEqual(entityTable.column("id"), Conditions.just(id.toString()));
-        return createQuery(null, whereClause).one();
+        return cache.get(id, batchLoader::load);
+    }
+
+    @Override
+    public Flux<Book> findAllByIds(Collection<Long> ids) {
+        return cache.getAll(ids, this::findAllByIdInDatabase, Book::getId);
+    }
+
+    private Flux<Book> findAllByIdInDatabase(Collection<Long> ids) {
+        // SQL Server accepts a limited number of parameters per query
+        return Flux.fromIterable(ids)
+            .buffer(EntityManager.MAX_BIND_PARAMETERS)
+            .concatMap(chunk -> createQuery("byIds", null, ID_IN, Map.of("ids", chunk)).all());
+    }
+
+    @Override
+    public Mono<Boolean> markUnavailable(Long id) {
+        return db
+            .sql(MARK_UNAVAILABLE)
+            .bind("id", id)
+            .fetch()
+            .rowsUpdated()
+            .flatMap(updated -> cache.evictOnCompletion(id).thenReturn(updated > 0));
+    }
+
+    @Override
+    public Mono<Boolean> markAvailable(Long id) {
+        return db
+            .sql(MARK_AVAILABLE)
+            .bind("id", id)
+            .fetch()
+            .rowsUpdated()
+            .flatMap(updated -> cache.evictOnCompletion(id).thenReturn(updated > 0));
+    }
+
+    @Override
+    public Mono<Long> insertAll(List<Book> books) {
+        return entityManager.insertAll(Book.class, books);
     }
 
     private Book process(Row row, RowMetadata metadata) {
@@ -84,8 +196,13 @@ class BookRepositoryInternalImpl extends SimpleR2dbcRepository<Book, Long> imple
         return entity;
     }
 
-    @Override
-    public <S extends Book> Mono<S> save(S entity) {
-        return super.save(entity);
+    private static Book copy(Book book) {
+        return new Book()
+            .id(book.getId())
+            .title(book.getTitle())
+            .author(book.getAuthor())
+            .publishedYear(book.getPublishedYear())
+            .price(book.getPrice())
+            .available(book.getAvailable());
     }
 }
@@ -0,0 +1,26 @@
+package com.mycompany.myapp.repository;
+
+/**
+ * The number of borrows of a book or of a member.
+ */
+public class BorrowCountProjection {
+
+    private Long id;
+    private long total;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+}
@@ -0,0 +1,44 @@
+package com.mycompany.myapp.repository;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * The relations read with a borrow. The borrows read without a relation only hold its id, and skip its join.
+ */
+public enum BorrowExpand {
+    MEMBER("member"),
+    BOOK("book");
+
+    /**
+     * Read the borrows with all their relations.
+     */
+    public static final Set<BorrowExpand> ALL = Collections.unmodifiableSet(EnumSet.allOf(BorrowExpand.class));
+
+    /**
+     * Read the borrows without any relation.
+     */
+    public static final Set<BorrowExpand> NONE = Collections.unmodifiableSet(EnumSet.noneOf(BorrowExpand.class));
+
+    private final String code;
+
+    BorrowExpand(String code) {
+        this.code = code;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    /**
+     * Find a relation by its code, like {@code member} or {@code book}.
+     * @param code the code of the relation.
+     * @return the relation, or an empty {@link Optional} if the code is unknown.
+     */
+    public static Optional<BorrowExpand> fromCode(String code) {
+        return Arrays.stream(values()).filter(expand -> expand.code.equals(code)).findFirst();
+    }
+}
@@ -1,7 +1,11 @@
 package com.mycompany.myapp.repository;
 
 import com.mycompany.myapp.domain.Borrow;
+import com.mycompany.myapp.domain.criteria.BorrowCriteria;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
@@ -40,11 +44,6 @@ public interface BorrowRepository extends ReactiveCrudRepository<Borrow, Long>,
     @Override
     Mono<Void> deleteById(Long id);
 
-    @Query("DELETE FROM borrow WHERE return_date < '2020-01-01';")
-    Flux<Borrow> DeleteBorrow();
-
-    @Query("SELECT YEAR(borrow_date) AS year, COUNT(*) AS total FROM borrow GROUP BY YEAR(borrow_date) ORDER BY YEAR(borrow_date) ASC")
-    Flux<BorrowPerYearProjection> countBooksPerYear();
 }
 
 interface BorrowRepositoryInternal {
@@ -55,6 +54,87 @@ interface BorrowRepositoryInternal {
     Flux<Borrow> findAll();
 
     Mono<Borrow> findById(Long id);
-    // this is not supported at the moment because of https://github.com/jhipster/generator-jhipster/issues/18269
-    // Flux<Borrow> findAllBy(Pageable pageable, Criteria criteria);
+
+    /**
+     * Read a borrow, with only the given relations.
+     * @param id the id of the borrow.
+     * @param expand the relations to join, the others only hold their id.
+     * @return the borrow, or an empty {@link Mono} if it doesn't exist.
+     */
+    Mono<Borrow> findById(Long id, Set<BorrowExpand> expand);
+
+    /**
+     * Count the borrows made per day, with how many of them are still out, how many were returned late, and the greatest id.
+     * @param loanDays the number of days a borrow can last without being late.
+     * @return the counts of the days with borrows.
+     */
+    Flux<BorrowsPerDayProjection> countBorrowsPerDay(int loanDays);
+
+    /**
+     * Count the borrows returned per day.
+     * @return the counts of the days with returns, in {@link BorrowsPerDayProjection#getReturned()}.
+     */
+    Flux<BorrowsPerDayProjection> countReturnsPerDay();
+
+    /**
+     * Count the borrows made per year.
+     * @return the counts of the years with borrows, the oldest year first.
+     */
+    Flux<BorrowPerYearProjection> countBorrowsPerYear();
+
+    Flux<BorrowsPerBookAndDayProjection> countBorrowsPerBookAndDay();
+
+    /**
+     * Count the borrows of each book.
+     * @return the counts of the books with borrows, by book id.
+     */
+    Flux<BorrowCountProjection> countBorrowsPerBook();
+
+    /**
+     * Count the borrows of each member.
+     * @return the counts of the members with borrows, by member id.
+     */
+    Flux<BorrowCountProjection> countBorrowsPerMember();
+
+    /**
+     * Read the next borrows returned before a date, without their member and book.
+     * @param cutoff the date the borrows were returned before.
+     * @param afterId the id the borrows come after.
+     * @param size the maximum number of borrows.
+     * @return the borrows, ordered by id.
+     */
+    Flux<Borrow> findAllReturnedBefore(Instant cutoff, long afterId, int size);
+
+    /**
+     * Delete borrows, only if they were returned before a date.
+     * @param ids the ids of the borrows.
+     * @param cutoff the date the borrows were returned before.
+     * @return the number of deleted borrows.
+     */
+    Mono<Long> deleteAllReturnedBefore(Collection<Long> ids, Instant cutoff);
+
+    /**
+     * Read the borrows matching a criteria, with only the given relations.
+     * @param criteria the filters on the indexed columns of the borrows.
+     * @param expand the relations to join, the others only hold their id.
+     * @return the borrows.
+     */
+    Flux<Borrow> findByCriteria(BorrowCriteria criteria, Set<BorrowExpand> expand);
+
+    /**
+     * Read the next borrows matching a criteria after an id, with only the given relations.
+     * @param criteria the filters on the indexed columns of the borrows.
+     * @param afterId the id the borrows come after, or {@code null} from the first borrow.
+     * @param size the maximum number of borrows.
+     * @param expand the relations to join, the others only hold their id.
+     * @return the borrows, ordered by id.
+     */
+    Flux<Borrow> findByCriteria(BorrowCriteria criteria, Long afterId, int size, Set<BorrowExpand> expand);
+
+    /**
+     * Count the borrows matching a criteria.
+     * @param criteria the filters on the indexed columns of the borrows.
+     * @return the number of borrows.
+     */
+    Mono<Long> countByCriteria(BorrowCriteria criteria);
 }
@@ -1,13 +1,27 @@
 package com.mycompany.myapp.repository;
 
+import com.carrotsearch.hppc.LongObjectHashMap;
+import com.carrotsearch.hppc.LongObjectMap;
+import com.mycompany.myapp.domain.Book;
 import com.mycompany.myapp.domain.Borrow;
+import com.mycompany.myapp.domain.Member;
+import com.mycompany.myapp.domain.criteria.BorrowCriteria;
 import com.mycompany.myapp.repository.rowmapper.BookRowMapper;
 import com.mycompany.myapp.repository.rowmapper.BorrowRowMapper;
 import com.mycompany.myapp.repository.rowmapper.MemberRowMapper;
 import io.r2dbc.spi.Row;
 import io.r2dbc.spi.RowMetadata;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.r2dbc.convert.R2dbcConverter;
 import org.springframework.data.r2dbc.core.R2dbcEntityOperations;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
@@ -17,12 +31,14 @@ import org.springframework.data.relational.core.sql.Comparison;
 import org.springframework.data.relational.core.sql.Condition;
 import org.springframework.data.relational.core.sql.Conditions;
 import org.springframework.data.relational.core.sql.Expression;
+import org.springframework.data.relational.core.sql.SQL;
 import org.springframework.data.relational.core.sql.Select;
+import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoin;
 import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoinCondition;
+import org.springframework.data.relational.core.sql.SelectBuilder.SelectJoin;
 import org.springframework.data.relational.core.sql.Table;
 import org.springframework.data.relational.repository.support.MappingRelationalEntityInformation;
 import org.springframework.r2dbc.core.DatabaseClient;
-import org.springframework.r2dbc.core.RowsFetchSpec;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -41,6 +57,40 @@ class BorrowRepositoryInternalImpl extends SimpleR2dbcRepository<Borrow, Long> i
     private final BorrowRowMapper borrowMapper;
 
     private static final Table entityTable = Table.aliased("borrow", EntityManager.ENTITY_ALIAS);
+
+    // conditions only hold bind markers, so each query shape is rendered once by the EntityManager
+    private static final Comparison ID_EQUALS = Conditions.isEqual(entityTable.column("id"), SQL.bindMarker(":id"));
+    private static final Comparison ID_AFTER = Conditions.isGreater(entityTable.column("id"), SQL.bindMarker(":afterId"));
+
+    // a borrow is returned late when it is returned more than the loan period after it was borrowed
+    private static final String BORROWS_PER_DAY =
+        "SELECT CAST(borrow_date AS date) AS day, COUNT(*) AS borrowed, " +
+        "SUM(CASE WHEN return_date IS NULL THEN 1 ELSE 0 END) AS outstanding, " +
+        "SUM(CASE WHEN return_date > DATEADD(day, :loanDays, borrow_date) THEN 1 ELSE 0 END) AS returned_late, " +
+        "MAX(id) AS max_id FROM borrow WHERE borrow_date IS NOT NULL GROUP BY CAST(borrow_date AS date)";
+    private static final String RETURNS_PER_DAY =
+        "SELECT CAST(return_date AS date) AS day, COUNT(*) AS returned FROM borrow " +
+        "WHERE return_date IS NOT NULL AND borrow_date IS NOT NULL GROUP BY CAST(return_date AS date)";
+
+    private static final String BORROWS_PER_YEAR =
+        "SELECT YEAR(borrow_date) AS year, COUNT(*) AS total FROM borrow WHERE borrow_date IS NOT NULL " +
+        "GROUP BY YEAR(borrow_date) ORDER BY YEAR(borrow_date) ASC";
+
+    private static final String BORROWS_PER_BOOK_AND_DAY =
+        "SELECT book_id, CAST(borrow_date AS date) AS day, COUNT(*) AS total, MAX(id) AS max_id FROM borrow " +
+        "WHERE book_id IS NOT NULL GROUP BY book_id, CAST(borrow_date AS date)";
+
+    private static final String BORROWS_PER_BOOK =
+        "SELECT book_id AS id, COUNT(*) AS total FROM borrow WHERE book_id IS NOT NULL GROUP BY book_id";
+
+    private static final String BORROWS_PER_MEMBER =
+        "SELECT member_id AS id, COUNT(*) AS total FROM borrow WHERE member_id IS NOT NULL GROUP BY member_id";
+
+    // the purge walks the returned borrows by id, so each chunk starts where the previous one stopped
+    private static final String RETURNED_BEFORE =
+        "SELECT TOP (:size) id, borrow_date, return_date, member_id, book_id FROM borrow " +
+        "WHERE return_date < :cutoff AND id > :afterId ORDER BY id";
+    private static final String DELETE_RETURNED_BEFORE = "DELETE FROM borrow WHERE id IN (:ids) AND return_date < :cutoff";
     private static final Table memberTable = Table.aliased("member", "e_member");
     private static final Table bookTable = Table.aliased("book", "book");
 
@@ -68,25 +118,88 @@ class BorrowRepositoryInternalImpl extends SimpleR2dbcRepository<Borrow, Long> i
 
     @Override
     public Flux<Borrow> findAllBy(Pageable pageable) {
-        return createQuery(pageable, null).all();
+        return createQuery("all", pageable, null, Map.of(), BorrowExpand.ALL);
     }
 
-    RowsFetchSpec<Borrow> createQuery(Pageable pageable, Condition whereClause) {
+    Flux<Borrow> createQuery(
+        String shape,
+        Pageable pageable,
+        Condition whereClause,
+        Map<String, Object> parameters,
+        Set<BorrowExpand> expand
+    ) {
+        // the joined relations change the query, so they are part of its shape
+        EntityManager.SelectKey key = EntityManager.SelectKey.of(Borrow.class, shape + expand, pageable);
+        String select = entityManager.createSelect(key, () -> renderSelect(pageable, whereClause, expand));
+        return Flux.defer(() -> {
+            // the rows of a query are mapped one at a time, so each subscription gets its own identity map
+            Relations relations = new Relations();
+            return db.sql(select).bindValues(parameters).map((row, metadata) -> process(row, expand, relations)).all();
+        });
+    }
+
+    private String renderSelect(Pageable pageable, Condition whereClause, Set<BorrowExpand> expand) {
         List<Expression> columns = BorrowSqlHelper.getColumns(entityTable, EntityManager.ENTITY_ALIAS);
-        columns.addAll(MemberSqlHelper.getColumns(memberTable, "member"));
-        columns.addAll(BookSqlHelper.getColumns(bookTable, "book"));
-        SelectFromAndJoinCondition selectFrom = Select.builder()
-            .select(columns)
-            .from(entityTable)
-            .leftOuterJoin(memberTable)
-            .on(Column.create("member_id", entityTable))
-            .equals(Column.create("id", memberTable))
-            .leftOuterJoin(bookTable)
-            .on(Column.create("book_id", entityTable))
-            .equals(Column.create("id", bookTable));
-        // we do not support Criteria here for now as of https://github.com/jhipster/generator-jhipster/issues/18269
-        String select = entityManager.createSelect(selectFrom, Borrow.class, pageable, whereClause);
-        return db.sql(select).map(this::process);
+        if (expand.contains(BorrowExpand.MEMBER)) {
+            columns.addAll(MemberSqlHelper.getColumns(memberTable, "member"));
+        }
+        if (expand.contains(BorrowExpand.BOOK)) {
+            columns.addAll(BookSqlHelper.getColumns(bookTable, "book"));
+        }
+        SelectFromAndJoin selectFrom = Select.builder().select(columns).from(entityTable);
+        SelectFromAndJoinCondition joined = null;
+        if (expand.contains(BorrowExpand.MEMBER)) {
+            joined = selectFrom
+                .leftOuterJoin(memberTable)
+                .on(Column.create("member_id", entityTable))
+                .equals(Column.create("id", memberTable));
+        }
+        if (expand.contains(BorrowExpand.BOOK)) {
+            SelectJoin join = joined != null ? joined : selectFrom;
+            joined = join.leftOuterJoin(bookTable).on(Column.create("book_id", entityTable)).equals(Column.create("id", bookTable));
+        }
+        if (joined == null) {
+            return entityManager.createSelect(selectFrom, Borrow.class, pageable, whereClause);
+        }
+        return entityManager.createSelect(joined, Borrow.class, pageable, whereClause);
+    }
+
+    @Override
+    public Flux<Borrow> findByCriteria(BorrowCriteria criteria, Set<BorrowExpand> expand) {
+        FilterConditions filter = filter(criteria);
+        return createQuery("criteria" + filter.shape(), null, filter.condition(), filter.parameters(), expand);
+    }
+
+    @Override
+    public Flux<Borrow> findByCriteria(BorrowCriteria criteria, Long afterId, int size, Set<BorrowExpand> expand) {
+        Pageable pageable = PageRequest.of(0, size, Sort.by("id"));
+        FilterConditions filter = filter(criteria);
+        if (afterId != null) {
+            filter.and(ID_AFTER, "afterId", Map.of("afterId", afterId));
+        }
+        return createQuery("criteria" + filter.shape(), pageable, filter.condition(), filter.parameters(), expand);
+    }
+
+    @Override
+    public Mono<Long> countByCriteria(BorrowCriteria criteria) {
+        FilterConditions filter = filter(criteria);
+        EntityManager.SelectKey key = EntityManager.SelectKey.of(Borrow.class, "count" + filter.shape(), null);
+        String select = entityManager.createSelect(key, () -> entityManager.createSelect(filter.count(entityTable)));
+        return db
+            .sql(select)
+            .bindValues(filter.parameters())
+            .map(row -> row.get(0, Number.class).longValue())
+            .one();
+    }
+
+    // only the indexed columns can be filtered on, the criteria don't expose the others
+    private static FilterConditions filter(BorrowCriteria criteria) {
+        return new FilterConditions()
+            .add(criteria.getId(), entityTable.column("id"))
+            .add(criteria.getBorrowDate(), entityTable.column("borrow_date"))
+            .add(criteria.getReturnDate(), entityTable.column("return_date"))
+            .add(criteria.getMemberId(), entityTable.column("member_id"))
+            .add(criteria.getBookId(), entityTable.column("book_id"));
     }
 
     @Override
@@ -96,17 +209,151 @@ class BorrowRepositoryInternalImpl extends SimpleR2dbcRepository<Borrow, Long> i
 
     @Override
     public Mono<Borrow> findById(Long id) {
-        Comparison whereClause = Conditions.isEqual(entityTable.column("id"), Conditions.just(id.toString()));
-        return createQuery(null, whereClause).one();
+        return findById(id, BorrowExpand.ALL);
+    }
+
+    @Override
+    public Mono<Borrow> findById(Long id, Set<BorrowExpand> expand) {
+        return createQuery("byId", null, ID_EQUALS, Map.of("id", id), expand).singleOrEmpty();
+    }
+
+    @Override
+    public Flux<BorrowsPerDayProjection> countBorrowsPerDay(int loanDays) {
+        return db
+            .sql(BORROWS_PER_DAY)
+            .bind("loanDays", loanDays)
+            .map((row, metadata) -> {
+                BorrowsPerDayProjection projection = new BorrowsPerDayProjection();
+                projection.setDay(row.get("day", LocalDate.class));
+                projection.setBorrowed(row.get("borrowed", Number.class).longValue());
+                projection.setOutstanding(row.get("outstanding", Number.class).longValue());
+                projection.setReturnedLate(row.get("returned_late", Number.class).longValue());
+                projection.setMaxId(row.get("max_id", Long.class));
+                return projection;
+            })
+            .all();
     }
 
-    private Borrow process(Row row, RowMetadata metadata) {
+    @Override
+    public Flux<BorrowsPerDayProjection> countReturnsPerDay() {
+        return db
+            .sql(RETURNS_PER_DAY)
+            .map((row, metadata) -> {
+                BorrowsPerDayProjection projection = new BorrowsPerDayProjection();
+                projection.setDay(row.get("day", LocalDate.class));
+                projection.setReturned(row.get("returned", Number.class).longValue());
+                return projection;
+            })
+            .all();
+    }
+
+    @Override
+    public Flux<BorrowPerYearProjection> countBorrowsPerYear() {
+        return db
+            .sql(BORROWS_PER_YEAR)
+            .map((row, metadata) -> {
+                BorrowPerYearProjection projection = new BorrowPerYearProjection();
+                projection.setYear(row.get("year", Integer.class));
+                projection.setTotal(row.get("total", Number.class).longValue());
+                return projection;
+            })
+            .all();
+    }
+
+    @Override
+    public Flux<BorrowsPerBookAndDayProjection> countBorrowsPerBookAndDay() {
+        return db
+            .sql(BORROWS_PER_BOOK_AND_DAY)
+            .map((row, metadata) -> {
+                BorrowsPerBookAndDayProjection projection = new BorrowsPerBookAndDayProjection();
+                projection.setBookId(row.get("book_id", Long.class));
+                projection.setDay(row.get("day", LocalDate.class));
+                projection.setTotal(row.get("total", Number.class).longValue());
+                projection.setMaxId(row.get("max_id", Long.class));
+                return projection;
+            })
+            .all();
+    }
+
+    @Override
+    public Flux<BorrowCountProjection> countBorrowsPerBook() {
+        return countBorrows(BORROWS_PER_BOOK);
+    }
+
+    @Override
+    public Flux<BorrowCountProjection> countBorrowsPerMember() {
+        return countBorrows(BORROWS_PER_MEMBER);
+    }
+
+    private Flux<BorrowCountProjection> countBorrows(String sql) {
+        return db
+            .sql(sql)
+            .map((row, metadata) -> {
+                BorrowCountProjection projection = new BorrowCountProjection();
+                projection.setId(row.get("id", Long.class));
+                projection.setTotal(row.get("total", Number.class).longValue());
+                return projection;
+            })
+            .all();
+    }
+
+    @Override
+    public Flux<Borrow> findAllReturnedBefore(Instant cutoff, long afterId, int size) {
+        return db
+            .sql(RETURNED_BEFORE)
+            .bind("size", size)
+            .bind("cutoff", LocalDateTime.ofInstant(cutoff, ZoneOffset.UTC))
+            .bind("afterId", afterId)
+            .map((row, metadata) -> r2dbcEntityTemplate.getConverter().read(Borrow.class, row, metadata))
+            .all();
+    }
+
+    @Override
+    public Mono<Long> deleteAllReturnedBefore(Collection<Long> ids, Instant cutoff) {
+        if (ids.isEmpty()) {
+            return Mono.just(0L);
+        }
+        return db
+            .sql(DELETE_RETURNED_BEFORE)
+            .bind("ids", ids)
+            .bind("cutoff", LocalDateTime.ofInstant(cutoff, ZoneOffset.UTC))
+            .fetch()
+            .rowsUpdated();
+    }
+
+    private Borrow process(Row row, Set<BorrowExpand> expand, Relations relations) {
         Borrow entity = borrowMapper.apply(row, "e");
-        entity.setMember(memberMapper.apply(row, "member"));
-        entity.setBook(bookMapper.apply(row, "book"));
+        if (expand.contains(BorrowExpand.MEMBER) && entity.getMemberId() != null) {
+            long memberId = entity.getMemberId();
+            Member member = relations.members.get(memberId);
+            if (member == null) {
+                member = memberMapper.apply(row, "member");
+                relations.members.put(memberId, member);
+            }
+            entity.setMember(member);
+        }
+        if (expand.contains(BorrowExpand.BOOK) && entity.getBookId() != null) {
+            long bookId = entity.getBookId();
+            Book book = relations.books.get(bookId);
+            if (book == null) {
+                book = bookMapper.apply(row, "book");
+                relations.books.put(bookId, book);
+            }
+            entity.setBook(book);
+        }
         return entity;
     }
 
+    /**
+     * The members and books already read by a query, by id: the borrows of a same member or book share its instance,
+     * instead of each row allocating its own copy.
+     */
+    private static final class Relations {
+
+        private final LongObjectMap<Member> members = new LongObjectHashMap<>();
+        private final LongObjectMap<Book> books = new LongObjectHashMap<>();
+    }
+
     @Override
     public <S extends Borrow> Mono<S> save(S entity) {
         return super.save(entity);
@@ -0,0 +1,46 @@
+package com.mycompany.myapp.repository;
+
+import java.time.LocalDate;
+
+/**
+ * The number of borrows of a book on a day (in UTC), with the greatest id of these borrows.
+ */
+public class BorrowsPerBookAndDayProjection {
+
+    private Long bookId;
+    private LocalDate day;
+    private long total;
+    private Long maxId;
+
+    public Long getBookId() {
+        return bookId;
+    }
+
+    public void setBookId(Long bookId) {
+        this.bookId = bookId;
+    }
+
+    public LocalDate getDay() {
+        return day;
+    }
+
+    public void setDay(LocalDate day) {
+        this.day = day;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public Long getMaxId() {
+        return maxId;
+    }
+
+    public void setMaxId(Long maxId) {
+        this.maxId = maxId;
+    }
+}
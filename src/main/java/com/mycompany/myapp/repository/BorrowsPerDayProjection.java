@@ -0,0 +1,65 @@
+package com.mycompany.myapp.repository;
+
+import java.time.LocalDate;
+
+/**
+ * The borrows of a day (in UTC): either the borrows made that day, with how many are still out, how many were returned
+ * late and the greatest id, or the borrows returned that day.
+ */
+public class BorrowsPerDayProjection {
+
+    private LocalDate day;
+    private long borrowed;
+    private long outstanding;
+    private long returnedLate;
+    private long returned;
+    private Long maxId;
+
+    public LocalDate getDay() {
+        return day;
+    }
+
+    public void setDay(LocalDate day) {
+        this.day = day;
+    }
+
+    public long getBorrowed() {
+        return borrowed;
+    }
+
+    public void setBorrowed(long borrowed) {
+        this.borrowed = borrowed;
+    }
+
+    public long getOutstanding() {
+        return outstanding;
+    }
+
+    public void setOutstanding(long outstanding) {
+        this.outstanding = outstanding;
+    }
+
+    public long getReturnedLate() {
+        return returnedLate;
+    }
+
+    public void setReturnedLate(long returnedLate) {
+        this.returnedLate = returnedLate;
+    }
+
+    public long getReturned() {
+        return returned;
+    }
+
+    public void setReturned(long returned) {
+        this.returned = returned;
+    }
+
+    public Long getMaxId() {
+        return maxId;
+    }
+
+    public void setMaxId(Long maxId) {
+        this.maxId = maxId;
+    }
+}
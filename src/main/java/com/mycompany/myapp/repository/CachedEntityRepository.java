@@ -0,0 +1,67 @@
+package com.mycompany.myapp.repository;
+
+import java.util.function.Function;
+import org.reactivestreams.Publisher;
+import org.springframework.data.r2dbc.convert.R2dbcConverter;
+import org.springframework.data.r2dbc.core.R2dbcEntityOperations;
+import org.springframework.data.r2dbc.repository.support.SimpleR2dbcRepository;
+import org.springframework.data.relational.repository.support.MappingRelationalEntityInformation;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Repository of entities cached by id in an {@link EntityCache}: every write evicts the entities it writes, as it runs
+ * and again when its transaction completes.
+ * <p>
+ * {@code saveAll} saves each entity with {@link #save(Object)}, {@code delete} and {@code deleteAll} with entities delete
+ * them by id, so all the write paths are covered by the methods overridden here.
+ *
+ * @param <T> the type of the entities.
+ */
+abstract class CachedEntityRepository<T> extends SimpleR2dbcRepository<T, Long> {
+
+    protected final EntityCache<Long, T> cache;
+    private final Function<T, Long> idExtractor;
+
+    @SuppressWarnings("unchecked")
+    protected CachedEntityRepository(
+        Class<T> entityType,
+        R2dbcEntityOperations entityOperations,
+        R2dbcConverter converter,
+        EntityCache<Long, T> cache,
+        Function<T, Long> idExtractor
+    ) {
+        super(
+            new MappingRelationalEntityInformation(converter.getMappingContext().getRequiredPersistentEntity(entityType)),
+            entityOperations,
+            converter
+        );
+        this.cache = cache;
+        this.idExtractor = idExtractor;
+    }
+
+    @Override
+    public <S extends T> Mono<S> save(S entity) {
+        return super.save(entity).flatMap(saved -> cache.evictOnCompletion(idExtractor.apply(saved)).thenReturn(saved));
+    }
+
+    @Override
+    public Mono<Void> deleteById(Long id) {
+        return super.deleteById(id).then(cache.evictOnCompletion(id));
+    }
+
+    @Override
+    public Mono<Void> deleteById(Publisher<Long> idPublisher) {
+        return Flux.from(idPublisher).collectList().flatMap(this::deleteAllById);
+    }
+
+    @Override
+    public Mono<Void> deleteAllById(Iterable<? extends Long> ids) {
+        return super.deleteAllById(ids).then(Flux.fromIterable(ids).concatMap(cache::evictOnCompletion).then());
+    }
+
+    @Override
+    public Mono<Void> deleteAll() {
+        return super.deleteAll().then(cache.evictAllOnCompletion());
+    }
+}
@@ -0,0 +1,190 @@
+package com.mycompany.myapp.repository;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Read-through local cache of entities by key, bounded in size and time, in front of a repository.
+ * <p>
+ * The entities are mutable, so a copy is stored, and a copy is returned for every hit. The entities are evicted whenever
+ * they are written; a load which overlaps an eviction isn't stored, so it can't put back a stale entity.
+ * Hits, misses and evictions are published as {@code cache.*} metrics, tagged with the name of the cache.
+ * <p>
+ * Concurrent loads of the same entity share one query, with a {@link SingleFlight}, even when the cache is disabled.
+ *
+ * @param <K> the type of the keys, like the id of the entities.
+ * @param <T> the type of the entities.
+ */
+public class EntityCache<K, T> {
+
+    private final Cache<K, T> cache;
+    private final UnaryOperator<T> copier;
+    private final AtomicLong evictions = new AtomicLong();
+    private final SingleFlight<K, T> loads = new SingleFlight<>();
+
+    /**
+     * @param name the name of the cache, in its metrics.
+     * @param maxEntries the maximum number of entities, {@code 0} disables the cache.
+     * @param timeToLiveSeconds how long an entity is cached, {@code 0} disables the cache.
+     * @param copier copies an entity.
+     * @param meterRegistry the registry of the metrics.
+     */
+    public EntityCache(String name, long maxEntries, long timeToLiveSeconds, UnaryOperator<T> copier, MeterRegistry meterRegistry) {
+        this.copier = copier;
+        if (maxEntries <= 0 || timeToLiveSeconds <= 0) {
+            this.cache = null;
+            return;
+        }
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maxEntries)
+            .expireAfterWrite(Duration.ofSeconds(timeToLiveSeconds))
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+    }
+
+    /**
+     * Get the entity from the cache, or load it and cache it.
+     * @param id the key of the entity.
+     * @param loader loads the entity from the database.
+     * @return a copy of the entity, an empty {@link Mono} if it doesn't exist, or the error of the loader.
+     */
+    public Mono<T> get(K id, Function<K, Mono<T>> loader) {
+        if (cache == null) {
+            return loads.share(id, () -> loader.apply(id)).map(copier);
+        }
+        return Mono.defer(() -> {
+            T cached = cache.getIfPresent(id);
+            if (cached != null) {
+                return Mono.just(copier.apply(cached));
+            }
+            long generation = evictions.get();
+            return loads
+                .share(id, () -> loader.apply(id))
+                .doOnNext(entity -> store(id, entity, generation))
+                .map(copier);
+        });
+    }
+
+    /**
+     * Get several entities from the cache, and load the missing ones with a single call to the loader, and cache them.
+     * @param ids the keys of the entities.
+     * @param loader loads the entities with the given ids from the database, in any order.
+     * @param idExtractor returns the key of an entity.
+     * @return copies of the entities, in the order of the ids, without the duplicate ids and the entities which don't exist.
+     */
+    Flux<T> getAll(Collection<K> ids, Function<Collection<K>, Flux<T>> loader, Function<T, K> idExtractor) {
+        return Flux.defer(() -> {
+            Collection<K> distinctIds = new LinkedHashSet<>(ids);
+            Map<K, T> found = new HashMap<>();
+            List<K> missing = new ArrayList<>();
+            for (K id : distinctIds) {
+                T cached = cache == null ? null : cache.getIfPresent(id);
+                if (cached != null) {
+                    found.put(id, copier.apply(cached));
+                } else {
+                    missing.add(id);
+                }
+            }
+            if (missing.isEmpty()) {
+                return Flux.fromIterable(distinctIds).map(found::get);
+            }
+            long generation = evictions.get();
+            return loader
+                .apply(missing)
+                .doOnNext(entity -> {
+                    K id = idExtractor.apply(entity);
+                    store(id, entity, generation);
+                    found.put(id, copier.apply(entity));
+                })
+                .thenMany(Flux.defer(() -> Flux.fromIterable(distinctIds).mapNotNull(found::get)));
+        });
+    }
+
+    private void store(K id, T entity, long generation) {
+        if (cache != null && evictions.get() == generation) {
+            cache.put(id, copier.apply(entity));
+            if (evictions.get() != generation) {
+                cache.invalidate(id);
+            }
+        }
+    }
+
+    /**
+     * Evict an entity which was written, now and again when the current transaction completes: until then, a concurrent read
+     * can still load (and cache) the previous version of the entity.
+     * @param id the key of the entity.
+     * @return a {@link Mono} completing once the eviction is registered.
+     */
+    Mono<Void> evictOnCompletion(K id) {
+        if (id == null) {
+            return Mono.empty();
+        }
+        return evictOnCompletion(() -> evict(id));
+    }
+
+    /**
+     * Evict all the entities, after a write to all of them, now and again when the current transaction completes.
+     * @return a {@link Mono} completing once the eviction is registered.
+     */
+    Mono<Void> evictAllOnCompletion() {
+        return evictOnCompletion(this::evictAll);
+    }
+
+    /**
+     * Evict the entities which were written, under all the keys they are cached with, now and again when the current
+     * transaction completes.
+     * @param written matches the written entities.
+     * @return a {@link Mono} completing once the eviction is registered.
+     */
+    public Mono<Void> evictOnCompletion(Predicate<T> written) {
+        return evictOnCompletion(() -> evictMatching(written));
+    }
+
+    private Mono<Void> evictOnCompletion(Runnable evict) {
+        return Mono.defer(() -> {
+            evict.run();
+            return TransactionCallbacks.afterCompletion(evict);
+        });
+    }
+
+    private void evict(K id) {
+        evictions.incrementAndGet();
+        loads.forget(id);
+        if (cache != null) {
+            cache.invalidate(id);
+        }
+    }
+
+    private void evictAll() {
+        evictions.incrementAndGet();
+        loads.forgetAll();
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+    }
+
+    private void evictMatching(Predicate<T> written) {
+        evictions.incrementAndGet();
+        // the keys of the loads in flight aren't known before they complete
+        loads.forgetAll();
+        if (cache != null) {
+            cache.asMap().values().removeIf(written);
+        }
+    }
+}
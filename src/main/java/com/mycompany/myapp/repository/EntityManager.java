@@ -1,11 +1,19 @@
 package com.mycompany.myapp.repository;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.r2dbc.convert.R2dbcConverter;
+import org.springframework.data.r2dbc.mapping.OutboundRow;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
 import org.springframework.data.r2dbc.core.StatementMapper;
 import org.springframework.data.r2dbc.query.UpdateMapper;
@@ -13,13 +21,16 @@ import org.springframework.data.relational.core.mapping.RelationalPersistentEnti
 import org.springframework.data.relational.core.query.Criteria;
 import org.springframework.data.relational.core.sql.Column;
 import org.springframework.data.relational.core.sql.Condition;
+import org.springframework.data.relational.core.sql.IdentifierProcessing;
 import org.springframework.data.relational.core.sql.OrderByField;
 import org.springframework.data.relational.core.sql.Select;
 import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoin;
 import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoinCondition;
 import org.springframework.data.relational.core.sql.SelectBuilder.SelectOrdered;
+import org.springframework.data.relational.core.sql.SqlIdentifier;
 import org.springframework.data.relational.core.sql.Table;
 import org.springframework.data.relational.core.sql.render.SqlRenderer;
+import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.r2dbc.core.Parameter;
 import org.springframework.stereotype.Component;
 import org.springframework.util.Assert;
@@ -27,7 +38,7 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 /**
- * Helper class to create SQL selects based on the entity, paging parameters and criteria.
+ * Helper class to create SQL selects based on the entity, paging parameters and criteria, and to write rows in batches.
  *
  */
 @Component
@@ -52,6 +63,33 @@ public class EntityManager {
         }
     }
 
+    /**
+     * Identifies the shape of a select statement: the same key always renders to the same SQL, with bind markers in place of the values.
+     *
+     * @param entityType the entity type which holds the table name.
+     * @param shape the name of the projection and condition shape, like {@code "byId"}.
+     * @param limit the page size, or {@code -1} if everything needs to be returned.
+     * @param offset the page offset.
+     * @param sort the sort of the page.
+     */
+    public record SelectKey(Class<?> entityType, String shape, int limit, long offset, Sort sort) {
+        public static SelectKey of(Class<?> entityType, String shape, Pageable pageable) {
+            if (pageable == null || pageable.isUnpaged()) {
+                return new SelectKey(entityType, shape, -1, 0, Sort.unsorted());
+            }
+            return new SelectKey(entityType, shape, pageable.getPageSize(), pageable.getOffset(), pageable.getSort());
+        }
+    }
+
+    // offsets and sorts come from the requests, so the number of cached statements is bounded, the least used evicted first
+    private static final int MAX_CACHED_SELECTS = 1024;
+
+    private final Cache<SelectKey, String> selectCache = Caffeine.newBuilder().maximumSize(MAX_CACHED_SELECTS).build();
+
+    // SQL Server accepts up to 2100 parameters per request, and up to 1000 rows per VALUES clause
+    static final int MAX_BIND_PARAMETERS = 2000;
+    static final int MAX_INSERTED_ROWS = 1000;
+
     private final SqlRenderer sqlRenderer;
     private final UpdateMapper updateMapper;
     private final R2dbcEntityTemplate r2dbcEntityTemplate;
@@ -128,6 +166,19 @@ public class EntityManager {
         }
     }
 
+    /**
+     * Returns the SQL select statement of the given shape, rendering it only the first time the shape is requested.
+     * <p>
+     * The statement must only contain bind markers for the values, so it can be reused for every call - and the
+     * database can reuse its execution plan.
+     * @param key the shape of the statement.
+     * @param select renders the statement, if it isn't cached yet.
+     * @return sql select statement
+     */
+    public String createSelect(SelectKey key, Supplier<String> select) {
+        return selectCache.get(key, shape -> select.get());
+    }
+
     /**
      * Generate an actual SQL from the given {@link Select}.
      * @param select a representation of a select statement.
@@ -166,29 +217,138 @@ public class EntityManager {
         return r2dbcEntityTemplate.insert(entity);
     }
 
+    /**
+     * Inserts the given rows into the table, with multi-row {@code INSERT ... VALUES (...), (...)} statements: one statement
+     * for up to {@link #MAX_INSERTED_ROWS} rows, and at most {@link #MAX_BIND_PARAMETERS} values per statement.
+     * @param tableName the name of the table.
+     * @param columns the names of the columns to insert.
+     * @param rows the values of the rows, in the order of the columns.
+     * @return the number of inserted rows.
+     */
+    public Mono<Long> insertAll(String tableName, List<String> columns, List<List<Parameter>> rows) {
+        Assert.notEmpty(columns, "columns is empty");
+        if (rows.isEmpty()) {
+            return Mono.just(0L);
+        }
+        int rowsPerStatement = Math.min(MAX_INSERTED_ROWS, MAX_BIND_PARAMETERS / columns.size());
+        return Flux.range(0, (rows.size() + rowsPerStatement - 1) / rowsPerStatement)
+            .map(chunk -> rows.subList(chunk * rowsPerStatement, Math.min(rows.size(), (chunk + 1) * rowsPerStatement)))
+            .concatMap(chunk -> {
+                DatabaseClient.GenericExecuteSpec insert = r2dbcEntityTemplate
+                    .getDatabaseClient()
+                    .sql(renderInsert(tableName, columns, chunk.size()));
+                int index = 0;
+                for (List<Parameter> row : chunk) {
+                    Assert.isTrue(row.size() == columns.size(), "a row doesn't have a value for every column");
+                    for (Parameter value : row) {
+                        insert = insert.bind("p" + index++, value);
+                    }
+                }
+                return insert.fetch().rowsUpdated();
+            })
+            .reduce(0L, Long::sum);
+    }
+
+    /**
+     * Inserts the given new entities, with the multi-row statements of {@link #insertAll(String, List, List)}: the
+     * entities are written with the converter, like {@link #insert(Object)} does, but their generated ids aren't read back.
+     * @param entityType the type of the entities.
+     * @param entities the entities to insert, without id.
+     * @param <T> the type of the entities.
+     * @return the number of inserted rows.
+     */
+    public <T> Mono<Long> insertAll(Class<T> entityType, List<T> entities) {
+        if (entities.isEmpty()) {
+            return Mono.just(0L);
+        }
+        R2dbcConverter converter = r2dbcEntityTemplate.getConverter();
+        RelationalPersistentEntity<?> persistentEntity = converter.getMappingContext().getRequiredPersistentEntity(entityType);
+        List<SqlIdentifier> columns = null;
+        List<List<Parameter>> rows = new ArrayList<>(entities.size());
+        for (T entity : entities) {
+            OutboundRow row = new OutboundRow();
+            converter.write(entity, row);
+            row.remove(persistentEntity.getIdColumn());
+            if (columns == null) {
+                columns = List.copyOf(row.keySet());
+            }
+            rows.add(columns.stream().map(row::get).toList());
+        }
+        return insertAll(
+            persistentEntity.getTableName().toSql(IdentifierProcessing.NONE),
+            columns.stream().map(column -> column.toSql(IdentifierProcessing.NONE)).toList(),
+            rows
+        );
+    }
+
+    /**
+     * Renders a multi-row insert statement, with the {@code :p0}, {@code :p1}... bind markers, row by row.
+     */
+    static String renderInsert(String tableName, List<String> columns, int rowCount) {
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(tableName).append(" (").append(String.join(", ", columns));
+        sql.append(") VALUES ");
+        int index = 0;
+        for (int row = 0; row < rowCount; row++) {
+            sql.append(row == 0 ? "(" : ", (");
+            for (int column = 0; column < columns.size(); column++) {
+                sql.append(column == 0 ? ":p" : ", :p").append(index++);
+            }
+            sql.append(')');
+        }
+        return sql.toString();
+    }
+
     /**
      * Updates the table, which links the entity with the referred entities.
+     * <p>
+     * The existing links are read first, so only the missing links are inserted, with one multi-row insert, and only the
+     * links which aren't referred anymore are deleted: an unchanged entity only costs one select.
      * @param table describes the link table, it contains a table name, the column name for the id, and for the referred entity id.
      * @param entityId the id of the entity, for which the links are created.
      * @param referencedIds the id of the referred entities.
      * @return the number of inserted rows.
      */
     public Mono<Long> updateLinkTable(LinkTable table, Object entityId, Stream<?> referencedIds) {
-        return deleteFromLinkTable(table, entityId).then(
-            Flux.fromStream(referencedIds)
-                .flatMap((Object referenceId) -> {
-                    StatementMapper.InsertSpec insert = r2dbcEntityTemplate
-                        .getDataAccessStrategy()
-                        .getStatementMapper()
-                        .createInsert(table.tableName)
-                        .withColumn(table.idColumn, Parameter.from(entityId))
-                        .withColumn(table.referenceColumn, Parameter.from(referenceId));
-
-                    return r2dbcEntityTemplate.getDatabaseClient().sql(statementMapper.getMappedObject(insert)).fetch().rowsUpdated();
-                })
-                .collectList()
-                .map((List<Long> updates) -> updates.stream().reduce(Long::sum).orElse(0l))
-        );
+        return syncLinkTable(table, entityId, referencedIds, true);
+    }
+
+    /**
+     * Adds the missing links between the entity and the referred entities, and keeps the other links of the entity.
+     * @param table describes the link table, it contains a table name, the column name for the id, and for the referred entity id.
+     * @param entityId the id of the entity, for which the links are created.
+     * @param referencedIds the id of the referred entities.
+     * @return the number of inserted rows.
+     */
+    public Mono<Long> addToLinkTable(LinkTable table, Object entityId, Stream<?> referencedIds) {
+        return syncLinkTable(table, entityId, referencedIds, false);
+    }
+
+    private Mono<Long> syncLinkTable(LinkTable table, Object entityId, Stream<?> referencedIds, boolean deleteOthers) {
+        Assert.notNull(entityId, "entityId is null");
+        Set<Object> wanted = referencedIds.collect(Collectors.toCollection(LinkedHashSet::new));
+        if (wanted.isEmpty() && !deleteOthers) {
+            return Mono.just(0L);
+        }
+        StatementMapper.SelectSpec select = statementMapper
+            .createSelect(table.tableName)
+            .withProjection(table.referenceColumn)
+            .withCriteria(Criteria.where(table.idColumn).is(entityId));
+        return r2dbcEntityTemplate
+            .getDatabaseClient()
+            .sql(statementMapper.getMappedObject(select))
+            .map(row -> row.get(table.referenceColumn))
+            .all()
+            .collect(Collectors.toSet())
+            .flatMap(existing -> {
+                List<Object> removed = existing.stream().filter(referenceId -> !wanted.contains(referenceId)).toList();
+                List<List<Parameter>> added = wanted
+                    .stream()
+                    .filter(referenceId -> !existing.contains(referenceId))
+                    .map(referenceId -> List.of(Parameter.from(entityId), Parameter.from(referenceId)))
+                    .toList();
+                Mono<Void> delete = deleteOthers && !removed.isEmpty() ? deleteFromLinkTable(table, entityId, removed) : Mono.empty();
+                return delete.then(insertAll(table.tableName, List.of(table.idColumn, table.referenceColumn), added));
+            });
     }
 
     public Mono<Void> deleteFromLinkTable(LinkTable table, Object entityId) {
@@ -201,6 +361,13 @@ public class EntityManager {
         return r2dbcEntityTemplate.getDatabaseClient().sql(statementMapper.getMappedObject(deleteSpec)).then();
     }
 
+    private Mono<Void> deleteFromLinkTable(LinkTable table, Object entityId, Collection<?> referencedIds) {
+        StatementMapper.DeleteSpec deleteSpec = statementMapper
+            .createDelete(table.tableName)
+            .withCriteria(Criteria.where(table.idColumn).is(entityId).and(table.referenceColumn).in(referencedIds));
+        return r2dbcEntityTemplate.getDatabaseClient().sql(statementMapper.getMappedObject(deleteSpec)).then();
+    }
+
     private String createSelectImpl(SelectOrdered selectFrom, Class<?> entityType, Sort sortParameter) {
         if (sortParameter != null && sortParameter.isSorted()) {
             RelationalPersistentEntity<?> entity = getPersistentEntity(entityType);
@@ -0,0 +1,163 @@
+package com.mycompany.myapp.repository;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import org.springframework.data.relational.core.sql.Column;
+import org.springframework.data.relational.core.sql.Condition;
+import org.springframework.data.relational.core.sql.Conditions;
+import org.springframework.data.relational.core.sql.Expression;
+import org.springframework.data.relational.core.sql.Expressions;
+import org.springframework.data.relational.core.sql.Functions;
+import org.springframework.data.relational.core.sql.SQL;
+import org.springframework.data.relational.core.sql.Select;
+import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoin;
+import org.springframework.data.relational.core.sql.Table;
+import tech.jhipster.service.filter.Filter;
+import tech.jhipster.service.filter.RangeFilter;
+import tech.jhipster.service.filter.StringFilter;
+
+/**
+ * Compiles the {@link Filter filters} of a criteria into a SQL condition, with a bind marker for each value.
+ * <p>
+ * The values are only bound when the query runs, so the {@link #shape() shape} of the condition - the filtered columns
+ * and their operators - is enough to identify the rendered statement in the {@link EntityManager} cache, whatever the values.
+ */
+final class FilterConditions {
+
+    // rendered as 1 = 0, for an empty "in" filter
+    private static final Condition NEVER = Conditions.isEqual(SQL.literalOf(1), SQL.literalOf(0));
+
+    private final List<Condition> conditions = new ArrayList<>();
+    private final Map<String, Object> parameters = new LinkedHashMap<>();
+    private final StringBuilder shape = new StringBuilder();
+
+    /**
+     * Add the conditions of a filter on a column.
+     * @param filter the filter, or {@code null} if the column isn't filtered.
+     * @param column the filtered column.
+     * @return this builder.
+     */
+    FilterConditions add(Filter<?> filter, Column column) {
+        if (filter == null) {
+            return this;
+        }
+        String name = column.getName().getReference();
+        if (filter.getEquals() != null) {
+            compare(name, "equals", column, Conditions::isEqual, filter.getEquals());
+        }
+        if (filter.getNotEquals() != null) {
+            compare(name, "notEquals", column, Conditions::isNotEqual, filter.getNotEquals());
+        }
+        if (filter.getSpecified() != null) {
+            conditions.add(Boolean.TRUE.equals(filter.getSpecified()) ? Conditions.isNull(column).not() : Conditions.isNull(column));
+            shape.append(name).append(".specified=").append(filter.getSpecified()).append(',');
+        }
+        if (filter.getIn() != null) {
+            if (filter.getIn().isEmpty()) {
+                conditions.add(NEVER);
+                shape.append(name).append(".in=[],");
+            } else {
+                compare(name, "in", column, Conditions::in, filter.getIn().stream().map(FilterConditions::toBindValue).toList());
+            }
+        }
+        if (filter.getNotIn() != null && !filter.getNotIn().isEmpty()) {
+            compare(name, "notIn", column, Conditions::notIn, filter.getNotIn().stream().map(FilterConditions::toBindValue).toList());
+        }
+        if (filter instanceof StringFilter stringFilter) {
+            if (stringFilter.getContains() != null) {
+                compare(name, "contains", column, Conditions::like, "%" + escapeLike(stringFilter.getContains()) + "%");
+            }
+            if (stringFilter.getDoesNotContain() != null) {
+                compare(name, "doesNotContain", column, Conditions::notLike, "%" + escapeLike(stringFilter.getDoesNotContain()) + "%");
+            }
+        }
+        if (filter instanceof RangeFilter<?> rangeFilter) {
+            if (rangeFilter.getGreaterThan() != null) {
+                compare(name, "greaterThan", column, Conditions::isGreater, rangeFilter.getGreaterThan());
+            }
+            if (rangeFilter.getGreaterThanOrEqual() != null) {
+                compare(name, "greaterThanOrEqual", column, Conditions::isGreaterOrEqualTo, rangeFilter.getGreaterThanOrEqual());
+            }
+            if (rangeFilter.getLessThan() != null) {
+                compare(name, "lessThan", column, Conditions::isLess, rangeFilter.getLessThan());
+            }
+            if (rangeFilter.getLessThanOrEqual() != null) {
+                compare(name, "lessThanOrEqual", column, Conditions::isLessOrEqualTo, rangeFilter.getLessThanOrEqual());
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Add a condition which doesn't come from a filter, like a keyset pagination condition.
+     * @param condition the condition, with its own bind markers.
+     * @param conditionShape the name of the condition, for the shape.
+     * @param conditionParameters the values of its bind markers.
+     * @return this builder.
+     */
+    FilterConditions and(Condition condition, String conditionShape, Map<String, Object> conditionParameters) {
+        conditions.add(condition);
+        parameters.putAll(conditionParameters);
+        shape.append(conditionShape).append(',');
+        return this;
+    }
+
+    /**
+     * @return the conditions joined with {@code AND}, or {@code null} if there isn't any.
+     */
+    Condition condition() {
+        return conditions.stream().reduce(Condition::and).orElse(null);
+    }
+
+    /**
+     * @param table the filtered table.
+     * @return the statement counting the rows of the table which match the conditions.
+     */
+    Select count(Table table) {
+        SelectFromAndJoin selectFrom = Select.builder().select(Functions.count(Expressions.asterisk())).from(table);
+        Condition condition = condition();
+        return condition == null ? selectFrom.build() : selectFrom.where(condition).build();
+    }
+
+    /**
+     * @return the values of the bind markers of the condition.
+     */
+    Map<String, Object> parameters() {
+        return parameters;
+    }
+
+    /**
+     * @return the filtered columns and their operators, without the values.
+     */
+    String shape() {
+        return "[" + shape + "]";
+    }
+
+    private void compare(String name, String operator, Column column, BiFunction<Column, Expression, Condition> comparison, Object value) {
+        String marker = "p" + parameters.size();
+        conditions.add(comparison.apply(column, SQL.bindMarker(":" + marker)));
+        parameters.put(marker, toBindValue(value));
+        shape.append(name).append('.').append(operator).append(',');
+    }
+
+    private static Object toBindValue(Object value) {
+        // the date-time columns are read and written in UTC
+        if (value instanceof Instant instant) {
+            return LocalDateTime.ofInstant(instant, ZoneOffset.UTC);
+        }
+        return value;
+    }
+
+    /**
+     * Escape the wildcards of SQL Server LIKE patterns, so they are matched literally.
+     */
+    static String escapeLike(String value) {
+        return value.replace("[", "[[]").replace("%", "[%]").replace("_", "[_]");
+    }
+}
@@ -1,6 +1,9 @@
 package com.mycompany.myapp.repository;
 
 import com.mycompany.myapp.domain.Member;
+import com.mycompany.myapp.domain.criteria.MemberCriteria;
+import java.util.Collection;
+import java.util.List;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
@@ -40,11 +43,48 @@ public interface MemberRepository extends ReactiveCrudRepository<Member, Long>,
 interface MemberRepositoryInternal {
     <S extends Member> Mono<S> save(S entity);
 
+    Mono<Void> deleteById(Long id);
+
     Flux<Member> findAllBy(Pageable pageable);
 
     Flux<Member> findAll();
 
     Mono<Member> findById(Long id);
-    // this is not supported at the moment because of https://github.com/jhipster/generator-jhipster/issues/18269
-    // Flux<Member> findAllBy(Pageable pageable, Criteria criteria);
+
+    /**
+     * Read several members by id, with a single query for the ones which aren't cached.
+     * @param ids the ids of the members.
+     * @return the members, in the order of the ids, without the duplicate ids and the members which don't exist.
+     */
+    Flux<Member> findAllByIds(Collection<Long> ids);
+
+    /**
+     * Insert new members with multi-row inserts, without reading their generated ids back.
+     * @param members the members to insert, without id.
+     * @return the number of inserted members.
+     */
+    Mono<Long> insertAll(List<Member> members);
+
+    /**
+     * Read the members matching a criteria.
+     * @param criteria the filters on the indexed columns of the members.
+     * @return the members.
+     */
+    Flux<Member> findByCriteria(MemberCriteria criteria);
+
+    /**
+     * Read the next members matching a criteria after an id.
+     * @param criteria the filters on the indexed columns of the members.
+     * @param afterId the id the members come after, or {@code null} from the first member.
+     * @param size the maximum number of members.
+     * @return the members, ordered by id.
+     */
+    Flux<Member> findByCriteria(MemberCriteria criteria, Long afterId, int size);
+
+    /**
+     * Count the members matching a criteria.
+     * @param criteria the filters on the indexed columns of the members.
+     * @return the number of members.
+     */
+    Mono<Long> countByCriteria(MemberCriteria criteria);
 }
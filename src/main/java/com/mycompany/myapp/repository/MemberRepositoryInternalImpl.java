@@ -1,23 +1,30 @@
 package com.mycompany.myapp.repository;
 
+import com.mycompany.myapp.config.ApplicationProperties;
 import com.mycompany.myapp.domain.Member;
+import com.mycompany.myapp.domain.criteria.MemberCriteria;
 import com.mycompany.myapp.repository.rowmapper.MemberRowMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.r2dbc.spi.Row;
 import io.r2dbc.spi.RowMetadata;
+import java.time.Duration;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.r2dbc.convert.R2dbcConverter;
 import org.springframework.data.r2dbc.core.R2dbcEntityOperations;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
-import org.springframework.data.r2dbc.repository.support.SimpleR2dbcRepository;
 import org.springframework.data.relational.core.sql.Comparison;
 import org.springframework.data.relational.core.sql.Condition;
 import org.springframework.data.relational.core.sql.Conditions;
 import org.springframework.data.relational.core.sql.Expression;
+import org.springframework.data.relational.core.sql.SQL;
 import org.springframework.data.relational.core.sql.Select;
 import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoin;
 import org.springframework.data.relational.core.sql.Table;
-import org.springframework.data.relational.repository.support.MappingRelationalEntityInformation;
 import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.r2dbc.core.RowsFetchSpec;
 import reactor.core.publisher.Flux;
@@ -27,45 +34,108 @@ import reactor.core.publisher.Mono;
  * Spring Data R2DBC custom repository implementation for the Member entity.
  */
 @SuppressWarnings("unused")
-class MemberRepositoryInternalImpl extends SimpleR2dbcRepository<Member, Long> implements MemberRepositoryInternal {
+class MemberRepositoryInternalImpl extends CachedEntityRepository<Member> implements MemberRepositoryInternal {
 
     private final DatabaseClient db;
     private final R2dbcEntityTemplate r2dbcEntityTemplate;
     private final EntityManager entityManager;
 
     private final MemberRowMapper memberMapper;
+    private final BatchLoader<Member> batchLoader;
 
     private static final Table entityTable = Table.aliased("member", EntityManager.ENTITY_ALIAS);
 
+    // conditions only hold bind markers, so each query shape is rendered once by the EntityManager
+    private static final Comparison ID_AFTER = Conditions.isGreater(entityTable.column("id"), SQL.bindMarker(":afterId"));
+    private static final Condition ID_IN = Conditions.in(entityTable.column("id"), SQL.bindMarker(":ids"));
+
     public MemberRepositoryInternalImpl(
         R2dbcEntityTemplate template,
         EntityManager entityManager,
         MemberRowMapper memberMapper,
         R2dbcEntityOperations entityOperations,
-        R2dbcConverter converter
+        R2dbcConverter converter,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
     ) {
         super(
-            new MappingRelationalEntityInformation(converter.getMappingContext().getRequiredPersistentEntity(Member.class)),
+            Member.class,
             entityOperations,
-            converter
+            converter,
+            new EntityCache<>(
+                "members",
+                applicationProperties.getCache().getEntities().getMaxEntries(),
+                applicationProperties.getCache().getEntities().getTimeToLiveSeconds(),
+                MemberRepositoryInternalImpl::copy,
+                meterRegistry
+            ),
+            Member::getId
         );
         this.db = template.getDatabaseClient();
         this.r2dbcEntityTemplate = template;
         this.entityManager = entityManager;
         this.memberMapper = memberMapper;
+        ApplicationProperties.EntityCache properties = applicationProperties.getCache().getEntities();
+        this.batchLoader = new BatchLoader<>(
+            this::findAllByIdInDatabase,
+            Member::getId,
+            Duration.ofMillis(properties.getBatchWindowMillis()),
+            properties.getBatchMaxSize()
+        );
     }
 
     @Override
     public Flux<Member> findAllBy(Pageable pageable) {
-        return createQuery(pageable, null).all();
+        return createQuery("all", pageable, null, Map.of()).all();
+    }
+
+    RowsFetchSpec<Member> createQuery(String shape, Pageable pageable, Condition whereClause, Map<String, Object> parameters) {
+        EntityManager.SelectKey key = EntityManager.SelectKey.of(Member.class, shape, pageable);
+        String select = entityManager.createSelect(key, () -> renderSelect(pageable, whereClause));
+        return db.sql(select).bindValues(parameters).map(this::process);
     }
 
-    RowsFetchSpec<Member> createQuery(Pageable pageable, Condition whereClause) {
+    private String renderSelect(Pageable pageable, Condition whereClause) {
         List<Expression> columns = MemberSqlHelper.getColumns(entityTable, EntityManager.ENTITY_ALIAS);
         SelectFromAndJoin selectFrom = Select.builder().select(columns).from(entityTable);
-        // we do not support Criteria here for now as of https://github.com/jhipster/generator-jhipster/issues/18269
-        String select = entityManager.createSelect(selectFrom, Member.class, pageable, whereClause);
-        return db.sql(select).map(this::process);
+        return entityManager.createSelect(selectFrom, Member.class, pageable, whereClause);
+    }
+
+    @Override
+    public Flux<Member> findByCriteria(MemberCriteria criteria) {
+        FilterConditions filter = filter(criteria);
+        return createQuery("criteria" + filter.shape(), null, filter.condition(), filter.parameters()).all();
+    }
+
+    @Override
+    public Flux<Member> findByCriteria(MemberCriteria criteria, Long afterId, int size) {
+        Pageable pageable = PageRequest.of(0, size, Sort.by("id"));
+        FilterConditions filter = filter(criteria);
+        if (afterId != null) {
+            filter.and(ID_AFTER, "afterId", Map.of("afterId", afterId));
+        }
+        return createQuery("criteria" + filter.shape(), pageable, filter.condition(), filter.parameters()).all();
+    }
+
+    @Override
+    public Mono<Long> countByCriteria(MemberCriteria criteria) {
+        FilterConditions filter = filter(criteria);
+        EntityManager.SelectKey key = EntityManager.SelectKey.of(Member.class, "count" + filter.shape(), null);
+        String select = entityManager.createSelect(key, () -> entityManager.createSelect(filter.count(entityTable)));
+        return db
+            .sql(select)
+            .bindValues(filter.parameters())
+            .map(row -> row.get(0, Number.class).longValue())
+            .one();
+    }
+
+    // only the indexed columns can be filtered on, the criteria don't expose the others
+    private static FilterConditions filter(MemberCriteria criteria) {
+        return new FilterConditions()
+            .add(criteria.getId(), entityTable.column("id"))
+            .add(criteria.getName(), entityTable.column("name"))
+            .add(criteria.getEmail(), entityTable.column("email"))
+            .add(criteria.getJoinDate(), entityTable.column("join_date"));
     }
 
     @Override
@@ -75,8 +145,24 @@ class MemberRepositoryInternalImpl extends SimpleR2dbcRepository<Member, Long> i
 
     @Override
     public Mono<Member> findById(Long id) {
-        Comparison whereClause = Conditions.isEqual(entityTable.column("id"), Conditions.just(id.toString()));
-        return createQuery(null, whereClause).one();
+        return cache.get(id, batchLoader::load);
+    }
+
+    @Override
+    public Flux<Member> findAllByIds(Collection<Long> ids) {
+        return cache.getAll(ids, this::findAllByIdInDatabase, Member::getId);
+    }
+
+    private Flux<Member> findAllByIdInDatabase(Collection<Long> ids) {
+        // SQL Server accepts a limited number of parameters per query
+        return Flux.fromIterable(ids)
+            .buffer(EntityManager.MAX_BIND_PARAMETERS)
+            .concatMap(chunk -> createQuery("byIds", null, ID_IN, Map.of("ids", chunk)).all());
+    }
+
+    @Override
+    public Mono<Long> insertAll(List<Member> members) {
+        return entityManager.insertAll(Member.class, members);
     }
 
     private Member process(Row row, RowMetadata metadata) {
@@ -84,8 +170,7 @@ class MemberRepositoryInternalImpl extends SimpleR2dbcRepository<Member, Long> i
         return entity;
     }
 
-    @Override
-    public <S extends Member> Mono<S> save(S entity) {
-        return super.save(entity);
+    private static Member copy(Member member) {
+        return new Member().id(member.getId()).name(member.getName()).email(member.getEmail()).joinDate(member.getJoinDate());
     }
 }
@@ -0,0 +1,56 @@
+package com.mycompany.myapp.repository;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import reactor.core.publisher.Mono;
+
+/**
+ * Coalesces concurrent identical reads: the subscribers to a key share the query in flight for this key, if any.
+ * <p>
+ * A query is removed from the in-flight map as soon as it completes or fails, before its subscribers are signalled, so
+ * a later subscriber always runs a new query: nothing is cached beyond the query duration.
+ *
+ * @param <K> the type of the keys.
+ * @param <V> the type of the values.
+ */
+class SingleFlight<K, V> {
+
+    private final Map<K, Mono<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Subscribe to the query in flight for the key, or start it.
+     * @param key the key of the query.
+     * @param query the query.
+     * @return the shared result of the query.
+     */
+    Mono<V> share(K key, Supplier<Mono<V>> query) {
+        return Mono.defer(() -> {
+            Mono<V> current = inFlight.get(key);
+            if (current != null) {
+                return current;
+            }
+            AtomicReference<Mono<V>> self = new AtomicReference<>();
+            Mono<V> flight = Mono.defer(query).doOnEach(signal -> inFlight.remove(key, self.get())).share();
+            self.set(flight);
+            current = inFlight.putIfAbsent(key, flight);
+            return current != null ? current : flight;
+        });
+    }
+
+    /**
+     * Forget the query in flight for the key, so the next subscribers run a new one, after a write for instance.
+     * @param key the key of the query.
+     */
+    void forget(K key) {
+        inFlight.remove(key);
+    }
+
+    /**
+     * Forget all the queries in flight, after a write to all the keys.
+     */
+    void forgetAll() {
+        inFlight.clear();
+    }
+}
@@ -0,0 +1,61 @@
+package com.mycompany.myapp.repository;
+
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.reactive.TransactionSynchronization;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.publisher.Mono;
+
+/**
+ * Utility class running actions once the current reactive transaction is over, like the updates of the in-memory copies
+ * of the written entities, which must not see the writes rolled back.
+ */
+public final class TransactionCallbacks {
+
+    private TransactionCallbacks() {}
+
+    /**
+     * Run an action once the current transaction commits, or now if there is no transaction.
+     *
+     * @param action the action, not run if the transaction rolls back.
+     * @return a {@link Mono} completing once the action is run, or registered to be run.
+     */
+    public static Mono<Void> afterCommit(Runnable action) {
+        return register(
+            new TransactionSynchronization() {
+                @Override
+                public Mono<Void> afterCommit() {
+                    return Mono.fromRunnable(action);
+                }
+            },
+            Mono.fromRunnable(action)
+        );
+    }
+
+    /**
+     * Run an action once the current transaction completes, committed or rolled back. Nothing is run if there is no
+     * transaction.
+     *
+     * @param action the action.
+     * @return a {@link Mono} completing once the action is registered to be run.
+     */
+    public static Mono<Void> afterCompletion(Runnable action) {
+        return register(
+            new TransactionSynchronization() {
+                @Override
+                public Mono<Void> afterCompletion(int status) {
+                    return Mono.fromRunnable(action);
+                }
+            },
+            Mono.empty()
+        );
+    }
+
+    private static Mono<Void> register(TransactionSynchronization synchronization, Mono<Void> withoutTransaction) {
+        return TransactionSynchronizationManager.forCurrentTransaction()
+            .filter(TransactionSynchronizationManager::isSynchronizationActive)
+            .doOnNext(synchronizationManager -> synchronizationManager.registerSynchronization(synchronization))
+            .switchIfEmpty(withoutTransaction.then(Mono.empty()))
+            .onErrorResume(NoTransactionException.class, e -> withoutTransaction.then(Mono.empty()))
+            .then();
+    }
+}
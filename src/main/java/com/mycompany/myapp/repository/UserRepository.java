@@ -6,14 +6,15 @@ import static org.springframework.data.relational.core.query.Query.query;
 import com.mycompany.myapp.domain.Authority;
 import com.mycompany.myapp.domain.User;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
-import org.apache.commons.beanutils.BeanComparator;
 import org.springframework.data.domain.*;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.r2dbc.convert.R2dbcConverter;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.r2dbc.core.StatementMapper;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
 import org.springframework.r2dbc.core.DatabaseClient;
@@ -44,14 +45,8 @@ public interface UserRepository extends R2dbcRepository<User, Long>, UserReposit
 
     Mono<Long> count();
 
-    @Query("INSERT INTO jhi_user_authority VALUES(:userId, :authority)")
-    Mono<Void> saveUserAuthority(Long userId, String authority);
-
     @Query("DELETE FROM jhi_user_authority")
     Mono<Void> deleteAllUserAuthorities();
-
-    @Query("DELETE FROM jhi_user_authority WHERE user_id = :userId")
-    Mono<Void> deleteUserAuthorities(Long userId);
 }
 
 interface DeleteExtended<T> {
@@ -64,18 +59,41 @@ interface UserRepositoryInternal extends DeleteExtended<User> {
     Mono<User> findOneWithAuthoritiesByEmailIgnoreCase(String email);
 
     Flux<User> findAllWithAuthorities(Pageable pageable);
+
+    Flux<User> findAllWithAuthoritiesAfter(Long afterId, int size);
+
+    Mono<Void> addUserAuthorities(Long userId, Collection<String> authorities);
+
+    Mono<Void> updateUserAuthorities(Long userId, Collection<String> authorities);
 }
 
 class UserRepositoryInternalImpl implements UserRepositoryInternal {
 
+    private static final String USER_TABLE = "jhi_user";
+
+    private static final EntityManager.LinkTable USER_AUTHORITY = new EntityManager.LinkTable(
+        "jhi_user_authority",
+        "user_id",
+        "authority_name"
+    );
+
     private final DatabaseClient db;
     private final R2dbcEntityTemplate r2dbcEntityTemplate;
     private final R2dbcConverter r2dbcConverter;
-
-    public UserRepositoryInternalImpl(DatabaseClient db, R2dbcEntityTemplate r2dbcEntityTemplate, R2dbcConverter r2dbcConverter) {
+    private final EntityManager entityManager;
+    private final StatementMapper statementMapper;
+
+    public UserRepositoryInternalImpl(
+        DatabaseClient db,
+        R2dbcEntityTemplate r2dbcEntityTemplate,
+        R2dbcConverter r2dbcConverter,
+        EntityManager entityManager
+    ) {
         this.db = db;
         this.r2dbcEntityTemplate = r2dbcEntityTemplate;
         this.r2dbcConverter = r2dbcConverter;
+        this.entityManager = entityManager;
+        this.statementMapper = r2dbcEntityTemplate.getDataAccessStrategy().getStatementMapper().forType(User.class);
     }
 
     @Override
@@ -90,28 +108,72 @@ class UserRepositoryInternalImpl implements UserRepositoryInternal {
 
     @Override
     public Flux<User> findAllWithAuthorities(Pageable pageable) {
-        String property = pageable.getSort().stream().map(Sort.Order::getProperty).findFirst().orElse("id");
-        String direction = String.valueOf(
-            pageable.getSort().stream().map(Sort.Order::getDirection).findFirst().orElse(Sort.DEFAULT_DIRECTION)
-        );
-        long page = pageable.getPageNumber();
-        long size = pageable.getPageSize();
+        // the id makes the order deterministic, so the pages don't overlap
+        Sort sort = pageable.getSort().getOrderFor("id") == null ? pageable.getSort().and(Sort.by("id")) : pageable.getSort();
+        StatementMapper.SelectSpec select = statementMapper
+            .createSelect(USER_TABLE)
+            .withProjection("id")
+            .withPage(PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort));
+        return findAllWithAuthoritiesByIds(select);
+    }
+
+    @Override
+    public Flux<User> findAllWithAuthoritiesAfter(Long afterId, int size) {
+        StatementMapper.SelectSpec select = statementMapper
+            .createSelect(USER_TABLE)
+            .withProjection("id")
+            .withPage(PageRequest.of(0, size, Sort.by("id")));
+        if (afterId != null) {
+            select = select.withCriteria(where("id").greaterThan(afterId));
+        }
+        return findAllWithAuthoritiesByIds(select);
+    }
 
+    /**
+     * Read the ids of a page in the database, then the users with their authorities for these ids only, in the order of the page.
+     */
+    private Flux<User> findAllWithAuthoritiesByIds(StatementMapper.SelectSpec idSelect) {
         return db
-            .sql("SELECT * FROM jhi_user u LEFT JOIN jhi_user_authority ua ON u.id=ua.user_id")
-            .map((row, metadata) ->
-                Tuples.of(r2dbcConverter.read(User.class, row, metadata), Optional.ofNullable(row.get("authority_name", String.class)))
-            )
+            .sql(statementMapper.getMappedObject(idSelect))
+            .map(row -> row.get("id", Long.class))
             .all()
-            .groupBy(t -> t.getT1().getLogin())
-            .flatMap(l -> l.collectList().map(t -> updateUserWithAuthorities(t.get(0).getT1(), t)))
-            .sort(
-                Sort.Direction.fromString(direction) == Sort.DEFAULT_DIRECTION
-                    ? new BeanComparator<>(property)
-                    : new BeanComparator<>(property).reversed()
-            )
-            .skip(page * size)
-            .take(size);
+            .collectList()
+            .flatMapMany(ids -> {
+                if (ids.isEmpty()) {
+                    return Flux.empty();
+                }
+                return db
+                    .sql("SELECT * FROM jhi_user u LEFT JOIN jhi_user_authority ua ON u.id=ua.user_id WHERE u.id IN (:ids)")
+                    .bind("ids", ids)
+                    .map((row, metadata) ->
+                        Tuples.of(
+                            r2dbcConverter.read(User.class, row, metadata),
+                            Optional.ofNullable(row.get("authority_name", String.class))
+                        )
+                    )
+                    .all()
+                    .collectMultimap(t -> t.getT1().getId())
+                    .flatMapIterable(byId ->
+                        ids
+                            .stream()
+                            .filter(byId::containsKey)
+                            .map(id -> {
+                                List<Tuple2<User, Optional<String>>> tuples = List.copyOf(byId.get(id));
+                                return updateUserWithAuthorities(tuples.get(0).getT1(), tuples);
+                            })
+                            .toList()
+                    );
+            });
+    }
+
+    @Override
+    public Mono<Void> addUserAuthorities(Long userId, Collection<String> authorities) {
+        return entityManager.addToLinkTable(USER_AUTHORITY, userId, authorities.stream()).then();
+    }
+
+    @Override
+    public Mono<Void> updateUserAuthorities(Long userId, Collection<String> authorities) {
+        return entityManager.updateLinkTable(USER_AUTHORITY, userId, authorities.stream()).then();
     }
 
     @Override
@@ -11,10 +11,17 @@ import org.springframework.stereotype.Service;
 @Service
 public class BookRowMapper implements BiFunction<Row, String, Book> {
 
-    private final ColumnConverter converter;
+    private final CompiledRowMapper<Book> mapper;
 
     public BookRowMapper(ColumnConverter converter) {
-        this.converter = converter;
+        this.mapper = CompiledRowMapper.builder(Book::new, converter)
+            .column("id", Long.class, Book::setId)
+            .column("title", String.class, Book::setTitle)
+            .column("author", String.class, Book::setAuthor)
+            .column("published_year", Integer.class, Book::setPublishedYear)
+            .column("price", Double.class, Book::setPrice)
+            .column("available", Boolean.class, Book::setAvailable)
+            .build();
     }
 
     /**
@@ -23,13 +30,6 @@ public class BookRowMapper implements BiFunction<Row, String, Book> {
      */
     @Override
     public Book apply(Row row, String prefix) {
-        Book entity = new Book();
-        entity.setId(converter.fromRow(row, prefix + "_id", Long.class));
-        entity.setTitle(converter.fromRow(row, prefix + "_title", String.class));
-        entity.setAuthor(converter.fromRow(row, prefix + "_author", String.class));
-        entity.setPublishedYear(converter.fromRow(row, prefix + "_published_year", Integer.class));
-        entity.setPrice(converter.fromRow(row, prefix + "_price", Double.class));
-        entity.setAvailable(converter.fromRow(row, prefix + "_available", Boolean.class));
-        return entity;
+        return mapper.map(row, prefix);
     }
 }
@@ -12,10 +12,16 @@ import org.springframework.stereotype.Service;
 @Service
 public class BorrowRowMapper implements BiFunction<Row, String, Borrow> {
 
-    private final ColumnConverter converter;
+    private final CompiledRowMapper<Borrow> mapper;
 
     public BorrowRowMapper(ColumnConverter converter) {
-        this.converter = converter;
+        this.mapper = CompiledRowMapper.builder(Borrow::new, converter)
+            .column("id", Long.class, Borrow::setId)
+            .column("borrow_date", Instant.class, Borrow::setBorrowDate)
+            .column("return_date", Instant.class, Borrow::setReturnDate)
+            .column("member_id", Long.class, Borrow::setMemberId)
+            .column("book_id", Long.class, Borrow::setBookId)
+            .build();
     }
 
     /**
@@ -24,12 +30,6 @@ public class BorrowRowMapper implements BiFunction<Row, String, Borrow> {
      */
     @Override
     public Borrow apply(Row row, String prefix) {
-        Borrow entity = new Borrow();
-        entity.setId(converter.fromRow(row, prefix + "_id", Long.class));
-        entity.setBorrowDate(converter.fromRow(row, prefix + "_borrow_date", Instant.class));
-        entity.setReturnDate(converter.fromRow(row, prefix + "_return_date", Instant.class));
-        entity.setMemberId(converter.fromRow(row, prefix + "_member_id", Long.class));
-        entity.setBookId(converter.fromRow(row, prefix + "_book_id", Long.class));
-        return entity;
+        return mapper.map(row, prefix);
     }
 }
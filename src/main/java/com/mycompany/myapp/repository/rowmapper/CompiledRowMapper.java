@@ -0,0 +1,163 @@
+package com.mycompany.myapp.repository.rowmapper;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.r2dbc.spi.ColumnMetadata;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Maps a {@link Row} to an entity, reading the columns by index.
+ * <p>
+ * The position of every column and the way its value is converted are resolved once per column prefix and layout of
+ * the result, and looked up by {@link RowMetadata}, which the driver shares between all the rows of a result: mapping a
+ * row doesn't build any column name, and doesn't rely on exceptions to find out if the driver can decode a value to the
+ * expected type. Concurrent results with different layouts each keep their plan.
+ *
+ * @param <T> the type of the entity.
+ */
+public final class CompiledRowMapper<T> {
+
+    private final Supplier<T> factory;
+    private final List<Field<T, ?>> fields;
+    private final ColumnConverter converter;
+
+    // the plans per column prefix and layout, there are as many layouts as queries
+    private final Map<Layout, Plan<T>> plans = new ConcurrentHashMap<>();
+    // the plans of the results being mapped, per column prefix, forgotten with their metadata
+    private final Cache<RowMetadata, Map<String, Plan<T>>> resolved = Caffeine.newBuilder().weakKeys().build();
+
+    private CompiledRowMapper(Supplier<T> factory, List<Field<T, ?>> fields, ColumnConverter converter) {
+        this.factory = factory;
+        this.fields = List.copyOf(fields);
+        this.converter = converter;
+    }
+
+    public static <T> Builder<T> builder(Supplier<T> factory, ColumnConverter converter) {
+        return new Builder<>(factory, converter);
+    }
+
+    /**
+     * Take a {@link Row} and a column prefix, and extract all the fields.
+     * @param row the row.
+     * @param prefix the prefix of the columns, like {@code "e"}.
+     * @return the entity.
+     */
+    public T map(Row row, String prefix) {
+        RowMetadata metadata = row.getMetadata();
+        Map<String, Plan<T>> resultPlans = resolved.get(metadata, key -> new ConcurrentHashMap<>());
+        Plan<T> plan = resultPlans.get(prefix);
+        if (plan == null) {
+            plan = plans.computeIfAbsent(Layout.of(prefix, metadata), layout -> compile(metadata, prefix));
+            resultPlans.put(prefix, plan);
+        }
+        return plan.map(row, factory.get());
+    }
+
+    /**
+     * @return the number of plans compiled, one per column prefix and layout.
+     */
+    int compiledPlans() {
+        return plans.size();
+    }
+
+    private Plan<T> compile(RowMetadata metadata, String prefix) {
+        List<? extends ColumnMetadata> columns = metadata.getColumnMetadatas();
+        int[] indexes = new int[fields.size()];
+        Reader[] readers = new Reader[fields.size()];
+        for (int i = 0; i < fields.size(); i++) {
+            Field<T, ?> field = fields.get(i);
+            indexes[i] = indexOf(columns, prefix + "_" + field.column());
+            readers[i] = reader(columns.get(indexes[i]).getJavaType(), field.type());
+        }
+        return new Plan<>(indexes, readers, fields);
+    }
+
+    private static int indexOf(List<? extends ColumnMetadata> columns, String name) {
+        for (int i = 0; i < columns.size(); i++) {
+            if (columns.get(i).getName().equalsIgnoreCase(name)) {
+                return i;
+            }
+        }
+        throw new NoSuchElementException("Column " + name + " does not exist");
+    }
+
+    private Reader reader(Class<?> javaType, Class<?> target) {
+        if (javaType != null && target.isAssignableFrom(ClassUtils.resolvePrimitiveIfNecessary(javaType))) {
+            // the driver decodes the column to the expected type
+            return (row, index) -> row.get(index, target);
+        }
+        return (row, index) -> converter.convert(row.get(index), target);
+    }
+
+    @FunctionalInterface
+    private interface Reader {
+        Object read(Row row, int index);
+    }
+
+    private record Field<T, V>(String column, Class<V> type, BiConsumer<T, V> setter) {
+        @SuppressWarnings("unchecked")
+        void set(T entity, Object value) {
+            setter.accept(entity, (V) value);
+        }
+    }
+
+    /**
+     * The column prefix, and the names and types of all the columns of a result.
+     */
+    private record Layout(String prefix, List<String> columns) {
+        static Layout of(String prefix, RowMetadata metadata) {
+            return new Layout(
+                prefix,
+                metadata
+                    .getColumnMetadatas()
+                    .stream()
+                    .map(column -> column.getName() + ":" + column.getJavaType())
+                    .toList()
+            );
+        }
+    }
+
+    private record Plan<T>(int[] indexes, Reader[] readers, List<Field<T, ?>> fields) {
+        T map(Row row, T entity) {
+            for (int i = 0; i < indexes.length; i++) {
+                fields.get(i).set(entity, readers[i].read(row, indexes[i]));
+            }
+            return entity;
+        }
+    }
+
+    /**
+     * Builder of a {@link CompiledRowMapper}, listing the columns of the entity without their prefix.
+     *
+     * @param <T> the type of the entity.
+     */
+    public static final class Builder<T> {
+
+        private final Supplier<T> factory;
+        private final ColumnConverter converter;
+        private final List<Field<T, ?>> fields = new ArrayList<>();
+
+        private Builder(Supplier<T> factory, ColumnConverter converter) {
+            this.factory = factory;
+            this.converter = converter;
+        }
+
+        public <V> Builder<T> column(String column, Class<V> type, BiConsumer<T, V> setter) {
+            fields.add(new Field<>(column, type, setter));
+            return this;
+        }
+
+        public CompiledRowMapper<T> build() {
+            return new CompiledRowMapper<>(factory, fields, converter);
+        }
+    }
+}
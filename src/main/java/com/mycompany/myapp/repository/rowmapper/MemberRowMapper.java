@@ -12,10 +12,15 @@ import org.springframework.stereotype.Service;
 @Service
 public class MemberRowMapper implements BiFunction<Row, String, Member> {
 
-    private final ColumnConverter converter;
+    private final CompiledRowMapper<Member> mapper;
 
     public MemberRowMapper(ColumnConverter converter) {
-        this.converter = converter;
+        this.mapper = CompiledRowMapper.builder(Member::new, converter)
+            .column("id", Long.class, Member::setId)
+            .column("name", String.class, Member::setName)
+            .column("email", String.class, Member::setEmail)
+            .column("join_date", Instant.class, Member::setJoinDate)
+            .build();
     }
 
     /**
@@ -24,11 +29,6 @@ public class MemberRowMapper implements BiFunction<Row, String, Member> {
      */
     @Override
     public Member apply(Row row, String prefix) {
-        Member entity = new Member();
-        entity.setId(converter.fromRow(row, prefix + "_id", Long.class));
-        entity.setName(converter.fromRow(row, prefix + "_name", String.class));
-        entity.setEmail(converter.fromRow(row, prefix + "_email", String.class));
-        entity.setJoinDate(converter.fromRow(row, prefix + "_join_date", Instant.class));
-        return entity;
+        return mapper.map(row, prefix);
     }
 }
@@ -12,10 +12,23 @@ import org.springframework.stereotype.Service;
 @Service
 public class UserRowMapper implements BiFunction<Row, String, User> {
 
-    private final ColumnConverter converter;
+    private final CompiledRowMapper<User> mapper;
 
     public UserRowMapper(ColumnConverter converter) {
-        this.converter = converter;
+        this.mapper = CompiledRowMapper.builder(User::new, converter)
+            .column("id", Long.class, User::setId)
+            .column("login", String.class, User::setLogin)
+            .column("password", String.class, User::setPassword)
+            .column("first_name", String.class, User::setFirstName)
+            .column("last_name", String.class, User::setLastName)
+            .column("email", String.class, User::setEmail)
+            .column("activated", Boolean.class, (entity, activated) -> entity.setActivated(Boolean.TRUE.equals(activated)))
+            .column("lang_key", String.class, User::setLangKey)
+            .column("image_url", String.class, User::setImageUrl)
+            .column("activation_key", String.class, User::setActivationKey)
+            .column("reset_key", String.class, User::setResetKey)
+            .column("reset_date", Instant.class, User::setResetDate)
+            .build();
     }
 
     /**
@@ -24,19 +37,6 @@ public class UserRowMapper implements BiFunction<Row, String, User> {
      */
     @Override
     public User apply(Row row, String prefix) {
-        User entity = new User();
-        entity.setId(row.get(prefix + "_id", Long.class));
-        entity.setLogin(converter.fromRow(row, prefix + "_login", String.class));
-        entity.setPassword(converter.fromRow(row, prefix + "_password", String.class));
-        entity.setFirstName(converter.fromRow(row, prefix + "_first_name", String.class));
-        entity.setLastName(converter.fromRow(row, prefix + "_last_name", String.class));
-        entity.setEmail(converter.fromRow(row, prefix + "_email", String.class));
-        entity.setActivated(Boolean.TRUE.equals(converter.fromRow(row, prefix + "_activated", Boolean.class)));
-        entity.setLangKey(converter.fromRow(row, prefix + "_lang_key", String.class));
-        entity.setImageUrl(converter.fromRow(row, prefix + "_image_url", String.class));
-        entity.setActivationKey(converter.fromRow(row, prefix + "_activation_key", String.class));
-        entity.setResetKey(converter.fromRow(row, prefix + "_reset_key", String.class));
-        entity.setResetDate(converter.fromRow(row, prefix + "_reset_date", Instant.class));
-        return entity;
+        return mapper.map(row, prefix);
     }
 }
@@ -0,0 +1,98 @@
+package com.mycompany.myapp.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link ReactiveJwtDecoder} caching the tokens verified by another decoder, so a token sent again is only hashed and
+ * looked up, instead of parsed and verified.
+ * <p>
+ * The tokens are cached by their SHA-256 digest, so the cache doesn't hold usable credentials, until they expire: a
+ * token without an expiration isn't cached. The invalid tokens are never cached, so the decoder behind still sees (and
+ * counts) every invalid or expired token. The hits and misses are published as {@code cache.*} metrics, tagged with
+ * {@code cache=jwt}.
+ */
+public class CachingReactiveJwtDecoder implements ReactiveJwtDecoder {
+
+    private final ReactiveJwtDecoder delegate;
+    private final Cache<String, Jwt> cache;
+    private final Clock clock;
+
+    public CachingReactiveJwtDecoder(ReactiveJwtDecoder delegate, long maxEntries, MeterRegistry meterRegistry) {
+        this(delegate, maxEntries, meterRegistry, Clock.systemUTC());
+    }
+
+    CachingReactiveJwtDecoder(ReactiveJwtDecoder delegate, long maxEntries, MeterRegistry meterRegistry, Clock clock) {
+        this.delegate = delegate;
+        this.clock = clock;
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maxEntries)
+            .expireAfter(new ExpiresAt())
+            .ticker(() -> TimeUnit.MILLISECONDS.toNanos(clock.millis()))
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt");
+    }
+
+    @Override
+    public Mono<Jwt> decode(String token) throws JwtException {
+        String digest = digest(token);
+        Jwt cached = cache.getIfPresent(digest);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        return delegate
+            .decode(token)
+            .doOnNext(jwt -> {
+                if (jwt.getExpiresAt() != null && jwt.getExpiresAt().isAfter(clock.instant())) {
+                    cache.put(digest, jwt);
+                }
+            });
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported", e);
+        }
+    }
+
+    /**
+     * Expires a cached token at its own expiration time.
+     */
+    private final class ExpiresAt implements Expiry<String, Jwt> {
+
+        @Override
+        public long expireAfterCreate(String digest, Jwt jwt, long currentTime) {
+            Instant expiresAt = jwt.getExpiresAt();
+            return expiresAt == null ? 0 : Math.max(0, Duration.between(clock.instant(), expiresAt).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String digest, Jwt jwt, long currentTime, long currentDuration) {
+            return expireAfterCreate(digest, jwt, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String digest, Jwt jwt, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.mycompany.myapp.security;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Scheduler dedicated to hashing and matching passwords, which is CPU bound and slow on purpose, so a burst of logins
+ * can't starve the other blocking work of {@link Schedulers#boundedElastic()}.
+ * <p>
+ * It has a fixed number of threads and a bounded queue: when both are full, the work is rejected right away with a
+ * {@link java.util.concurrent.RejectedExecutionException}, answered with {@code 503 (Service Unavailable)}. The pool is
+ * published as {@code executor.*} metrics named {@code password.hashing}: queued tasks, active threads, time spent
+ * waiting in the queue ({@code executor.idle}) and hashing ({@code executor}).
+ */
+@Component
+public class PasswordHashingScheduler implements DisposableBean {
+
+    public static final String METRIC_NAME = "password.hashing";
+
+    private final Scheduler scheduler;
+
+    public PasswordHashingScheduler(ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        ApplicationProperties.Password properties = applicationProperties.getPassword();
+        int threads = properties.getHashingThreads() > 0 ? properties.getHashingThreads() : Runtime.getRuntime().availableProcessors();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            threads,
+            threads,
+            0,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(Math.max(1, properties.getHashingQueueCapacity())),
+            threadFactory(),
+            new ThreadPoolExecutor.AbortPolicy()
+        );
+        this.scheduler = Schedulers.fromExecutorService(ExecutorServiceMetrics.monitor(meterRegistry, executor, METRIC_NAME), METRIC_NAME);
+    }
+
+    /**
+     * @return the scheduler to publish the password hashing and matching on.
+     */
+    public Scheduler getScheduler() {
+        return scheduler;
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.dispose();
+    }
+
+    private static ThreadFactory threadFactory() {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "password-hashing-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
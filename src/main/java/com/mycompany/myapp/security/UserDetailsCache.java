@@ -0,0 +1,64 @@
+package com.mycompany.myapp.security;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.repository.EntityCache;
+import com.mycompany.myapp.security.DomainUserDetailsService.UserWithId;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Objects;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Cache of the users authenticating, so a burst of logins doesn't read the same users and their authorities again and
+ * again. The users are cached by the key they authenticated with (their lowercase login or email) for a short time, and
+ * evicted when they are saved or deleted.
+ * <p>
+ * A copy of the cached user is returned on each hit, so erasing the credentials of an authenticated user doesn't erase
+ * the cached password.
+ */
+@Component
+public class UserDetailsCache {
+
+    private final EntityCache<String, UserWithId> cache;
+
+    public UserDetailsCache(ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        ApplicationProperties.UserCache properties = applicationProperties.getCache().getUsers();
+        this.cache = new EntityCache<>(
+            "users",
+            properties.getMaxEntries(),
+            properties.getTimeToLiveSeconds(),
+            UserDetailsCache::copy,
+            meterRegistry
+        );
+    }
+
+    /**
+     * Get the user from the cache, or load it and cache it.
+     * @param key the lowercase login or email of the user.
+     * @param loader loads the user from the database.
+     * @return a copy of the user, or the error of the loader.
+     */
+    Mono<UserWithId> get(String key, Supplier<Mono<UserWithId>> loader) {
+        return cache.get(key, login -> loader.get());
+    }
+
+    /**
+     * Evict a user which was written, now and again when the current transaction completes: until then, a concurrent
+     * login can still load (and cache) the previous version of the user.
+     * <p>
+     * The user is evicted by id, under all the keys it was cached with, as its login or email may just have changed.
+     * @param userId the id of the user.
+     * @return a {@link Mono} completing once the eviction is registered.
+     */
+    public Mono<Void> evictOnCompletion(Long userId) {
+        if (userId == null) {
+            return Mono.empty();
+        }
+        return cache.evictOnCompletion(user -> Objects.equals(user.getId(), userId));
+    }
+
+    private static UserWithId copy(UserWithId user) {
+        return new UserWithId(user.getUsername(), user.getPassword(), user.getAuthorities(), user.getId());
+    }
+}
@@ -0,0 +1,193 @@
+package com.mycompany.myapp.service;
+
+import com.carrotsearch.hppc.LongLongHashMap;
+import com.carrotsearch.hppc.LongObjectHashMap;
+import com.mycompany.myapp.service.AutocompleteService.Kind;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The completions of the titles and authors of the books, and of the names of the members, ranked by their number of
+ * borrows.
+ * <p>
+ * A completion is shared by the books with the same title, or author, and counts the borrows of all of them. It is stored
+ * under its whole text, and under the text starting at each of its words, so a prefix of any of its words completes it.
+ * <p>
+ * This class isn't thread-safe, but its prefixes can be completed by several threads at once while it isn't changed.
+ */
+final class AutocompleteIndex {
+
+    /**
+     * A completion, with the number of entities it completes and their number of borrows.
+     */
+    static final class Completion {
+
+        private final Kind kind;
+        private final String text;
+        private int entities;
+        private long borrows;
+
+        Completion(Kind kind, String text) {
+            this.kind = kind;
+            this.text = text;
+        }
+
+        Kind kind() {
+            return kind;
+        }
+
+        String text() {
+            return text;
+        }
+
+        long borrows() {
+            return borrows;
+        }
+    }
+
+    // the most borrowed first, then in alphabetical order
+    static final Comparator<Completion> MOST_BORROWED_FIRST = Comparator.comparingLong(Completion::borrows)
+        .reversed()
+        .thenComparing(Completion::text)
+        .thenComparing(Completion::kind);
+
+    private record Book(String title, String author) {}
+
+    private record Key(Kind kind, String text) {}
+
+    private final Map<Kind, AutocompleteTree<Completion>> trees = new EnumMap<>(Kind.class);
+    private final Map<Key, Completion> completions = new HashMap<>();
+    private final LongObjectHashMap<Book> books = new LongObjectHashMap<>();
+    private final LongObjectHashMap<String> members = new LongObjectHashMap<>();
+    private final LongLongHashMap bookBorrows = new LongLongHashMap();
+    private final LongLongHashMap memberBorrows = new LongLongHashMap();
+
+    AutocompleteIndex(int maxSuggestions) {
+        for (Kind kind : Kind.values()) {
+            trees.put(kind, new AutocompleteTree<>(maxSuggestions, MOST_BORROWED_FIRST));
+        }
+    }
+
+    /**
+     * Index a book, replacing its previous version.
+     */
+    void putBook(long id, String title, String author) {
+        removeBook(id);
+        books.put(id, new Book(title, author));
+        long borrows = bookBorrows.get(id);
+        add(Kind.TITLE, title, 1, borrows);
+        add(Kind.AUTHOR, author, 1, borrows);
+    }
+
+    void removeBook(long id) {
+        Book book = books.remove(id);
+        if (book != null) {
+            long borrows = bookBorrows.get(id);
+            add(Kind.TITLE, book.title(), -1, -borrows);
+            add(Kind.AUTHOR, book.author(), -1, -borrows);
+        }
+    }
+
+    /**
+     * Index a member, replacing its previous version.
+     */
+    void putMember(long id, String name) {
+        removeMember(id);
+        members.put(id, name);
+        add(Kind.MEMBER, name, 1, memberBorrows.get(id));
+    }
+
+    void removeMember(long id) {
+        String name = members.remove(id);
+        if (name != null) {
+            add(Kind.MEMBER, name, -1, -memberBorrows.get(id));
+        }
+    }
+
+    /**
+     * Count borrows of a book and of a member.
+     * @param bookId the id of the book, or {@code null}.
+     * @param memberId the id of the member, or {@code null}.
+     * @param delta the number of borrows, negative for deleted borrows.
+     */
+    void addBorrows(Long bookId, Long memberId, long delta) {
+        if (bookId != null) {
+            bookBorrows.addTo(bookId, delta);
+            Book book = books.get(bookId);
+            if (book != null) {
+                add(Kind.TITLE, book.title(), 0, delta);
+                add(Kind.AUTHOR, book.author(), 0, delta);
+            }
+        }
+        if (memberId != null) {
+            memberBorrows.addTo(memberId, delta);
+            String name = members.get(memberId);
+            if (name != null) {
+                add(Kind.MEMBER, name, 0, delta);
+            }
+        }
+    }
+
+    /**
+     * Complete a prefix.
+     * @param prefix the prefix, of a text or of one of its words.
+     * @param kinds the kinds of completions.
+     * @param limit the maximum number of completions.
+     * @return the completions, the most borrowed first.
+     */
+    List<Completion> complete(String prefix, Set<Kind> kinds, int limit) {
+        String normalized = SearchText.normalize(prefix);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+        List<Completion> found = new ArrayList<>();
+        for (Kind kind : kinds) {
+            found.addAll(trees.get(kind).complete(normalized, limit));
+        }
+        found.sort(MOST_BORROWED_FIRST);
+        return found.subList(0, Math.min(limit, found.size()));
+    }
+
+    private void add(Kind kind, String text, int entities, long borrows) {
+        if (text == null || SearchText.normalize(text).isEmpty()) {
+            return;
+        }
+        Key key = new Key(kind, text);
+        Completion completion = completions.computeIfAbsent(key, k -> new Completion(kind, text));
+        boolean added = completion.entities == 0;
+        completion.entities += entities;
+        completion.borrows += borrows;
+        AutocompleteTree<Completion> tree = trees.get(kind);
+        for (String treeKey : keys(text)) {
+            if (added) {
+                tree.put(treeKey, completion);
+            } else if (completion.entities == 0) {
+                tree.remove(treeKey, completion);
+            } else if (borrows != 0) {
+                tree.refresh(treeKey);
+            }
+        }
+        if (completion.entities == 0) {
+            completions.remove(key);
+        }
+    }
+
+    /**
+     * @return the normalized text, and the normalized text starting at each of its next words.
+     */
+    private static Set<String> keys(String text) {
+        String normalized = SearchText.normalize(text);
+        Set<String> keys = new LinkedHashSet<>();
+        keys.add(normalized);
+        for (int i = normalized.indexOf(' '); i >= 0; i = normalized.indexOf(' ', i + 1)) {
+            keys.add(normalized.substring(i + 1));
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,238 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.Book;
+import com.mycompany.myapp.domain.Borrow;
+import com.mycompany.myapp.domain.Member;
+import com.mycompany.myapp.repository.BookRepository;
+import com.mycompany.myapp.repository.BorrowCountProjection;
+import com.mycompany.myapp.repository.BorrowRepository;
+import com.mycompany.myapp.repository.MemberRepository;
+import com.mycompany.myapp.service.dto.AutocompleteSuggestionDTO;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Service completing the prefixes of the book titles, the authors and the member names in memory, the most borrowed first.
+ * <p>
+ * The completions are loaded with the book indexes by {@link BookIndexService}, then updated by every book, member and
+ * borrow created, changed or deleted through the REST API, once its transaction commits. The members imported in bulk
+ * don't come back with their ids, so an import reloads the completions. The borrows changed directly in the database
+ * are only seen after a {@link #rebuild()}, which the purge of the old borrows runs. Until the completions are loaded,
+ * the prefixes wait for them up to {@code application.projections.ready-timeout-millis}, then fail with a
+ * {@link ProjectionNotReadyException}.
+ */
+@Service
+public class AutocompleteService {
+
+    /**
+     * The kinds of completions.
+     */
+    public enum Kind {
+        TITLE("title"),
+        AUTHOR("author"),
+        MEMBER("member");
+
+        private final String code;
+
+        Kind(String code) {
+            this.code = code;
+        }
+
+        public String getCode() {
+            return code;
+        }
+
+        /**
+         * Find a kind by its code, like {@code title} or {@code member}.
+         * @param code the code of the kind.
+         * @return the kind, or an empty {@link Optional} if the code is unknown.
+         */
+        public static Optional<Kind> fromCode(String code) {
+            return Arrays.stream(values()).filter(kind -> kind.code.equals(code)).findFirst();
+        }
+    }
+
+    private final BookRepository bookRepository;
+    private final MemberRepository memberRepository;
+    private final BorrowRepository borrowRepository;
+    private final int maxSuggestions;
+
+    private final InMemoryProjection<AutocompleteIndex> projection;
+
+    public AutocompleteService(
+        BookRepository bookRepository,
+        MemberRepository memberRepository,
+        BorrowRepository borrowRepository,
+        ApplicationProperties applicationProperties
+    ) {
+        this.bookRepository = bookRepository;
+        this.memberRepository = memberRepository;
+        this.borrowRepository = borrowRepository;
+        this.maxSuggestions = applicationProperties.getAutocomplete().getMaxSuggestions();
+        this.projection = new InMemoryProjection<>("autocomplete index", new AutocompleteIndex(maxSuggestions), applicationProperties);
+    }
+
+    /**
+     * @return the maximum number of suggestions of a completion.
+     */
+    public int getMaxSuggestions() {
+        return maxSuggestions;
+    }
+
+    /**
+     * Rebuild the completions from the database, unless a rebuild is already running.
+     *
+     * @return a {@link Mono} completing once the completions are rebuilt.
+     * @see #rebuild(Mono)
+     */
+    public Mono<Void> rebuild() {
+        return rebuild(bookRepository.findAll().collectList());
+    }
+
+    /**
+     * Rebuild the completions from the books and the database, unless a rebuild is already running.
+     * <p>
+     * The prefixes are completed from the previous completions until the new ones are loaded. The books, members and
+     * borrows written while the database is read are applied to the new completions once loaded: a borrow committed right
+     * when the reading starts may be counted twice, until the next rebuild.
+     *
+     * @param books the books, read once subscribed.
+     * @return a {@link Mono} completing once the completions are rebuilt.
+     */
+    Mono<Void> rebuild(Mono<List<Book>> books) {
+        return projection.rebuild(
+            Mono.zip(
+                books,
+                memberRepository.findAll().collectList(),
+                borrowRepository.countBorrowsPerBook().collectList(),
+                borrowRepository.countBorrowsPerMember().collectList()
+            ).map(rows -> index(rows.getT1(), rows.getT2(), rows.getT3(), rows.getT4()))
+        );
+    }
+
+    /**
+     * Complete a prefix, once the completions are loaded.
+     * <p>
+     * The prefix completes the texts starting with it, or with a word starting with it, whatever the case and the accents.
+     * A title or an author counts the borrows of all its books, and a member name the borrows of all its members.
+     *
+     * @param prefix the prefix to complete.
+     * @param kinds the kinds of completions.
+     * @param limit the maximum number of suggestions, up to {@link #getMaxSuggestions()}.
+     * @return the suggestions, the most borrowed first, then in alphabetical order.
+     */
+    public Flux<AutocompleteSuggestionDTO> complete(String prefix, Set<Kind> kinds, int limit) {
+        return projection.read(index -> suggestions(index, prefix, kinds, limit)).flatMapIterable(suggestions -> suggestions);
+    }
+
+    /**
+     * Index a written book once the current transaction commits, or now if there is no transaction.
+     *
+     * @param book the book once written.
+     * @return a {@link Mono} completing once the book is indexed, or registered to be indexed.
+     */
+    Mono<Void> indexBookOnCommit(Book book) {
+        // the fields are read now, as the book may change before the transaction commits
+        long id = book.getId();
+        String title = book.getTitle();
+        String author = book.getAuthor();
+        return projection.changeOnCommit(index -> index.putBook(id, title, author));
+    }
+
+    /**
+     * Remove a deleted book once the current transaction commits, or now if there is no transaction.
+     *
+     * @param id the id of the book.
+     * @return a {@link Mono} completing once the book is removed, or registered to be removed.
+     */
+    Mono<Void> removeBookOnCommit(Long id) {
+        return projection.changeOnCommit(index -> index.removeBook(id));
+    }
+
+    /**
+     * Index a written member once the current transaction commits, or now if there is no transaction.
+     *
+     * @param member the member once written.
+     * @return a {@link Mono} completing once the member is indexed, or registered to be indexed.
+     */
+    Mono<Void> indexMemberOnCommit(Member member) {
+        long id = member.getId();
+        String name = member.getName();
+        return projection.changeOnCommit(index -> index.putMember(id, name));
+    }
+
+    /**
+     * Remove a deleted member once the current transaction commits, or now if there is no transaction.
+     *
+     * @param id the id of the member.
+     * @return a {@link Mono} completing once the member is removed, or registered to be removed.
+     */
+    Mono<Void> removeMemberOnCommit(Long id) {
+        return projection.changeOnCommit(index -> index.removeMember(id));
+    }
+
+    /**
+     * Count a written borrow once the current transaction commits, or now if there is no transaction.
+     *
+     * @param before the borrow before it was written, or {@code null} if it is created.
+     * @param after the borrow once written, or {@code null} if it is deleted.
+     * @return a {@link Mono} completing once the borrow is counted, or registered to be counted.
+     */
+    public Mono<Void> recordBorrowOnCommit(Borrow before, Borrow after) {
+        Long bookBefore = before == null ? null : before.getBookId();
+        Long memberBefore = before == null ? null : before.getMemberId();
+        Long bookAfter = after == null ? null : after.getBookId();
+        Long memberAfter = after == null ? null : after.getMemberId();
+        if (before != null && after != null && Objects.equals(bookBefore, bookAfter) && Objects.equals(memberBefore, memberAfter)) {
+            return Mono.empty();
+        }
+        return projection.changeOnCommit(index -> {
+            index.addBorrows(bookBefore, memberBefore, -1);
+            index.addBorrows(bookAfter, memberAfter, 1);
+        });
+    }
+
+    void load(List<Book> books, List<Member> members, List<BorrowCountProjection> bookBorrows, List<BorrowCountProjection> memberBorrows) {
+        projection.load(index(books, members, bookBorrows, memberBorrows));
+    }
+
+    void record(Consumer<AutocompleteIndex> change) {
+        projection.change(change);
+    }
+
+    List<AutocompleteSuggestionDTO> find(String prefix, Set<Kind> kinds, int limit) {
+        return projection.get(index -> suggestions(index, prefix, kinds, limit));
+    }
+
+    private AutocompleteIndex index(
+        List<Book> books,
+        List<Member> members,
+        List<BorrowCountProjection> bookBorrows,
+        List<BorrowCountProjection> memberBorrows
+    ) {
+        AutocompleteIndex index = new AutocompleteIndex(maxSuggestions);
+        // the borrows are counted first, so each completion is added to the trees with its final rank
+        bookBorrows.forEach(row -> index.addBorrows(row.getId(), null, row.getTotal()));
+        memberBorrows.forEach(row -> index.addBorrows(null, row.getId(), row.getTotal()));
+        books.forEach(book -> index.putBook(book.getId(), book.getTitle(), book.getAuthor()));
+        members.forEach(member -> index.putMember(member.getId(), member.getName()));
+        return index;
+    }
+
+    private static List<AutocompleteSuggestionDTO> suggestions(AutocompleteIndex index, String prefix, Set<Kind> kinds, int limit) {
+        // the borrows of the completions change with the index, so they are read under its lock
+        return index
+            .complete(prefix, kinds, limit)
+            .stream()
+            .map(completion -> new AutocompleteSuggestionDTO(completion.kind().getCode(), completion.text(), completion.borrows()))
+            .toList();
+    }
+}
@@ -0,0 +1,246 @@
+package com.mycompany.myapp.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A radix tree of completions: the keys sharing a prefix share the nodes of that prefix, and each edge holds the part of
+ * the keys between two branches.
+ * <p>
+ * Each node caches the {@code k} best completions of its subtree, so completing a prefix only walks the prefix. The cache
+ * of a node is the best of its own completions and of the caches of its children: when a key is added, removed, or its
+ * completions are ranked differently, only the nodes of its path are recomputed, from the deepest one up.
+ * <p>
+ * A completion can be stored under several keys, it is only returned once. This class isn't thread-safe, but its keys can
+ * be completed by several threads at once while it isn't changed.
+ *
+ * @param <T> the type of the completions.
+ */
+final class AutocompleteTree<T> {
+
+    private final int k;
+    private final Comparator<? super T> ranking;
+    private final Node<T> root = new Node<>("");
+
+    /**
+     * @param k the number of completions cached per node, the maximum returned by {@link #complete(String, int)}.
+     * @param ranking the order of the completions, the best first.
+     */
+    AutocompleteTree(int k, Comparator<? super T> ranking) {
+        this.k = Math.max(1, k);
+        this.ranking = ranking;
+    }
+
+    /**
+     * Add a completion under a key.
+     * @param key the key.
+     * @param completion the completion.
+     */
+    void put(String key, T completion) {
+        put(root, key, 0, completion);
+    }
+
+    /**
+     * Remove a completion from a key.
+     * @param key the key.
+     * @param completion the completion.
+     */
+    void remove(String key, T completion) {
+        remove(root, key, 0, completion);
+    }
+
+    /**
+     * Rank the completions of a key again, after they changed.
+     * @param key the key.
+     */
+    void refresh(String key) {
+        List<Node<T>> path = new ArrayList<>();
+        Node<T> node = root;
+        int depth = 0;
+        while (node != null) {
+            path.add(node);
+            if (depth == key.length()) {
+                break;
+            }
+            Node<T> child = node.child(key.charAt(depth));
+            if (child == null || !key.startsWith(child.label, depth)) {
+                break;
+            }
+            depth += child.label.length();
+            node = child;
+        }
+        for (int i = path.size() - 1; i >= 0; i--) {
+            updateTop(path.get(i));
+        }
+    }
+
+    /**
+     * Complete a prefix.
+     * @param prefix the prefix.
+     * @param limit the maximum number of completions, up to {@code k}.
+     * @return the best completions of the keys starting with the prefix, the best first.
+     */
+    List<T> complete(String prefix, int limit) {
+        Node<T> node = root;
+        int depth = 0;
+        while (depth < prefix.length()) {
+            Node<T> child = node.child(prefix.charAt(depth));
+            if (child == null) {
+                return List.of();
+            }
+            int remaining = prefix.length() - depth;
+            if (remaining <= child.label.length()) {
+                // the prefix ends on this edge
+                if (!child.label.startsWith(prefix.substring(depth))) {
+                    return List.of();
+                }
+            } else if (!prefix.startsWith(child.label, depth)) {
+                return List.of();
+            }
+            depth += child.label.length();
+            node = child;
+        }
+        return node.top.subList(0, Math.min(limit, node.top.size()));
+    }
+
+    private void put(Node<T> node, String key, int depth, T completion) {
+        if (depth == key.length()) {
+            if (!node.completions.contains(completion)) {
+                node.completions.add(completion);
+            }
+        } else {
+            int index = node.indexOf(key.charAt(depth));
+            if (index < 0) {
+                Node<T> leaf = new Node<>(key.substring(depth));
+                leaf.completions.add(completion);
+                updateTop(leaf);
+                node.insert(leaf);
+            } else {
+                Node<T> child = node.children[index];
+                int common = commonPrefixLength(child.label, key, depth);
+                if (common < child.label.length()) {
+                    // the key branches off this edge, which is split where it does
+                    Node<T> middle = new Node<>(child.label.substring(0, common));
+                    child.label = child.label.substring(common);
+                    middle.insert(child);
+                    node.children[index] = middle;
+                    child = middle;
+                }
+                put(child, key, depth + common, completion);
+            }
+        }
+        updateTop(node);
+    }
+
+    /**
+     * @return {@code true} if the node is left without completion nor child, and can be dropped.
+     */
+    private boolean remove(Node<T> node, String key, int depth, T completion) {
+        if (depth == key.length()) {
+            node.completions.remove(completion);
+        } else {
+            int index = node.indexOf(key.charAt(depth));
+            if (index < 0 || !key.startsWith(node.children[index].label, depth)) {
+                return false;
+            }
+            Node<T> child = node.children[index];
+            if (remove(child, key, depth + child.label.length(), completion)) {
+                node.removeChild(index);
+            } else if (child.completions.isEmpty() && child.children.length == 1) {
+                // the edges around a node without completion nor branch are merged back
+                Node<T> grandchild = child.children[0];
+                grandchild.label = child.label + grandchild.label;
+                node.children[index] = grandchild;
+            }
+        }
+        updateTop(node);
+        return node != root && node.completions.isEmpty() && node.children.length == 0;
+    }
+
+    private void updateTop(Node<T> node) {
+        List<T> candidates = new ArrayList<>(node.completions);
+        for (Node<T> child : node.children) {
+            candidates.addAll(child.top);
+        }
+        candidates.sort(ranking);
+        List<T> top = new ArrayList<>(Math.min(k, candidates.size()));
+        for (T candidate : candidates) {
+            if (top.size() == k) {
+                break;
+            }
+            // a completion stored under several keys of the subtree is only kept once
+            if (top.stream().noneMatch(kept -> kept == candidate)) {
+                top.add(candidate);
+            }
+        }
+        node.top = top;
+    }
+
+    private static int commonPrefixLength(String label, String key, int depth) {
+        int length = Math.min(label.length(), key.length() - depth);
+        int i = 0;
+        while (i < length && label.charAt(i) == key.charAt(depth + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * A node, with the label of the edge leading to it, and its children sorted by the first character of their label.
+     */
+    private static final class Node<T> {
+
+        private String label;
+        private char[] firstChars = new char[0];
+        private Node<T>[] children = newArray(0);
+        private final List<T> completions = new ArrayList<>(1);
+        private List<T> top = List.of();
+
+        Node(String label) {
+            this.label = label;
+        }
+
+        int indexOf(char c) {
+            int index = Arrays.binarySearch(firstChars, c);
+            return index >= 0 ? index : -1;
+        }
+
+        Node<T> child(char c) {
+            int index = indexOf(c);
+            return index >= 0 ? children[index] : null;
+        }
+
+        void insert(Node<T> child) {
+            char c = child.label.charAt(0);
+            int index = -Arrays.binarySearch(firstChars, c) - 1;
+            char[] chars = new char[firstChars.length + 1];
+            Node<T>[] nodes = newArray(children.length + 1);
+            System.arraycopy(firstChars, 0, chars, 0, index);
+            System.arraycopy(children, 0, nodes, 0, index);
+            chars[index] = c;
+            nodes[index] = child;
+            System.arraycopy(firstChars, index, chars, index + 1, firstChars.length - index);
+            System.arraycopy(children, index, nodes, index + 1, children.length - index);
+            firstChars = chars;
+            children = nodes;
+        }
+
+        void removeChild(int index) {
+            char[] chars = new char[firstChars.length - 1];
+            Node<T>[] nodes = newArray(children.length - 1);
+            System.arraycopy(firstChars, 0, chars, 0, index);
+            System.arraycopy(children, 0, nodes, 0, index);
+            System.arraycopy(firstChars, index + 1, chars, index, chars.length - index);
+            System.arraycopy(children, index + 1, nodes, index, nodes.length - index);
+            firstChars = chars;
+            children = nodes;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> Node<T>[] newArray(int length) {
+            return (Node<T>[]) new Node<?>[length];
+        }
+    }
+}
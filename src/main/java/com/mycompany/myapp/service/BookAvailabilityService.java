@@ -0,0 +1,146 @@
+package com.mycompany.myapp.service;
+
+import com.carrotsearch.hppc.BitSet;
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.Book;
+import com.mycompany.myapp.repository.BookRepository;
+import com.mycompany.myapp.repository.TransactionCallbacks;
+import com.mycompany.myapp.service.dto.BookAvailabilityDTO;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Service keeping the availability of the books in memory, as a bitset indexed by book id, so the available books are
+ * read without scanning the book table, and their changes are streamed.
+ * <p>
+ * The bitset is loaded with the other book indexes by {@link BookIndexService}, then updated by every book created,
+ * changed or deleted through the REST API, and every book lent or returned, once its transaction commits. The books
+ * changed directly in the database are only seen after a rebuild, and without a change streamed. Until the bitset is
+ * loaded, the reads wait for it up to {@code application.projections.ready-timeout-millis}, then fail with a
+ * {@link ProjectionNotReadyException}.
+ */
+@Service
+public class BookAvailabilityService {
+
+    private final BookRepository bookRepository;
+
+    private final InMemoryProjection<BitSet> projection;
+    // the slow subscribers miss the changes they can't keep up with, instead of holding the others back
+    private final Sinks.Many<BookAvailabilityDTO> changes = Sinks.many().multicast().directBestEffort();
+
+    public BookAvailabilityService(BookRepository bookRepository, ApplicationProperties applicationProperties) {
+        this.bookRepository = bookRepository;
+        this.projection = new InMemoryProjection<>("book availability", new BitSet(), applicationProperties);
+    }
+
+    /**
+     * Rebuild the bitset from the books, unless a rebuild is already running.
+     * <p>
+     * The available books are read from the previous bitset until the new one is loaded. The availabilities written while
+     * the books are read are applied to the new bitset once loaded.
+     *
+     * @param books the books, read once subscribed.
+     * @return a {@link Mono} completing once the bitset is rebuilt.
+     */
+    Mono<Void> rebuild(Mono<List<Book>> books) {
+        return projection.rebuild(
+            books.map(loaded -> bitSet(loaded.stream().filter(BookAvailabilityService::isAvailable).map(Book::getId).toList()))
+        );
+    }
+
+    /**
+     * Get the next available books, once the bitset is loaded.
+     *
+     * @param afterId the id the books come after, or {@code null} from the first one.
+     * @param size the maximum number of books.
+     * @return the available books, by increasing id.
+     */
+    public Flux<Book> findAvailable(Long afterId, int size) {
+        return projection.whenReady().thenMany(Flux.defer(() -> bookRepository.findAllByIds(findAvailableIds(afterId, size))));
+    }
+
+    /**
+     * Stream the changes of availability of the books, from now on.
+     *
+     * @return the changes, as they are committed.
+     */
+    public Flux<BookAvailabilityDTO> streamChanges() {
+        return changes.asFlux();
+    }
+
+    /**
+     * Record the availability of a written book once the current transaction commits, or now if there is no transaction.
+     *
+     * @param book the book once written.
+     * @return a {@link Mono} completing once the availability is recorded, or registered to be recorded.
+     */
+    Mono<Void> recordOnCommit(Book book) {
+        return recordOnCommit(book.getId(), isAvailable(book));
+    }
+
+    /**
+     * Record the availability of a book once the current transaction commits, or now if there is no transaction.
+     *
+     * @param id the id of the book.
+     * @param isAvailable {@code true} if the book is available, {@code false} if it is lent or deleted.
+     * @return a {@link Mono} completing once the availability is recorded, or registered to be recorded.
+     */
+    Mono<Void> recordOnCommit(Long id, boolean isAvailable) {
+        return TransactionCallbacks.afterCommit(() -> record(id, isAvailable));
+    }
+
+    void load(List<Long> ids) {
+        projection.load(bitSet(ids));
+    }
+
+    void record(Long id, boolean isAvailable) {
+        // the changes are emitted one at a time, so in order, and only by the loaded bitset, not by its replays
+        synchronized (changes) {
+            if (Boolean.TRUE.equals(projection.apply(available -> set(available, id, isAvailable)))) {
+                changes.tryEmitNext(new BookAvailabilityDTO(id, isAvailable));
+            }
+        }
+    }
+
+    List<Long> findAvailableIds(Long afterId, int size) {
+        return projection.get(available -> {
+            List<Long> ids = new ArrayList<>(size);
+            long id = available.nextSetBit(afterId == null ? 0 : Math.max(0, afterId + 1));
+            while (id >= 0 && ids.size() < size) {
+                ids.add(id);
+                id = available.nextSetBit(id + 1);
+            }
+            return ids;
+        });
+    }
+
+    private static boolean isAvailable(Book book) {
+        // a book without availability is considered available
+        return !Boolean.FALSE.equals(book.getAvailable());
+    }
+
+    private static BitSet bitSet(List<Long> ids) {
+        BitSet bitSet = new BitSet();
+        ids.forEach(bitSet::set);
+        return bitSet;
+    }
+
+    /**
+     * @return {@code true} if the availability of the book changed.
+     */
+    private static boolean set(BitSet bitSet, long id, boolean isAvailable) {
+        if (bitSet.get(id) == isAvailable) {
+            return false;
+        }
+        if (isAvailable) {
+            bitSet.set(id);
+        } else {
+            bitSet.clear(id);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,255 @@
+package com.mycompany.myapp.service;
+
+import com.carrotsearch.hppc.LongIntHashMap;
+import com.mycompany.myapp.domain.Book;
+import com.mycompany.myapp.service.BookFacetService.Facet;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The facet values of the books: for each value, the set of the books with it, as a {@link FacetBitmap} of document
+ * numbers.
+ * <p>
+ * Each book is given a document number, and the numbers of the deleted books are given to the next books, so the
+ * bitmaps stay as small as the catalog. A count is the cardinality of the intersection of a value with the selected
+ * values of the other facets: the values of a facet are alternatives, the facets are combined.
+ * <p>
+ * This class isn't thread-safe.
+ */
+final class BookFacetIndex {
+
+    /**
+     * The number of books with a facet value.
+     */
+    record ValueCount(String value, int count) {}
+
+    /**
+     * The counts of the books matching a selection.
+     */
+    record Counts(int total, Map<Facet, List<ValueCount>> facets) {}
+
+    private static final Comparator<ValueCount> MOST_BOOKS_FIRST = Comparator.comparingInt(ValueCount::count)
+        .reversed()
+        .thenComparing(ValueCount::value);
+
+    private final double[] priceBounds;
+    private final List<String> priceBands;
+
+    private final LongIntHashMap documentsById = new LongIntHashMap();
+    // the facet values of each document, by facet ordinal, null for the free numbers
+    private final List<String[]> documents = new ArrayList<>();
+    private final BitSet live = new BitSet();
+    private final Map<Facet, Map<String, FacetBitmap>> bitmaps = new EnumMap<>(Facet.class);
+
+    /**
+     * @param priceBounds the bounds between the price bands, in increasing order.
+     */
+    BookFacetIndex(List<Double> priceBounds) {
+        this.priceBounds = priceBounds.stream().mapToDouble(Double::doubleValue).sorted().toArray();
+        this.priceBands = new ArrayList<>(this.priceBounds.length + 1);
+        for (int band = 0; band <= this.priceBounds.length; band++) {
+            String lower = band == 0 ? "*" : format(this.priceBounds[band - 1]);
+            String upper = band == this.priceBounds.length ? "*" : format(this.priceBounds[band]);
+            priceBands.add(lower + "-" + upper);
+        }
+        for (Facet facet : Facet.values()) {
+            bitmaps.put(facet, new HashMap<>());
+        }
+    }
+
+    /**
+     * Index a book, replacing its previous version.
+     * @param book the book.
+     */
+    void put(Book book) {
+        String[] values = new String[Facet.values().length];
+        values[Facet.AUTHOR.ordinal()] = book.getAuthor();
+        values[Facet.DECADE.ordinal()] = book.getPublishedYear() == null ? null : decade(book.getPublishedYear());
+        values[Facet.PRICE.ordinal()] = book.getPrice() == null ? null : priceBand(book.getPrice());
+        // a book without availability is considered available
+        values[Facet.AVAILABLE.ordinal()] = String.valueOf(!Boolean.FALSE.equals(book.getAvailable()));
+
+        int number = documentsById.getOrDefault(book.getId(), -1);
+        if (number < 0) {
+            // the lowest free number, the numbers of the deleted books first
+            number = live.nextClearBit(0);
+            if (number == documents.size()) {
+                documents.add(null);
+            }
+            documentsById.put(book.getId(), number);
+            live.set(number);
+        }
+        for (Facet facet : Facet.values()) {
+            set(number, facet, values[facet.ordinal()]);
+        }
+    }
+
+    /**
+     * Change a facet value of a book, if it is indexed.
+     * @param id the id of the book.
+     * @param facet the facet.
+     * @param value the new value, or {@code null} for none.
+     */
+    void set(long id, Facet facet, String value) {
+        int number = documentsById.getOrDefault(id, -1);
+        if (number >= 0) {
+            set(number, facet, value);
+        }
+    }
+
+    /**
+     * Remove a book from the index.
+     * @param id the id of the book.
+     */
+    void remove(long id) {
+        int number = documentsById.getOrDefault(id, -1);
+        if (number < 0) {
+            return;
+        }
+        for (Facet facet : Facet.values()) {
+            set(number, facet, null);
+        }
+        documentsById.remove(id);
+        documents.set(number, null);
+        live.clear(number);
+    }
+
+    /**
+     * @return the number of indexed books.
+     */
+    int size() {
+        return documentsById.size();
+    }
+
+    /**
+     * Count the books matching a selection, and the books of each facet value among them.
+     * <p>
+     * The values of a facet are counted among the books matching the selection of the other facets, so each count is the
+     * number of books the selection would match with that value added.
+     *
+     * @param selection the selected values of each facet, a book matches one of the values of each facet.
+     * @param maxValues the maximum number of values per facet, the values with the most books are kept.
+     * @return the number of books matching the selection, and the values of each facet with books.
+     */
+    Counts count(Map<Facet, Set<String>> selection, int maxValues) {
+        int length = (documents.size() + 63) >>> 6;
+        long[] liveWords = Arrays.copyOf(live.toLongArray(), length);
+        Map<Facet, long[]> selected = new EnumMap<>(Facet.class);
+        selection.forEach((facet, values) -> {
+            if (!values.isEmpty()) {
+                long[] union = new long[length];
+                values.forEach(value -> {
+                    FacetBitmap bitmap = bitmaps.get(facet).get(value);
+                    if (bitmap != null) {
+                        bitmap.orInto(union);
+                    }
+                });
+                selected.put(facet, union);
+            }
+        });
+
+        Map<Facet, List<ValueCount>> facets = new EnumMap<>(Facet.class);
+        for (Facet facet : Facet.values()) {
+            long[] others = intersect(liveWords, selected, facet);
+            List<ValueCount> counts = new ArrayList<>();
+            bitmaps
+                .get(facet)
+                .forEach((value, bitmap) -> {
+                    // without a selection of the other facets, every book of the value is counted
+                    int count = others == liveWords ? bitmap.cardinality() : bitmap.andCardinality(others);
+                    if (count > 0) {
+                        counts.add(new ValueCount(value, count));
+                    }
+                });
+            counts.sort(MOST_BOOKS_FIRST);
+            List<ValueCount> kept = new ArrayList<>(counts.subList(0, Math.min(maxValues, counts.size())));
+            if (facet != Facet.AUTHOR) {
+                kept.sort(Comparator.comparing(ValueCount::value, order(facet)));
+            }
+            facets.put(facet, kept);
+        }
+
+        long[] all = intersect(liveWords, selected, null);
+        int total = 0;
+        for (long word : all) {
+            total += Long.bitCount(word);
+        }
+        return new Counts(total, facets);
+    }
+
+    private void set(int number, Facet facet, String value) {
+        String[] values = documents.get(number);
+        if (values == null) {
+            values = new String[Facet.values().length];
+            documents.set(number, values);
+        }
+        String previous = values[facet.ordinal()];
+        if (previous != null && previous.equals(value)) {
+            return;
+        }
+        Map<String, FacetBitmap> facetBitmaps = bitmaps.get(facet);
+        if (previous != null) {
+            FacetBitmap bitmap = facetBitmaps.get(previous);
+            bitmap.remove(number);
+            if (bitmap.cardinality() == 0) {
+                facetBitmaps.remove(previous);
+            }
+        }
+        if (value != null) {
+            facetBitmaps.computeIfAbsent(value, key -> new FacetBitmap()).add(number);
+        }
+        values[facet.ordinal()] = value;
+    }
+
+    /**
+     * @return the live documents in the selected values of every facet but one, the live words themselves if none is.
+     */
+    private static long[] intersect(long[] liveWords, Map<Facet, long[]> selected, Facet excluded) {
+        long[] words = liveWords;
+        for (Map.Entry<Facet, long[]> entry : selected.entrySet()) {
+            if (entry.getKey() == excluded) {
+                continue;
+            }
+            if (words == liveWords) {
+                words = liveWords.clone();
+            }
+            long[] union = entry.getValue();
+            for (int i = 0; i < words.length; i++) {
+                words[i] &= union[i];
+            }
+        }
+        return words;
+    }
+
+    private static String decade(int year) {
+        return String.valueOf(Math.floorDiv(year, 10) * 10);
+    }
+
+    private String priceBand(double price) {
+        int band = 0;
+        while (band < priceBounds.length && price >= priceBounds[band]) {
+            band++;
+        }
+        return priceBands.get(band);
+    }
+
+    private Comparator<String> order(Facet facet) {
+        return switch (facet) {
+            case DECADE -> Comparator.comparingInt(Integer::parseInt);
+            case PRICE -> Comparator.comparingInt(priceBands::indexOf);
+            default -> Comparator.naturalOrder();
+        };
+    }
+
+    private static String format(double bound) {
+        return BigDecimal.valueOf(bound).stripTrailingZeros().toPlainString();
+    }
+}
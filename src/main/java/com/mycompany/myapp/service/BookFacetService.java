@@ -0,0 +1,169 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.Book;
+import com.mycompany.myapp.service.BookFacetIndex.Counts;
+import com.mycompany.myapp.service.dto.BookFacetsDTO;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+/**
+ * Service counting the books per author, publication decade, price band and availability in memory, instead of grouping
+ * the book table for each facet.
+ * <p>
+ * The facets are loaded with the other book indexes by {@link BookIndexService}, then updated by every book created,
+ * changed or deleted through the REST API, and every book lent or returned, once its transaction commits. Until the facets
+ * are loaded, the counts wait for them up to {@code application.projections.ready-timeout-millis}, then fail with a
+ * {@link ProjectionNotReadyException}.
+ */
+@Service
+public class BookFacetService {
+
+    /**
+     * The facets of the books.
+     */
+    public enum Facet {
+        AUTHOR("author"),
+        DECADE("decade"),
+        PRICE("price"),
+        AVAILABLE("available");
+
+        private final String code;
+
+        Facet(String code) {
+            this.code = code;
+        }
+
+        public String getCode() {
+            return code;
+        }
+
+        /**
+         * Find a facet by its code, like {@code author} or {@code decade}.
+         * @param code the code of the facet.
+         * @return the facet, or an empty {@link Optional} if the code is unknown.
+         */
+        public static Optional<Facet> fromCode(String code) {
+            return Arrays.stream(values()).filter(facet -> facet.code.equals(code)).findFirst();
+        }
+    }
+
+    private final List<Double> priceBands;
+    private final int maxValues;
+
+    private final InMemoryProjection<BookFacetIndex> projection;
+
+    public BookFacetService(ApplicationProperties applicationProperties) {
+        this.priceBands = List.copyOf(applicationProperties.getFacets().getPriceBands());
+        this.maxValues = applicationProperties.getFacets().getMaxValues();
+        this.projection = new InMemoryProjection<>("book facets", new BookFacetIndex(priceBands), applicationProperties);
+    }
+
+    /**
+     * Rebuild the facets from the books, unless a rebuild is already running.
+     * <p>
+     * The books are counted from the previous facets until the new ones are loaded. The books written while the books are
+     * read are applied to the new facets once loaded.
+     *
+     * @param books the books, read once subscribed.
+     * @return a {@link Mono} completing once the facets are rebuilt.
+     */
+    Mono<Void> rebuild(Mono<List<Book>> books) {
+        return projection.rebuild(books.map(this::index));
+    }
+
+    /**
+     * Count the books matching a selection of facet values, and the books of each facet value, once the facets are loaded.
+     * <p>
+     * A book matches the selection when it has one of the selected values of each facet. The values of a facet are counted
+     * among the books matching the selection of the other facets, so each count is the number of books the selection would
+     * match with that value added. The authors are the ones with the most books, the other facets are in their natural
+     * order.
+     *
+     * @param selection the selected values of each facet, like {@code 1990} for the decade or {@code 10-20} for the price.
+     * @return the number of books matching the selection, and the values of each facet with books.
+     */
+    public Mono<BookFacetsDTO> count(Map<Facet, Set<String>> selection) {
+        return projection.read(index -> index.count(selection, maxValues)).map(BookFacetService::facets);
+    }
+
+    /**
+     * Index a written book once the current transaction commits, or now if there is no transaction.
+     *
+     * @param book the book once written.
+     * @return a {@link Mono} completing once the book is indexed, or registered to be indexed.
+     */
+    Mono<Void> indexOnCommit(Book book) {
+        // the fields are copied now, as the book may change before the transaction commits
+        Book copy = new Book()
+            .id(book.getId())
+            .author(book.getAuthor())
+            .publishedYear(book.getPublishedYear())
+            .price(book.getPrice())
+            .available(book.getAvailable());
+        return projection.changeOnCommit(index -> index.put(copy));
+    }
+
+    /**
+     * Remove a deleted book from the facets once the current transaction commits, or now if there is no transaction.
+     *
+     * @param id the id of the book.
+     * @return a {@link Mono} completing once the book is removed, or registered to be removed.
+     */
+    Mono<Void> removeOnCommit(Long id) {
+        return projection.changeOnCommit(index -> index.remove(id));
+    }
+
+    /**
+     * Count a lent book as unavailable once the current transaction commits, or now if there is no transaction.
+     *
+     * @param id the id of the book.
+     * @return a {@link Mono} completing once the book is counted, or registered to be counted.
+     */
+    Mono<Void> markUnavailableOnCommit(Long id) {
+        return projection.changeOnCommit(index -> index.set(id, Facet.AVAILABLE, Boolean.FALSE.toString()));
+    }
+
+    /**
+     * Count a returned book as available once the current transaction commits, or now if there is no transaction.
+     *
+     * @param id the id of the book.
+     * @return a {@link Mono} completing once the book is counted, or registered to be counted.
+     */
+    Mono<Void> markAvailableOnCommit(Long id) {
+        return projection.changeOnCommit(index -> index.set(id, Facet.AVAILABLE, Boolean.TRUE.toString()));
+    }
+
+    void load(List<Book> books) {
+        projection.load(index(books));
+    }
+
+    BookFacetsDTO find(Map<Facet, Set<String>> selection) {
+        return facets(projection.get(index -> index.count(selection, maxValues)));
+    }
+
+    private BookFacetIndex index(List<Book> books) {
+        BookFacetIndex index = new BookFacetIndex(priceBands);
+        books.forEach(index::put);
+        return index;
+    }
+
+    private static BookFacetsDTO facets(Counts counts) {
+        Map<String, List<BookFacetsDTO.ValueCount>> facets = new LinkedHashMap<>();
+        counts
+            .facets()
+            .forEach((facet, values) ->
+                facets.put(
+                    facet.getCode(),
+                    values.stream().map(value -> new BookFacetsDTO.ValueCount(value.value(), value.count())).toList()
+                )
+            );
+        return new BookFacetsDTO(counts.total(), facets);
+    }
+}
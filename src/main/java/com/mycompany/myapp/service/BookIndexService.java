@@ -0,0 +1,135 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.domain.Book;
+import com.mycompany.myapp.repository.BookRepository;
+import java.time.Duration;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.retry.Retry;
+
+/**
+ * Service keeping the in-memory indexes of the books (search, autocomplete, facets and availability) up to date.
+ * <p>
+ * It is their only write path: the indexes are loaded from a single read of the book table, instead of one read per
+ * index, then updated here with every book written, lent or returned, once its transaction commits.
+ */
+@Service
+public class BookIndexService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BookIndexService.class);
+
+    private final BookRepository bookRepository;
+    private final BookSearchService bookSearchService;
+    private final AutocompleteService autocompleteService;
+    private final BookFacetService bookFacetService;
+    private final BookAvailabilityService bookAvailabilityService;
+
+    public BookIndexService(
+        BookRepository bookRepository,
+        BookSearchService bookSearchService,
+        AutocompleteService autocompleteService,
+        BookFacetService bookFacetService,
+        BookAvailabilityService bookAvailabilityService
+    ) {
+        this.bookRepository = bookRepository;
+        this.bookSearchService = bookSearchService;
+        this.autocompleteService = autocompleteService;
+        this.bookFacetService = bookFacetService;
+        this.bookAvailabilityService = bookAvailabilityService;
+    }
+
+    /**
+     * Load the indexes from the database, retrying until it succeeds.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadFromDatabase() {
+        rebuild()
+            .doOnError(e -> LOG.warn("Could not load the book indexes, retrying: {}", e.getMessage()))
+            .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofMinutes(1)))
+            .subscribe();
+    }
+
+    /**
+     * Rebuild the indexes from one read of the books, except the indexes already being rebuilt.
+     * <p>
+     * Each index is read from its previous version until the new one is loaded, and applies the books written while the
+     * books are read once loaded.
+     *
+     * @return a {@link Mono} completing once the indexes are rebuilt.
+     */
+    public Mono<Void> rebuild() {
+        return Mono.defer(() -> {
+            Sinks.One<List<Book>> loaded = Sinks.one();
+            Mono<List<Book>> books = loaded.asMono();
+            // the indexes record the books written from their subscription on, so they are subscribed before the books are
+            // read, and each of them is rebuilt even if another one fails, as they all wait for the books
+            return Mono.whenDelayError(
+                bookSearchService.rebuild(books),
+                autocompleteService.rebuild(books),
+                bookFacetService.rebuild(books),
+                bookAvailabilityService.rebuild(books),
+                bookRepository
+                    .findAll()
+                    .collectList()
+                    .doOnNext(loaded::tryEmitValue)
+                    .doOnError(loaded::tryEmitError)
+                    // the indexes give up the rebuild instead of waiting forever
+                    .doOnCancel(loaded::tryEmitEmpty)
+            );
+        });
+    }
+
+    /**
+     * Index a written book once the current transaction commits, or now if there is no transaction.
+     *
+     * @param book the book once written.
+     * @return a {@link Mono} completing once the book is indexed, or registered to be indexed.
+     */
+    public Mono<Void> indexOnCommit(Book book) {
+        return bookSearchService
+            .indexOnCommit(book)
+            .then(autocompleteService.indexBookOnCommit(book))
+            .then(bookFacetService.indexOnCommit(book))
+            .then(bookAvailabilityService.recordOnCommit(book));
+    }
+
+    /**
+     * Remove a deleted book from the indexes once the current transaction commits, or now if there is no transaction.
+     *
+     * @param id the id of the book.
+     * @return a {@link Mono} completing once the book is removed, or registered to be removed.
+     */
+    public Mono<Void> removeOnCommit(Long id) {
+        return bookSearchService
+            .removeOnCommit(id)
+            .then(autocompleteService.removeBookOnCommit(id))
+            .then(bookFacetService.removeOnCommit(id))
+            .then(bookAvailabilityService.recordOnCommit(id, false));
+    }
+
+    /**
+     * Index a lent book as unavailable once the current transaction commits, or now if there is no transaction.
+     *
+     * @param id the id of the book.
+     * @return a {@link Mono} completing once the book is indexed, or registered to be indexed.
+     */
+    public Mono<Void> markUnavailableOnCommit(Long id) {
+        return bookFacetService.markUnavailableOnCommit(id).then(bookAvailabilityService.recordOnCommit(id, false));
+    }
+
+    /**
+     * Index a returned book as available once the current transaction commits, or now if there is no transaction.
+     *
+     * @param id the id of the book.
+     * @return a {@link Mono} completing once the book is indexed, or registered to be indexed.
+     */
+    public Mono<Void> markAvailableOnCommit(Long id) {
+        return bookFacetService.markAvailableOnCommit(id).then(bookAvailabilityService.recordOnCommit(id, true));
+    }
+}
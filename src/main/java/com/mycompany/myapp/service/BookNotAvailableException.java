@@ -0,0 +1,10 @@
+package com.mycompany.myapp.service;
+
+public class BookNotAvailableException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public BookNotAvailableException(Long bookId) {
+        super("Book " + bookId + " is already borrowed!");
+    }
+}
@@ -0,0 +1,238 @@
+package com.mycompany.myapp.service;
+
+import com.carrotsearch.hppc.IntArrayList;
+import com.carrotsearch.hppc.IntIntHashMap;
+import com.carrotsearch.hppc.LongIntHashMap;
+import com.carrotsearch.hppc.cursors.IntIntCursor;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An inverted index of the titles and authors of the books.
+ * <p>
+ * Each book is given a document number, in the order it is indexed. The postings list the document numbers of each word,
+ * and of each trigram (three consecutive characters) for the substring matches, in increasing order. A changed book is
+ * indexed again under a new document number, and its previous one is only marked as deleted, until the index is compacted.
+ * <p>
+ * This class isn't thread-safe.
+ */
+final class BookSearchIndex {
+
+    // a word of the title weighs more than a word of the author, and both more than a part of a word
+    static final int TITLE_WORD_SCORE = 4;
+    static final int AUTHOR_WORD_SCORE = 2;
+    static final int SUBSTRING_SCORE = 1;
+
+    private static final int GRAM_LENGTH = 3;
+
+    // the deleted documents are dropped once they outnumber the live ones, and there are enough of them
+    private static final int MIN_DELETED_TO_COMPACT = 1024;
+
+    /**
+     * An indexed book.
+     */
+    record Document(long id, String title, String author) {}
+
+    /**
+     * A book matching a query.
+     */
+    record Hit(Document document, int score) {}
+
+    private final LongIntHashMap documentsById = new LongIntHashMap();
+    private final List<Document> documents = new ArrayList<>();
+    private final BitSet deleted = new BitSet();
+
+    private final Field title = new Field(TITLE_WORD_SCORE);
+    private final Field author = new Field(AUTHOR_WORD_SCORE);
+
+    /**
+     * Index a book, replacing its previous version.
+     * @param document the book.
+     */
+    void put(Document document) {
+        remove(document.id());
+        int number = documents.size();
+        documents.add(document);
+        documentsById.put(document.id(), number);
+        title.add(number, document.title());
+        author.add(number, document.author());
+    }
+
+    /**
+     * Remove a book from the index.
+     * @param id the id of the book.
+     */
+    void remove(long id) {
+        int number = documentsById.getOrDefault(id, -1);
+        if (number < 0) {
+            return;
+        }
+        documentsById.remove(id);
+        deleted.set(number);
+        int deletedCount = deleted.cardinality();
+        if (deletedCount >= MIN_DELETED_TO_COMPACT && deletedCount > documentsById.size()) {
+            compact();
+        }
+    }
+
+    /**
+     * @return the number of indexed books.
+     */
+    int size() {
+        return documentsById.size();
+    }
+
+    /**
+     * Find the books matching every word of a query, in their title or author, as a word or a part of a word.
+     * @param query the query.
+     * @return the matching books, the best score first, then by id.
+     */
+    List<Hit> search(String query) {
+        List<String> terms = SearchText.tokens(SearchText.normalize(query)).stream().distinct().toList();
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        IntIntHashMap scores = null;
+        for (String term : terms) {
+            IntIntHashMap termScores = new IntIntHashMap();
+            title.score(term, termScores);
+            author.score(term, termScores);
+            if (scores == null) {
+                scores = termScores;
+            } else {
+                IntIntHashMap both = new IntIntHashMap();
+                for (IntIntCursor cursor : scores) {
+                    int termScore = termScores.get(cursor.key);
+                    if (termScore > 0) {
+                        both.put(cursor.key, cursor.value + termScore);
+                    }
+                }
+                scores = both;
+            }
+            if (scores.isEmpty()) {
+                return List.of();
+            }
+        }
+        List<Hit> hits = new ArrayList<>(scores.size());
+        for (IntIntCursor cursor : scores) {
+            if (!deleted.get(cursor.key)) {
+                hits.add(new Hit(documents.get(cursor.key), cursor.value));
+            }
+        }
+        hits.sort(Comparator.comparingInt(Hit::score).reversed().thenComparingLong(hit -> hit.document().id()));
+        return hits;
+    }
+
+    private void compact() {
+        List<Document> live = new ArrayList<>(documentsById.size());
+        for (int number = deleted.nextClearBit(0); number < documents.size(); number = deleted.nextClearBit(number + 1)) {
+            live.add(documents.get(number));
+        }
+        documentsById.clear();
+        documents.clear();
+        deleted.clear();
+        title.clear();
+        author.clear();
+        live.forEach(this::put);
+    }
+
+    /**
+     * The postings of a field of the books.
+     */
+    private static final class Field {
+
+        private final int wordScore;
+        private final Map<String, IntArrayList> words = new HashMap<>();
+        private final Map<String, IntArrayList> grams = new HashMap<>();
+        private final List<String> texts = new ArrayList<>();
+
+        Field(int wordScore) {
+            this.wordScore = wordScore;
+        }
+
+        void add(int number, String value) {
+            String text = SearchText.normalize(value);
+            texts.add(text);
+            for (String word : new HashSet<>(SearchText.tokens(text))) {
+                words.computeIfAbsent(word, key -> new IntArrayList(1)).add(number);
+            }
+            Set<String> textGrams = new HashSet<>();
+            for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+                String gram = text.substring(i, i + GRAM_LENGTH);
+                // the terms of a query are single words
+                if (gram.indexOf(' ') < 0 && textGrams.add(gram)) {
+                    grams.computeIfAbsent(gram, key -> new IntArrayList(1)).add(number);
+                }
+            }
+        }
+
+        void clear() {
+            words.clear();
+            grams.clear();
+            texts.clear();
+        }
+
+        /**
+         * Add the score of the documents matching a term in this field.
+         */
+        void score(String term, IntIntHashMap scores) {
+            IntArrayList wordPostings = words.get(term);
+            if (wordPostings != null) {
+                for (int i = 0; i < wordPostings.size(); i++) {
+                    scores.addTo(wordPostings.get(i), wordScore);
+                }
+            }
+            if (term.length() < GRAM_LENGTH) {
+                return;
+            }
+            IntArrayList candidates = null;
+            for (int i = 0; i + GRAM_LENGTH <= term.length(); i++) {
+                IntArrayList postings = grams.get(term.substring(i, i + GRAM_LENGTH));
+                if (postings == null) {
+                    return;
+                }
+                candidates = candidates == null ? postings : intersect(candidates, postings);
+                if (candidates.isEmpty()) {
+                    return;
+                }
+            }
+            for (int i = 0; i < candidates.size(); i++) {
+                int number = candidates.get(i);
+                // the trigrams of a candidate may not be consecutive, and the words are already scored
+                if (texts.get(number).contains(term) && (wordPostings == null || !contains(wordPostings, number))) {
+                    scores.addTo(number, SUBSTRING_SCORE);
+                }
+            }
+        }
+
+        private static IntArrayList intersect(IntArrayList left, IntArrayList right) {
+            IntArrayList both = new IntArrayList(Math.min(left.size(), right.size()));
+            int i = 0;
+            int j = 0;
+            while (i < left.size() && j < right.size()) {
+                int compared = Integer.compare(left.get(i), right.get(j));
+                if (compared == 0) {
+                    both.add(left.get(i));
+                    i++;
+                    j++;
+                } else if (compared < 0) {
+                    i++;
+                } else {
+                    j++;
+                }
+            }
+            return both;
+        }
+
+        private static boolean contains(IntArrayList postings, int number) {
+            return Arrays.binarySearch(postings.buffer, 0, postings.size(), number) >= 0;
+        }
+    }
+}
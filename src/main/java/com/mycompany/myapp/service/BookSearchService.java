@@ -0,0 +1,104 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.Book;
+import com.mycompany.myapp.service.BookSearchIndex.Document;
+import com.mycompany.myapp.service.BookSearchIndex.Hit;
+import com.mycompany.myapp.service.dto.BookSearchResultDTO;
+import java.util.List;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+/**
+ * Service searching the books by title and author in memory, instead of scanning the book table.
+ * <p>
+ * The index is loaded with the other book indexes by {@link BookIndexService}, then updated by every book created,
+ * changed or deleted through the REST API, once its transaction commits. Until the index is loaded, the searches wait for
+ * it up to {@code application.projections.ready-timeout-millis}, then fail with a {@link ProjectionNotReadyException}.
+ */
+@Service
+public class BookSearchService {
+
+    private final InMemoryProjection<BookSearchIndex> projection;
+
+    public BookSearchService(ApplicationProperties applicationProperties) {
+        this.projection = new InMemoryProjection<>("book search index", new BookSearchIndex(), applicationProperties);
+    }
+
+    /**
+     * Rebuild the index from the books, unless a rebuild is already running.
+     * <p>
+     * The searches use the previous index until the new one is loaded. The books written while the books are read are
+     * applied to the new index once loaded.
+     *
+     * @param books the books, read once subscribed.
+     * @return a {@link Mono} completing once the index is rebuilt.
+     */
+    Mono<Void> rebuild(Mono<List<Book>> books) {
+        return projection.rebuild(books.map(BookSearchService::index));
+    }
+
+    /**
+     * Search the books by title and author, once the index is loaded.
+     * <p>
+     * A book matches when each word of the query is a word, or a part of a word of at least three letters, of its title or
+     * author, whatever the case and the accents. The words of the title weigh more than the words of the author, and the
+     * whole words more than their parts.
+     *
+     * @param query the words to search.
+     * @param pageable the page of results, their sort is ignored.
+     * @return the page of matching books, the best first.
+     */
+    public Mono<Page<BookSearchResultDTO>> search(String query, Pageable pageable) {
+        return projection.read(index -> index.search(query)).map(hits -> page(hits, pageable));
+    }
+
+    /**
+     * Index a written book once the current transaction commits, or now if there is no transaction.
+     *
+     * @param book the book once written.
+     * @return a {@link Mono} completing once the book is indexed, or registered to be indexed.
+     */
+    Mono<Void> indexOnCommit(Book book) {
+        // the fields are read now, as the book may change before the transaction commits
+        Document document = new Document(book.getId(), book.getTitle(), book.getAuthor());
+        return projection.changeOnCommit(index -> index.put(document));
+    }
+
+    /**
+     * Remove a deleted book from the index once the current transaction commits, or now if there is no transaction.
+     *
+     * @param id the id of the book.
+     * @return a {@link Mono} completing once the book is removed, or registered to be removed.
+     */
+    Mono<Void> removeOnCommit(Long id) {
+        return projection.changeOnCommit(index -> index.remove(id));
+    }
+
+    void load(List<Book> books) {
+        projection.load(index(books));
+    }
+
+    Page<BookSearchResultDTO> find(String query, Pageable pageable) {
+        return page(projection.get(index -> index.search(query)), pageable);
+    }
+
+    private static BookSearchIndex index(List<Book> books) {
+        BookSearchIndex index = new BookSearchIndex();
+        books.forEach(book -> index.put(new Document(book.getId(), book.getTitle(), book.getAuthor())));
+        return index;
+    }
+
+    private static Page<BookSearchResultDTO> page(List<Hit> hits, Pageable pageable) {
+        List<BookSearchResultDTO> content = hits
+            .stream()
+            .skip(pageable.getOffset())
+            .limit(pageable.getPageSize())
+            .map(hit -> new BookSearchResultDTO(hit.document().id(), hit.document().title(), hit.document().author(), hit.score()))
+            .toList();
+        return new PageImpl<>(content, pageable, hits.size());
+    }
+}
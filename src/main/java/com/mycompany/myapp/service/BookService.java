@@ -1,20 +1,19 @@
 package com.mycompany.myapp.service;
 
-import com.mycompany.myapp.domain.Book;
-import com.mycompany.myapp.repository.BookRepository;
+import com.mycompany.myapp.service.dto.TopBookDTO;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 
 @Service
 public class BookService {
 
-    private final BookRepository bookRepository;
+    private final TopBooksService topBooksService;
 
-    public BookService(BookRepository bookRepository) {
-        this.bookRepository = bookRepository;
+    public BookService(TopBooksService topBooksService) {
+        this.topBooksService = topBooksService;
     }
 
-    public Flux<Book> getTop3Books() {
-        return bookRepository.findTop3Books();
+    public Flux<TopBookDTO> getTop3Books() {
+        return topBooksService.findTopBooks(TopBooksService.Window.ALL, 3);
     }
 }
@@ -0,0 +1,347 @@
+package com.mycompany.myapp.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.Borrow;
+import com.mycompany.myapp.repository.BorrowRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Service purging the borrows returned for longer than the retention, in small chunks.
+ * <p>
+ * The returned borrows are read by increasing id, {@code chunk-size} at a time, and each chunk is deleted with its own
+ * statement, with a pause in between: the purge never holds many locks for long, and a large purge is spread over time
+ * instead of filling the transaction log at once. When an archive directory is configured, each chunk is first written
+ * to a gzipped NDJSON file, one file per purge, and only deleted once written. The purged borrows are subtracted from the
+ * {@link BorrowStatisticsService} rollups chunk by chunk, unless a chunk deletes fewer borrows than it read (some were
+ * changed since), then the rollups are rebuilt at the end of the purge instead. The {@link TopBooksService} and
+ * {@link AutocompleteService} counters can't subtract them, so they are rebuilt once at the end of a purge which deleted
+ * borrows.
+ * <p>
+ * The progress is published as {@code borrow.retention.*} metrics, and by the {@code borrowretention} management endpoint,
+ * which can also start a purge.
+ */
+@Service
+public class BorrowRetentionService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BorrowRetentionService.class);
+
+    private static final DateTimeFormatter ARCHIVE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC);
+
+    private final BorrowRepository borrowRepository;
+
+    private final BorrowStatisticsService borrowStatisticsService;
+
+    private final TopBooksService topBooksService;
+
+    private final AutocompleteService autocompleteService;
+
+    private final ObjectMapper objectMapper;
+
+    private final ApplicationProperties.BorrowRetention properties;
+
+    private final Counter deletedCounter;
+
+    private final Counter archivedCounter;
+
+    private final Timer chunkTimer;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private volatile Run lastRun;
+
+    /**
+     * The progress of a purge.
+     *
+     * @param running whether the purge is still running.
+     * @param cutoff the borrows returned before are purged.
+     * @param startedAt when the purge started.
+     * @param finishedAt when the purge finished, or {@code null} while it runs.
+     * @param deleted the number of borrows deleted so far.
+     * @param lastId the id of the last borrow purged, the next chunks start after it.
+     * @param archive the archive file, or {@code null} if the borrows aren't archived.
+     * @param error why the purge stopped, or {@code null}.
+     */
+    public record Progress(
+        boolean running,
+        Instant cutoff,
+        Instant startedAt,
+        Instant finishedAt,
+        long deleted,
+        long lastId,
+        String archive,
+        String error
+    ) {}
+
+    /**
+     * A borrow, as written in the archive.
+     */
+    record ArchivedBorrow(Long id, Instant borrowDate, Instant returnDate, Long memberId, Long bookId) {
+        static ArchivedBorrow of(Borrow borrow) {
+            return new ArchivedBorrow(
+                borrow.getId(),
+                borrow.getBorrowDate(),
+                borrow.getReturnDate(),
+                borrow.getMemberId(),
+                borrow.getBookId()
+            );
+        }
+    }
+
+    public BorrowRetentionService(
+        BorrowRepository borrowRepository,
+        BorrowStatisticsService borrowStatisticsService,
+        TopBooksService topBooksService,
+        AutocompleteService autocompleteService,
+        ObjectMapper objectMapper,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        this.borrowRepository = borrowRepository;
+        this.borrowStatisticsService = borrowStatisticsService;
+        this.topBooksService = topBooksService;
+        this.autocompleteService = autocompleteService;
+        this.objectMapper = objectMapper;
+        this.properties = applicationProperties.getBorrowRetention();
+        this.deletedCounter = Counter.builder("borrow.retention.deleted")
+            .description("Borrows deleted by the retention purge")
+            .baseUnit("borrows")
+            .register(meterRegistry);
+        this.archivedCounter = Counter.builder("borrow.retention.archived")
+            .description("Borrows archived by the retention purge")
+            .baseUnit("borrows")
+            .register(meterRegistry);
+        this.chunkTimer = Timer.builder("borrow.retention.chunk")
+            .description("Time to archive and delete a chunk of borrows")
+            .register(meterRegistry);
+        Gauge.builder("borrow.retention.running", running, flag -> flag.get() ? 1 : 0)
+            .description("Whether a retention purge is running")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Purge the old borrows, if a retention is configured.
+     * <p>
+     * This is scheduled with the {@code application.borrow-retention.cron} expression, every night at 02:30 by default.
+     */
+    @Scheduled(cron = "${application.borrow-retention.cron:0 30 2 * * ?}")
+    public void purgeOldBorrows() {
+        if (properties.getRetentionDays() > 0) {
+            purge(properties.getRetentionDays()).block();
+        }
+    }
+
+    /**
+     * Purge the borrows returned for longer than the given retention, unless a purge is already running.
+     *
+     * @param retentionDays the number of days the returned borrows are kept.
+     * @return the progress of the finished purge, or an empty {@link Mono} if a purge is already running.
+     */
+    public Mono<Progress> purge(int retentionDays) {
+        if (retentionDays <= 0) {
+            return Mono.error(new IllegalArgumentException("The retention must be at least one day"));
+        }
+        return Mono.defer(() -> {
+            if (!running.compareAndSet(false, true)) {
+                LOG.debug("A purge of the borrows is already running");
+                return Mono.empty();
+            }
+            Instant now = Instant.now();
+            Run run = new Run(now.minus(retentionDays, ChronoUnit.DAYS), now, archivePath(now));
+            lastRun = run;
+            LOG.info("Purging the borrows returned before {}", run.cutoff);
+            return Flux.using(() -> openArchive(run.archive), archive -> purgeChunks(run, archive), this::closeArchive)
+                .subscribeOn(Schedulers.boundedElastic())
+                .then()
+                .onErrorResume(e -> {
+                    LOG.warn("The purge of the borrows stopped after borrow {}: {}", run.lastId, e.getMessage());
+                    run.error = e.getMessage();
+                    return Mono.empty();
+                })
+                .then(Mono.defer(() -> rebuildCounters(run)))
+                .then(Mono.fromSupplier(() -> finish(run)))
+                .doOnCancel(() -> {
+                    run.error = "cancelled";
+                    finish(run);
+                });
+        });
+    }
+
+    private Progress finish(Run run) {
+        run.finishedAt = Instant.now();
+        running.set(false);
+        LOG.info("Purged {} borrows returned before {}", run.deleted, run.cutoff);
+        return run.toProgress();
+    }
+
+    /**
+     * Rebuild the borrow counters which can't subtract the purged borrows, if any was deleted, and the rollups if they
+     * couldn't subtract them either. A failed rebuild leaves the purged borrows counted until the next one, and doesn't fail
+     * the purge.
+     */
+    private Mono<Void> rebuildCounters(Run run) {
+        if (run.deleted == 0) {
+            return Mono.empty();
+        }
+        List<Mono<Void>> rebuilds = new ArrayList<>(List.of(topBooksService.rebuild(), autocompleteService.rebuild()));
+        if (run.statisticsStale) {
+            rebuilds.add(borrowStatisticsService.rebuild());
+        }
+        return Mono.when(rebuilds).onErrorResume(e -> {
+            LOG.warn("Could not rebuild the borrow counters after the purge: {}", e.getMessage());
+            return Mono.empty();
+        });
+    }
+
+    /**
+     * @return the progress of the running or last purge, or {@code null} if none ran yet.
+     */
+    public Progress getProgress() {
+        Run run = lastRun;
+        return run == null ? null : run.toProgress();
+    }
+
+    private Flux<Long> purgeChunks(Run run, OutputStream archive) {
+        Duration pause = Duration.ofMillis(properties.getPauseMillis());
+        int chunkSize = Math.max(1, properties.getChunkSize());
+        return purgeChunk(run, archive, chunkSize).expand(deleted ->
+            run.exhausted ? Mono.empty() : Mono.delay(pause).then(purgeChunk(run, archive, chunkSize))
+        );
+    }
+
+    private Mono<Long> purgeChunk(Run run, OutputStream archive, int chunkSize) {
+        return borrowRepository
+            .findAllReturnedBefore(run.cutoff, run.lastId, chunkSize)
+            .collectList()
+            .flatMap(chunk -> {
+                run.exhausted = chunk.size() < chunkSize;
+                if (chunk.isEmpty()) {
+                    return Mono.just(0L);
+                }
+                long start = System.nanoTime();
+                List<Long> ids = chunk.stream().map(Borrow::getId).toList();
+                return Mono.fromRunnable(() -> archive(run, archive, chunk))
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .then(borrowRepository.deleteAllReturnedBefore(ids, run.cutoff))
+                    .doOnNext(deleted -> {
+                        chunkTimer.record(Duration.ofNanos(System.nanoTime() - start));
+                        deletedCounter.increment(deleted);
+                        run.deleted += deleted;
+                        run.lastId = ids.get(ids.size() - 1);
+                    })
+                    .flatMap(deleted -> {
+                        // the borrows the delete skipped are unknown, so the rollups are rebuilt instead
+                        if (run.statisticsStale || deleted < chunk.size()) {
+                            run.statisticsStale = true;
+                            return Mono.just(deleted);
+                        }
+                        return Flux.fromIterable(chunk)
+                            .concatMap(borrow -> borrowStatisticsService.recordOnCommit(borrow, null))
+                            .then(Mono.just(deleted));
+                    });
+            });
+    }
+
+    private Path archivePath(Instant now) {
+        String directory = properties.getArchiveDirectory();
+        if (!StringUtils.hasText(directory)) {
+            return null;
+        }
+        return Path.of(directory, "borrows-" + ARCHIVE_TIMESTAMP.format(now) + ".ndjson.gz");
+    }
+
+    private OutputStream openArchive(Path path) throws IOException {
+        if (path == null) {
+            return OutputStream.nullOutputStream();
+        }
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        // each chunk is flushed as a complete gzip block, so the archive is readable up to the last deleted chunk
+        return new GZIPOutputStream(Files.newOutputStream(path), true);
+    }
+
+    private void archive(Run run, OutputStream archive, List<Borrow> chunk) {
+        if (run.archive == null) {
+            return;
+        }
+        try {
+            for (Borrow borrow : chunk) {
+                archive.write(objectMapper.writeValueAsBytes(ArchivedBorrow.of(borrow)));
+                archive.write('\n');
+            }
+            archive.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        archivedCounter.increment(chunk.size());
+    }
+
+    private void closeArchive(OutputStream archive) {
+        try {
+            archive.close();
+        } catch (IOException e) {
+            LOG.warn("Could not close the archive of the purged borrows", e);
+        }
+    }
+
+    /**
+     * The state of a purge, written by the purge only, and read by {@link #getProgress()}.
+     */
+    private static final class Run {
+
+        private final Instant cutoff;
+        private final Instant startedAt;
+        private final Path archive;
+        private volatile Instant finishedAt;
+        private volatile long deleted;
+        private volatile long lastId;
+        private volatile boolean exhausted;
+        private volatile boolean statisticsStale;
+        private volatile String error;
+
+        Run(Instant cutoff, Instant startedAt, Path archive) {
+            this.cutoff = cutoff;
+            this.startedAt = startedAt;
+            this.archive = archive;
+        }
+
+        Progress toProgress() {
+            return new Progress(
+                finishedAt == null,
+                cutoff,
+                startedAt,
+                finishedAt,
+                deleted,
+                lastId,
+                archive == null ? null : archive.toString(),
+                error
+            );
+        }
+    }
+}
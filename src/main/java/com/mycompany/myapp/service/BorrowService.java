@@ -4,12 +4,11 @@ import com.mycompany.myapp.domain.Book;
 import com.mycompany.myapp.domain.Borrow;
 import com.mycompany.myapp.domain.Member;
 import com.mycompany.myapp.repository.BookRepository;
+import com.mycompany.myapp.repository.BorrowExpand;
 import com.mycompany.myapp.repository.BorrowRepository;
 import java.time.Instant;
-import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import reactor.core.publisher.Mono;
 
 @Service
@@ -17,36 +16,198 @@ public class BorrowService {
 
     private final BorrowRepository borrowRepository;
     private final BookRepository bookRepository;
+    private final TopBooksService topBooksService;
+    private final BorrowStatisticsService borrowStatisticsService;
+    private final AutocompleteService autocompleteService;
+    private final BookIndexService bookIndexService;
 
-    public BorrowService(BorrowRepository borrowRepository, BookRepository bookRepository) {
+    public BorrowService(
+        BorrowRepository borrowRepository,
+        BookRepository bookRepository,
+        TopBooksService topBooksService,
+        BorrowStatisticsService borrowStatisticsService,
+        AutocompleteService autocompleteService,
+        BookIndexService bookIndexService
+    ) {
         this.borrowRepository = borrowRepository;
         this.bookRepository = bookRepository;
+        this.topBooksService = topBooksService;
+        this.borrowStatisticsService = borrowStatisticsService;
+        this.autocompleteService = autocompleteService;
+        this.bookIndexService = bookIndexService;
     }
 
+    @Transactional
     public Mono<Borrow> borrowBook(Long memberId, Long bookId) {
         Borrow borrow = new Borrow();
         borrow.setBorrowDate(Instant.now());
         borrow.setMember(new Member().id(memberId));
         borrow.setBook(new Book().id(bookId));
+        return lend(borrow);
+    }
+
+    /**
+     * Save a new borrow, and mark its book as unavailable, in one transaction.
+     * <p>
+     * The book is marked with a single conditional update, which fails if it is already lent:
+     * two concurrent requests can't lend the same book, without relying on the isolation level.
+     * The borrow is counted by the {@link TopBooksService}, the {@link BorrowStatisticsService} and the
+     * {@link AutocompleteService}, and its book indexed by the {@link BookIndexService} as unavailable, once the transaction
+     * commits.
+     *
+     * @param borrow the borrow to save.
+     * @return the saved borrow, or an empty {@link Mono} if its book doesn't exist,
+     * or a {@link BookNotAvailableException} error if its book is already lent.
+     */
+    @Transactional
+    public Mono<Borrow> lend(Borrow borrow) {
+        Long bookId = borrow.getBookId();
+        if (bookId == null) {
+            return borrowRepository.save(borrow).flatMap(saved -> record(null, saved).thenReturn(saved));
+        }
+        return bookRepository
+            .markUnavailable(bookId)
+            .flatMap(available -> {
+                if (Boolean.TRUE.equals(available)) {
+                    return borrowRepository
+                        .save(borrow)
+                        .flatMap(saved -> record(null, saved).then(bookIndexService.markUnavailableOnCommit(bookId)).thenReturn(saved));
+                }
+                return bookRepository
+                    .existsById(bookId)
+                    .flatMap(exists -> exists ? Mono.<Borrow>error(new BookNotAvailableException(bookId)) : Mono.<Borrow>empty());
+            });
+    }
+
+    /**
+     * Update an existing borrow, and update the {@link TopBooksService}, the {@link BorrowStatisticsService} and the
+     * {@link AutocompleteService} once the transaction commits.
+     * <p>
+     * A borrow holds its book until it is returned: a borrow moved to another book, or no longer returned, marks its new
+     * book as unavailable, and a borrow given its return date, or moved from its book, releases it, see
+     * {@link #holdBook(Borrow, Borrow)} and {@link #releaseBook(Borrow, Borrow)}.
+     *
+     * @param borrow the borrow to update.
+     * @return the updated borrow, or an empty {@link Mono} if it doesn't exist,
+     * or a {@link BookNotAvailableException} error if its new book is already lent.
+     */
+    @Transactional
+    public Mono<Borrow> update(Borrow borrow) {
+        return borrowRepository
+            .findById(borrow.getId(), BorrowExpand.NONE)
+            .flatMap(existingBorrow ->
+                holdBook(existingBorrow, borrow)
+                    .then(borrowRepository.save(borrow))
+                    .flatMap(saved -> record(existingBorrow, saved).then(releaseBook(existingBorrow, saved)).thenReturn(saved))
+            );
+    }
+
+    /**
+     * Update the given dates of an existing borrow, and update the {@link TopBooksService} and the
+     * {@link BorrowStatisticsService} once the transaction commits.
+     * <p>
+     * A borrow given its return date returns its book, see {@link #releaseBook(Borrow, Borrow)}.
+     *
+     * @param borrow the dates to update, the {@code null} ones are ignored.
+     * @return the updated borrow, or an empty {@link Mono} if it doesn't exist.
+     */
+    @Transactional
+    public Mono<Borrow> partialUpdate(Borrow borrow) {
+        return borrowRepository
+            .findById(borrow.getId(), BorrowExpand.NONE)
+            .flatMap(existingBorrow -> {
+                Borrow before = new Borrow().borrowDate(existingBorrow.getBorrowDate()).returnDate(existingBorrow.getReturnDate());
+                before.setMemberId(existingBorrow.getMemberId());
+                before.setBookId(existingBorrow.getBookId());
+                if (borrow.getBorrowDate() != null) {
+                    existingBorrow.setBorrowDate(borrow.getBorrowDate());
+                }
+                if (borrow.getReturnDate() != null) {
+                    existingBorrow.setReturnDate(borrow.getReturnDate());
+                }
+                return borrowRepository
+                    .save(existingBorrow)
+                    .flatMap(saved -> record(before, saved).then(releaseBook(before, saved)).thenReturn(saved));
+            });
+    }
 
-        // Lưu Borrow và cập nhật trạng thái Book
+    /**
+     * Delete a borrow, and subtract it from the {@link TopBooksService}, the {@link BorrowStatisticsService} and the
+     * {@link AutocompleteService} once the transaction commits. A borrow deleted before it was returned releases its book,
+     * see {@link #releaseBook(Borrow, Borrow)}.
+     *
+     * @param id the id of the borrow to delete.
+     * @return a {@link Mono} completing once the borrow is deleted, or if it doesn't exist.
+     */
+    @Transactional
+    public Mono<Void> delete(Long id) {
         return borrowRepository
-            .save(borrow)
-            .flatMap(savedBorrow ->
-                bookRepository
-                    .findById(bookId)
-                    .flatMap(book -> {
-                        book.setAvailable(false);
-                        return bookRepository.save(book);
-                    })
-                    .thenReturn(savedBorrow)
+            .findById(id, BorrowExpand.NONE)
+            .flatMap(existingBorrow ->
+                borrowRepository.deleteById(id).then(record(existingBorrow, null)).then(releaseBook(existingBorrow, null))
             );
     }
-    // public Mono<Map<Integer, Long>> getBooksPerYear() {
-    // return borrowRepository.countBooksPerYear()
-    //         .collectMap(
-    //             tuple -> tuple.getT1(), // year
-    //             tuple -> tuple.getT2()  // count
-    //         );
-    // }
+
+    /**
+     * Mark the book held by a borrow after an update as unavailable, unless the borrow already held it before, and index it
+     * by the {@link BookIndexService} as unavailable once the transaction commits.
+     * <p>
+     * Like {@link #lend(Borrow)}, the book is marked with a single conditional update, which fails if it is already lent.
+     *
+     * @param before the borrow before the update.
+     * @param after the borrow after the update.
+     * @return a {@link Mono} completing once the book is marked, or at once if the borrow holds no new book,
+     * or a {@link BookNotAvailableException} error if the book is already lent.
+     */
+    private Mono<Void> holdBook(Borrow before, Borrow after) {
+        Long bookId = heldBookId(after);
+        if (bookId == null || bookId.equals(heldBookId(before))) {
+            return Mono.empty();
+        }
+        return bookRepository
+            .markUnavailable(bookId)
+            .flatMap(available -> {
+                if (Boolean.TRUE.equals(available)) {
+                    return bookIndexService.markUnavailableOnCommit(bookId);
+                }
+                // a book which doesn't exist is rejected by the foreign key of the borrow
+                return bookRepository
+                    .existsById(bookId)
+                    .flatMap(exists -> exists ? Mono.<Void>error(new BookNotAvailableException(bookId)) : Mono.<Void>empty());
+            });
+    }
+
+    /**
+     * Mark the book held by a borrow before an update or a delete as available, unless the borrow still holds it after,
+     * and if it was unavailable, index it by the {@link BookIndexService} as available once the transaction commits.
+     *
+     * @param before the borrow before the update or the delete.
+     * @param after the borrow after the update, or {@code null} if it is deleted.
+     * @return a {@link Mono} completing once the book is marked, or at once if the borrow released no book.
+     */
+    private Mono<Void> releaseBook(Borrow before, Borrow after) {
+        Long bookId = heldBookId(before);
+        if (bookId == null || bookId.equals(heldBookId(after))) {
+            return Mono.empty();
+        }
+        // a book already available, or deleted, is left as the indexes know it
+        return bookRepository
+            .markAvailable(bookId)
+            .filter(Boolean.TRUE::equals)
+            .flatMap(unavailable -> bookIndexService.markAvailableOnCommit(bookId));
+    }
+
+    /**
+     * @return the id of the book a borrow holds, or {@code null} if it is returned, or has no book.
+     */
+    private static Long heldBookId(Borrow borrow) {
+        return borrow == null || borrow.getReturnDate() != null ? null : borrow.getBookId();
+    }
+
+    private Mono<Void> record(Borrow before, Borrow after) {
+        return topBooksService
+            .recordOnCommit(before, after)
+            .then(borrowStatisticsService.recordOnCommit(before, after))
+            .then(autocompleteService.recordBorrowOnCommit(before, after));
+    }
 }
@@ -0,0 +1,367 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.Borrow;
+import com.mycompany.myapp.repository.BorrowPerYearProjection;
+import com.mycompany.myapp.repository.BorrowRepository;
+import com.mycompany.myapp.repository.BorrowsPerDayProjection;
+import com.mycompany.myapp.repository.TransactionCallbacks;
+import com.mycompany.myapp.service.dto.BorrowStatisticsDTO;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Service keeping rollups of the borrows per day, month and year (in UTC), so the statistics are read from memory
+ * instead of aggregating the whole borrow table.
+ * <p>
+ * Each period counts the borrows made during it, the borrows returned during it, and the borrows made during it which are
+ * overdue: returned, or still out, more than the loan period after they were made. The rollups are loaded from the
+ * database once the application is ready, then updated by every borrow created, changed or deleted through the services,
+ * once its transaction commits. Borrows changed directly in the database are only seen after a {@link #rebuild()}. Until
+ * the rollups are loaded, the requests wait for them up to {@code application.projections.ready-timeout-millis}, then
+ * aggregate the borrow table instead.
+ */
+@Service
+public class BorrowStatisticsService {
+
+    /**
+     * The periods the borrows are counted over.
+     */
+    public enum Grain {
+        DAY("day", DateTimeFormatter.ISO_LOCAL_DATE),
+        MONTH("month", DateTimeFormatter.ofPattern("yyyy-MM")),
+        YEAR("year", DateTimeFormatter.ofPattern("yyyy"));
+
+        private final String code;
+        private final DateTimeFormatter formatter;
+
+        Grain(String code, DateTimeFormatter formatter) {
+            this.code = code;
+            this.formatter = formatter;
+        }
+
+        public String getCode() {
+            return code;
+        }
+
+        /**
+         * Find a grain by its code, like {@code day} or {@code month}.
+         * @param code the code of the grain.
+         * @return the grain, or an empty {@link Optional} if the code is unknown.
+         */
+        public static Optional<Grain> fromCode(String code) {
+            return Arrays.stream(values()).filter(grain -> grain.code.equals(code)).findFirst();
+        }
+
+        /**
+         * @return the first day of the period containing {@code day}.
+         */
+        LocalDate start(LocalDate day) {
+            return switch (this) {
+                case DAY -> day;
+                case MONTH -> day.withDayOfMonth(1);
+                case YEAR -> day.withDayOfYear(1);
+            };
+        }
+
+        /**
+         * @return the last day of the period starting on {@code start}.
+         */
+        LocalDate end(LocalDate start) {
+            return switch (this) {
+                case DAY -> start;
+                case MONTH -> start.plusMonths(1).minusDays(1);
+                case YEAR -> start.plusYears(1).minusDays(1);
+            };
+        }
+
+        String format(LocalDate start) {
+            return formatter.format(start);
+        }
+    }
+
+    /**
+     * The dates of a borrow, as they were when it was written.
+     */
+    record BorrowDates(Instant borrowDate, Instant returnDate) {
+        static BorrowDates of(Borrow borrow) {
+            return borrow == null ? null : new BorrowDates(borrow.getBorrowDate(), borrow.getReturnDate());
+        }
+    }
+
+    private final BorrowRepository borrowRepository;
+    private final int loanDays;
+
+    private final InMemoryProjection<Rollups> projection;
+
+    public BorrowStatisticsService(BorrowRepository borrowRepository, ApplicationProperties applicationProperties) {
+        this.borrowRepository = borrowRepository;
+        this.loanDays = applicationProperties.getBorrowStatistics().getLoanDays();
+        this.projection = new InMemoryProjection<>("borrow statistics", new Rollups(loanDays), applicationProperties);
+    }
+
+    /**
+     * Load the rollups from the database, retrying until it succeeds.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadFromDatabase() {
+        projection.loadFromDatabase(readRollups());
+    }
+
+    /**
+     * Rebuild the rollups from the database, unless a rebuild is already running.
+     * <p>
+     * The statistics are served from the previous rollups until the new ones are loaded. The borrows written while the
+     * database is read are applied to the new rollups once loaded, except the borrows created with an id the database
+     * already returned, which it counted. A borrow changed or deleted right when the database is read may still be counted
+     * in both its versions, until the next rebuild.
+     *
+     * @return a {@link Mono} completing once the rollups are rebuilt.
+     */
+    public Mono<Void> rebuild() {
+        return projection.rebuild(readRollups());
+    }
+
+    /**
+     * Get the statistics of the periods between two days, from the rollups once loaded, or from the database if they
+     * aren't loaded in time.
+     *
+     * @param grain the periods to count the borrows over.
+     * @param from the first day, or {@code null} from the first period with borrows.
+     * @param to the last day, or {@code null} up to the last period with borrows.
+     * @return the statistics of the periods with borrows, the oldest period first.
+     */
+    public Flux<BorrowStatisticsDTO> findStatistics(Grain grain, LocalDate from, LocalDate to) {
+        return whenLoaded(
+            () -> Flux.fromIterable(statistics(grain, from, to, utcToday())),
+            () -> readRollups().flatMapIterable(databaseRollups -> databaseRollups.statistics(grain, from, to, utcToday()))
+        );
+    }
+
+    /**
+     * Get the number of borrows made per year, from the rollups once loaded, or from the database if they aren't loaded in
+     * time.
+     *
+     * @return the number of borrows of the years with borrows, the oldest year first.
+     */
+    public Flux<BorrowPerYearProjection> findBorrowsPerYear() {
+        return whenLoaded(
+            () ->
+                Flux.fromIterable(statistics(Grain.YEAR, null, null, utcToday())).map(statistics -> {
+                    BorrowPerYearProjection projection = new BorrowPerYearProjection();
+                    projection.setYear(Integer.parseInt(statistics.getPeriod()));
+                    projection.setTotal(statistics.getBorrowed());
+                    return projection;
+                }),
+            borrowRepository::countBorrowsPerYear
+        );
+    }
+
+    /**
+     * Count a written borrow once the current transaction commits, or now if there is no transaction.
+     *
+     * @param before the borrow before it was written, or {@code null} if it is created.
+     * @param after the borrow once written, or {@code null} if it is deleted.
+     * @return a {@link Mono} completing once the borrow is counted, or registered to be counted.
+     */
+    public Mono<Void> recordOnCommit(Borrow before, Borrow after) {
+        // the dates are read now, as the borrows may change before the transaction commits
+        Long id = after != null ? after.getId() : before.getId();
+        BorrowDates previous = BorrowDates.of(before);
+        BorrowDates next = BorrowDates.of(after);
+        return TransactionCallbacks.afterCommit(() -> record(id, previous, next));
+    }
+
+    void load(List<BorrowsPerDayProjection> borrowsPerDay, List<BorrowsPerDayProjection> returnsPerDay) {
+        projection.load(rollups(borrowsPerDay, returnsPerDay));
+    }
+
+    void record(Long id, BorrowDates before, BorrowDates after) {
+        projection.change(
+            rollups -> rollups.replace(before, after),
+            rollups -> {
+                // the borrows created before the database returned a greater id are already counted by it
+                if (before != null || id == null || id > rollups.maxLoadedId) {
+                    rollups.replace(before, after);
+                }
+            }
+        );
+    }
+
+    List<BorrowStatisticsDTO> statistics(Grain grain, LocalDate from, LocalDate to, LocalDate today) {
+        return projection.get(rollups -> rollups.statistics(grain, from, to, today));
+    }
+
+    /**
+     * Read from the rollups once they are loaded, or from the database if they aren't loaded in time.
+     */
+    private <T> Flux<T> whenLoaded(Supplier<Flux<T>> fromRollups, Supplier<Flux<T>> fromDatabase) {
+        return projection
+            .whenReady()
+            .thenMany(Flux.defer(fromRollups))
+            .onErrorResume(ProjectionNotReadyException.class, e -> fromDatabase.get());
+    }
+
+    private Mono<Rollups> readRollups() {
+        return Mono.zip(
+            borrowRepository.countBorrowsPerDay(loanDays).collectList(),
+            borrowRepository.countReturnsPerDay().collectList()
+        ).map(rows -> rollups(rows.getT1(), rows.getT2()));
+    }
+
+    private Rollups rollups(List<BorrowsPerDayProjection> borrowsPerDay, List<BorrowsPerDayProjection> returnsPerDay) {
+        Rollups loadedRollups = new Rollups(loanDays);
+        borrowsPerDay.forEach(row ->
+            loadedRollups.addBorrowed(row.getDay(), row.getBorrowed(), row.getOutstanding(), row.getReturnedLate())
+        );
+        returnsPerDay.forEach(row -> loadedRollups.addReturned(row.getDay(), row.getReturned()));
+        loadedRollups.maxLoadedId = borrowsPerDay
+            .stream()
+            .map(BorrowsPerDayProjection::getMaxId)
+            .filter(Objects::nonNull)
+            .mapToLong(Long::longValue)
+            .max()
+            .orElse(Long.MIN_VALUE);
+        return loadedRollups;
+    }
+
+    private static LocalDate utcToday() {
+        return LocalDate.now(ZoneOffset.UTC);
+    }
+
+    /**
+     * The borrow counters of a period.
+     */
+    private static final class Counts {
+
+        private long borrowed;
+        private long returned;
+        private long returnedLate;
+        private long outstanding;
+
+        boolean isEmpty() {
+            return borrowed == 0 && returned == 0 && returnedLate == 0 && outstanding == 0;
+        }
+    }
+
+    /**
+     * The borrow counters of every period, for each grain.
+     */
+    private static final class Rollups {
+
+        private final int loanDays;
+        private final Map<Grain, NavigableMap<LocalDate, Counts>> periods = new EnumMap<>(Grain.class);
+        // the greatest id of the borrows read from the database
+        private long maxLoadedId = Long.MIN_VALUE;
+
+        Rollups(int loanDays) {
+            this.loanDays = loanDays;
+            for (Grain grain : Grain.values()) {
+                periods.put(grain, new TreeMap<>());
+            }
+        }
+
+        void addBorrowed(LocalDate day, long borrowed, long outstanding, long returnedLate) {
+            for (Grain grain : Grain.values()) {
+                update(grain, day, counts -> {
+                    counts.borrowed += borrowed;
+                    counts.outstanding += outstanding;
+                    counts.returnedLate += returnedLate;
+                });
+            }
+        }
+
+        void addReturned(LocalDate day, long returned) {
+            for (Grain grain : Grain.values()) {
+                update(grain, day, counts -> counts.returned += returned);
+            }
+        }
+
+        /**
+         * Replace a borrow: its previous version is subtracted, and its new version added. Borrows without a borrow date
+         * aren't counted.
+         */
+        void replace(BorrowDates before, BorrowDates after) {
+            add(before, -1);
+            add(after, 1);
+        }
+
+        private void add(BorrowDates borrow, long count) {
+            if (borrow == null || borrow.borrowDate() == null) {
+                return;
+            }
+            Instant returnDate = borrow.returnDate();
+            boolean late = returnDate != null && returnDate.isAfter(borrow.borrowDate().plus(Duration.ofDays(loanDays)));
+            addBorrowed(utcDay(borrow.borrowDate()), count, returnDate == null ? count : 0, late ? count : 0);
+            if (returnDate != null) {
+                addReturned(utcDay(returnDate), count);
+            }
+        }
+
+        private void update(Grain grain, LocalDate day, Consumer<Counts> update) {
+            NavigableMap<LocalDate, Counts> counts = periods.get(grain);
+            LocalDate start = grain.start(day);
+            Counts period = counts.computeIfAbsent(start, s -> new Counts());
+            update.accept(period);
+            if (period.isEmpty()) {
+                counts.remove(start);
+            }
+        }
+
+        List<BorrowStatisticsDTO> statistics(Grain grain, LocalDate from, LocalDate to, LocalDate today) {
+            NavigableMap<LocalDate, Counts> selected = periods.get(grain);
+            if (from != null) {
+                selected = selected.tailMap(grain.start(from), true);
+            }
+            if (to != null) {
+                selected = selected.headMap(to, true);
+            }
+            // the borrows made up to that day, and still out, are overdue
+            LocalDate lastOverdueDay = today.minusDays(loanDays + 1L);
+            List<BorrowStatisticsDTO> statistics = new ArrayList<>(selected.size());
+            selected.forEach((start, counts) -> {
+                long outstandingOverdue;
+                if (!grain.end(start).isAfter(lastOverdueDay)) {
+                    outstandingOverdue = counts.outstanding;
+                } else if (start.isAfter(lastOverdueDay)) {
+                    outstandingOverdue = 0;
+                } else {
+                    outstandingOverdue = periods
+                        .get(Grain.DAY)
+                        .subMap(start, true, lastOverdueDay, true)
+                        .values()
+                        .stream()
+                        .mapToLong(day -> day.outstanding)
+                        .sum();
+                }
+                statistics.add(
+                    new BorrowStatisticsDTO(grain.format(start), counts.borrowed, counts.returned, counts.returnedLate + outstandingOverdue)
+                );
+            });
+            return statistics;
+        }
+
+        private static LocalDate utcDay(Instant instant) {
+            return LocalDate.ofInstant(instant, ZoneOffset.UTC);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.mycompany.myapp.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.Book;
+import com.mycompany.myapp.domain.Member;
+import com.mycompany.myapp.repository.BookRepository;
+import com.mycompany.myapp.repository.MemberRepository;
+import com.mycompany.myapp.service.dto.BulkImportResultDTO;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Service importing entities sent as NDJSON, one entity per line.
+ * <p>
+ * Each line is parsed and validated on its own: a line in error is reported, and the import goes on. The valid entities
+ * are inserted in batches, each batch with multi-row inserts in its own transaction, one batch at a time, so the lines
+ * are only read as fast as they are inserted. When a batch fails, its entities are inserted again one by one, to report
+ * the lines in error and import the others.
+ */
+@Service
+public class BulkImportService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BulkImportService.class);
+
+    private final BookRepository bookRepository;
+
+    private final MemberRepository memberRepository;
+
+    private final ObjectMapper objectMapper;
+
+    private final Validator validator;
+
+    private final TransactionalOperator transactionalOperator;
+
+    private final ApplicationProperties.BulkImport properties;
+
+    private final BookIndexService bookIndexService;
+
+    private final MemberIndexService memberIndexService;
+
+    public BulkImportService(
+        BookRepository bookRepository,
+        MemberRepository memberRepository,
+        ObjectMapper objectMapper,
+        Validator validator,
+        TransactionalOperator transactionalOperator,
+        ApplicationProperties applicationProperties,
+        BookIndexService bookIndexService,
+        MemberIndexService memberIndexService
+    ) {
+        this.bookRepository = bookRepository;
+        this.memberRepository = memberRepository;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.transactionalOperator = transactionalOperator;
+        this.properties = applicationProperties.getBulkImport();
+        this.bookIndexService = bookIndexService;
+        this.memberIndexService = memberIndexService;
+    }
+
+    /**
+     * Import new books.
+     *
+     * @param lines the books, one JSON object per line, without id.
+     * @return the summary of the import.
+     */
+    public Mono<BulkImportResultDTO> importBooks(Flux<String> lines) {
+        // the inserted books aren't read back, so the search, autocomplete, facet and availability indexes are reloaded
+        return importLines(lines, Book.class, Book::getId, bookRepository::insertAll).flatMap(result ->
+            result.getImported() > 0 ? bookIndexService.rebuild().thenReturn(result) : Mono.just(result)
+        );
+    }
+
+    /**
+     * Import new members.
+     *
+     * @param lines the members, one JSON object per line, without id.
+     * @return the summary of the import.
+     */
+    public Mono<BulkImportResultDTO> importMembers(Flux<String> lines) {
+        // the inserted members aren't read back, so the autocomplete index is reloaded
+        return importLines(lines, Member.class, Member::getId, memberRepository::insertAll).flatMap(result ->
+            result.getImported() > 0 ? memberIndexService.rebuild().thenReturn(result) : Mono.just(result)
+        );
+    }
+
+    private <T> Mono<BulkImportResultDTO> importLines(
+        Flux<String> lines,
+        Class<T> entityType,
+        Function<T, Long> idExtractor,
+        Function<List<T>, Mono<Long>> inserter
+    ) {
+        return Mono.defer(() -> {
+            Report report = new Report(properties.getMaxReportedErrors());
+            return lines
+                .index((index, content) -> new Line<T>(index + 1, content, null))
+                .filter(line -> !line.content().isBlank())
+                .mapNotNull(line -> parse(line, entityType, idExtractor, report))
+                .buffer(Math.max(1, properties.getBatchSize()))
+                .concatMap(batch -> insert(batch, inserter, report), 1)
+                .then(Mono.fromSupplier(report::toDTO))
+                .doOnNext(result -> LOG.debug("Imported {}: {}", entityType.getSimpleName(), result));
+        });
+    }
+
+    private <T> Line<T> parse(Line<T> line, Class<T> entityType, Function<T, Long> idExtractor, Report report) {
+        T entity;
+        try {
+            entity = objectMapper.readValue(line.content(), entityType);
+        } catch (JsonProcessingException e) {
+            report.failed(line.number(), e.getOriginalMessage());
+            return null;
+        }
+        if (entity == null) {
+            report.failed(line.number(), "not an object");
+            return null;
+        }
+        if (idExtractor.apply(entity) != null) {
+            report.failed(line.number(), "a new entity cannot already have an id");
+            return null;
+        }
+        Set<ConstraintViolation<T>> violations = validator.validate(entity);
+        if (!violations.isEmpty()) {
+            report.failed(
+                line.number(),
+                violations
+                    .stream()
+                    .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", "))
+            );
+            return null;
+        }
+        return new Line<>(line.number(), null, entity);
+    }
+
+    private <T> Mono<Void> insert(List<Line<T>> batch, Function<List<T>, Mono<Long>> inserter, Report report) {
+        List<T> entities = batch.stream().map(Line::entity).toList();
+        return transactionalOperator
+            .transactional(inserter.apply(entities))
+            .doOnNext(report::imported)
+            .then()
+            .onErrorResume(e -> {
+                if (batch.size() == 1) {
+                    report.failed(batch.get(0).number(), NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+                    return Mono.empty();
+                }
+                LOG.debug("Inserting a batch of {} entities failed, inserting them one by one", batch.size(), e);
+                return Flux.fromIterable(batch)
+                    .concatMap(line -> insert(List.of(line), inserter, report))
+                    .then();
+            });
+    }
+
+    /**
+     * A line of the import: its content when read, then its entity once parsed.
+     */
+    private record Line<T>(long number, String content, T entity) {}
+
+    /**
+     * The counts and the first errors of an import.
+     */
+    private static final class Report {
+
+        private final int maxReportedErrors;
+        private final BulkImportResultDTO result = new BulkImportResultDTO();
+
+        Report(int maxReportedErrors) {
+            this.maxReportedErrors = maxReportedErrors;
+        }
+
+        synchronized void imported(long count) {
+            result.setImported(result.getImported() + count);
+        }
+
+        synchronized void failed(long line, String message) {
+            result.setFailed(result.getFailed() + 1);
+            if (result.getErrors().size() < maxReportedErrors) {
+                result.getErrors().add(new BulkImportResultDTO.LineError(line, message));
+            }
+        }
+
+        synchronized BulkImportResultDTO toDTO() {
+            // the errors of a batch are found after the parsing errors of the lines read while it was inserted
+            result.getErrors().sort((first, second) -> Long.compare(first.line(), second.line()));
+            return result;
+        }
+    }
+}
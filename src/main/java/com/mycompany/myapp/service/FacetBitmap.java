@@ -0,0 +1,163 @@
+package com.mycompany.myapp.service;
+
+import java.util.Arrays;
+
+/**
+ * A set of document numbers, stored as a sorted array while it is sparse, and as a bitmap once it is dense, whichever
+ * takes less memory, like the containers of a Roaring bitmap.
+ * <p>
+ * The sets of the values of a facet are mostly sparse, like the books of an author, and only a few are dense, like the
+ * available books: each set costs at most 32 bits per document in it, or one bit per document number.
+ * <p>
+ * This class isn't thread-safe.
+ */
+final class FacetBitmap {
+
+    // the small sets stay arrays, however low their document numbers
+    private static final int MIN_BITMAP_CARDINALITY = 64;
+
+    // the document numbers, while sparse, in increasing order
+    private int[] array = new int[4];
+    // the words of the bitmap, once dense, or null
+    private long[] words;
+    private int cardinality;
+
+    /**
+     * Add a document.
+     * @param number the document number.
+     */
+    void add(int number) {
+        if (words != null) {
+            int word = number >>> 6;
+            if (word >= words.length) {
+                words = Arrays.copyOf(words, Math.max(word + 1, words.length * 2));
+            }
+            long bit = 1L << number;
+            if ((words[word] & bit) == 0) {
+                words[word] |= bit;
+                cardinality++;
+            }
+            return;
+        }
+        // the documents are mostly added in increasing order, so appended
+        boolean last = cardinality == 0 || array[cardinality - 1] < number;
+        int index = last ? -cardinality - 1 : Arrays.binarySearch(array, 0, cardinality, number);
+        if (index >= 0) {
+            return;
+        }
+        index = -index - 1;
+        if (cardinality == array.length) {
+            array = Arrays.copyOf(array, cardinality * 2);
+        }
+        System.arraycopy(array, index, array, index + 1, cardinality - index);
+        array[index] = number;
+        cardinality++;
+        // an array of n numbers takes 32n bits, a bitmap up to its last number one bit per number
+        if (cardinality >= MIN_BITMAP_CARDINALITY && cardinality * 32L > array[cardinality - 1] + 1L) {
+            toBitmap();
+        }
+    }
+
+    /**
+     * Remove a document.
+     * @param number the document number.
+     */
+    void remove(int number) {
+        if (words != null) {
+            int word = number >>> 6;
+            long bit = 1L << number;
+            if (word < words.length && (words[word] & bit) != 0) {
+                words[word] &= ~bit;
+                cardinality--;
+                // back to an array once it takes half the memory of the bitmap, so a set doesn't flip on each change
+                if (cardinality < words.length) {
+                    toArray();
+                }
+            }
+            return;
+        }
+        int index = Arrays.binarySearch(array, 0, cardinality, number);
+        if (index >= 0) {
+            System.arraycopy(array, index + 1, array, index, cardinality - index - 1);
+            cardinality--;
+        }
+    }
+
+    /**
+     * @return the number of documents.
+     */
+    int cardinality() {
+        return cardinality;
+    }
+
+    /**
+     * Count the documents also in a filter.
+     * @param filter the words of the filter bitmap.
+     * @return the number of documents in both.
+     */
+    int andCardinality(long[] filter) {
+        int count = 0;
+        if (words != null) {
+            int length = Math.min(words.length, filter.length);
+            for (int i = 0; i < length; i++) {
+                count += Long.bitCount(words[i] & filter[i]);
+            }
+        } else {
+            for (int i = 0; i < cardinality; i++) {
+                int number = array[i];
+                int word = number >>> 6;
+                if (word < filter.length && (filter[word] & (1L << number)) != 0) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Add the documents to a bitmap.
+     * @param target the words of the bitmap, long enough for every document.
+     */
+    void orInto(long[] target) {
+        if (words != null) {
+            int length = Math.min(words.length, target.length);
+            for (int i = 0; i < length; i++) {
+                target[i] |= words[i];
+            }
+        } else {
+            for (int i = 0; i < cardinality; i++) {
+                target[array[i] >>> 6] |= 1L << array[i];
+            }
+        }
+    }
+
+    /**
+     * @return {@code true} if the documents are stored as a bitmap.
+     */
+    boolean isBitmap() {
+        return words != null;
+    }
+
+    private void toBitmap() {
+        long[] bitmap = new long[(array[cardinality - 1] >>> 6) + 1];
+        for (int i = 0; i < cardinality; i++) {
+            bitmap[array[i] >>> 6] |= 1L << array[i];
+        }
+        words = bitmap;
+        array = null;
+    }
+
+    private void toArray() {
+        int[] numbers = new int[Math.max(4, cardinality)];
+        int i = 0;
+        for (int word = 0; word < words.length; word++) {
+            long bits = words[word];
+            while (bits != 0) {
+                numbers[i++] = (word << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+            }
+        }
+        array = numbers;
+        words = null;
+    }
+}
@@ -0,0 +1,200 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.repository.TransactionCallbacks;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.retry.Retry;
+
+/**
+ * A state projected in memory from the database, like an index of the books, loaded once the application is ready then
+ * kept up to date by the committed writes.
+ * <p>
+ * The state is read from its previous version until a new one is loaded. The changes made while the database is read are
+ * recorded, then replayed on the loaded state. Until the first state is loaded, the reads wait for it up to
+ * {@code application.projections.ready-timeout-millis}, then fail with a {@link ProjectionNotReadyException}.
+ *
+ * @param <S> the type of the state, only read and changed under the lock of the projection.
+ */
+final class InMemoryProjection<S> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(InMemoryProjection.class);
+
+    private final String name;
+    private final Duration readyTimeout;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private S state;
+    private boolean loaded;
+    // the changes made while the state is loaded, null once loaded
+    private List<Consumer<S>> recordedWhileLoading = new ArrayList<>();
+    private Mono<Void> loading;
+    private final Sinks.Empty<Void> ready = Sinks.empty();
+
+    /**
+     * @param name the name of the state, used in the logs and the errors.
+     * @param empty the state read until the first one is loaded.
+     * @param applicationProperties the properties of the application.
+     */
+    InMemoryProjection(String name, S empty, ApplicationProperties applicationProperties) {
+        this.name = name;
+        this.state = empty;
+        this.readyTimeout = Duration.ofMillis(applicationProperties.getProjections().getReadyTimeoutMillis());
+    }
+
+    /**
+     * Load the state, retrying until it succeeds.
+     *
+     * @param loader the state read from the database.
+     */
+    void loadFromDatabase(Mono<S> loader) {
+        rebuild(loader)
+            .doOnError(e -> LOG.warn("Could not load the {}, retrying: {}", name, e.getMessage()))
+            .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofMinutes(1)))
+            .subscribe();
+    }
+
+    /**
+     * Reload the state, unless a reload is already running. The changes are recorded from the subscription on, so the
+     * loader may read the database later.
+     *
+     * @param loader the state read from the database.
+     * @return a {@link Mono} completing once the state is reloaded.
+     */
+    Mono<Void> rebuild(Mono<S> loader) {
+        return Mono.defer(() -> {
+            lock.writeLock().lock();
+            try {
+                if (loading == null) {
+                    recordedWhileLoading = new ArrayList<>();
+                    loading = loader
+                        .doOnNext(this::load)
+                        .doFinally(signal -> {
+                            lock.writeLock().lock();
+                            try {
+                                loading = null;
+                            } finally {
+                                lock.writeLock().unlock();
+                            }
+                        })
+                        .then()
+                        .cache();
+                }
+                return loading;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * @return a {@link Mono} completing once the first state is loaded, or a {@link ProjectionNotReadyException} error if
+     * it isn't loaded in time.
+     */
+    Mono<Void> whenReady() {
+        return ready.asMono().timeout(readyTimeout, Mono.error(() -> new ProjectionNotReadyException(name)));
+    }
+
+    /**
+     * Read the state once the first one is loaded.
+     *
+     * @param read the read, returning {@code null} for an empty result.
+     * @return the result of the read, or a {@link ProjectionNotReadyException} error if the state isn't loaded in time.
+     */
+    <R> Mono<R> read(Function<S, R> read) {
+        return whenReady().then(Mono.fromSupplier(() -> get(read)));
+    }
+
+    /**
+     * Read the state now, loaded or not.
+     */
+    <R> R get(Function<S, R> read) {
+        lock.readLock().lock();
+        try {
+            return read.apply(state);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Change the state once the current transaction commits, or now if there is no transaction.
+     *
+     * @return a {@link Mono} completing once the state is changed, or registered to be changed.
+     */
+    Mono<Void> changeOnCommit(Consumer<S> change) {
+        return TransactionCallbacks.afterCommit(() -> change(change));
+    }
+
+    /**
+     * Change the state now, and record the change to replay it on the state being loaded.
+     */
+    void change(Consumer<S> change) {
+        change(change, change);
+    }
+
+    /**
+     * Change the state now, and record a replay of the change on the state being loaded.
+     *
+     * @param change the change of the current state.
+     * @param replay the change of the state being loaded, which may already contain it.
+     */
+    void change(Consumer<S> change, Consumer<S> replay) {
+        apply(
+            current -> {
+                change.accept(current);
+                return null;
+            },
+            replay
+        );
+    }
+
+    /**
+     * Change the state now, and record the change to replay it on the state being loaded.
+     *
+     * @return the result of the change, or {@code null} if no state is loaded yet.
+     */
+    <R> R apply(Function<S, R> change) {
+        return apply(change, change::apply);
+    }
+
+    private <R> R apply(Function<S, R> change, Consumer<S> replay) {
+        lock.writeLock().lock();
+        try {
+            if (recordedWhileLoading != null) {
+                recordedWhileLoading.add(replay);
+            }
+            return loaded ? change.apply(state) : null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replace the state with a loaded one, once the changes recorded while loading are replayed on it.
+     */
+    void load(S loadedState) {
+        lock.writeLock().lock();
+        try {
+            if (recordedWhileLoading != null) {
+                recordedWhileLoading.forEach(replay -> replay.accept(loadedState));
+            }
+            recordedWhileLoading = null;
+            state = loadedState;
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        LOG.debug("Loaded the {}", name);
+        ready.tryEmitEmpty();
+    }
+}
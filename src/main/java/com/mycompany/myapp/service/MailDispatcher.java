@@ -0,0 +1,195 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.mail.internet.MimeMessage;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessagePreparator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sends the emails from a bounded queue, with a pool of worker threads, so neither the rendering nor the blocking SMTP
+ * calls run on the request threads.
+ * <p>
+ * A worker takes up to {@code batch-size} emails from the queue and sends them with one call to the {@link JavaMailSender},
+ * which reuses one SMTP connection for all of them. The emails which failed are sent again with an exponential backoff,
+ * up to {@code max-attempts} times. The size of the queue, the send latency and the number of sent, failed and rejected
+ * emails are published as {@code mail.*} metrics.
+ */
+@Component
+public class MailDispatcher implements DisposableBean {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MailDispatcher.class);
+
+    private static final long POLL_MILLIS = 500;
+
+    private static final long SHUTDOWN_SECONDS = 10;
+
+    private record Mail(String recipient, MimeMessagePreparator preparator) {}
+
+    private final JavaMailSender javaMailSender;
+    private final BlockingQueue<Mail> queue;
+    private final ExecutorService workers;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final Timer sendTimer;
+    private final Counter sent;
+    private final Counter failed;
+    private final Counter rejected;
+    private volatile boolean running = true;
+
+    public MailDispatcher(JavaMailSender javaMailSender, ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        ApplicationProperties.Mail properties = applicationProperties.getMail();
+        this.javaMailSender = javaMailSender;
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        this.batchSize = Math.max(1, properties.getBatchSize());
+        this.maxAttempts = Math.max(1, properties.getMaxAttempts());
+        this.initialBackoffMillis = properties.getInitialBackoffMillis();
+        Gauge.builder("mail.queue.size", queue, BlockingQueue::size).description("Emails waiting to be sent").register(meterRegistry);
+        this.sendTimer = Timer.builder("mail.send").description("Time to send a batch of emails").register(meterRegistry);
+        this.sent = Counter.builder("mail.messages").tag("result", "sent").register(meterRegistry);
+        this.failed = Counter.builder("mail.messages").tag("result", "failed").register(meterRegistry);
+        this.rejected = Counter.builder("mail.messages").tag("result", "rejected").register(meterRegistry);
+
+        int workerCount = Math.max(1, properties.getWorkers());
+        this.workers = Executors.newFixedThreadPool(workerCount, threadFactory());
+        for (int i = 0; i < workerCount; i++) {
+            workers.execute(this::work);
+        }
+    }
+
+    /**
+     * Queue an email, without blocking.
+     *
+     * @param recipient the recipient, for the logs.
+     * @param preparator fills the message, in a worker thread.
+     * @return {@code false} if the queue is full: the email is dropped.
+     */
+    public boolean submit(String recipient, MimeMessagePreparator preparator) {
+        if (!running || !queue.offer(new Mail(recipient, preparator))) {
+            rejected.increment();
+            LOG.warn("Email to '{}' dropped, the mail queue is {}", recipient, running ? "full" : "stopped");
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        workers.shutdown();
+        if (!workers.awaitTermination(SHUTDOWN_SECONDS, TimeUnit.SECONDS)) {
+            LOG.warn("{} emails not sent before the shutdown", queue.size());
+            workers.shutdownNow();
+        }
+    }
+
+    private void work() {
+        List<Mail> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Mail first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                send(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                LOG.error("Unexpected error while sending emails", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void send(List<Mail> batch) throws InterruptedException {
+        Map<MimeMessage, Mail> messages = new LinkedHashMap<>();
+        for (Mail mail : batch) {
+            try {
+                MimeMessage message = javaMailSender.createMimeMessage();
+                mail.preparator().prepare(message);
+                messages.put(message, mail);
+            } catch (Exception e) {
+                failed.increment();
+                LOG.warn("Email could not be prepared for user '{}'", mail.recipient(), e);
+            }
+        }
+        for (int attempt = 1; !messages.isEmpty(); attempt++) {
+            long start = System.nanoTime();
+            MailException error = null;
+            try {
+                javaMailSender.send(messages.keySet().toArray(MimeMessage[]::new));
+            } catch (MailException e) {
+                error = e;
+            }
+            sendTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (error == null) {
+                sent.increment(messages.size());
+                messages.values().forEach(mail -> LOG.debug("Sent email to User '{}'", mail.recipient()));
+                return;
+            }
+            Map<MimeMessage, Mail> failedMessages = failedMessages(error, messages);
+            sent.increment((double) messages.size() - failedMessages.size());
+            messages = failedMessages;
+            if (attempt >= maxAttempts) {
+                failed.increment(messages.size());
+                for (Mail mail : messages.values()) {
+                    LOG.warn("Email could not be sent to user '{}'", mail.recipient(), error);
+                }
+                return;
+            }
+            LOG.debug("{} emails could not be sent, attempt {} of {}: {}", messages.size(), attempt, maxAttempts, error.getMessage());
+            Thread.sleep(initialBackoffMillis << (attempt - 1));
+        }
+    }
+
+    /**
+     * @return the messages which failed: the ones reported by the exception, or all of them if it doesn't tell.
+     */
+    private static Map<MimeMessage, Mail> failedMessages(MailException e, Map<MimeMessage, Mail> messages) {
+        Map<Object, Exception> reported = e instanceof MailSendException sendException ? sendException.getFailedMessages() : null;
+        if (reported == null || reported.isEmpty()) {
+            return messages;
+        }
+        Map<MimeMessage, Mail> failedMessages = new LinkedHashMap<>();
+        messages.forEach((message, mail) -> {
+            if (reported.containsKey(message)) {
+                failedMessages.put(message, mail);
+            }
+        });
+        return failedMessages;
+    }
+
+    private static ThreadFactory threadFactory() {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "mail-dispatcher-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
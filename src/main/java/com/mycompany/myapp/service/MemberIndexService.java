@@ -0,0 +1,49 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.domain.Member;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+/**
+ * Service keeping the in-memory indexes of the members (the autocomplete of their names) up to date.
+ * <p>
+ * It is their only write path: the indexes are updated here with every member written, once its transaction commits.
+ */
+@Service
+public class MemberIndexService {
+
+    private final AutocompleteService autocompleteService;
+
+    public MemberIndexService(AutocompleteService autocompleteService) {
+        this.autocompleteService = autocompleteService;
+    }
+
+    /**
+     * Rebuild the indexes from the database, unless a rebuild is already running.
+     *
+     * @return a {@link Mono} completing once the indexes are rebuilt.
+     */
+    public Mono<Void> rebuild() {
+        return autocompleteService.rebuild();
+    }
+
+    /**
+     * Index a written member once the current transaction commits, or now if there is no transaction.
+     *
+     * @param member the member once written.
+     * @return a {@link Mono} completing once the member is indexed, or registered to be indexed.
+     */
+    public Mono<Void> indexOnCommit(Member member) {
+        return autocompleteService.indexMemberOnCommit(member);
+    }
+
+    /**
+     * Remove a deleted member from the indexes once the current transaction commits, or now if there is no transaction.
+     *
+     * @param id the id of the member.
+     * @return a {@link Mono} completing once the member is removed, or registered to be removed.
+     */
+    public Mono<Void> removeOnCommit(Long id) {
+        return autocompleteService.removeMemberOnCommit(id);
+    }
+}
@@ -0,0 +1,10 @@
+package com.mycompany.myapp.service;
+
+public class ProjectionNotReadyException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public ProjectionNotReadyException(String name) {
+        super("Not loaded yet: " + name);
+    }
+}
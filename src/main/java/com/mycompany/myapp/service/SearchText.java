@@ -0,0 +1,38 @@
+package com.mycompany.myapp.service;
+
+import java.text.Normalizer;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Normalizes the texts of the in-memory search indexes, so they match whatever the case and the accents.
+ */
+final class SearchText {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+    private SearchText() {}
+
+    /**
+     * Normalize a text: lower case, without accents, with a single space between its words.
+     * @param text the text, or {@code null}.
+     * @return the normalized text, empty if there isn't any word.
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String withoutMarks = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return SEPARATORS.matcher(withoutMarks.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    /**
+     * @param normalized a {@link #normalize(String) normalized} text.
+     * @return the words of the text.
+     */
+    static List<String> tokens(String normalized) {
+        return normalized.isEmpty() ? List.of() : List.of(normalized.split(" "));
+    }
+}
@@ -0,0 +1,341 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.Book;
+import com.mycompany.myapp.domain.Borrow;
+import com.mycompany.myapp.repository.BookRepository;
+import com.mycompany.myapp.repository.BorrowRepository;
+import com.mycompany.myapp.repository.BorrowsPerBookAndDayProjection;
+import com.mycompany.myapp.repository.TransactionCallbacks;
+import com.mycompany.myapp.service.dto.TopBookDTO;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Service keeping the most borrowed books, all-time and over sliding windows, so they are read in O(N) instead of
+ * aggregating the whole borrow table.
+ * <p>
+ * The borrow counters are loaded from the database once the application is ready, then updated by every borrow created,
+ * moved to another book or day, or deleted through {@link BorrowService}. They are kept per book and per day (in UTC) over
+ * the last year, and each window subtracts the days leaving it as time goes by. Borrows changed directly in the database,
+ * and the old borrows deleted by the purge, are only seen after a {@link #rebuild()}. Until the counters are loaded, the
+ * requests wait for them up to {@code application.projections.ready-timeout-millis}, then fail with a
+ * {@link ProjectionNotReadyException}.
+ */
+@Service
+public class TopBooksService {
+
+    /**
+     * The time windows the borrows are counted over.
+     */
+    public enum Window {
+        WEEK("7d", 7),
+        MONTH("30d", 30),
+        YEAR("365d", 365),
+        ALL("all", 0);
+
+        private final String code;
+        private final int days;
+
+        Window(String code, int days) {
+            this.code = code;
+            this.days = days;
+        }
+
+        public String getCode() {
+            return code;
+        }
+
+        /**
+         * Find a window by its code, like {@code 7d} or {@code all}.
+         * @param code the code of the window.
+         * @return the window, or an empty {@link Optional} if the code is unknown.
+         */
+        public static Optional<Window> fromCode(String code) {
+            return Arrays.stream(values()).filter(window -> window.code.equals(code)).findFirst();
+        }
+
+        /**
+         * @return the first day of this window ending on {@code today}, or {@code null} for the all-time window.
+         */
+        private LocalDate firstDay(LocalDate today) {
+            return days == 0 ? null : today.minusDays(days - 1L);
+        }
+    }
+
+    /**
+     * The number of borrows of a book.
+     */
+    record BookCount(long bookId, long count) {}
+
+    /**
+     * The book and the day (in UTC) a borrow is counted for.
+     */
+    record BookDay(Long bookId, LocalDate day) {
+        /**
+         * @return the book and the day of a borrow, or {@code null} if it is {@code null}, or has no book or no borrow date.
+         */
+        static BookDay of(Borrow borrow) {
+            if (borrow == null || borrow.getBookId() == null || borrow.getBorrowDate() == null) {
+                return null;
+            }
+            return new BookDay(borrow.getBookId(), LocalDate.ofInstant(borrow.getBorrowDate(), ZoneOffset.UTC));
+        }
+    }
+
+    private static final Comparator<BookCount> MOST_BORROWED_FIRST = Comparator.comparingLong(BookCount::count)
+        .reversed()
+        .thenComparingLong(BookCount::bookId);
+
+    private static final int LOGGED_DAYS = Window.YEAR.days;
+
+    private final BorrowRepository borrowRepository;
+    private final BookRepository bookRepository;
+
+    private final InMemoryProjection<Counters> projection;
+
+    public TopBooksService(
+        BorrowRepository borrowRepository,
+        BookRepository bookRepository,
+        ApplicationProperties applicationProperties
+    ) {
+        this.borrowRepository = borrowRepository;
+        this.bookRepository = bookRepository;
+        this.projection = new InMemoryProjection<>("borrow counters", new Counters(utcToday()), applicationProperties);
+    }
+
+    /**
+     * Load the counters from the database, retrying until it succeeds.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadFromDatabase() {
+        projection.loadFromDatabase(readCounters());
+    }
+
+    /**
+     * Rebuild the counters from the database, unless a rebuild is already running.
+     * <p>
+     * The most borrowed books are read from the previous counters until the new ones are loaded. The borrows committed
+     * while the database is read are counted in the new counters once loaded, except the ones with an id the database
+     * already returned, which it counted.
+     *
+     * @return a {@link Mono} completing once the counters are rebuilt.
+     */
+    public Mono<Void> rebuild() {
+        return projection.rebuild(readCounters());
+    }
+
+    /**
+     * Get the most borrowed books of a window, once the counters are loaded.
+     *
+     * @param window the window to count the borrows over.
+     * @param size the maximum number of books.
+     * @return the most borrowed books, with their number of borrows, the most borrowed first,
+     * or a {@link ProjectionNotReadyException} error if the counters aren't loaded in time.
+     */
+    public Flux<TopBookDTO> findTopBooks(Window window, int size) {
+        return projection
+            .read(counters -> counters.top(window, size, utcToday()))
+            .flatMapMany(counts ->
+                // the books are read with one query, the deleted ones are skipped
+                bookRepository
+                    .findAllByIds(counts.stream().map(BookCount::bookId).toList())
+                    .collectMap(Book::getId)
+                    .flatMapIterable(books ->
+                        counts
+                            .stream()
+                            .filter(count -> books.containsKey(count.bookId()))
+                            .map(count -> new TopBookDTO(books.get(count.bookId()), count.count()))
+                            .toList()
+                    )
+            );
+    }
+
+    /**
+     * Update the counters with a change of a borrow once the current transaction commits, or now if there is no transaction.
+     * <p>
+     * The previous book and day of the borrow are decremented and the new ones incremented, so a borrow moved to another
+     * book or day is counted once.
+     *
+     * @param before the borrow before the change, or {@code null} if it is created.
+     * @param after the borrow after the change, or {@code null} if it is deleted.
+     * @return a {@link Mono} completing once the change is recorded, or registered to be recorded.
+     */
+    public Mono<Void> recordOnCommit(Borrow before, Borrow after) {
+        BookDay previous = BookDay.of(before);
+        BookDay next = BookDay.of(after);
+        if (Objects.equals(previous, next)) {
+            return Mono.empty();
+        }
+        Long borrowId = after != null ? after.getId() : before.getId();
+        return TransactionCallbacks.afterCommit(() -> record(borrowId, previous, next));
+    }
+
+    void seed(List<BorrowsPerBookAndDayProjection> rows, LocalDate today) {
+        projection.load(counters(rows, today));
+    }
+
+    void record(Long borrowId, BookDay before, BookDay after) {
+        projection.change(
+            counters -> counters.replace(before, after),
+            // the borrows created while the database is read may already be counted by it
+            counters -> {
+                if (before != null || borrowId == null || borrowId > counters.maxSeededId) {
+                    counters.replace(before, after);
+                }
+            }
+        );
+    }
+
+    List<BookCount> top(Window window, int size, LocalDate today) {
+        return projection.get(counters -> counters.top(window, size, today));
+    }
+
+    private Mono<Counters> readCounters() {
+        return borrowRepository
+            .countBorrowsPerBookAndDay()
+            .collectList()
+            .map(rows -> counters(rows, utcToday()));
+    }
+
+    private static Counters counters(List<BorrowsPerBookAndDayProjection> rows, LocalDate today) {
+        Counters counters = new Counters(today);
+        for (BorrowsPerBookAndDayProjection row : rows) {
+            counters.add(row.getBookId(), row.getDay(), row.getTotal());
+            if (row.getMaxId() != null) {
+                counters.maxSeededId = Math.max(counters.maxSeededId, row.getMaxId());
+            }
+        }
+        return counters;
+    }
+
+    private static LocalDate utcToday() {
+        return LocalDate.now(ZoneOffset.UTC);
+    }
+
+    /**
+     * The borrow counters of every window, and of the days of the last year.
+     */
+    private static final class Counters {
+
+        private final Map<Window, Ranking> rankings = new EnumMap<>(Window.class);
+        private final NavigableMap<LocalDate, Map<Long, Long>> borrowsPerDay = new TreeMap<>();
+        private LocalDate today;
+        // the greatest id of the borrows read from the database
+        private long maxSeededId = Long.MIN_VALUE;
+
+        Counters(LocalDate today) {
+            this.today = today;
+            for (Window window : Window.values()) {
+                rankings.put(window, new Ranking());
+            }
+        }
+
+        // the counters are read under a shared lock, and reading them moves them to the new days
+        synchronized List<BookCount> top(Window window, int size, LocalDate today) {
+            if (today.isAfter(this.today)) {
+                advance(today);
+            }
+            return rankings.get(window).top(size);
+        }
+
+        void replace(BookDay before, BookDay after) {
+            if (before != null) {
+                add(before.bookId(), before.day(), -1);
+            }
+            if (after != null) {
+                add(after.bookId(), after.day(), 1);
+            }
+        }
+
+        void add(Long bookId, LocalDate day, long count) {
+            for (Window window : Window.values()) {
+                LocalDate firstDay = window.firstDay(today);
+                if (firstDay == null || (!day.isBefore(firstDay) && !day.isAfter(today))) {
+                    rankings.get(window).add(bookId, count);
+                }
+            }
+            if (!day.isBefore(Window.YEAR.firstDay(today))) {
+                borrowsPerDay.computeIfAbsent(day, d -> new HashMap<>()).merge(bookId, count, (a, b) -> a + b == 0 ? null : a + b);
+            }
+        }
+
+        /**
+         * Move to a new day: the days leaving a window are subtracted from it, and the days entering it are added to it
+         * (the borrows recorded since the last move, or dated in the future because of clock skews).
+         */
+        private void advance(LocalDate newToday) {
+            for (Window window : Window.values()) {
+                LocalDate firstDay = window.firstDay(today);
+                if (firstDay == null) {
+                    continue;
+                }
+                Ranking ranking = rankings.get(window);
+                LocalDate newFirstDay = window.firstDay(newToday);
+                LocalDate tomorrow = today.plusDays(1);
+                LocalDate leaving = newFirstDay.isBefore(tomorrow) ? newFirstDay : tomorrow;
+                LocalDate entering = newFirstDay.isAfter(tomorrow) ? newFirstDay : tomorrow;
+                borrowsPerDay
+                    .subMap(firstDay, true, leaving, false)
+                    .values()
+                    .forEach(counts -> counts.forEach((bookId, count) -> ranking.add(bookId, -count)));
+                borrowsPerDay
+                    .subMap(entering, true, newToday, true)
+                    .values()
+                    .forEach(counts -> counts.forEach(ranking::add));
+            }
+            today = newToday;
+            borrowsPerDay.headMap(today.minusDays(LOGGED_DAYS - 1L), false).clear();
+        }
+    }
+
+    /**
+     * The borrow counters of a window, with the books sorted by decreasing count.
+     */
+    private static final class Ranking {
+
+        private final Map<Long, Long> counts = new HashMap<>();
+        private final TreeSet<BookCount> sorted = new TreeSet<>(MOST_BORROWED_FIRST);
+
+        void add(Long bookId, long delta) {
+            long previous = counts.getOrDefault(bookId, 0L);
+            long count = previous + delta;
+            if (previous > 0) {
+                sorted.remove(new BookCount(bookId, previous));
+            }
+            if (count > 0) {
+                counts.put(bookId, count);
+                sorted.add(new BookCount(bookId, count));
+            } else {
+                counts.remove(bookId);
+            }
+        }
+
+        List<BookCount> top(int size) {
+            List<BookCount> top = new ArrayList<>(Math.min(size, sorted.size()));
+            Iterator<BookCount> iterator = sorted.iterator();
+            while (top.size() < size && iterator.hasNext()) {
+                top.add(iterator.next());
+            }
+            return top;
+        }
+    }
+}
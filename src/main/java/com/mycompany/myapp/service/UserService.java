@@ -6,7 +6,9 @@ import com.mycompany.myapp.domain.User;
 import com.mycompany.myapp.repository.AuthorityRepository;
 import com.mycompany.myapp.repository.UserRepository;
 import com.mycompany.myapp.security.AuthoritiesConstants;
+import com.mycompany.myapp.security.PasswordHashingScheduler;
 import com.mycompany.myapp.security.SecurityUtils;
+import com.mycompany.myapp.security.UserDetailsCache;
 import com.mycompany.myapp.service.dto.AdminUserDTO;
 import com.mycompany.myapp.service.dto.UserDTO;
 import java.time.Instant;
@@ -40,10 +42,22 @@ public class UserService {
 
     private final AuthorityRepository authorityRepository;
 
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, AuthorityRepository authorityRepository) {
+    private final PasswordHashingScheduler passwordHashingScheduler;
+
+    private final UserDetailsCache userDetailsCache;
+
+    public UserService(
+        UserRepository userRepository,
+        PasswordEncoder passwordEncoder,
+        AuthorityRepository authorityRepository,
+        PasswordHashingScheduler passwordHashingScheduler,
+        UserDetailsCache userDetailsCache
+    ) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.authorityRepository = authorityRepository;
+        this.passwordHashingScheduler = passwordHashingScheduler;
+        this.userDetailsCache = userDetailsCache;
     }
 
     @Transactional
@@ -66,7 +80,7 @@ public class UserService {
         return userRepository
             .findOneByResetKey(key)
             .filter(user -> user.getResetDate().isAfter(Instant.now().minus(1, ChronoUnit.DAYS)))
-            .publishOn(Schedulers.boundedElastic())
+            .publishOn(passwordHashingScheduler.getScheduler())
             .map(user -> {
                 user.setPassword(passwordEncoder.encode(newPassword));
                 user.setResetKey(null);
@@ -109,7 +123,7 @@ public class UserService {
                     return Mono.error(new EmailAlreadyUsedException());
                 }
             })
-            .publishOn(Schedulers.boundedElastic())
+            .publishOn(passwordHashingScheduler.getScheduler())
             .then(
                 Mono.fromCallable(() -> {
                     User newUser = new User();
@@ -158,11 +172,11 @@ public class UserService {
         } else {
             user.setLangKey(userDTO.getLangKey());
         }
-        return Flux.fromIterable(userDTO.getAuthorities() != null ? userDTO.getAuthorities() : new HashSet<>())
-            .flatMap(authorityRepository::findById)
+        return authorityRepository
+            .findAllById(userDTO.getAuthorities() != null ? userDTO.getAuthorities() : new HashSet<>())
             .doOnNext(authority -> user.getAuthorities().add(authority))
             .then(Mono.just(user))
-            .publishOn(Schedulers.boundedElastic())
+            .publishOn(passwordHashingScheduler.getScheduler())
             .map(newUser -> {
                 String encryptedPassword = passwordEncoder.encode(RandomUtil.generatePassword());
                 newUser.setPassword(encryptedPassword);
@@ -197,14 +211,9 @@ public class UserService {
                 user.setLangKey(userDTO.getLangKey());
                 Set<Authority> managedAuthorities = user.getAuthorities();
                 managedAuthorities.clear();
-                return userRepository
-                    .deleteUserAuthorities(user.getId())
-                    .thenMany(Flux.fromIterable(userDTO.getAuthorities()))
-                    .flatMap(authorityRepository::findById)
-                    .map(managedAuthorities::add)
-                    .then(Mono.just(user));
+                return authorityRepository.findAllById(userDTO.getAuthorities()).map(managedAuthorities::add).then(Mono.just(user));
             })
-            .flatMap(this::saveUser)
+            .flatMap(user -> saveUser(user, true))
             .doOnNext(user -> LOG.debug("Changed Information for User: {}", user))
             .map(AdminUserDTO::new);
     }
@@ -213,7 +222,7 @@ public class UserService {
     public Mono<Void> deleteUser(String login) {
         return userRepository
             .findOneByLogin(login)
-            .flatMap(user -> userRepository.delete(user).thenReturn(user))
+            .flatMap(user -> userRepository.delete(user).then(userDetailsCache.evictOnCompletion(user.getId())).thenReturn(user))
             .doOnNext(user -> LOG.debug("Deleted User: {}", user))
             .then();
     }
@@ -246,8 +255,27 @@ public class UserService {
             .then();
     }
 
+    /**
+     * Save a user, and link it to its authorities which aren't linked yet.
+     *
+     * @param user the user to save.
+     * @return the saved user.
+     */
     @Transactional
     public Mono<User> saveUser(User user) {
+        return saveUser(user, false);
+    }
+
+    /**
+     * Save a user, and link it to its authorities: the existing links are read, and only the missing ones are inserted,
+     * with one statement, so saving an unchanged user doesn't rewrite its authorities. The user is evicted from the
+     * {@link UserDetailsCache}, so its next login sees the changes.
+     *
+     * @param user the user to save.
+     * @param replaceAuthorities whether to delete the links to the authorities the user doesn't have anymore.
+     * @return the saved user.
+     */
+    private Mono<User> saveUser(User user, boolean replaceAuthorities) {
         return SecurityUtils.getCurrentUserLogin()
             .switchIfEmpty(Mono.just(Constants.SYSTEM))
             .flatMap(login -> {
@@ -259,11 +287,13 @@ public class UserService {
                 // once https://github.com/spring-projects/spring-data-r2dbc/issues/215 is done
                 return userRepository
                     .save(user)
-                    .flatMap(savedUser ->
-                        Flux.fromIterable(user.getAuthorities())
-                            .flatMap(authority -> userRepository.saveUserAuthority(savedUser.getId(), authority.getName()))
-                            .then(Mono.just(savedUser))
-                    );
+                    .flatMap(savedUser -> {
+                        List<String> authorities = user.getAuthorities().stream().map(Authority::getName).toList();
+                        Mono<Void> links = replaceAuthorities
+                            ? userRepository.updateUserAuthorities(savedUser.getId(), authorities)
+                            : userRepository.addUserAuthorities(savedUser.getId(), authorities);
+                        return links.then(userDetailsCache.evictOnCompletion(savedUser.getId())).thenReturn(savedUser);
+                    });
             });
     }
 
@@ -271,7 +301,7 @@ public class UserService {
     public Mono<Void> changePassword(String currentClearTextPassword, String newPassword) {
         return SecurityUtils.getCurrentUserLogin()
             .flatMap(userRepository::findOneByLogin)
-            .publishOn(Schedulers.boundedElastic())
+            .publishOn(passwordHashingScheduler.getScheduler())
             .map(user -> {
                 String currentEncryptedPassword = user.getPassword();
                 if (!passwordEncoder.matches(currentClearTextPassword, currentEncryptedPassword)) {
@@ -291,6 +321,11 @@ public class UserService {
         return userRepository.findAllWithAuthorities(pageable).map(AdminUserDTO::new);
     }
 
+    @Transactional(readOnly = true)
+    public Flux<AdminUserDTO> getAllManagedUsersAfter(Long afterId, int size) {
+        return userRepository.findAllWithAuthoritiesAfter(afterId, size).map(AdminUserDTO::new);
+    }
+
     @Transactional(readOnly = true)
     public Flux<UserDTO> getAllPublicUsers(Pageable pageable) {
         return userRepository.findAllByIdNotNullAndActivatedIsTrue(pageable).map(UserDTO::new);
@@ -0,0 +1,84 @@
+package com.mycompany.myapp.service.dto;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * A DTO representing a completion of a prefix, with its number of borrows.
+ */
+public class AutocompleteSuggestionDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private String type;
+
+    private String text;
+
+    private long borrows;
+
+    public AutocompleteSuggestionDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public AutocompleteSuggestionDTO(String type, String text, long borrows) {
+        this.type = type;
+        this.text = text;
+        this.borrows = borrows;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public void setText(String text) {
+        this.text = text;
+    }
+
+    public long getBorrows() {
+        return borrows;
+    }
+
+    public void setBorrows(long borrows) {
+        this.borrows = borrows;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        AutocompleteSuggestionDTO autocompleteSuggestionDTO = (AutocompleteSuggestionDTO) o;
+        return (
+            Objects.equals(getType(), autocompleteSuggestionDTO.getType()) &&
+            Objects.equals(getText(), autocompleteSuggestionDTO.getText()) &&
+            getBorrows() == autocompleteSuggestionDTO.getBorrows()
+        );
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getType(), getText(), getBorrows());
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "AutocompleteSuggestionDTO{" +
+            "type='" + type + '\'' +
+            ", text='" + text + '\'' +
+            ", borrows=" + borrows +
+            "}";
+    }
+}
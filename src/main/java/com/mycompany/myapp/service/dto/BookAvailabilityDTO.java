@@ -0,0 +1,68 @@
+package com.mycompany.myapp.service.dto;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * A DTO representing a change of the availability of a book.
+ */
+public class BookAvailabilityDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Long id;
+
+    private boolean available;
+
+    public BookAvailabilityDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public BookAvailabilityDTO(Long id, boolean available) {
+        this.id = id;
+        this.available = available;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    public void setAvailable(boolean available) {
+        this.available = available;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        BookAvailabilityDTO bookAvailabilityDTO = (BookAvailabilityDTO) o;
+        return Objects.equals(getId(), bookAvailabilityDTO.getId()) && isAvailable() == bookAvailabilityDTO.isAvailable();
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getId(), isAvailable());
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "BookAvailabilityDTO{" +
+            "id=" + id +
+            ", available=" + available +
+            "}";
+    }
+}
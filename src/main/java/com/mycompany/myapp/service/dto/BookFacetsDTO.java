@@ -0,0 +1,66 @@
+package com.mycompany.myapp.service.dto;
+
+import java.io.Serializable;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A DTO counting the books matching a selection of facet values, and the books of each facet value.
+ */
+public class BookFacetsDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private long total;
+
+    private Map<String, List<ValueCount>> facets = new LinkedHashMap<>();
+
+    public BookFacetsDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public BookFacetsDTO(long total, Map<String, List<ValueCount>> facets) {
+        this.total = total;
+        this.facets = facets;
+    }
+
+    /**
+     * @return the number of books matching the selection.
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    /**
+     * @return the values of each facet with books, by facet code.
+     */
+    public Map<String, List<ValueCount>> getFacets() {
+        return facets;
+    }
+
+    public void setFacets(Map<String, List<ValueCount>> facets) {
+        this.facets = facets;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "BookFacetsDTO{" +
+            "total=" + total +
+            ", facets=" + facets +
+            "}";
+    }
+
+    /**
+     * A facet value.
+     *
+     * @param value the value.
+     * @param count the number of books the selection would match with this value.
+     */
+    public record ValueCount(String value, long count) implements Serializable {}
+}
@@ -0,0 +1,96 @@
+package com.mycompany.myapp.service.dto;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * A DTO representing a book matching a search, with its score.
+ */
+public class BookSearchResultDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Long id;
+
+    private String title;
+
+    private String author;
+
+    private int score;
+
+    public BookSearchResultDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public BookSearchResultDTO(Long id, String title, String author, int score) {
+        this.id = id;
+        this.title = title;
+        this.author = author;
+        this.score = score;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getAuthor() {
+        return author;
+    }
+
+    public void setAuthor(String author) {
+        this.author = author;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public void setScore(int score) {
+        this.score = score;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        BookSearchResultDTO bookSearchResultDTO = (BookSearchResultDTO) o;
+        if (bookSearchResultDTO.getId() == null || getId() == null) {
+            return false;
+        }
+
+        return Objects.equals(getId(), bookSearchResultDTO.getId()) && getScore() == bookSearchResultDTO.getScore();
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getId(), getScore());
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "BookSearchResultDTO{" +
+            "id='" + id + '\'' +
+            ", title='" + title + '\'' +
+            ", author='" + author + '\'' +
+            ", score=" + score +
+            "}";
+    }
+}
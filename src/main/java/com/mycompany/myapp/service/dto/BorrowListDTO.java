@@ -0,0 +1,86 @@
+package com.mycompany.myapp.service.dto;
+
+import com.mycompany.myapp.domain.Book;
+import com.mycompany.myapp.domain.Borrow;
+import com.mycompany.myapp.domain.Member;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A DTO representing a normalized list of borrows: the borrows only hold the ids of their member and book, and each
+ * member and book they reference is sent once, in {@link #getMembers()} and {@link #getBooks()}.
+ */
+public class BorrowListDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private List<Borrow> borrows = new ArrayList<>();
+
+    private List<Member> members = new ArrayList<>();
+
+    private List<Book> books = new ArrayList<>();
+
+    /**
+     * Normalize a list of borrows.
+     *
+     * @param borrows the borrows, with or without their member and book.
+     * @return the borrows without their member and book, followed by each member and book read with them, once.
+     */
+    public static BorrowListDTO of(List<Borrow> borrows) {
+        BorrowListDTO list = new BorrowListDTO();
+        Map<Long, Member> members = new LinkedHashMap<>();
+        Map<Long, Book> books = new LinkedHashMap<>();
+        for (Borrow borrow : borrows) {
+            Borrow reference = new Borrow().id(borrow.getId()).borrowDate(borrow.getBorrowDate()).returnDate(borrow.getReturnDate());
+            reference.setMemberId(borrow.getMemberId());
+            reference.setBookId(borrow.getBookId());
+            list.borrows.add(reference);
+            if (borrow.getMember() != null && borrow.getMemberId() != null) {
+                members.putIfAbsent(borrow.getMemberId(), borrow.getMember());
+            }
+            if (borrow.getBook() != null && borrow.getBookId() != null) {
+                books.putIfAbsent(borrow.getBookId(), borrow.getBook());
+            }
+        }
+        list.members.addAll(members.values());
+        list.books.addAll(books.values());
+        return list;
+    }
+
+    public List<Borrow> getBorrows() {
+        return borrows;
+    }
+
+    public void setBorrows(List<Borrow> borrows) {
+        this.borrows = borrows;
+    }
+
+    public List<Member> getMembers() {
+        return members;
+    }
+
+    public void setMembers(List<Member> members) {
+        this.members = members;
+    }
+
+    public List<Book> getBooks() {
+        return books;
+    }
+
+    public void setBooks(List<Book> books) {
+        this.books = books;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "BorrowListDTO{" +
+            "borrows=" + borrows +
+            ", members=" + members +
+            ", books=" + books +
+            "}";
+    }
+}
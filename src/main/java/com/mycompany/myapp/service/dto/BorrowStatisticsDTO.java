@@ -0,0 +1,106 @@
+package com.mycompany.myapp.service.dto;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * A DTO representing the borrows of a period: a day ({@code 2024-06-30}), a month ({@code 2024-06}) or a year ({@code 2024}).
+ */
+public class BorrowStatisticsDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private String period;
+
+    private long borrowed;
+
+    private long returned;
+
+    private long overdue;
+
+    public BorrowStatisticsDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public BorrowStatisticsDTO(String period, long borrowed, long returned, long overdue) {
+        this.period = period;
+        this.borrowed = borrowed;
+        this.returned = returned;
+        this.overdue = overdue;
+    }
+
+    public String getPeriod() {
+        return period;
+    }
+
+    public void setPeriod(String period) {
+        this.period = period;
+    }
+
+    /**
+     * @return the number of borrows made during the period.
+     */
+    public long getBorrowed() {
+        return borrowed;
+    }
+
+    public void setBorrowed(long borrowed) {
+        this.borrowed = borrowed;
+    }
+
+    /**
+     * @return the number of borrows returned during the period, whenever they were made.
+     */
+    public long getReturned() {
+        return returned;
+    }
+
+    public void setReturned(long returned) {
+        this.returned = returned;
+    }
+
+    /**
+     * @return the number of borrows made during the period, and returned late or still out past their loan period.
+     */
+    public long getOverdue() {
+        return overdue;
+    }
+
+    public void setOverdue(long overdue) {
+        this.overdue = overdue;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        BorrowStatisticsDTO borrowStatisticsDTO = (BorrowStatisticsDTO) o;
+        return (
+            Objects.equals(period, borrowStatisticsDTO.period) &&
+            borrowed == borrowStatisticsDTO.borrowed &&
+            returned == borrowStatisticsDTO.returned &&
+            overdue == borrowStatisticsDTO.overdue
+        );
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(period, borrowed, returned, overdue);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "BorrowStatisticsDTO{" +
+            "period='" + period + '\'' +
+            ", borrowed=" + borrowed +
+            ", returned=" + returned +
+            ", overdue=" + overdue +
+            "}";
+    }
+}
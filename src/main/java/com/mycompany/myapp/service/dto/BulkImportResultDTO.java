@@ -0,0 +1,64 @@
+package com.mycompany.myapp.service.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A DTO summarizing an import of entities sent one per line: the number of entities imported, and the lines in error.
+ */
+public class BulkImportResultDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private long imported;
+
+    private long failed;
+
+    private List<LineError> errors = new ArrayList<>();
+
+    public long getImported() {
+        return imported;
+    }
+
+    public void setImported(long imported) {
+        this.imported = imported;
+    }
+
+    /**
+     * @return the number of lines in error, which may be more than the reported {@link #getErrors() errors}.
+     */
+    public long getFailed() {
+        return failed;
+    }
+
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+
+    public List<LineError> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<LineError> errors) {
+        this.errors = errors;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "BulkImportResultDTO{" +
+            "imported=" + imported +
+            ", failed=" + failed +
+            ", errors=" + errors +
+            "}";
+    }
+
+    /**
+     * A line which wasn't imported.
+     *
+     * @param line the number of the line, from 1.
+     * @param message why the line wasn't imported.
+     */
+    public record LineError(long line, String message) implements Serializable {}
+}
@@ -0,0 +1,25 @@
+package com.mycompany.myapp.service.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+/**
+ * A DTO holding the ids of the entities to read at once.
+ */
+public class IdsRequestDTO {
+
+    public static final int MAX_IDS = 1000;
+
+    @NotNull
+    @Size(max = MAX_IDS)
+    private List<@NotNull Long> ids;
+
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+}
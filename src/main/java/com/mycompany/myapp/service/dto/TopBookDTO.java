@@ -0,0 +1,97 @@
+package com.mycompany.myapp.service.dto;
+
+import com.mycompany.myapp.domain.Book;
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * A DTO representing a book, with its number of borrows.
+ */
+public class TopBookDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Long id;
+
+    private String title;
+
+    private String author;
+
+    private long borrowCount;
+
+    public TopBookDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public TopBookDTO(Book book, long borrowCount) {
+        this.id = book.getId();
+        this.title = book.getTitle();
+        this.author = book.getAuthor();
+        this.borrowCount = borrowCount;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getAuthor() {
+        return author;
+    }
+
+    public void setAuthor(String author) {
+        this.author = author;
+    }
+
+    public long getBorrowCount() {
+        return borrowCount;
+    }
+
+    public void setBorrowCount(long borrowCount) {
+        this.borrowCount = borrowCount;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        TopBookDTO topBookDTO = (TopBookDTO) o;
+        if (topBookDTO.getId() == null || getId() == null) {
+            return false;
+        }
+
+        return Objects.equals(getId(), topBookDTO.getId()) && getBorrowCount() == topBookDTO.getBorrowCount();
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getId(), getBorrowCount());
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "TopBookDTO{" +
+            "id='" + id + '\'' +
+            ", title='" + title + '\'' +
+            ", author='" + author + '\'' +
+            ", borrowCount=" + borrowCount +
+            "}";
+    }
+}
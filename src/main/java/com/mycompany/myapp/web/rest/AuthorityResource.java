@@ -3,10 +3,10 @@ package com.mycompany.myapp.web.rest;
 import com.mycompany.myapp.domain.Authority;
 import com.mycompany.myapp.repository.AuthorityRepository;
 import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import com.mycompany.myapp.web.util.StreamingResponseUtil;
 import jakarta.validation.Valid;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -79,9 +79,9 @@ public class AuthorityResource {
      */
     @GetMapping(value = "", produces = MediaType.APPLICATION_JSON_VALUE)
     @PreAuthorize("hasAnyAuthority('ROLE_ADMIN')")
-    public Mono<List<Authority>> getAllAuthorities() {
+    public Flux<Authority> getAllAuthorities() {
         LOG.debug("REST request to get all Authorities");
-        return authorityRepository.findAll().collectList();
+        return StreamingResponseUtil.stream(authorityRepository.findAll());
     }
 
     /**
@@ -92,7 +92,7 @@ public class AuthorityResource {
     @PreAuthorize("hasAnyAuthority('ROLE_ADMIN')")
     public Flux<Authority> getAllAuthoritiesAsStream() {
         LOG.debug("REST request to get all Authorities as a stream");
-        return authorityRepository.findAll();
+        return StreamingResponseUtil.stream(authorityRepository.findAll());
     }
 
     /**
@@ -0,0 +1,78 @@
+package com.mycompany.myapp.web.rest;
+
+import com.mycompany.myapp.service.AutocompleteService;
+import com.mycompany.myapp.service.dto.AutocompleteSuggestionDTO;
+import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import java.util.EnumSet;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+/**
+ * REST controller completing the book titles, the authors and the member names.
+ */
+@RestController
+@RequestMapping("/api/autocomplete")
+public class AutocompleteResource {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AutocompleteResource.class);
+
+    private static final String ENTITY_NAME = "autocomplete";
+
+    private final AutocompleteService autocompleteService;
+
+    public AutocompleteResource(AutocompleteService autocompleteService) {
+        this.autocompleteService = autocompleteService;
+    }
+
+    /**
+     * {@code GET  /autocomplete?q=} : complete a prefix, served from memory.
+     *
+     * @param q the prefix, of a text or of one of its words.
+     * @param types the kinds of completions, separated by commas: {@code title}, {@code author} and {@code member}, all by default.
+     * @param limit the maximum number of suggestions, up to {@code application.autocomplete.max-suggestions} and by default.
+     * @return the suggestions with their number of borrows, the most borrowed first,
+     * or with status {@code 400 (Bad Request)} if the parameters are invalid.
+     */
+    @GetMapping("")
+    public Flux<AutocompleteSuggestionDTO> complete(
+        @RequestParam(name = "q") String q,
+        @RequestParam(name = "types", required = false) String types,
+        @RequestParam(name = "limit", required = false) Integer limit
+    ) {
+        LOG.debug("REST request to complete '{}' with the {} {}", q, limit, types);
+        if (q.isBlank()) {
+            throw new BadRequestAlertException("The prefix must not be blank", ENTITY_NAME, "queryinvalid");
+        }
+        int maxSuggestions = autocompleteService.getMaxSuggestions();
+        int size = limit == null ? maxSuggestions : limit;
+        if (size < 1 || size > maxSuggestions) {
+            throw new BadRequestAlertException(
+                "The number of suggestions must be between 1 and " + maxSuggestions,
+                ENTITY_NAME,
+                "limitinvalid"
+            );
+        }
+        return autocompleteService.complete(q, kinds(types), size);
+    }
+
+    private static Set<AutocompleteService.Kind> kinds(String types) {
+        if (types == null || types.isBlank()) {
+            return EnumSet.allOf(AutocompleteService.Kind.class);
+        }
+        Set<AutocompleteService.Kind> kinds = EnumSet.noneOf(AutocompleteService.Kind.class);
+        for (String type : types.split(",")) {
+            kinds.add(
+                AutocompleteService.Kind.fromCode(type.trim()).orElseThrow(() ->
+                    new BadRequestAlertException("Unknown type " + type, ENTITY_NAME, "typeinvalid")
+                )
+            );
+        }
+        return kinds;
+    }
+}
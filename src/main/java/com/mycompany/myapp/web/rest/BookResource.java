@@ -1,21 +1,45 @@
 package com.mycompany.myapp.web.rest;
 
 import com.mycompany.myapp.domain.Book;
+import com.mycompany.myapp.domain.criteria.BookCriteria;
 import com.mycompany.myapp.repository.BookRepository;
+import com.mycompany.myapp.service.BookAvailabilityService;
+import com.mycompany.myapp.service.BookFacetService;
+import com.mycompany.myapp.service.BookIndexService;
+import com.mycompany.myapp.service.BookSearchService;
+import com.mycompany.myapp.service.BulkImportService;
+import com.mycompany.myapp.service.TopBooksService;
+import com.mycompany.myapp.service.dto.BookAvailabilityDTO;
+import com.mycompany.myapp.service.dto.BookFacetsDTO;
 import com.mycompany.myapp.service.dto.BookIdRequestDTO;
+import com.mycompany.myapp.service.dto.BookSearchResultDTO;
+import com.mycompany.myapp.service.dto.BulkImportResultDTO;
+import com.mycompany.myapp.service.dto.IdsRequestDTO;
+import com.mycompany.myapp.service.dto.TopBookDTO;
 import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import com.mycompany.myapp.web.util.KeysetPaginationUtil;
+import com.mycompany.myapp.web.util.StreamingResponseUtil;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.time.Duration;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -25,11 +49,14 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.util.ForwardedHeaderUtils;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import tech.jhipster.web.util.HeaderUtil;
+import tech.jhipster.web.util.PaginationUtil;
 import tech.jhipster.web.util.reactive.ResponseUtil;
 
 /**
@@ -47,10 +74,41 @@ public class BookResource {
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
+    private static final int MAX_TOP_SIZE = 100;
+
+    // a comment is sent when no change is, so the proxies don't close an idle stream
+    private static final Duration STREAM_KEEP_ALIVE = Duration.ofSeconds(15);
+
     private final BookRepository bookRepository;
 
-    public BookResource(BookRepository bookRepository) {
+    private final TopBooksService topBooksService;
+
+    private final BulkImportService bulkImportService;
+
+    private final BookSearchService bookSearchService;
+
+    private final BookFacetService bookFacetService;
+
+    private final BookAvailabilityService bookAvailabilityService;
+
+    private final BookIndexService bookIndexService;
+
+    public BookResource(
+        BookRepository bookRepository,
+        TopBooksService topBooksService,
+        BulkImportService bulkImportService,
+        BookSearchService bookSearchService,
+        BookFacetService bookFacetService,
+        BookAvailabilityService bookAvailabilityService,
+        BookIndexService bookIndexService
+    ) {
         this.bookRepository = bookRepository;
+        this.topBooksService = topBooksService;
+        this.bulkImportService = bulkImportService;
+        this.bookSearchService = bookSearchService;
+        this.bookFacetService = bookFacetService;
+        this.bookAvailabilityService = bookAvailabilityService;
+        this.bookIndexService = bookIndexService;
     }
 
     /**
@@ -68,6 +126,7 @@ public class BookResource {
         }
         return bookRepository
             .save(book)
+            .flatMap(result -> bookIndexService.indexOnCommit(result).thenReturn(result))
             .map(result -> {
                 try {
                     return ResponseEntity.created(new URI("/api/books/" + result.getId()))
@@ -79,6 +138,22 @@ public class BookResource {
             });
     }
 
+    /**
+     * {@code POST  /books/bulk} : Import new books, one JSON book per line.
+     * <p>
+     * The lines in error are reported in the summary, and don't stop the import: the valid books are inserted in
+     * batches, each batch in its own transaction, so the books imported before an error stay imported.
+     *
+     * @param lines the books to import, without id.
+     * @return the summary of the import, with status {@code 200 (OK)}.
+     */
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Mono<BulkImportResultDTO> importBooks(@RequestBody Flux<String> lines) {
+        LOG.debug("REST request to import Books");
+        return bulkImportService.importBooks(lines);
+    }
+
     /**
      * {@code PUT  /books/:id} : Updates an existing book.
      *
@@ -111,6 +186,7 @@ public class BookResource {
 
                 return bookRepository
                     .save(book)
+                    .flatMap(result -> bookIndexService.indexOnCommit(result).thenReturn(result))
                     .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
                     .map(result ->
                         ResponseEntity.ok()
@@ -172,7 +248,8 @@ public class BookResource {
 
                         return existingBook;
                     })
-                    .flatMap(bookRepository::save);
+                    .flatMap(bookRepository::save)
+                    .flatMap(saved -> bookIndexService.indexOnCommit(saved).thenReturn(saved));
 
                 return result
                     .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
@@ -186,23 +263,81 @@ public class BookResource {
 
     /**
      * {@code GET  /books} : get all the books.
+     * <p>
+     * When {@code after} or {@code size} is given, a single page is returned, read with keyset pagination,
+     * and the cursor of the next page is sent in the {@code X-Next-Cursor} and {@code Link} headers.
      *
+     * @param criteria the criteria which the requested entities should match.
+     * @param after the cursor of the previous page, from the {@code X-Next-Cursor} header.
+     * @param size the size of the page.
+     * @param request a {@link ServerHttpRequest} request.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of books in body.
      */
     @GetMapping(value = "", produces = MediaType.APPLICATION_JSON_VALUE)
-    public Mono<List<Book>> getAllBooks() {
-        LOG.debug("REST request to get all Books");
-        return bookRepository.findAll().collectList();
+    public Mono<ResponseEntity<Flux<Book>>> getAllBooks(
+        BookCriteria criteria,
+        @RequestParam(name = "after", required = false) String after,
+        @RequestParam(name = "size", required = false) Integer size,
+        ServerHttpRequest request
+    ) {
+        LOG.debug("REST request to get Books by criteria: {}", criteria);
+        if (!KeysetPaginationUtil.isKeysetRequest(after, size)) {
+            return Mono.just(ResponseEntity.ok().body(StreamingResponseUtil.stream(bookRepository.findByCriteria(criteria))));
+        }
+        return KeysetPaginationUtil.fetchPage(
+            after,
+            size,
+            (afterId, pageSize) -> bookRepository.findByCriteria(criteria, afterId, pageSize),
+            Book::getId,
+            ENTITY_NAME
+        ).map(page ->
+            ResponseEntity.ok().headers(keysetHeaders(request, page)).body(Flux.fromIterable(page.content()))
+        );
     }
 
     /**
      * {@code GET  /books} : get all the books as a stream.
+     * <p>
+     * Supports the same keyset pagination parameters as {@link #getAllBooks(BookCriteria, String, Integer, ServerHttpRequest)}.
+     *
+     * @param criteria the criteria which the requested entities should match.
+     * @param after the cursor of the previous page, from the {@code X-Next-Cursor} header.
+     * @param size the size of the page.
+     * @param request a {@link ServerHttpRequest} request.
      * @return the {@link Flux} of books.
      */
     @GetMapping(value = "", produces = MediaType.APPLICATION_NDJSON_VALUE)
-    public Flux<Book> getAllBooksAsStream() {
-        LOG.debug("REST request to get all Books as a stream");
-        return bookRepository.findAll();
+    public Mono<ResponseEntity<Flux<Book>>> getAllBooksAsStream(
+        BookCriteria criteria,
+        @RequestParam(name = "after", required = false) String after,
+        @RequestParam(name = "size", required = false) Integer size,
+        ServerHttpRequest request
+    ) {
+        LOG.debug("REST request to get Books by criteria as a stream: {}", criteria);
+        if (!KeysetPaginationUtil.isKeysetRequest(after, size)) {
+            return Mono.just(ResponseEntity.ok().body(StreamingResponseUtil.stream(bookRepository.findByCriteria(criteria))));
+        }
+        return KeysetPaginationUtil.fetchPage(
+            after,
+            size,
+            (afterId, pageSize) -> bookRepository.findByCriteria(criteria, afterId, pageSize),
+            Book::getId,
+            ENTITY_NAME
+        ).map(page ->
+            ResponseEntity.ok().headers(keysetHeaders(request, page)).body(Flux.fromIterable(page.content()))
+        );
+    }
+
+    /**
+     * {@code GET  /books/count} : count all the books.
+     *
+     * @param criteria the criteria which the requested entities should match.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the count in body.
+     */
+    @GetMapping("/count")
+    public Mono<ResponseEntity<Long>> countBooks(BookCriteria criteria) {
+        LOG.debug("REST request to count Books by criteria: {}", criteria);
+        return bookRepository.countByCriteria(criteria).map(count -> ResponseEntity.status(HttpStatus.OK).body(count));
     }
 
     /**
@@ -212,11 +347,146 @@ public class BookResource {
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the book, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/top3")
-    public Flux<Book> getTop3Books() {
-        return bookRepository.findTop3Books();
+    public Flux<TopBookDTO> getTop3Books() {
+        return topBooksService.findTopBooks(TopBooksService.Window.ALL, 3);
+    }
+
+    /**
+     * {@code GET  /books/top} : get the most borrowed books.
+     *
+     * @param n the maximum number of books, between 1 and 100.
+     * @param window the window to count the borrows over: {@code 7d}, {@code 30d}, {@code 365d} or {@code all}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of books with their number of borrows in body,
+     * the most borrowed first, or with status {@code 400 (Bad Request)} if the parameters are invalid.
+     */
+    @GetMapping("/top")
+    public ResponseEntity<Flux<TopBookDTO>> getTopBooks(
+        @RequestParam(name = "n", defaultValue = "10") int n,
+        @RequestParam(name = "window", defaultValue = "all") String window
+    ) {
+        LOG.debug("REST request to get the top {} Books over {}", n, window);
+        if (n < 1 || n > MAX_TOP_SIZE) {
+            throw new BadRequestAlertException("The number of books must be between 1 and " + MAX_TOP_SIZE, ENTITY_NAME, "topsizeinvalid");
+        }
+        TopBooksService.Window topWindow = TopBooksService.Window.fromCode(window).orElseThrow(() ->
+            new BadRequestAlertException("Unknown window " + window, ENTITY_NAME, "windowinvalid")
+        );
+        return ResponseEntity.ok().body(topBooksService.findTopBooks(topWindow, n));
+    }
+
+    /**
+     * {@code GET  /books/search?q=} : search the books by title and author.
+     * <p>
+     * The books are searched in memory, see {@link BookSearchService#search(String, Pageable)}.
+     *
+     * @param q the words to search.
+     * @param request a {@link ServerHttpRequest} request.
+     * @param pageable the pagination information, the sort is ignored.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the page of matching books in body, the best first,
+     * or with status {@code 400 (Bad Request)} if the query is blank.
+     */
+    @GetMapping("/search")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Mono<ResponseEntity<Flux<BookSearchResultDTO>>> searchBooks(
+        @RequestParam(name = "q") String q,
+        ServerHttpRequest request,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        LOG.debug("REST request to search Books for query {}", q);
+        if (q.isBlank()) {
+            throw new BadRequestAlertException("The query cannot be blank", ENTITY_NAME, "queryinvalid");
+        }
+        return bookSearchService
+            .search(q, pageable)
+            .map(page ->
+                ResponseEntity.ok()
+                    .headers(
+                        PaginationUtil.generatePaginationHttpHeaders(
+                            ForwardedHeaderUtils.adaptFromForwardedHeaders(request.getURI(), request.getHeaders()),
+                            page
+                        )
+                    )
+                    .body(Flux.fromIterable(page.getContent()))
+            );
+    }
+
+    /**
+     * {@code GET  /books/facets} : count the books per author, publication decade, price band and availability.
+     * <p>
+     * The books are counted in memory, see {@link BookFacetService#count(Map)}. A book matches when it has one of the
+     * selected values of each facet.
+     *
+     * @param authors the selected authors, optional.
+     * @param decades the selected decades, like {@code 1990}, optional.
+     * @param prices the selected price bands, like {@code *-10}, {@code 10-20} or {@code 50-*}, optional.
+     * @param available the selected availabilities, {@code true} or {@code false}, optional.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the number of matching books with the counts of
+     * each facet value in body.
+     */
+    @GetMapping("/facets")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Mono<ResponseEntity<BookFacetsDTO>> getBookFacets(
+        @RequestParam(name = "author", required = false) List<String> authors,
+        @RequestParam(name = "decade", required = false) List<String> decades,
+        @RequestParam(name = "price", required = false) List<String> prices,
+        @RequestParam(name = "available", required = false) List<String> available
+    ) {
+        LOG.debug("REST request to get the Book facets of {} {} {} {}", authors, decades, prices, available);
+        Map<BookFacetService.Facet, Set<String>> selection = new EnumMap<>(BookFacetService.Facet.class);
+        select(selection, BookFacetService.Facet.AUTHOR, authors);
+        select(selection, BookFacetService.Facet.DECADE, decades);
+        select(selection, BookFacetService.Facet.PRICE, prices);
+        select(selection, BookFacetService.Facet.AVAILABLE, available);
+        return bookFacetService.count(selection).map(ResponseEntity::ok);
+    }
+
+    /**
+     * {@code GET  /books/available} : get the available books.
+     * <p>
+     * The available books are found in memory, see {@link BookAvailabilityService#findAvailable(Long, int)}, and read by
+     * id. They are returned a page at a time, read with keyset pagination, and the cursor of the next page is sent in the
+     * {@code X-Next-Cursor} and {@code Link} headers.
+     *
+     * @param after the cursor of the previous page, from the {@code X-Next-Cursor} header.
+     * @param size the size of the page.
+     * @param request a {@link ServerHttpRequest} request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the page of available books in body, by id.
+     */
+    @GetMapping("/available")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Mono<ResponseEntity<Flux<Book>>> getAvailableBooks(
+        @RequestParam(name = "after", required = false) String after,
+        @RequestParam(name = "size", required = false) Integer size,
+        ServerHttpRequest request
+    ) {
+        LOG.debug("REST request to get the available Books after {}", after);
+        return KeysetPaginationUtil.fetchPage(after, size, bookAvailabilityService::findAvailable, Book::getId, ENTITY_NAME).map(page ->
+            ResponseEntity.ok().headers(keysetHeaders(request, page)).body(Flux.fromIterable(page.content()))
+        );
+    }
+
+    /**
+     * {@code GET  /books/availability/stream} : stream the changes of availability of the books, as server-sent events.
+     * <p>
+     * Only the changes committed after the subscription are sent, the current availability is read from
+     * {@code GET  /books/available}. A subscriber too slow to keep up misses changes.
+     *
+     * @return the {@link Flux} of the changes of availability, with a comment every 15 seconds.
+     */
+    @GetMapping(value = "/availability/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Flux<ServerSentEvent<BookAvailabilityDTO>> streamBookAvailability() {
+        LOG.debug("REST request to stream the availability of the Books");
+        return Flux.merge(
+            bookAvailabilityService
+                .streamChanges()
+                .map(change -> ServerSentEvent.builder(change).id(change.getId().toString()).event("availability").build()),
+            Flux.interval(STREAM_KEEP_ALIVE).map(tick -> ServerSentEvent.<BookAvailabilityDTO>builder().comment("keep-alive").build())
+        );
     }
 
     @PostMapping("/getById")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Mono<ResponseEntity<Book>> getBook(@RequestBody BookIdRequestDTO request) {
         Long id = request.getId();
         LOG.debug("REST request to get Book : {}", id);
@@ -224,6 +494,20 @@ public class BookResource {
         return ResponseUtil.wrapOrNotFound(book);
     }
 
+    /**
+     * {@code POST  /books/getByIds} : get several books at once.
+     *
+     * @param request the ids of the books, up to {@value IdsRequestDTO#MAX_IDS}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the books in body, in the order of the ids,
+     * without the books which don't exist, or with status {@code 400 (Bad Request)} if there are too many ids.
+     */
+    @PostMapping("/getByIds")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Mono<ResponseEntity<Flux<Book>>> getBooks(@Valid @RequestBody IdsRequestDTO request) {
+        LOG.debug("REST request to get Books : {}", request.getIds());
+        return Mono.just(ResponseEntity.ok().body(bookRepository.findAllByIds(request.getIds())));
+    }
+
     /**
      * {@code DELETE  /books/:id} : delete the "id" book.
      *
@@ -235,6 +519,7 @@ public class BookResource {
         LOG.debug("REST request to delete Book : {}", id);
         return bookRepository
             .deleteById(id)
+            .then(bookIndexService.removeOnCommit(id))
             .then(
                 Mono.just(
                     ResponseEntity.noContent()
@@ -243,4 +528,17 @@ public class BookResource {
                 )
             );
     }
+
+    private HttpHeaders keysetHeaders(ServerHttpRequest request, KeysetPaginationUtil.KeysetPage<Book> page) {
+        return KeysetPaginationUtil.generateKeysetHttpHeaders(
+            ForwardedHeaderUtils.adaptFromForwardedHeaders(request.getURI(), request.getHeaders()),
+            page
+        );
+    }
+
+    private static void select(Map<BookFacetService.Facet, Set<String>> selection, BookFacetService.Facet facet, List<String> values) {
+        if (values != null && !values.isEmpty()) {
+            selection.put(facet, Set.copyOf(values));
+        }
+    }
 }
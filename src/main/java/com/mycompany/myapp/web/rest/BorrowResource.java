@@ -1,30 +1,42 @@
 package com.mycompany.myapp.web.rest;
 
 import com.mycompany.myapp.domain.Borrow;
-import com.mycompany.myapp.repository.BookRepository;
+import com.mycompany.myapp.domain.criteria.BorrowCriteria;
+import com.mycompany.myapp.repository.BorrowExpand;
 import com.mycompany.myapp.repository.BorrowPerYearProjection;
 import com.mycompany.myapp.repository.BorrowRepository;
+import com.mycompany.myapp.security.AuthoritiesConstants;
 import com.mycompany.myapp.service.BorrowService;
+import com.mycompany.myapp.service.BorrowStatisticsService;
+import com.mycompany.myapp.service.dto.BorrowListDTO;
 import com.mycompany.myapp.service.dto.BorrowRequestDTO;
+import com.mycompany.myapp.service.dto.BorrowStatisticsDTO;
 import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import com.mycompany.myapp.web.util.KeysetPaginationUtil;
+import com.mycompany.myapp.web.util.StreamingResponseUtil;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.List;
+import java.time.LocalDate;
+import java.util.EnumSet;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.transaction.reactive.TransactionalOperator;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.util.ForwardedHeaderUtils;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import tech.jhipster.web.util.HeaderUtil;
@@ -47,30 +59,20 @@ public class BorrowResource {
 
     private final BorrowRepository borrowRepository;
     private final BorrowService borrowService;
-    private final BookRepository bookRepository;
-    private final TransactionalOperator txOperator;
+    private final BorrowStatisticsService borrowStatisticsService;
 
-    public BorrowResource(
-        BorrowRepository borrowRepository,
-        BorrowService borrowService,
-        BookRepository bookRepository,
-        R2dbcTransactionManager txManager
-    ) {
+    public BorrowResource(BorrowRepository borrowRepository, BorrowService borrowService, BorrowStatisticsService borrowStatisticsService) {
         this.borrowRepository = borrowRepository;
         this.borrowService = borrowService;
-        this.bookRepository = bookRepository;
-        this.txOperator = TransactionalOperator.create(txManager);
+        this.borrowStatisticsService = borrowStatisticsService;
     }
 
-    // public BorrowService(BorrowService borrowService) {
-    //     this.borrowService = borrowService;
-    // }
-
     /**
      * {@code POST  /borrows} : Create a new borrow.
      *
      * @param borrow the borrow to create.
-     * @return the {@link ResponseEntity} with status {@code 201 (Created)} and with body the new borrow, or with status {@code 400 (Bad Request)} if the borrow has already an ID.
+     * @return the {@link ResponseEntity} with status {@code 201 (Created)} and with body the new borrow, or with status {@code 400 (Bad Request)} if the borrow has already an ID,
+     * or with status {@code 409 (Conflict)} if the book is already borrowed.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PostMapping("")
@@ -79,17 +81,9 @@ public class BorrowResource {
         if (borrow.getId() != null) {
             throw new BadRequestAlertException("A new borrow cannot already have an ID", ENTITY_NAME, "idexists");
         }
-        return borrowRepository
-            .save(borrow)
-            .flatMap(savedBorrow -> {
-                return bookRepository
-                    .findById(savedBorrow.getBookId())
-                    .flatMap(book -> {
-                        book.setAvailable(false);
-                        return bookRepository.save(book); // Mono<Book>
-                    })
-                    .thenReturn(savedBorrow); // Mono<Borrow>
-            })
+        return borrowService
+            .lend(borrow)
+            .switchIfEmpty(Mono.error(new BadRequestAlertException("Book not found", ENTITY_NAME, "booknotfound")))
             .map(savedBorrow -> {
                 try {
                     return ResponseEntity.created(new URI("/api/borrows/" + savedBorrow.getId()))
@@ -98,8 +92,7 @@ public class BorrowResource {
                 } catch (URISyntaxException e) {
                     throw new RuntimeException(e);
                 }
-            })
-            .as(txOperator::transactional); // ✅ Wrap trong transaction reactive
+            });
     }
 
     /**
@@ -132,8 +125,8 @@ public class BorrowResource {
                     return Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
                 }
 
-                return borrowRepository
-                    .save(borrow)
+                return borrowService
+                    .update(borrow)
                     .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
                     .map(result ->
                         ResponseEntity.ok()
@@ -174,19 +167,7 @@ public class BorrowResource {
                     return Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
                 }
 
-                Mono<Borrow> result = borrowRepository
-                    .findById(borrow.getId())
-                    .map(existingBorrow -> {
-                        if (borrow.getBorrowDate() != null) {
-                            existingBorrow.setBorrowDate(borrow.getBorrowDate());
-                        }
-                        if (borrow.getReturnDate() != null) {
-                            existingBorrow.setReturnDate(borrow.getReturnDate());
-                        }
-
-                        return existingBorrow;
-                    })
-                    .flatMap(borrowRepository::save);
+                Mono<Borrow> result = borrowService.partialUpdate(borrow);
 
                 return result
                     .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
@@ -200,28 +181,169 @@ public class BorrowResource {
 
     /**
      * {@code GET  /borrows} : get all the borrows.
+     * <p>
+     * When {@code after} or {@code size} is given, a single page is returned, read with keyset pagination,
+     * and the cursor of the next page is sent in the {@code X-Next-Cursor} and {@code Link} headers.
+     * <p>
+     * The borrows only hold the ids of their member and book, unless they are expanded with {@code expand=member,book}.
      *
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of borrows in body.
+     * @param criteria the criteria which the requested entities should match.
+     * @param after the cursor of the previous page, from the {@code X-Next-Cursor} header.
+     * @param size the size of the page.
+     * @param expand the relations to read with the borrows: {@code member} and/or {@code book}, comma separated.
+     * @param request a {@link ServerHttpRequest} request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of borrows in body,
+     * or with status {@code 400 (Bad Request)} if a relation is unknown.
      */
     @GetMapping(value = "", produces = MediaType.APPLICATION_JSON_VALUE)
-    public Mono<List<Borrow>> getAllBorrows() {
-        LOG.debug("REST request to get all Borrows");
-        return borrowRepository.findAll().collectList();
+    public Mono<ResponseEntity<Flux<Borrow>>> getAllBorrows(
+        BorrowCriteria criteria,
+        @RequestParam(name = "after", required = false) String after,
+        @RequestParam(name = "size", required = false) Integer size,
+        @RequestParam(name = "expand", required = false) String expand,
+        ServerHttpRequest request
+    ) {
+        LOG.debug("REST request to get Borrows by criteria: {}", criteria);
+        Set<BorrowExpand> expansions = parseExpand(expand);
+        if (!KeysetPaginationUtil.isKeysetRequest(after, size)) {
+            return Mono.just(ResponseEntity.ok().body(StreamingResponseUtil.stream(borrowRepository.findByCriteria(criteria, expansions))));
+        }
+        return KeysetPaginationUtil.fetchPage(
+            after,
+            size,
+            (afterId, pageSize) -> borrowRepository.findByCriteria(criteria, afterId, pageSize, expansions),
+            Borrow::getId,
+            ENTITY_NAME
+        ).map(page ->
+            ResponseEntity.ok().headers(keysetHeaders(request, page)).body(Flux.fromIterable(page.content()))
+        );
     }
 
+    /**
+     * {@code GET  /borrows/statistics/books-per-year} : get the number of borrows made per year.
+     *
+     * @return the number of borrows of the years with borrows, the oldest year first.
+     */
     @GetMapping("/statistics/books-per-year")
     public Flux<BorrowPerYearProjection> getBooksPerYear() {
-        return borrowRepository.countBooksPerYear();
+        return borrowStatisticsService.findBorrowsPerYear();
+    }
+
+    /**
+     * {@code GET  /borrows/statistics} : get the borrows made, returned and overdue per period.
+     *
+     * @param grain the periods: {@code day}, {@code month} or {@code year}.
+     * @param from the first day, optional.
+     * @param to the last day, optional.
+     * @return the statistics of the periods with borrows, the oldest period first,
+     * or with status {@code 400 (Bad Request)} if the grain is unknown.
+     */
+    @GetMapping("/statistics")
+    public Flux<BorrowStatisticsDTO> getStatistics(
+        @RequestParam(name = "grain", defaultValue = "month") String grain,
+        @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+        @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        LOG.debug("REST request to get the Borrow statistics per {} from {} to {}", grain, from, to);
+        BorrowStatisticsService.Grain period = BorrowStatisticsService.Grain.fromCode(grain).orElseThrow(() ->
+            new BadRequestAlertException("Invalid grain", ENTITY_NAME, "graininvalid")
+        );
+        return borrowStatisticsService.findStatistics(period, from, to);
+    }
+
+    /**
+     * {@code POST  /borrows/statistics/rebuild} : rebuild the borrow statistics from the database.
+     *
+     * @return the {@link ResponseEntity} with status {@code 204 (NO_CONTENT)} once rebuilt.
+     */
+    @PostMapping("/statistics/rebuild")
+    @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
+    public Mono<ResponseEntity<Void>> rebuildStatistics() {
+        LOG.debug("REST request to rebuild the Borrow statistics");
+        return borrowStatisticsService.rebuild().then(Mono.just(ResponseEntity.noContent().build()));
     }
 
     /**
      * {@code GET  /borrows} : get all the borrows as a stream.
+     * <p>
+     * Supports the same keyset pagination and expansion parameters as
+     * {@link #getAllBorrows(BorrowCriteria, String, Integer, String, ServerHttpRequest)}.
+     *
+     * @param criteria the criteria which the requested entities should match.
+     * @param after the cursor of the previous page, from the {@code X-Next-Cursor} header.
+     * @param size the size of the page.
+     * @param expand the relations to read with the borrows: {@code member} and/or {@code book}, comma separated.
+     * @param request a {@link ServerHttpRequest} request.
      * @return the {@link Flux} of borrows.
      */
     @GetMapping(value = "", produces = MediaType.APPLICATION_NDJSON_VALUE)
-    public Flux<Borrow> getAllBorrowsAsStream() {
-        LOG.debug("REST request to get all Borrows as a stream");
-        return borrowRepository.findAll();
+    public Mono<ResponseEntity<Flux<Borrow>>> getAllBorrowsAsStream(
+        BorrowCriteria criteria,
+        @RequestParam(name = "after", required = false) String after,
+        @RequestParam(name = "size", required = false) Integer size,
+        @RequestParam(name = "expand", required = false) String expand,
+        ServerHttpRequest request
+    ) {
+        LOG.debug("REST request to get Borrows by criteria as a stream: {}", criteria);
+        Set<BorrowExpand> expansions = parseExpand(expand);
+        if (!KeysetPaginationUtil.isKeysetRequest(after, size)) {
+            return Mono.just(ResponseEntity.ok().body(StreamingResponseUtil.stream(borrowRepository.findByCriteria(criteria, expansions))));
+        }
+        return KeysetPaginationUtil.fetchPage(
+            after,
+            size,
+            (afterId, pageSize) -> borrowRepository.findByCriteria(criteria, afterId, pageSize, expansions),
+            Borrow::getId,
+            ENTITY_NAME
+        ).map(page ->
+            ResponseEntity.ok().headers(keysetHeaders(request, page)).body(Flux.fromIterable(page.content()))
+        );
+    }
+
+    /**
+     * {@code GET  /borrows/count} : count all the borrows.
+     *
+     * @param criteria the criteria which the requested entities should match.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the count in body.
+     */
+    @GetMapping("/count")
+    public Mono<ResponseEntity<Long>> countBorrows(BorrowCriteria criteria) {
+        LOG.debug("REST request to count Borrows by criteria: {}", criteria);
+        return borrowRepository.countByCriteria(criteria).map(count -> ResponseEntity.status(HttpStatus.OK).body(count));
+    }
+
+    /**
+     * {@code GET  /borrows?shape=normalized} : get a page of the borrows, with each member and book they reference sent once.
+     * <p>
+     * Supports the same keyset pagination parameters as {@link #getAllBorrows(BorrowCriteria, String, Integer, String, ServerHttpRequest)},
+     * but is always paged, as each page is built in memory before it is sent. The members and books are read unless the
+     * {@code expand} parameter names the relations to read.
+     *
+     * @param criteria the criteria which the requested entities should match.
+     * @param after the cursor of the previous page, from the {@code X-Next-Cursor} header.
+     * @param size the size of the page, {@value KeysetPaginationUtil#DEFAULT_PAGE_SIZE} by default.
+     * @param expand the relations to read with the borrows: {@code member} and/or {@code book}, comma separated. Both by default.
+     * @param request a {@link ServerHttpRequest} request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the normalized page of borrows in body,
+     * or with status {@code 400 (Bad Request)} if a relation is unknown.
+     */
+    @GetMapping(value = "", params = "shape=normalized", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<BorrowListDTO>> getAllBorrowsNormalized(
+        BorrowCriteria criteria,
+        @RequestParam(name = "after", required = false) String after,
+        @RequestParam(name = "size", required = false) Integer size,
+        @RequestParam(name = "expand", required = false) String expand,
+        ServerHttpRequest request
+    ) {
+        LOG.debug("REST request to get a page of Borrows normalized");
+        Set<BorrowExpand> expansions = expand == null ? BorrowExpand.ALL : parseExpand(expand);
+        return KeysetPaginationUtil.fetchPage(
+            after,
+            size,
+            (afterId, pageSize) -> borrowRepository.findByCriteria(criteria, afterId, pageSize, expansions),
+            Borrow::getId,
+            ENTITY_NAME
+        ).map(page -> ResponseEntity.ok().headers(keysetHeaders(request, page)).body(BorrowListDTO.of(page.content())));
     }
 
     /**
@@ -247,8 +369,8 @@ public class BorrowResource {
     @DeleteMapping("/{id}")
     public Mono<ResponseEntity<Void>> deleteBorrow(@PathVariable("id") Long id) {
         LOG.debug("REST request to delete Borrow : {}", id);
-        return borrowRepository
-            .deleteById(id)
+        return borrowService
+            .delete(id)
             .then(
                 Mono.just(
                     ResponseEntity.noContent()
@@ -257,4 +379,28 @@ public class BorrowResource {
                 )
             );
     }
+
+    private Set<BorrowExpand> parseExpand(String expand) {
+        Set<BorrowExpand> expansions = EnumSet.noneOf(BorrowExpand.class);
+        if (expand == null) {
+            return expansions;
+        }
+        for (String code : expand.split(",")) {
+            if (!code.isBlank()) {
+                expansions.add(
+                    BorrowExpand.fromCode(code.trim()).orElseThrow(() ->
+                        new BadRequestAlertException("Invalid expand", ENTITY_NAME, "expandinvalid")
+                    )
+                );
+            }
+        }
+        return expansions;
+    }
+
+    private HttpHeaders keysetHeaders(ServerHttpRequest request, KeysetPaginationUtil.KeysetPage<Borrow> page) {
+        return KeysetPaginationUtil.generateKeysetHttpHeaders(
+            ForwardedHeaderUtils.adaptFromForwardedHeaders(request.getURI(), request.getHeaders()),
+            page
+        );
+    }
 }
@@ -0,0 +1,62 @@
+package com.mycompany.myapp.web.rest;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.service.BorrowRetentionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Management endpoint ({@code /management/borrowretention}) showing the progress of the purge of the old borrows, and
+ * starting one.
+ */
+@Component
+@Endpoint(id = "borrowretention")
+public class BorrowRetentionEndpoint {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BorrowRetentionEndpoint.class);
+
+    private final BorrowRetentionService borrowRetentionService;
+
+    private final ApplicationProperties.BorrowRetention properties;
+
+    public BorrowRetentionEndpoint(BorrowRetentionService borrowRetentionService, ApplicationProperties applicationProperties) {
+        this.borrowRetentionService = borrowRetentionService;
+        this.properties = applicationProperties.getBorrowRetention();
+    }
+
+    /**
+     * {@code GET /management/borrowretention} : get the progress of the running or last purge.
+     *
+     * @return the progress, or {@code 404 (Not Found)} if no purge ran yet.
+     */
+    @ReadOperation
+    public BorrowRetentionService.Progress progress() {
+        return borrowRetentionService.getProgress();
+    }
+
+    /**
+     * {@code POST /management/borrowretention} : start a purge in the background, unless one is already running.
+     * <p>
+     * The purged borrows are subtracted from the borrow statistics as they are deleted, and the most borrowed books and the
+     * autocomplete counters are rebuilt once the purge is over.
+     *
+     * @param retentionDays the number of days the returned borrows are kept, the configured retention by default.
+     * @return the progress of the purge, or {@code 400 (Bad Request)} if no retention is given nor configured.
+     */
+    @WriteOperation
+    public BorrowRetentionService.Progress purge(@Nullable Integer retentionDays) {
+        int days = retentionDays != null ? retentionDays : properties.getRetentionDays();
+        if (days <= 0) {
+            throw new InvalidEndpointRequestException("No retention is configured", "a positive retentionDays is required");
+        }
+        LOG.debug("Management request to purge the borrows returned more than {} days ago", days);
+        borrowRetentionService.purge(days).subscribe();
+        return borrowRetentionService.getProgress();
+    }
+}
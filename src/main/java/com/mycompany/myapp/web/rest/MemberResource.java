@@ -1,21 +1,30 @@
 package com.mycompany.myapp.web.rest;
 
 import com.mycompany.myapp.domain.Member;
+import com.mycompany.myapp.domain.criteria.MemberCriteria;
 import com.mycompany.myapp.repository.MemberRepository;
+import com.mycompany.myapp.service.BulkImportService;
+import com.mycompany.myapp.service.MemberIndexService;
+import com.mycompany.myapp.service.dto.BulkImportResultDTO;
+import com.mycompany.myapp.service.dto.IdsRequestDTO;
 import com.mycompany.myapp.service.dto.MemberRequestDTO;
 import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import com.mycompany.myapp.web.util.KeysetPaginationUtil;
+import com.mycompany.myapp.web.util.StreamingResponseUtil;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.List;
 import java.util.Objects;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -25,8 +34,10 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.util.ForwardedHeaderUtils;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import tech.jhipster.web.util.HeaderUtil;
@@ -49,8 +60,14 @@ public class MemberResource {
 
     private final MemberRepository memberRepository;
 
-    public MemberResource(MemberRepository memberRepository) {
+    private final BulkImportService bulkImportService;
+
+    private final MemberIndexService memberIndexService;
+
+    public MemberResource(MemberRepository memberRepository, BulkImportService bulkImportService, MemberIndexService memberIndexService) {
         this.memberRepository = memberRepository;
+        this.bulkImportService = bulkImportService;
+        this.memberIndexService = memberIndexService;
     }
 
     /**
@@ -68,6 +85,7 @@ public class MemberResource {
         }
         return memberRepository
             .save(member)
+            .flatMap(result -> memberIndexService.indexOnCommit(result).thenReturn(result))
             .map(result -> {
                 try {
                     return ResponseEntity.created(new URI("/api/members/" + result.getId()))
@@ -79,6 +97,22 @@ public class MemberResource {
             });
     }
 
+    /**
+     * {@code POST  /members/bulk} : Import new members, one JSON member per line.
+     * <p>
+     * The lines in error are reported in the summary, and don't stop the import: the valid members are inserted in
+     * batches, each batch in its own transaction, so the members imported before an error stay imported.
+     *
+     * @param lines the members to import, without id.
+     * @return the summary of the import, with status {@code 200 (OK)}.
+     */
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Mono<BulkImportResultDTO> importMembers(@RequestBody Flux<String> lines) {
+        LOG.debug("REST request to import Members");
+        return bulkImportService.importMembers(lines);
+    }
+
     /**
      * {@code PUT  /members/:id} : Updates an existing member.
      *
@@ -111,6 +145,7 @@ public class MemberResource {
 
                 return memberRepository
                     .save(member)
+                    .flatMap(result -> memberIndexService.indexOnCommit(result).thenReturn(result))
                     .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
                     .map(result ->
                         ResponseEntity.ok()
@@ -166,7 +201,8 @@ public class MemberResource {
 
                         return existingMember;
                     })
-                    .flatMap(memberRepository::save);
+                    .flatMap(memberRepository::save)
+                    .flatMap(saved -> memberIndexService.indexOnCommit(saved).thenReturn(saved));
 
                 return result
                     .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
@@ -180,13 +216,36 @@ public class MemberResource {
 
     /**
      * {@code GET  /members} : get all the members.
+     * <p>
+     * When {@code after} or {@code size} is given, a single page is returned, read with keyset pagination,
+     * and the cursor of the next page is sent in the {@code X-Next-Cursor} and {@code Link} headers.
      *
+     * @param criteria the criteria which the requested entities should match.
+     * @param after the cursor of the previous page, from the {@code X-Next-Cursor} header.
+     * @param size the size of the page.
+     * @param request a {@link ServerHttpRequest} request.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of members in body.
      */
     @GetMapping(value = "", produces = MediaType.APPLICATION_JSON_VALUE)
-    public Mono<List<Member>> getAllMembers() {
-        LOG.debug("REST request to get all Members");
-        return memberRepository.findAll().collectList();
+    public Mono<ResponseEntity<Flux<Member>>> getAllMembers(
+        MemberCriteria criteria,
+        @RequestParam(name = "after", required = false) String after,
+        @RequestParam(name = "size", required = false) Integer size,
+        ServerHttpRequest request
+    ) {
+        LOG.debug("REST request to get Members by criteria: {}", criteria);
+        if (!KeysetPaginationUtil.isKeysetRequest(after, size)) {
+            return Mono.just(ResponseEntity.ok().body(StreamingResponseUtil.stream(memberRepository.findByCriteria(criteria))));
+        }
+        return KeysetPaginationUtil.fetchPage(
+            after,
+            size,
+            (afterId, pageSize) -> memberRepository.findByCriteria(criteria, afterId, pageSize),
+            Member::getId,
+            ENTITY_NAME
+        ).map(page ->
+            ResponseEntity.ok().headers(keysetHeaders(request, page)).body(Flux.fromIterable(page.content()))
+        );
     }
 
     @GetMapping("/active")
@@ -196,12 +255,47 @@ public class MemberResource {
 
     /**
      * {@code GET  /members} : get all the members as a stream.
+     * <p>
+     * Supports the same keyset pagination parameters as {@link #getAllMembers(MemberCriteria, String, Integer, ServerHttpRequest)}.
+     *
+     * @param criteria the criteria which the requested entities should match.
+     * @param after the cursor of the previous page, from the {@code X-Next-Cursor} header.
+     * @param size the size of the page.
+     * @param request a {@link ServerHttpRequest} request.
      * @return the {@link Flux} of members.
      */
     @GetMapping(value = "", produces = MediaType.APPLICATION_NDJSON_VALUE)
-    public Flux<Member> getAllMembersAsStream() {
-        LOG.debug("REST request to get all Members as a stream");
-        return memberRepository.findAll();
+    public Mono<ResponseEntity<Flux<Member>>> getAllMembersAsStream(
+        MemberCriteria criteria,
+        @RequestParam(name = "after", required = false) String after,
+        @RequestParam(name = "size", required = false) Integer size,
+        ServerHttpRequest request
+    ) {
+        LOG.debug("REST request to get Members by criteria as a stream: {}", criteria);
+        if (!KeysetPaginationUtil.isKeysetRequest(after, size)) {
+            return Mono.just(ResponseEntity.ok().body(StreamingResponseUtil.stream(memberRepository.findByCriteria(criteria))));
+        }
+        return KeysetPaginationUtil.fetchPage(
+            after,
+            size,
+            (afterId, pageSize) -> memberRepository.findByCriteria(criteria, afterId, pageSize),
+            Member::getId,
+            ENTITY_NAME
+        ).map(page ->
+            ResponseEntity.ok().headers(keysetHeaders(request, page)).body(Flux.fromIterable(page.content()))
+        );
+    }
+
+    /**
+     * {@code GET  /members/count} : count all the members.
+     *
+     * @param criteria the criteria which the requested entities should match.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the count in body.
+     */
+    @GetMapping("/count")
+    public Mono<ResponseEntity<Long>> countMembers(MemberCriteria criteria) {
+        LOG.debug("REST request to count Members by criteria: {}", criteria);
+        return memberRepository.countByCriteria(criteria).map(count -> ResponseEntity.status(HttpStatus.OK).body(count));
     }
 
     /**
@@ -211,6 +305,7 @@ public class MemberResource {
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the member, or with status {@code 404 (Not Found)}.
      */
     @PostMapping("/getMemberbyId")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Mono<ResponseEntity<Member>> getMember(@RequestBody MemberRequestDTO request) {
         Long id = request.getId();
         LOG.debug("REST request to get Member : {}", id);
@@ -218,6 +313,20 @@ public class MemberResource {
         return ResponseUtil.wrapOrNotFound(member);
     }
 
+    /**
+     * {@code POST  /members/getMembersByIds} : get several members at once.
+     *
+     * @param request the ids of the members, up to {@value IdsRequestDTO#MAX_IDS}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the members in body, in the order of the ids,
+     * without the members which don't exist, or with status {@code 400 (Bad Request)} if there are too many ids.
+     */
+    @PostMapping("/getMembersByIds")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Mono<ResponseEntity<Flux<Member>>> getMembers(@Valid @RequestBody IdsRequestDTO request) {
+        LOG.debug("REST request to get Members : {}", request.getIds());
+        return Mono.just(ResponseEntity.ok().body(memberRepository.findAllByIds(request.getIds())));
+    }
+
     /**
      * {@code DELETE  /members/:id} : delete the "id" member.
      *
@@ -229,6 +338,7 @@ public class MemberResource {
         LOG.debug("REST request to delete Member : {}", id);
         return memberRepository
             .deleteById(id)
+            .then(memberIndexService.removeOnCommit(id))
             .then(
                 Mono.just(
                     ResponseEntity.noContent()
@@ -237,4 +347,11 @@ public class MemberResource {
                 )
             );
     }
+
+    private HttpHeaders keysetHeaders(ServerHttpRequest request, KeysetPaginationUtil.KeysetPage<Member> page) {
+        return KeysetPaginationUtil.generateKeysetHttpHeaders(
+            ForwardedHeaderUtils.adaptFromForwardedHeaders(request.getURI(), request.getHeaders()),
+            page
+        );
+    }
 }
@@ -10,6 +10,7 @@ import com.mycompany.myapp.service.dto.AdminUserDTO;
 import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
 import com.mycompany.myapp.web.rest.errors.EmailAlreadyUsedException;
 import com.mycompany.myapp.web.rest.errors.LoginAlreadyUsedException;
+import com.mycompany.myapp.web.util.KeysetPaginationUtil;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Pattern;
 import java.net.URI;
@@ -196,7 +197,11 @@ public class UserResource {
 
     /**
      * {@code GET /admin/users} : get all users with all the details - calling this are only allowed for the administrators.
+     * <p>
+     * When {@code after} is given (empty for the first page), the users are read by id with keyset pagination instead of an offset,
+     * which keeps deep pages cheap, and the cursor of the next page is sent in the {@code X-Next-Cursor} and {@code Link} headers.
      *
+     * @param after the cursor of the previous page, from the {@code X-Next-Cursor} header.
      * @param request a {@link ServerHttpRequest} request.
      * @param pageable the pagination information.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body all users.
@@ -204,6 +209,7 @@ public class UserResource {
     @GetMapping("/users")
     @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
     public Mono<ResponseEntity<Flux<AdminUserDTO>>> getAllUsers(
+        @RequestParam(name = "after", required = false) String after,
         @org.springdoc.core.annotations.ParameterObject ServerHttpRequest request,
         @org.springdoc.core.annotations.ParameterObject Pageable pageable
     ) {
@@ -211,6 +217,24 @@ public class UserResource {
         if (!onlyContainsAllowedProperties(pageable)) {
             return Mono.just(ResponseEntity.badRequest().build());
         }
+        if (after != null) {
+            return KeysetPaginationUtil.fetchPage(
+                after,
+                pageable.getPageSize(),
+                userService::getAllManagedUsersAfter,
+                AdminUserDTO::getId,
+                "userManagement"
+            ).map(page ->
+                ResponseEntity.ok()
+                    .headers(
+                        KeysetPaginationUtil.generateKeysetHttpHeaders(
+                            ForwardedHeaderUtils.adaptFromForwardedHeaders(request.getURI(), request.getHeaders()),
+                            page
+                        )
+                    )
+                    .body(Flux.fromIterable(page.content()))
+            );
+        }
 
         return userService
             .countManagedUsers()
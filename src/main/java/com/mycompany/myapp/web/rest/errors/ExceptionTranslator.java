@@ -2,12 +2,15 @@ package com.mycompany.myapp.web.rest.errors;
 
 import static org.springframework.core.annotation.AnnotatedElementUtils.findMergedAnnotation;
 
+import com.mycompany.myapp.service.BookNotAvailableException;
+import com.mycompany.myapp.service.ProjectionNotReadyException;
 import java.net.URI;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -234,6 +237,9 @@ public class ExceptionTranslator extends ResponseEntityExceptionHandler implemen
         // Where we disagree with Spring defaults
         if (err instanceof AccessDeniedException) return HttpStatus.FORBIDDEN;
         if (err instanceof ConcurrencyFailureException) return HttpStatus.CONFLICT;
+        if (err instanceof BookNotAvailableException) return HttpStatus.CONFLICT;
+        if (err instanceof RejectedExecutionException) return HttpStatus.SERVICE_UNAVAILABLE;
+        if (err instanceof ProjectionNotReadyException) return HttpStatus.SERVICE_UNAVAILABLE;
         if (err instanceof BadCredentialsException) return HttpStatus.UNAUTHORIZED;
         if (err instanceof UsernameNotFoundException) return HttpStatus.UNAUTHORIZED;
         return null;
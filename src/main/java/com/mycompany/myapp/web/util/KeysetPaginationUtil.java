@@ -0,0 +1,137 @@
+package com.mycompany.myapp.web.util;
+
+import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Utility class for handling keyset (cursor based) pagination.
+ * <p>
+ * Instead of an {@code OFFSET}, the client sends back the opaque cursor of the previous page in the {@code after} parameter,
+ * and the next page is read with {@code WHERE id > :last ORDER BY id}, so every page costs the same whatever its depth.
+ */
+public final class KeysetPaginationUtil {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private static final String CURSOR_PREFIX = "id:";
+
+    private KeysetPaginationUtil() {}
+
+    /**
+     * A page read with keyset pagination.
+     *
+     * @param content the entities of the page.
+     * @param nextCursor the cursor of the next page, or {@code null} if this is the last page.
+     * @param <T> the type of the entities.
+     */
+    public record KeysetPage<T>(List<T> content, String nextCursor) {}
+
+    /**
+     * Check if the request asks for keyset pagination.
+     *
+     * @param after the {@code after} request parameter.
+     * @param size the {@code size} request parameter.
+     * @return {@code true} if one of the keyset pagination parameters is present.
+     */
+    public static boolean isKeysetRequest(String after, Integer size) {
+        return after != null || size != null;
+    }
+
+    /**
+     * Read a page of entities after the given cursor.
+     *
+     * @param after the cursor of the previous page, or {@code null} (or empty) for the first page.
+     * @param size the requested page size, or {@code null} for the default page size.
+     * @param query the query returning at most {@code size} entities with an id greater than the given one (which may be {@code null}), ordered by id.
+     * @param idExtractor returns the id of an entity.
+     * @param entityName the name of the entity, used for the error messages.
+     * @param <T> the type of the entities.
+     * @return the page.
+     */
+    public static <T> Mono<KeysetPage<T>> fetchPage(
+        String after,
+        Integer size,
+        BiFunction<Long, Integer, Flux<T>> query,
+        Function<T, Long> idExtractor,
+        String entityName
+    ) {
+        Long afterId = decodeCursor(after, entityName);
+        int pageSize = validatePageSize(size, entityName);
+        // read one more row than requested, so we know whether there is a next page
+        return query
+            .apply(afterId, pageSize + 1)
+            .collectList()
+            .map(rows -> {
+                if (rows.size() <= pageSize) {
+                    return new KeysetPage<>(rows, null);
+                }
+                List<T> content = rows.subList(0, pageSize);
+                return new KeysetPage<>(content, encodeCursor(idExtractor.apply(content.get(pageSize - 1))));
+            });
+    }
+
+    /**
+     * Generate the HTTP headers for a keyset page: the {@code X-Next-Cursor} header and a {@code Link} header with the next page.
+     *
+     * @param uriBuilder the URI builder of the current request.
+     * @param page the page.
+     * @param <T> the type of the entities.
+     * @return the headers, empty if this is the last page.
+     */
+    public static <T> HttpHeaders generateKeysetHttpHeaders(UriComponentsBuilder uriBuilder, KeysetPage<T> page) {
+        HttpHeaders headers = new HttpHeaders();
+        if (page.nextCursor() != null) {
+            headers.add(NEXT_CURSOR_HEADER, page.nextCursor());
+            String next = uriBuilder.replaceQueryParam("after", page.nextCursor()).toUriString();
+            headers.add(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+        return headers;
+    }
+
+    /**
+     * Encode the id of the last entity of a page to an opaque cursor.
+     *
+     * @param id the id.
+     * @return the cursor.
+     */
+    public static String encodeCursor(Long id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString((CURSOR_PREFIX + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Long decodeCursor(String cursor, String entityName) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (decoded.startsWith(CURSOR_PREFIX)) {
+                return Long.valueOf(decoded.substring(CURSOR_PREFIX.length()));
+            }
+        } catch (IllegalArgumentException e) {
+            // NumberFormatException is an IllegalArgumentException too, both are reported below
+        }
+        throw new BadRequestAlertException("Invalid cursor", entityName, "cursorinvalid");
+    }
+
+    private static int validatePageSize(Integer size, String entityName) {
+        if (size == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BadRequestAlertException("Page size must be between 1 and " + MAX_PAGE_SIZE, entityName, "pagesizeinvalid");
+        }
+        return size;
+    }
+}
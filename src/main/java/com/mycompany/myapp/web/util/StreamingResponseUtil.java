@@ -0,0 +1,32 @@
+package com.mycompany.myapp.web.util;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * Utility class for the responses streamed from the database.
+ * <p>
+ * A {@link Flux} body is written as the entities are read, whatever the media type: with {@code application/json}, the
+ * Jackson encoder writes the opening bracket, then each entity followed by a comma, then the closing bracket, so the
+ * response starts before the last row is read and is never held on the heap as a whole.
+ */
+public final class StreamingResponseUtil {
+
+    /**
+     * The number of entities requested from the database at a time: the rows are read in batches of this size, and
+     * written as they come, instead of all read ahead of a slow client.
+     */
+    public static final int PREFETCH = 256;
+
+    private StreamingResponseUtil() {}
+
+    /**
+     * Bound the demand of a response body on the database.
+     *
+     * @param entities the entities read from the database.
+     * @param <T> the type of the entities.
+     * @return the entities, requested {@link #PREFETCH} at a time.
+     */
+    public static <T> Flux<T> stream(Flux<T> entities) {
+        return entities.limitRate(PREFETCH);
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Web layer utilities.
+ */
+package com.mycompany.myapp.web.util;
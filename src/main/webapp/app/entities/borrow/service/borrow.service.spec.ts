@@ -88,6 +88,15 @@ describe('Borrow Service', () => {
       expect(expectedResult).toMatchObject([expected]);
     });
 
+    it('should expand the member and book of the Borrows', () => {
+      service.query({ sort: ['id,asc'] }).subscribe();
+
+      const req = httpMock.expectOne({ method: 'GET' });
+      expect(req.request.params.get('expand')).toBe('member,book');
+      expect(req.request.params.get('sort')).toBe('id,asc');
+      req.flush([]);
+    });
+
     it('should delete a Borrow', () => {
       const expected = true;
 
@@ -60,7 +60,8 @@ export class BorrowService {
   }
 
   query(req?: any): Observable<EntityArrayResponseType> {
-    const options = createRequestOption(req);
+    // the borrows only hold the ids of their member and book unless they are expanded
+    const options = createRequestOption({ expand: 'member,book', ...req });
     return this.http
       .get<RestBorrow[]>(this.resourceUrl, { params: options, observe: 'response' })
       .pipe(map(res => this.convertResponseArrayFromServer(res)));
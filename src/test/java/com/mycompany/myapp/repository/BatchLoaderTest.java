@@ -0,0 +1,91 @@
+package com.mycompany.myapp.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mycompany.myapp.domain.Book;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Test class for the {@link BatchLoader}.
+ */
+class BatchLoaderTest {
+
+    private static final Duration QUERY_DURATION = Duration.ofMillis(20);
+
+    private final List<Collection<Long>> queries = new CopyOnWriteArrayList<>();
+
+    private Flux<Book> load(Collection<Long> ids) {
+        queries.add(List.copyOf(ids));
+        // the books with an id above 100 don't exist
+        return Flux.fromIterable(ids)
+            .filter(id -> id <= 100)
+            .map(id -> new Book().id(id))
+            .delaySubscription(QUERY_DURATION);
+    }
+
+    @Test
+    void readsALoneIdWithoutWaitingForTheWindow() {
+        BatchLoader<Book> loader = new BatchLoader<>(this::load, Book::getId, Duration.ofMinutes(1), 100);
+
+        assertThat(loader.load(1L).block(Duration.ofSeconds(5))).extracting(Book::getId).isEqualTo(1L);
+        assertThat(loader.load(2L).block(Duration.ofSeconds(5))).extracting(Book::getId).isEqualTo(2L);
+        assertThat(queries).containsExactly(List.of(1L), List.of(2L));
+    }
+
+    @Test
+    void readsTheIdsRequestedWhileAReadIsInFlightWithOneQuery() {
+        BatchLoader<Book> loader = new BatchLoader<>(this::load, Book::getId, Duration.ofMillis(50), 100);
+
+        List<Book> books = Flux.merge(loader.load(1L), loader.load(2L), loader.load(1L), loader.load(101L))
+            .collectList()
+            .block(Duration.ofSeconds(5));
+
+        assertThat(books).extracting(Book::getId).containsExactlyInAnyOrder(1L, 1L, 2L);
+        assertThat(queries).containsExactly(List.of(1L), List.of(2L, 1L, 101L));
+    }
+
+    @Test
+    void readsAFullBatchWithoutWaitingForTheWindow() {
+        BatchLoader<Book> loader = new BatchLoader<>(this::load, Book::getId, Duration.ofMinutes(1), 2);
+
+        List<Book> books = Flux.merge(loader.load(1L), loader.load(2L), loader.load(3L)).collectList().block(Duration.ofSeconds(5));
+
+        assertThat(books).hasSize(3);
+        assertThat(queries).containsExactly(List.of(1L), List.of(2L, 3L));
+    }
+
+    @Test
+    void signalsTheErrorToTheWholeBatch() {
+        BatchLoader<Book> loader = new BatchLoader<>(
+            ids -> Flux.<Book>error(new IllegalStateException("down")).delaySubscription(QUERY_DURATION),
+            Book::getId,
+            Duration.ofMillis(10),
+            100
+        );
+
+        List<String> errors = Flux.merge(
+            loader.load(1L).map(Book::getTitle).onErrorResume(e -> Mono.just(e.getMessage())),
+            loader.load(2L).map(Book::getTitle).onErrorResume(e -> Mono.just(e.getMessage())),
+            loader.load(3L).map(Book::getTitle).onErrorResume(e -> Mono.just(e.getMessage()))
+        )
+            .collectList()
+            .block(Duration.ofSeconds(5));
+
+        assertThat(errors).containsExactly("down", "down", "down");
+    }
+
+    @Test
+    void readsEachIdAloneWithoutWindow() {
+        BatchLoader<Book> loader = new BatchLoader<>(this::load, Book::getId, Duration.ZERO, 100);
+
+        Flux.merge(loader.load(1L), loader.load(2L)).blockLast(Duration.ofSeconds(5));
+
+        assertThat(queries).containsExactlyInAnyOrder(List.of(1L), List.of(2L));
+    }
+}
@@ -0,0 +1,79 @@
+package com.mycompany.myapp.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.domain.Book;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Integration tests for the {@link CachedEntityRepository}, with the entity cache enabled.
+ */
+@IntegrationTest
+@TestPropertySource(properties = "application.cache.entities.max-entries=100")
+class CachedEntityRepositoryIT {
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @AfterEach
+    void cleanup() {
+        bookRepository.deleteAll().block();
+    }
+
+    private Book saveBook(String title) {
+        return bookRepository.save(new Book().title(title).author("Author").available(true)).block();
+    }
+
+    @Test
+    void readsTheSavedVersion() {
+        Book book = saveBook("Before");
+        assertThat(bookRepository.findById(book.getId()).block()).extracting(Book::getTitle).isEqualTo("Before");
+
+        bookRepository.save(book.title("After")).block();
+
+        assertThat(bookRepository.findById(book.getId()).block()).extracting(Book::getTitle).isEqualTo("After");
+    }
+
+    @Test
+    void readsTheVersionSavedWithOthers() {
+        Book first = saveBook("First");
+        Book second = saveBook("Second");
+        bookRepository.findAllByIds(List.of(first.getId(), second.getId())).blockLast();
+
+        bookRepository.saveAll(List.of(first.title("First again"), second.title("Second again"))).blockLast();
+
+        assertThat(bookRepository.findAllByIds(List.of(first.getId(), second.getId())).map(Book::getTitle).collectList().block())
+            .containsExactly("First again", "Second again");
+    }
+
+    @Test
+    void readsTheLentVersion() {
+        Book book = saveBook("Lent");
+        bookRepository.findById(book.getId()).block();
+
+        bookRepository.markUnavailable(book.getId()).block();
+
+        assertThat(bookRepository.findById(book.getId()).block()).extracting(Book::getAvailable).isEqualTo(false);
+    }
+
+    @Test
+    void forgetsTheDeletedEntities() {
+        Book deleted = saveBook("Deleted");
+        Book deletedById = saveBook("Deleted by id");
+        Book deletedWithAll = saveBook("Deleted with all");
+        List<Long> ids = List.of(deleted.getId(), deletedById.getId(), deletedWithAll.getId());
+        bookRepository.findAllByIds(ids).blockLast();
+
+        bookRepository.delete(deleted).block();
+        bookRepository.deleteAllById(List.of(deletedById.getId())).block();
+        assertThat(bookRepository.findAllByIds(ids).map(Book::getId).collectList().block()).containsExactly(deletedWithAll.getId());
+
+        bookRepository.deleteAll().block();
+        assertThat(bookRepository.findById(deletedWithAll.getId()).blockOptional()).isEmpty();
+    }
+}
@@ -0,0 +1,133 @@
+package com.mycompany.myapp.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mycompany.myapp.domain.Book;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Test class for the {@link EntityCache}.
+ */
+class EntityCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private EntityCache<Long, Book> cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new EntityCache<>("books", 100, 600, book -> new Book().id(book.getId()), meterRegistry);
+        loads = new AtomicInteger();
+    }
+
+    private Mono<Book> load(Long id) {
+        return Mono.fromSupplier(() -> {
+            loads.incrementAndGet();
+            return new Book().id(id);
+        });
+    }
+
+    @Test
+    void readsThroughAndReturnsCopies() {
+        Book first = cache.get(1L, this::load).block();
+        Book second = cache.get(1L, this::load).block();
+
+        assertThat(loads).hasValue(1);
+        assertThat(second).isNotSameAs(first).isEqualTo(first);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "books").tag("result", "hit").functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void loadsAgainAfterEviction() {
+        cache.get(1L, this::load).block();
+        cache.evictOnCompletion(1L).block();
+        cache.get(1L, this::load).block();
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void loadsEveryEntityAgainAfterEvictingAll() {
+        cache.get(1L, this::load).block();
+        cache.get(2L, this::load).block();
+        cache.evictAllOnCompletion().block();
+        cache.get(1L, this::load).block();
+        cache.get(2L, this::load).block();
+
+        assertThat(loads).hasValue(4);
+    }
+
+    @Test
+    void evictsTheWrittenEntitiesUnderAllTheirKeys() {
+        EntityCache<String, Book> byTitle = new EntityCache<>("books", 100, 600, book -> new Book().id(book.getId()), meterRegistry);
+        byTitle.get("dune", title -> load(1L)).block();
+        byTitle.get("dune messiah", title -> load(1L)).block();
+        byTitle.get("solaris", title -> load(2L)).block();
+
+        byTitle.evictOnCompletion(book -> book.getId() == 1L).block();
+        byTitle.get("dune", title -> load(1L)).block();
+        byTitle.get("dune messiah", title -> load(1L)).block();
+        byTitle.get("solaris", title -> load(2L)).block();
+
+        assertThat(loads).hasValue(5);
+    }
+
+    @Test
+    void doesNotStoreALoadOverlappingAnEviction() {
+        Sinks.One<Book> database = Sinks.one();
+        Mono<Book> pending = cache.get(1L, id -> database.asMono()).cache();
+        pending.subscribe();
+
+        cache.evictOnCompletion(1L).block();
+        database.tryEmitValue(new Book().id(1L));
+        pending.block();
+
+        cache.get(1L, this::load).block();
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void readsTheMissingEntitiesAtOnce() {
+        cache.get(2L, this::load).block();
+        List<Collection<Long>> queries = new ArrayList<>();
+
+        List<Book> books = cache
+            .getAll(
+                List.of(3L, 2L, 1L, 3L, 4L),
+                ids -> {
+                    queries.add(ids);
+                    // the 4th book doesn't exist
+                    return Flux.fromIterable(ids).filter(id -> id != 4L).map(id -> new Book().id(id));
+                },
+                Book::getId
+            )
+            .collectList()
+            .block();
+
+        assertThat(books).extracting(Book::getId).containsExactly(3L, 2L, 1L);
+        assertThat(queries).containsExactly(List.of(3L, 1L, 4L));
+
+        cache.get(1L, this::load).block();
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void isDisabledWithoutEntries() {
+        cache = new EntityCache<>("books", 0, 600, book -> book, meterRegistry);
+
+        cache.get(1L, this::load).block();
+        cache.get(1L, this::load).block();
+
+        assertThat(loads).hasValue(2);
+    }
+}
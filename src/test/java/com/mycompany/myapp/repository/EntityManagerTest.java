@@ -0,0 +1,77 @@
+package com.mycompany.myapp.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+
+import com.mycompany.myapp.domain.Book;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.r2dbc.query.UpdateMapper;
+import org.springframework.data.relational.core.sql.render.SqlRenderer;
+
+/**
+ * Test class for the statements of the {@link EntityManager}.
+ */
+class EntityManagerTest {
+
+    private EntityManager entityManager;
+
+    @BeforeEach
+    void setUp() {
+        entityManager = new EntityManager(
+            SqlRenderer.create(),
+            mock(UpdateMapper.class),
+            mock(R2dbcEntityTemplate.class, RETURNS_DEEP_STUBS)
+        );
+    }
+
+    @Test
+    void selectIsRenderedOncePerShape() {
+        AtomicInteger renders = new AtomicInteger();
+        for (int i = 0; i < 3; i++) {
+            EntityManager.SelectKey key = EntityManager.SelectKey.of(Book.class, "byId", null);
+            String sql = entityManager.createSelect(key, () -> "select " + renders.incrementAndGet());
+            assertThat(sql).isEqualTo("select 1");
+        }
+        assertThat(renders).hasValue(1);
+    }
+
+    @Test
+    void selectIsRenderedAgainForAnotherPageOrShape() {
+        AtomicInteger renders = new AtomicInteger();
+        render(renders, "all", PageRequest.of(0, 10));
+        render(renders, "all", PageRequest.of(1, 10));
+        render(renders, "all", PageRequest.of(0, 10, Sort.by("title")));
+        render(renders, "afterId", PageRequest.of(0, 10));
+        render(renders, "all", PageRequest.of(0, 10));
+        assertThat(renders).hasValue(4);
+    }
+
+    @Test
+    void selectKeepsCachingTheNewShapesOnceFull() {
+        AtomicInteger renders = new AtomicInteger();
+        for (int page = 0; page < 2000; page++) {
+            render(renders, "all", PageRequest.of(page, 10));
+        }
+        render(renders, "all", PageRequest.of(1999, 10));
+        assertThat(renders).hasValue(2000);
+    }
+
+    @Test
+    void insertHasOneRowOfBindMarkersPerRow() {
+        assertThat(EntityManager.renderInsert("jhi_user_authority", List.of("user_id", "authority_name"), 3)).isEqualTo(
+            "INSERT INTO jhi_user_authority (user_id, authority_name) VALUES (:p0, :p1), (:p2, :p3), (:p4, :p5)"
+        );
+    }
+
+    private void render(AtomicInteger renders, String shape, Pageable pageable) {
+        entityManager.createSelect(EntityManager.SelectKey.of(Book.class, shape, pageable), () -> "select " + renders.incrementAndGet());
+    }
+}
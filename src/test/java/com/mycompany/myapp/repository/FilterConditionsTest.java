@@ -0,0 +1,114 @@
+package com.mycompany.myapp.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.relational.core.sql.Table;
+import org.springframework.data.relational.core.sql.render.SqlRenderer;
+import tech.jhipster.service.filter.BooleanFilter;
+import tech.jhipster.service.filter.DoubleFilter;
+import tech.jhipster.service.filter.InstantFilter;
+import tech.jhipster.service.filter.IntegerFilter;
+import tech.jhipster.service.filter.StringFilter;
+
+/**
+ * Test class for the {@link FilterConditions}.
+ */
+class FilterConditionsTest {
+
+    private static final Table TABLE = Table.aliased("book", EntityManager.ENTITY_ALIAS);
+
+    private static FilterConditions bookFilter(String author, int publishedYear, List<Double> prices) {
+        StringFilter authorFilter = new StringFilter();
+        authorFilter.setContains(author);
+        IntegerFilter publishedYearFilter = new IntegerFilter();
+        publishedYearFilter.setGreaterThan(publishedYear);
+        DoubleFilter priceFilter = new DoubleFilter();
+        priceFilter.setIn(prices);
+        BooleanFilter availableFilter = new BooleanFilter();
+        availableFilter.setEquals(true);
+        return new FilterConditions()
+            .add(authorFilter, TABLE.column("author"))
+            .add(publishedYearFilter, TABLE.column("published_year"))
+            .add(priceFilter, TABLE.column("price"))
+            .add(availableFilter, TABLE.column("available"))
+            .add(null, TABLE.column("title"));
+    }
+
+    @Test
+    void compilesTheFiltersIntoBindMarkers() {
+        FilterConditions filter = bookFilter("Tolkien", 1950, List.of(9.99, 19.99));
+
+        assertThat(SqlRenderer.toString(filter.count(TABLE))).isEqualTo(
+            "SELECT COUNT(*) FROM book e WHERE e.author LIKE :p0 AND e.published_year > :p1 AND e.price IN (:p2) AND e.available = :p3"
+        );
+        assertThat(filter.parameters()).containsExactly(
+            entry("p0", "%Tolkien%"),
+            entry("p1", 1950),
+            entry("p2", List.of(9.99, 19.99)),
+            entry("p3", true)
+        );
+    }
+
+    @Test
+    void filtersWithTheSameOperatorsHaveTheSameShape() {
+        FilterConditions filter = bookFilter("Tolkien", 1950, List.of(9.99, 19.99));
+        FilterConditions other = bookFilter("Pratchett", 1980, List.of(5.0));
+
+        assertThat(other.shape()).isEqualTo(filter.shape()).doesNotContain("Tolkien", "Pratchett");
+        assertThat(new FilterConditions().shape()).isNotEqualTo(filter.shape());
+    }
+
+    @Test
+    void withoutFilterThereIsNoCondition() {
+        FilterConditions filter = new FilterConditions().add(null, TABLE.column("author")).add(new StringFilter(), TABLE.column("title"));
+
+        assertThat(filter.condition()).isNull();
+        assertThat(filter.parameters()).isEmpty();
+        assertThat(SqlRenderer.toString(filter.count(TABLE))).isEqualTo("SELECT COUNT(*) FROM book e");
+    }
+
+    @Test
+    void matchesTheWildcardsLiterally() {
+        StringFilter authorFilter = new StringFilter();
+        authorFilter.setContains("50%_[off]");
+
+        FilterConditions filter = new FilterConditions().add(authorFilter, TABLE.column("author"));
+
+        assertThat(filter.parameters()).containsExactly(entry("p0", "%50[%][_][[]off]%"));
+    }
+
+    @Test
+    void anEmptyInFilterMatchesNothing() {
+        DoubleFilter priceFilter = new DoubleFilter();
+        priceFilter.setIn(List.of());
+        priceFilter.setNotIn(List.of());
+
+        FilterConditions filter = new FilterConditions().add(priceFilter, TABLE.column("price"));
+
+        assertThat(SqlRenderer.toString(filter.count(TABLE))).isEqualTo("SELECT COUNT(*) FROM book e WHERE 1 = 0");
+        assertThat(filter.parameters()).isEmpty();
+    }
+
+    @Test
+    void bindsTheInstantsInUtc() {
+        InstantFilter returnDateFilter = new InstantFilter();
+        returnDateFilter.setSpecified(false);
+        InstantFilter borrowDateFilter = new InstantFilter();
+        borrowDateFilter.setGreaterThanOrEqual(Instant.parse("2024-06-30T12:00:00Z"));
+        Table borrow = Table.aliased("borrow", EntityManager.ENTITY_ALIAS);
+
+        FilterConditions filter = new FilterConditions()
+            .add(returnDateFilter, borrow.column("return_date"))
+            .add(borrowDateFilter, borrow.column("borrow_date"));
+
+        assertThat(SqlRenderer.toString(filter.count(borrow))).isEqualTo(
+            "SELECT COUNT(*) FROM borrow e WHERE e.return_date IS NULL AND e.borrow_date >= :p0"
+        );
+        assertThat(filter.parameters()).containsExactly(entry("p0", LocalDateTime.of(2024, 6, 30, 12, 0)));
+    }
+}
@@ -0,0 +1,71 @@
+package com.mycompany.myapp.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Test class for the {@link SingleFlight}.
+ */
+class SingleFlightTest {
+
+    private final SingleFlight<Long, String> flights = new SingleFlight<>();
+    private final AtomicInteger queries = new AtomicInteger();
+
+    private Mono<String> query(Sinks.One<String> database) {
+        queries.incrementAndGet();
+        return database.asMono();
+    }
+
+    @Test
+    void concurrentSubscribersShareOneQuery() {
+        Sinks.One<String> database = Sinks.one();
+        Mono<String> first = flights.share(1L, () -> query(database)).cache();
+        Mono<String> second = flights.share(1L, () -> query(database)).cache();
+        first.subscribe();
+        second.subscribe();
+
+        database.tryEmitValue("book");
+
+        assertThat(first.block()).isEqualTo("book");
+        assertThat(second.block()).isEqualTo("book");
+        assertThat(queries).hasValue(1);
+    }
+
+    @Test
+    void completedQueryIsNotReused() {
+        flights.share(1L, () -> query(sinkWith("old"))).block();
+        String value = flights.share(1L, () -> query(sinkWith("new"))).block();
+
+        assertThat(value).isEqualTo("new");
+        assertThat(queries).hasValue(2);
+    }
+
+    @Test
+    void failedQueryIsNotReused() {
+        Mono<String> failing = flights.share(1L, () -> Mono.error(new IllegalStateException("database down")));
+        assertThatThrownBy(failing::block).hasMessageContaining("database down");
+
+        assertThat(flights.share(1L, () -> query(sinkWith("book"))).block()).isEqualTo("book");
+    }
+
+    @Test
+    void forgottenQueryIsNotShared() {
+        Sinks.One<String> database = Sinks.one();
+        flights.share(1L, () -> query(database)).subscribe();
+        flights.forget(1L);
+
+        assertThat(flights.share(1L, () -> query(sinkWith("new"))).block()).isEqualTo("new");
+        assertThat(queries).hasValue(2);
+    }
+
+    private static Sinks.One<String> sinkWith(String value) {
+        Sinks.One<String> sink = Sinks.one();
+        sink.tryEmitValue(value);
+        return sink;
+    }
+}
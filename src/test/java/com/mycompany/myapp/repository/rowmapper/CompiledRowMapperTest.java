@@ -0,0 +1,154 @@
+package com.mycompany.myapp.repository.rowmapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.mycompany.myapp.domain.Book;
+import com.mycompany.myapp.domain.Borrow;
+import com.mycompany.myapp.domain.Member;
+import io.r2dbc.spi.Row;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link CompiledRowMapper}, through the entity row mappers.
+ */
+class CompiledRowMapperTest {
+
+    private static final LocalDateTime JOIN_DATE = LocalDateTime.of(2024, 3, 1, 10, 0);
+
+    private BookRowMapper bookMapper;
+    private MemberRowMapper memberMapper;
+    private BorrowRowMapper borrowMapper;
+
+    @BeforeEach
+    void setUp() {
+        ColumnConverter converter = InMemoryResult.columnConverter();
+        bookMapper = new BookRowMapper(converter);
+        memberMapper = new MemberRowMapper(converter);
+        borrowMapper = new BorrowRowMapper(converter);
+    }
+
+    @Test
+    void mapsColumnsWithTheirPrefix() {
+        Map<String, Object> columns = new LinkedHashMap<>();
+        columns.put("e_id", 1L);
+        columns.put("e_name", "Ada");
+        columns.put("e_email", "ada@example.com");
+        columns.put("e_join_date", JOIN_DATE);
+        Row row = InMemoryResult.of(columns, 1).rows().get(0);
+
+        Member member = memberMapper.apply(row, "e");
+
+        assertThat(member.getId()).isEqualTo(1L);
+        assertThat(member.getName()).isEqualTo("Ada");
+        assertThat(member.getEmail()).isEqualTo("ada@example.com");
+        assertThat(member.getJoinDate()).isEqualTo(JOIN_DATE.toInstant(ZoneOffset.UTC));
+    }
+
+    @Test
+    void mapsTheEntitiesOfAJoin() {
+        for (Row row : InMemoryResult.of(borrowColumns(), 3).rows()) {
+            Borrow borrow = borrowMapper.apply(row, "e");
+            Member member = memberMapper.apply(row, "member");
+            Book book = bookMapper.apply(row, "book");
+
+            assertThat(borrow.getId()).isEqualTo(10L);
+            assertThat(borrow.getBorrowDate()).isEqualTo(JOIN_DATE.toInstant(ZoneOffset.UTC));
+            assertThat(borrow.getMemberId()).isEqualTo(2L);
+            assertThat(member.getId()).isEqualTo(2L);
+            assertThat(book.getId()).isEqualTo(3L);
+            assertThat(book.getPublishedYear()).isEqualTo(1999);
+            assertThat(book.getAvailable()).isFalse();
+        }
+    }
+
+    @Test
+    void resolvesTheColumnsAgainForAnotherLayout() {
+        Map<String, Object> columns = new LinkedHashMap<>();
+        columns.put("e_title", "Dune");
+        columns.put("e_id", 5L);
+        columns.put("e_author", "Herbert");
+        columns.put("e_published_year", 1965);
+        columns.put("e_price", 9.5);
+        columns.put("e_available", true);
+        Map<String, Object> reordered = new LinkedHashMap<>();
+        reordered.put("e_available", false);
+        reordered.put("e_price", 12.0);
+        reordered.put("e_published_year", 1966);
+        reordered.put("e_author", "Heinlein");
+        reordered.put("e_id", 6L);
+        reordered.put("e_title", "The Moon Is a Harsh Mistress");
+
+        Book first = bookMapper.apply(InMemoryResult.of(columns, 1).rows().get(0), "e");
+        Book second = bookMapper.apply(InMemoryResult.of(reordered, 1).rows().get(0), "e");
+
+        assertThat(first.getId()).isEqualTo(5L);
+        assertThat(first.getTitle()).isEqualTo("Dune");
+        assertThat(second.getId()).isEqualTo(6L);
+        assertThat(second.getTitle()).isEqualTo("The Moon Is a Harsh Mistress");
+        assertThat(second.getAvailable()).isFalse();
+    }
+
+    @Test
+    void keepsOnePlanPerLayoutForInterleavedResults() {
+        CompiledRowMapper<Book> mapper = CompiledRowMapper.builder(Book::new, InMemoryResult.columnConverter())
+            .column("id", Long.class, Book::setId)
+            .column("title", String.class, Book::setTitle)
+            .build();
+        Map<String, Object> columns = new LinkedHashMap<>();
+        columns.put("e_id", 5L);
+        columns.put("e_title", "Dune");
+        Map<String, Object> reordered = new LinkedHashMap<>();
+        reordered.put("e_title", "Solaris");
+        reordered.put("e_id", 6L);
+        List<Row> first = InMemoryResult.of(columns, 3).rows();
+        List<Row> second = InMemoryResult.of(reordered, 3).rows();
+        List<Row> third = InMemoryResult.of(columns, 3).rows();
+
+        // the rows of concurrent results, mapped in turn
+        for (int i = 0; i < 3; i++) {
+            assertThat(mapper.map(first.get(i), "e").getTitle()).isEqualTo("Dune");
+            assertThat(mapper.map(second.get(i), "e").getTitle()).isEqualTo("Solaris");
+            assertThat(mapper.map(third.get(i), "e").getId()).isEqualTo(5L);
+        }
+
+        assertThat(mapper.compiledPlans()).isEqualTo(2);
+    }
+
+    @Test
+    void failsOnMissingColumn() {
+        Map<String, Object> columns = new LinkedHashMap<>();
+        columns.put("e_id", 1L);
+        Row row = InMemoryResult.of(columns, 1).rows().get(0);
+
+        assertThatThrownBy(() -> memberMapper.apply(row, "e")).isInstanceOf(NoSuchElementException.class).hasMessageContaining("e_name");
+    }
+
+    static Map<String, Object> borrowColumns() {
+        Map<String, Object> columns = new LinkedHashMap<>();
+        columns.put("e_id", 10L);
+        columns.put("e_borrow_date", JOIN_DATE);
+        columns.put("e_return_date", JOIN_DATE.plusDays(14));
+        columns.put("e_member_id", 2L);
+        columns.put("e_book_id", 3L);
+        columns.put("member_id", 2L);
+        columns.put("member_name", "Ada");
+        columns.put("member_email", "ada@example.com");
+        columns.put("member_join_date", JOIN_DATE);
+        columns.put("book_id", 3L);
+        columns.put("book_title", "Dune");
+        columns.put("book_author", "Herbert");
+        columns.put("book_published_year", 1999);
+        columns.put("book_price", 9.5);
+        columns.put("book_available", false);
+        return columns;
+    }
+}
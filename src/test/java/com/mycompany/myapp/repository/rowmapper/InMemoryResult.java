@@ -0,0 +1,126 @@
+package com.mycompany.myapp.repository.rowmapper;
+
+import com.mycompany.myapp.config.DatabaseConfiguration;
+import io.r2dbc.spi.ColumnMetadata;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import io.r2dbc.spi.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import org.springframework.data.r2dbc.convert.MappingR2dbcConverter;
+import org.springframework.data.r2dbc.convert.R2dbcCustomConversions;
+import org.springframework.data.r2dbc.dialect.SqlServerDialect;
+import org.springframework.data.r2dbc.mapping.R2dbcMappingContext;
+
+/**
+ * A result held in memory, which behaves like the one of the SQL Server driver: all its rows share the same {@link RowMetadata},
+ * and reading a value as a type the column can't be decoded to throws an exception.
+ */
+public final class InMemoryResult {
+
+    private final Metadata metadata;
+    private final List<Row> rows = new ArrayList<>();
+
+    private InMemoryResult(List<Column> columns) {
+        this.metadata = new Metadata(columns);
+    }
+
+    /**
+     * Create a result with the columns (and their values) of the given row, repeated {@code count} times.
+     * @param row the column names and values, in the order of the select.
+     * @param count the number of rows.
+     * @return the result.
+     */
+    public static InMemoryResult of(Map<String, Object> row, int count) {
+        List<Column> columns = new ArrayList<>();
+        row.forEach((name, value) -> columns.add(new Column(name, value.getClass())));
+        InMemoryResult result = new InMemoryResult(columns);
+        Object[] values = row.values().toArray();
+        for (int i = 0; i < count; i++) {
+            result.rows.add(new InMemoryRow(result.metadata, values.clone()));
+        }
+        return result;
+    }
+
+    public List<Row> rows() {
+        return rows;
+    }
+
+    /**
+     * Create the {@link ColumnConverter} of the application, with its custom conversions.
+     * @return the converter.
+     */
+    public static ColumnConverter columnConverter() {
+        R2dbcCustomConversions conversions = R2dbcCustomConversions.of(
+            SqlServerDialect.INSTANCE,
+            List.of(DatabaseConfiguration.InstantReadConverter.INSTANCE, DatabaseConfiguration.InstantWriteConverter.INSTANCE)
+        );
+        return new ColumnConverter(conversions, new MappingR2dbcConverter(new R2dbcMappingContext(), conversions));
+    }
+
+    private record Column(String name, Class<?> javaType) implements ColumnMetadata, Type {
+        @Override
+        public Type getType() {
+            return this;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public Class<?> getJavaType() {
+            return javaType;
+        }
+    }
+
+    private record Metadata(List<Column> columns) implements RowMetadata {
+        int indexOf(String name) {
+            for (int i = 0; i < columns.size(); i++) {
+                if (columns.get(i).name().equalsIgnoreCase(name)) {
+                    return i;
+                }
+            }
+            throw new NoSuchElementException("Column " + name + " does not exist");
+        }
+
+        @Override
+        public ColumnMetadata getColumnMetadata(int index) {
+            return columns.get(index);
+        }
+
+        @Override
+        public ColumnMetadata getColumnMetadata(String name) {
+            return columns.get(indexOf(name));
+        }
+
+        @Override
+        public List<? extends ColumnMetadata> getColumnMetadatas() {
+            return columns;
+        }
+    }
+
+    private record InMemoryRow(Metadata metadata, Object[] values) implements Row {
+        @Override
+        public RowMetadata getMetadata() {
+            return metadata;
+        }
+
+        @Override
+        public <T> T get(int index, Class<T> type) {
+            Object value = values[index];
+            if (value != null && !type.isInstance(value)) {
+                throw new IllegalArgumentException("Cannot decode value of type " + value.getClass().getName() + " to " + type.getName());
+            }
+            return type.cast(value);
+        }
+
+        @Override
+        public <T> T get(String name, Class<T> type) {
+            return get(metadata.indexOf(name), type);
+        }
+    }
+}
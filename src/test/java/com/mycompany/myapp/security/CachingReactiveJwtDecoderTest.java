@@ -0,0 +1,102 @@
+package com.mycompany.myapp.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import reactor.core.publisher.Mono;
+
+/**
+ * Test class for the {@link CachingReactiveJwtDecoder}.
+ */
+class CachingReactiveJwtDecoderTest {
+
+    private static final Instant NOW = Instant.parse("2024-06-30T10:00:00Z");
+
+    private final MutableClock clock = new MutableClock();
+    private final AtomicInteger decodes = new AtomicInteger();
+    private SimpleMeterRegistry meterRegistry;
+    private CachingReactiveJwtDecoder decoder;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        decoder = new CachingReactiveJwtDecoder(this::verify, 100, meterRegistry, clock);
+    }
+
+    /**
+     * Stands for the verifying decoder: the tokens are "valid-<seconds before expiration>" or "invalid".
+     */
+    private Mono<Jwt> verify(String token) {
+        decodes.incrementAndGet();
+        if (!token.startsWith("valid-")) {
+            return Mono.error(new BadJwtException("Failed to validate the token"));
+        }
+        Instant expiresAt = NOW.plusSeconds(Long.parseLong(token.substring("valid-".length())));
+        if (!expiresAt.isAfter(clock.instant())) {
+            return Mono.error(new BadJwtException("Jwt expired at " + expiresAt));
+        }
+        return Mono.just(Jwt.withTokenValue(token).header("alg", "HS512").subject("user").issuedAt(NOW).expiresAt(expiresAt).build());
+    }
+
+    @Test
+    void verifiesAValidTokenOnce() {
+        Jwt first = decoder.decode("valid-60").block();
+        Jwt second = decoder.decode("valid-60").block();
+
+        assertThat(second).isSameAs(first);
+        assertThat(decodes).hasValue(1);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "jwt").tag("result", "hit").functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void verifiesATokenAgainOnceItExpired() {
+        decoder.decode("valid-60").block();
+        clock.advance(Duration.ofSeconds(61));
+
+        assertThatThrownBy(() -> decoder.decode("valid-60").block()).hasMessageContaining("Jwt expired at");
+        assertThat(decodes).hasValue(2);
+    }
+
+    @Test
+    void doesNotCacheInvalidTokens() {
+        assertThatThrownBy(() -> decoder.decode("invalid").block()).isInstanceOf(BadJwtException.class);
+        assertThatThrownBy(() -> decoder.decode("invalid").block()).isInstanceOf(BadJwtException.class);
+
+        assertThat(decodes).hasValue(2);
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant instant = NOW;
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.mycompany.myapp.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+/**
+ * Test class for the {@link PasswordHashingScheduler}.
+ */
+class PasswordHashingSchedulerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private PasswordHashingScheduler passwordHashingScheduler;
+
+    @BeforeEach
+    void setUp() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getPassword().setHashingThreads(1);
+        applicationProperties.getPassword().setHashingQueueCapacity(1);
+        meterRegistry = new SimpleMeterRegistry();
+        passwordHashingScheduler = new PasswordHashingScheduler(applicationProperties, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        passwordHashingScheduler.destroy();
+    }
+
+    private Mono<String> hash(CountDownLatch release) {
+        return Mono.just("password")
+            .publishOn(passwordHashingScheduler.getScheduler())
+            .map(password -> {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return Thread.currentThread().getName();
+            });
+    }
+
+    @Test
+    void hashesOnItsOwnThreads() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(0);
+
+        assertThat(hash(release).block(Duration.ofSeconds(5))).startsWith("password-hashing-");
+        Timer timer = meterRegistry.get("executor").tag("name", PasswordHashingScheduler.METRIC_NAME).timer();
+        // the task is timed once it returns, which may be after its result is received
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (timer.count() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(timer.count()).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsTheHashesBeyondTheThreadsAndTheQueue() {
+        CountDownLatch release = new CountDownLatch(1);
+        Mono<String> running = hash(release).cache();
+        Mono<String> queued = hash(release).cache();
+        running.subscribe();
+        queued.subscribe();
+
+        assertThatThrownBy(() -> hash(release).block(Duration.ofSeconds(5))).isInstanceOf(RejectedExecutionException.class);
+
+        release.countDown();
+        assertThat(running.block(Duration.ofSeconds(5))).startsWith("password-hashing-");
+        assertThat(queued.block(Duration.ofSeconds(5))).startsWith("password-hashing-");
+    }
+}
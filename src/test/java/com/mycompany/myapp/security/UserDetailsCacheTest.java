@@ -0,0 +1,87 @@
+package com.mycompany.myapp.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.security.DomainUserDetailsService.UserWithId;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import reactor.core.publisher.Mono;
+
+/**
+ * Test class for the {@link UserDetailsCache}.
+ */
+class UserDetailsCacheTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private ApplicationProperties applicationProperties;
+    private UserDetailsCache userDetailsCache;
+
+    @BeforeEach
+    void setUp() {
+        applicationProperties = new ApplicationProperties();
+        userDetailsCache = new UserDetailsCache(applicationProperties, new SimpleMeterRegistry());
+    }
+
+    private Mono<UserWithId> load(Long id) {
+        return Mono.fromSupplier(() -> {
+            loads.incrementAndGet();
+            return new UserWithId("user", "hash", List.of(new SimpleGrantedAuthority(AuthoritiesConstants.USER)), id);
+        });
+    }
+
+    @Test
+    void loadsAUserOnce() {
+        UserWithId first = userDetailsCache.get("user", () -> load(1L)).block();
+        first.eraseCredentials();
+        UserWithId second = userDetailsCache.get("user", () -> load(1L)).block();
+
+        assertThat(loads).hasValue(1);
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.getPassword()).isEqualTo("hash");
+        assertThat(second.getId()).isEqualTo(1L);
+    }
+
+    @Test
+    void evictsAUserUnderAllItsKeys() {
+        userDetailsCache.get("user", () -> load(1L)).block();
+        userDetailsCache.get("user@localhost", () -> load(1L)).block();
+        userDetailsCache.get("other", () -> load(2L)).block();
+
+        userDetailsCache.evictOnCompletion(1L).block();
+        userDetailsCache.get("user", () -> load(1L)).block();
+        userDetailsCache.get("user@localhost", () -> load(1L)).block();
+        userDetailsCache.get("other", () -> load(2L)).block();
+
+        assertThat(loads).hasValue(5);
+    }
+
+    @Test
+    void doesNotCacheTheUsersNotFound() {
+        Mono<UserWithId> notFound = Mono.defer(() -> {
+            loads.incrementAndGet();
+            return Mono.error(new UsernameNotFoundException("User user was not found in the database"));
+        });
+
+        assertThatThrownBy(() -> userDetailsCache.get("user", () -> notFound).block()).isInstanceOf(UsernameNotFoundException.class);
+        assertThatThrownBy(() -> userDetailsCache.get("user", () -> notFound).block()).isInstanceOf(UsernameNotFoundException.class);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void loadsEveryTimeWhenDisabled() {
+        applicationProperties.getCache().getUsers().setMaxEntries(0);
+        userDetailsCache = new UserDetailsCache(applicationProperties, new SimpleMeterRegistry());
+
+        userDetailsCache.get("user", () -> load(1L)).block();
+        userDetailsCache.get("user", () -> load(1L)).block();
+
+        assertThat(loads).hasValue(2);
+    }
+}
@@ -4,6 +4,7 @@ import com.mycompany.myapp.config.SecurityConfiguration;
 import com.mycompany.myapp.config.SecurityJwtConfiguration;
 import com.mycompany.myapp.config.WebConfigurer;
 import com.mycompany.myapp.management.SecurityMetersService;
+import com.mycompany.myapp.security.PasswordHashingScheduler;
 import com.mycompany.myapp.web.rest.AuthenticateController;
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
@@ -23,6 +24,7 @@ import tech.jhipster.config.JHipsterProperties;
         SecurityConfiguration.class,
         SecurityJwtConfiguration.class,
         SecurityMetersService.class,
+        PasswordHashingScheduler.class,
         JwtAuthenticationTestUtils.class,
     }
 )
@@ -0,0 +1,160 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.Book;
+import com.mycompany.myapp.domain.Borrow;
+import com.mycompany.myapp.domain.Member;
+import com.mycompany.myapp.repository.BookRepository;
+import com.mycompany.myapp.repository.BorrowCountProjection;
+import com.mycompany.myapp.repository.BorrowRepository;
+import com.mycompany.myapp.repository.MemberRepository;
+import com.mycompany.myapp.service.AutocompleteService.Kind;
+import com.mycompany.myapp.service.dto.AutocompleteSuggestionDTO;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link AutocompleteService}.
+ */
+class AutocompleteServiceTest {
+
+    private static final Set<Kind> ALL_KINDS = EnumSet.allOf(Kind.class);
+
+    private AutocompleteService service;
+
+    @BeforeEach
+    void setUp() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getAutocomplete().setMaxSuggestions(3);
+        service = new AutocompleteService(
+            mock(BookRepository.class),
+            mock(MemberRepository.class),
+            mock(BorrowRepository.class),
+            applicationProperties
+        );
+    }
+
+    private static Book book(long id, String title, String author) {
+        return new Book().id(id).title(title).author(author);
+    }
+
+    private static BorrowCountProjection borrows(long id, long total) {
+        BorrowCountProjection projection = new BorrowCountProjection();
+        projection.setId(id);
+        projection.setTotal(total);
+        return projection;
+    }
+
+    private static Borrow borrow(Long memberId, Long bookId) {
+        Borrow borrow = new Borrow();
+        borrow.setMember(memberId == null ? null : new Member().id(memberId));
+        borrow.setBook(bookId == null ? null : new Book().id(bookId));
+        return borrow;
+    }
+
+    private List<String> texts(String prefix, Set<Kind> kinds) {
+        return service.find(prefix, kinds, 3).stream().map(AutocompleteSuggestionDTO::getText).toList();
+    }
+
+    @Test
+    void ranksTheMostBorrowedFirst() {
+        service.load(
+            List.of(book(1, "Dune", "Frank Herbert"), book(2, "Dune Messiah", "Frank Herbert"), book(3, "Dubliners", "James Joyce")),
+            List.of(),
+            List.of(borrows(2, 5), borrows(3, 7)),
+            List.of()
+        );
+
+        List<AutocompleteSuggestionDTO> suggestions = service.find("du", Set.of(Kind.TITLE), 3);
+
+        assertThat(suggestions).extracting(AutocompleteSuggestionDTO::getText).containsExactly("Dubliners", "Dune Messiah", "Dune");
+        assertThat(suggestions).extracting(AutocompleteSuggestionDTO::getBorrows).containsExactly(7L, 5L, 0L);
+    }
+
+    @Test
+    void completesThePrefixOfAnyWordWhateverTheCaseAndTheAccents() {
+        service.load(
+            List.of(book(1, "Les Misérables", "Victor Hugo"), book(2, "Notre-Dame de Paris", "Victor Hugo")),
+            List.of(new Member().id(1L).name("Hugo Chávez")),
+            List.of(),
+            List.of()
+        );
+
+        assertThat(texts("MISER", ALL_KINDS)).containsExactly("Les Misérables");
+        assertThat(texts("dame de", ALL_KINDS)).containsExactly("Notre-Dame de Paris");
+        assertThat(texts("chav", ALL_KINDS)).containsExactly("Hugo Chávez");
+        // the author of both books is completed once
+        assertThat(service.find("hug", ALL_KINDS, 3))
+            .extracting(AutocompleteSuggestionDTO::getType)
+            .containsExactly("member", "author");
+        assertThat(texts("hug", Set.of(Kind.AUTHOR))).containsExactly("Victor Hugo");
+        // the prefix must start a word
+        assertThat(texts("erables", ALL_KINDS)).isEmpty();
+    }
+
+    @Test
+    void keepsTheBestCompletionsOfEachPrefix() {
+        service.load(
+            LongStream.rangeClosed(1, 20).mapToObj(id -> book(id, "Dune " + id, "Frank Herbert")).toList(),
+            List.of(),
+            List.of(borrows(4, 3), borrows(17, 9), borrows(9, 1), borrows(12, 2)),
+            List.of()
+        );
+
+        assertThat(texts("dune", Set.of(Kind.TITLE))).containsExactly("Dune 17", "Dune 4", "Dune 12");
+        assertThat(service.find("dune", Set.of(Kind.TITLE), 1)).extracting(AutocompleteSuggestionDTO::getText).containsExactly("Dune 17");
+        assertThat(texts("dune 1", Set.of(Kind.TITLE))).containsExactly("Dune 17", "Dune 12", "Dune 1");
+    }
+
+    @Test
+    void countsTheBorrowsOfTheBooksSharingATitle() {
+        service.load(
+            List.of(book(1, "Emma", "Jane Austen"), book(2, "Emma", "Jane Austen"), book(3, "Emmanuelle", "Emmanuelle Arsan")),
+            List.of(),
+            List.of(borrows(1, 2), borrows(2, 2), borrows(3, 3)),
+            List.of()
+        );
+
+        assertThat(texts("emm", Set.of(Kind.TITLE))).containsExactly("Emma", "Emmanuelle");
+
+        service.removeBookOnCommit(1L).block();
+        assertThat(texts("emm", Set.of(Kind.TITLE))).containsExactly("Emmanuelle", "Emma");
+
+        service.removeBookOnCommit(2L).block();
+        assertThat(texts("emm", Set.of(Kind.TITLE))).containsExactly("Emmanuelle");
+    }
+
+    @Test
+    void updatesTheCompletionsWithTheWrittenEntities() {
+        service.load(List.of(book(1, "Dune", "Frank Herbert")), List.of(new Member().id(1L).name("Paul")), List.of(), List.of());
+
+        service.indexBookOnCommit(book(1, "Dune Messiah", "Frank Herbert")).block();
+        service.indexBookOnCommit(book(2, "Children of Dune", "Frank Herbert")).block();
+        assertThat(texts("dune", Set.of(Kind.TITLE))).containsExactly("Children of Dune", "Dune Messiah");
+
+        service.recordBorrowOnCommit(null, borrow(1L, 1L)).block();
+        service.recordBorrowOnCommit(null, borrow(1L, 1L)).block();
+        service.recordBorrowOnCommit(null, borrow(1L, 2L)).block();
+        assertThat(texts("dune", Set.of(Kind.TITLE))).containsExactly("Dune Messiah", "Children of Dune");
+        assertThat(service.find("pa", Set.of(Kind.MEMBER), 3)).extracting(AutocompleteSuggestionDTO::getBorrows).containsExactly(3L);
+
+        // a borrow moved to another book, and a deleted borrow
+        service.recordBorrowOnCommit(borrow(1L, 1L), borrow(1L, 2L)).block();
+        service.recordBorrowOnCommit(borrow(1L, 1L), null).block();
+        assertThat(texts("dune", Set.of(Kind.TITLE))).containsExactly("Children of Dune", "Dune Messiah");
+
+        service.indexMemberOnCommit(new Member().id(1L).name("Leto")).block();
+        assertThat(texts("pa", Set.of(Kind.MEMBER))).isEmpty();
+        assertThat(service.find("le", Set.of(Kind.MEMBER), 3)).extracting(AutocompleteSuggestionDTO::getBorrows).containsExactly(2L);
+
+        service.removeMemberOnCommit(1L).block();
+        assertThat(texts("le", Set.of(Kind.MEMBER))).isEmpty();
+    }
+}
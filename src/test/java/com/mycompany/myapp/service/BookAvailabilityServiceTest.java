@@ -0,0 +1,98 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.Book;
+import com.mycompany.myapp.repository.BookRepository;
+import com.mycompany.myapp.service.dto.BookAvailabilityDTO;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+
+/**
+ * Test class for the {@link BookAvailabilityService}.
+ */
+class BookAvailabilityServiceTest {
+
+    private BookRepository bookRepository;
+    private BookAvailabilityService service;
+
+    @BeforeEach
+    void setUp() {
+        bookRepository = mock(BookRepository.class);
+        service = new BookAvailabilityService(bookRepository, new ApplicationProperties());
+    }
+
+    @Test
+    void findsTheAvailableBooksAPageAtATime() {
+        service.load(List.of(7L, 3L, 12L, 5L));
+
+        assertThat(service.findAvailableIds(null, 2)).containsExactly(3L, 5L);
+        assertThat(service.findAvailableIds(5L, 2)).containsExactly(7L, 12L);
+        assertThat(service.findAvailableIds(12L, 2)).isEmpty();
+        assertThat(service.findAvailableIds(1_000_000L, 2)).isEmpty();
+    }
+
+    @Test
+    void readsTheAvailableBooksByIdOnceLoaded() {
+        when(bookRepository.findAllByIds(anyList())).thenAnswer(invocation ->
+            Flux.fromIterable(invocation.<List<Long>>getArgument(0)).map(id -> new Book().id(id))
+        );
+
+        CompletableFuture<List<Long>> ids = service.findAvailable(null, 10).map(Book::getId).collectList().toFuture();
+        assertThat(ids).isNotDone();
+
+        service.load(List.of(2L, 1L));
+
+        assertThat(ids).isCompletedWithValue(List.of(1L, 2L));
+    }
+
+    @Test
+    void updatesTheAvailabilityWithTheWrittenBooks() {
+        service.load(List.of(1L, 2L, 3L));
+
+        service.recordOnCommit(2L, false).block();
+        service.recordOnCommit(new Book().id(4L).available(null)).block();
+        service.recordOnCommit(new Book().id(1L).available(false)).block();
+        // far beyond the loaded ids
+        service.recordOnCommit(1_000_000L, true).block();
+
+        assertThat(service.findAvailableIds(null, 10)).containsExactly(3L, 4L, 1_000_000L);
+    }
+
+    @Test
+    void streamsTheChangesOfAvailabilityOnly() {
+        service.load(List.of(1L, 2L));
+
+        List<BookAvailabilityDTO> changes = new ArrayList<>();
+        Disposable subscription = service.streamChanges().subscribe(changes::add);
+
+        service.recordOnCommit(1L, true).block();
+        service.recordOnCommit(1L, false).block();
+        service.recordOnCommit(1L, false).block();
+        service.recordOnCommit(3L, true).block();
+        subscription.dispose();
+
+        assertThat(changes).containsExactly(new BookAvailabilityDTO(1L, false), new BookAvailabilityDTO(3L, true));
+    }
+
+    @Test
+    void findsTheAvailableBooksOfLargeCatalogs() {
+        service.load(LongStream.rangeClosed(1, 100_000).filter(id -> id % 3 != 0).boxed().toList());
+        LongStream.rangeClosed(1, 100_000).filter(id -> id % 2 == 0).forEach(id -> service.recordOnCommit(id, false).block());
+
+        List<Long> page = service.findAvailableIds(99_000L, 1_000);
+
+        assertThat((long) page.size()).isEqualTo(LongStream.rangeClosed(99_001, 100_000).filter(id -> id % 2 != 0 && id % 3 != 0).count());
+        assertThat(page).allMatch(id -> id > 99_000 && id % 2 != 0 && id % 3 != 0).isSorted();
+    }
+}
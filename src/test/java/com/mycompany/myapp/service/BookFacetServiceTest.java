@@ -0,0 +1,126 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.Book;
+import com.mycompany.myapp.service.BookFacetService.Facet;
+import com.mycompany.myapp.service.dto.BookFacetsDTO;
+import com.mycompany.myapp.service.dto.BookFacetsDTO.ValueCount;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link BookFacetService}.
+ */
+class BookFacetServiceTest {
+
+    private BookFacetService service;
+
+    @BeforeEach
+    void setUp() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getFacets().setMaxValues(2);
+        service = new BookFacetService(applicationProperties);
+    }
+
+    private static Book book(long id, String author, Integer year, Double price, Boolean available) {
+        return new Book().id(id).title("Book " + id).author(author).publishedYear(year).price(price).available(available);
+    }
+
+    private static List<Book> catalog() {
+        return List.of(
+            book(1, "Frank Herbert", 1965, 9.99, true),
+            book(2, "Frank Herbert", 1969, 12.5, false),
+            book(3, "Frank Herbert", 1976, 12.5, null),
+            book(4, "Ursula K. Le Guin", 1969, 8.0, true),
+            book(5, "Ursula K. Le Guin", 1974, 50.0, false),
+            book(6, "Isaac Asimov", 1951, null, true)
+        );
+    }
+
+    @Test
+    void countsEveryFacetValue() {
+        service.load(catalog());
+
+        BookFacetsDTO facets = service.find(Map.of());
+
+        assertThat(facets.getTotal()).isEqualTo(6);
+        // the two authors with the most books
+        assertThat(facets.getFacets().get("author")).containsExactly(
+            new ValueCount("Frank Herbert", 3),
+            new ValueCount("Ursula K. Le Guin", 2)
+        );
+        // the two decades with the most books, in chronological order
+        assertThat(facets.getFacets().get("decade")).containsExactly(new ValueCount("1960", 3), new ValueCount("1970", 2));
+        assertThat(facets.getFacets().get("price")).containsExactly(new ValueCount("*-10", 2), new ValueCount("10-20", 2));
+        // a book without availability is available
+        assertThat(facets.getFacets().get("available")).containsExactly(new ValueCount("false", 2), new ValueCount("true", 4));
+    }
+
+    @Test
+    void countsTheValuesOfAFacetAmongTheSelectionOfTheOthers() {
+        service.load(catalog());
+
+        BookFacetsDTO facets = service.find(Map.of(Facet.DECADE, Set.of("1960"), Facet.AVAILABLE, Set.of("true")));
+
+        assertThat(facets.getTotal()).isEqualTo(2);
+        assertThat(facets.getFacets().get("author")).containsExactly(
+            new ValueCount("Frank Herbert", 1),
+            new ValueCount("Ursula K. Le Guin", 1)
+        );
+        // the decades of the available books, whatever the selected decade, the ties in alphabetical order
+        assertThat(facets.getFacets().get("decade")).containsExactly(new ValueCount("1950", 1), new ValueCount("1960", 2));
+        // the availability of the books of the sixties, whatever the selected availability
+        assertThat(facets.getFacets().get("available")).containsExactly(new ValueCount("false", 1), new ValueCount("true", 2));
+    }
+
+    @Test
+    void matchesAnyOfTheSelectedValuesOfAFacet() {
+        service.load(catalog());
+
+        BookFacetsDTO facets = service.find(
+            Map.of(Facet.AUTHOR, Set.of("Isaac Asimov", "Ursula K. Le Guin"), Facet.PRICE, Set.of("*-10", "50-*"))
+        );
+
+        assertThat(facets.getTotal()).isEqualTo(2);
+        assertThat(service.find(Map.of(Facet.AUTHOR, Set.of("Nobody"))).getTotal()).isZero();
+    }
+
+    @Test
+    void updatesTheFacetsWithTheWrittenBooks() {
+        service.load(catalog());
+
+        service.markUnavailableOnCommit(1L).block();
+        service.indexOnCommit(book(6, "Isaac Asimov", 1951, 25.0, true)).block();
+        service.removeOnCommit(5L).block();
+        service.indexOnCommit(book(7, "Ursula K. Le Guin", 1968, 15.0, true)).block();
+
+        BookFacetsDTO facets = service.find(Map.of(Facet.PRICE, Set.of("10-20")));
+        assertThat(facets.getTotal()).isEqualTo(3);
+        assertThat(facets.getFacets().get("available")).containsExactly(new ValueCount("false", 1), new ValueCount("true", 2));
+        assertThat(service.find(Map.of(Facet.PRICE, Set.of("20-50"))).getTotal()).isEqualTo(1);
+        assertThat(service.find(Map.of(Facet.AVAILABLE, Set.of("false"))).getTotal()).isEqualTo(2);
+        assertThat(service.find(Map.of()).getTotal()).isEqualTo(6);
+    }
+
+    @Test
+    void countsLargeCatalogs() {
+        service.load(
+            LongStream.rangeClosed(1, 10_000)
+                .mapToObj(id -> book(id, "Author " + (id % 100), 1900 + (int) (id % 120), (double) (id % 60), id % 3 != 0))
+                .toList()
+        );
+        LongStream.rangeClosed(1, 10_000).filter(id -> id % 2 == 0).forEach(id -> service.removeOnCommit(id).block());
+
+        BookFacetsDTO facets = service.find(Map.of(Facet.AVAILABLE, Set.of("false"), Facet.AUTHOR, Set.of("Author 3")));
+
+        // the ids ending with 03, all odd, which are multiples of 3
+        assertThat(facets.getTotal()).isEqualTo(LongStream.rangeClosed(1, 10_000).filter(id -> id % 100 == 3 && id % 3 == 0).count());
+        assertThat(service.find(Map.of()).getTotal()).isEqualTo(5_000);
+    }
+}
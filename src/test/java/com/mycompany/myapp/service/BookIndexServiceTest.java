@@ -0,0 +1,95 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.Book;
+import com.mycompany.myapp.repository.BookRepository;
+import com.mycompany.myapp.repository.BorrowRepository;
+import com.mycompany.myapp.repository.MemberRepository;
+import com.mycompany.myapp.service.AutocompleteService.Kind;
+import com.mycompany.myapp.service.BookFacetService.Facet;
+import com.mycompany.myapp.service.dto.AutocompleteSuggestionDTO;
+import com.mycompany.myapp.service.dto.BookSearchResultDTO;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import reactor.core.publisher.Flux;
+
+/**
+ * Test class for the {@link BookIndexService}.
+ */
+class BookIndexServiceTest {
+
+    private BookRepository bookRepository;
+    private BookSearchService bookSearchService;
+    private AutocompleteService autocompleteService;
+    private BookFacetService bookFacetService;
+    private BookAvailabilityService bookAvailabilityService;
+    private BookIndexService service;
+
+    @BeforeEach
+    void setUp() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        bookRepository = mock(BookRepository.class);
+        MemberRepository memberRepository = mock(MemberRepository.class);
+        when(memberRepository.findAll()).thenReturn(Flux.empty());
+        BorrowRepository borrowRepository = mock(BorrowRepository.class);
+        when(borrowRepository.countBorrowsPerBook()).thenReturn(Flux.empty());
+        when(borrowRepository.countBorrowsPerMember()).thenReturn(Flux.empty());
+        bookSearchService = new BookSearchService(applicationProperties);
+        autocompleteService = new AutocompleteService(bookRepository, memberRepository, borrowRepository, applicationProperties);
+        bookFacetService = new BookFacetService(applicationProperties);
+        bookAvailabilityService = new BookAvailabilityService(bookRepository, applicationProperties);
+        service = new BookIndexService(bookRepository, bookSearchService, autocompleteService, bookFacetService, bookAvailabilityService);
+    }
+
+    @Test
+    void loadsEveryIndexFromOneReadOfTheBooks() {
+        when(bookRepository.findAll()).thenReturn(
+            Flux.just(
+                new Book().id(1L).title("Dune").author("Frank Herbert").available(false),
+                new Book().id(2L).title("Emma").author("Jane Austen")
+            )
+        );
+
+        service.rebuild().block();
+
+        verify(bookRepository, times(1)).findAll();
+        assertThat(bookSearchService.find("dune", PageRequest.of(0, 10)).getContent())
+            .extracting(BookSearchResultDTO::getId)
+            .containsExactly(1L);
+        assertThat(autocompleteService.find("em", Set.of(Kind.TITLE), 10))
+            .extracting(AutocompleteSuggestionDTO::getText)
+            .containsExactly("Emma");
+        assertThat(bookFacetService.find(Map.of()).getTotal()).isEqualTo(2);
+        assertThat(bookAvailabilityService.findAvailableIds(null, 10)).containsExactly(2L);
+    }
+
+    @Test
+    void writesTheBooksToEveryIndex() {
+        when(bookRepository.findAll()).thenReturn(Flux.empty());
+        service.rebuild().block();
+
+        service.indexOnCommit(new Book().id(1L).title("Dune").author("Frank Herbert")).block();
+        service.indexOnCommit(new Book().id(2L).title("Emma").author("Jane Austen")).block();
+        service.markUnavailableOnCommit(2L).block();
+        service.removeOnCommit(1L).block();
+
+        assertThat(bookSearchService.find("dune", PageRequest.of(0, 10)).getContent()).isEmpty();
+        assertThat(autocompleteService.find("em", Set.of(Kind.TITLE), 10))
+            .extracting(AutocompleteSuggestionDTO::getText)
+            .containsExactly("Emma");
+        assertThat(bookFacetService.find(Map.of(Facet.AVAILABLE, Set.of("false"))).getTotal()).isEqualTo(1);
+        assertThat(bookAvailabilityService.findAvailableIds(null, 10)).isEmpty();
+
+        service.markAvailableOnCommit(2L).block();
+        assertThat(bookAvailabilityService.findAvailableIds(null, 10)).containsExactly(2L);
+    }
+}
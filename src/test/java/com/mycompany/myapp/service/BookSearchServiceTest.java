@@ -0,0 +1,120 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.Book;
+import com.mycompany.myapp.service.dto.BookSearchResultDTO;
+import java.util.List;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+/**
+ * Test class for the {@link BookSearchService}.
+ */
+class BookSearchServiceTest {
+
+    private static final PageRequest FIRST_PAGE = PageRequest.of(0, 20);
+
+    private BookSearchService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new BookSearchService(new ApplicationProperties());
+    }
+
+    private static Book book(long id, String title, String author) {
+        return new Book().id(id).title(title).author(author);
+    }
+
+    private List<Long> ids(String query) {
+        return service.find(query, FIRST_PAGE).getContent().stream().map(BookSearchResultDTO::getId).toList();
+    }
+
+    @Test
+    void ranksTheTitleWordsFirst() {
+        service.load(
+            List.of(
+                book(1, "The Hobbit", "J. R. R. Tolkien"),
+                book(2, "Tolkien: A Biography", "Humphrey Carpenter"),
+                book(3, "Tolkienesque tales", "Anonymous")
+            )
+        );
+
+        Page<BookSearchResultDTO> page = service.find("tolkien", FIRST_PAGE);
+
+        assertThat(page.getContent()).extracting(BookSearchResultDTO::getId).containsExactly(2L, 1L, 3L);
+        assertThat(page.getContent())
+            .extracting(BookSearchResultDTO::getScore)
+            .containsExactly(BookSearchIndex.TITLE_WORD_SCORE, BookSearchIndex.AUTHOR_WORD_SCORE, BookSearchIndex.SUBSTRING_SCORE);
+        assertThat(page.getTotalElements()).isEqualTo(3);
+    }
+
+    @Test
+    void matchesEveryWordWhateverTheCaseAndTheAccents() {
+        service.load(List.of(book(1, "Les Misérables", "Victor Hugo"), book(2, "Notre-Dame de Paris", "Victor Hugo")));
+
+        assertThat(ids("MISERABLES hugo")).containsExactly(1L);
+        assertThat(ids("victor")).containsExactly(1L, 2L);
+        assertThat(ids("victor tolkien")).isEmpty();
+        assertThat(ids("dame")).containsExactly(2L);
+    }
+
+    @Test
+    void matchesThePartsOfWords() {
+        service.load(
+            List.of(
+                book(1, "The Silmarillion", "J. R. R. Tolkien"),
+                book(2, "Silas Marner", "George Eliot"),
+                book(3, "Banana Yoshimoto", "Kitchen"),
+                book(4, "Ana and Nan", "Anonymous")
+            )
+        );
+
+        assertThat(ids("marill")).containsExactly(1L);
+        assertThat(ids("sil")).containsExactly(1L, 2L);
+        assertThat(ids("lkie")).containsExactly(1L);
+        // the title of the fourth book holds the trigrams of "anana", but not next to each other
+        assertThat(ids("anana")).containsExactly(3L);
+        // too short for a part of a word
+        assertThat(ids("si")).isEmpty();
+    }
+
+    @Test
+    void pagesTheResults() {
+        service.load(LongStream.rangeClosed(1, 5).mapToObj(id -> book(id, "Dune " + id, "Frank Herbert")).toList());
+
+        Page<BookSearchResultDTO> page = service.find("dune", PageRequest.of(1, 2));
+
+        assertThat(page.getContent()).extracting(BookSearchResultDTO::getId).containsExactly(3L, 4L);
+        assertThat(page.getTotalElements()).isEqualTo(5);
+    }
+
+    @Test
+    void updatesTheIndexWithTheWrittenBooks() {
+        service.load(List.of(book(1, "Dune", "Frank Herbert")));
+
+        service.indexOnCommit(book(1, "Dune Messiah", "Frank Herbert")).block();
+        service.indexOnCommit(book(2, "Children of Dune", "Frank Herbert")).block();
+        assertThat(ids("messiah")).containsExactly(1L);
+        assertThat(ids("dune")).containsExactly(1L, 2L);
+
+        service.removeOnCommit(1L).block();
+        assertThat(ids("dune")).containsExactly(2L);
+        assertThat(ids("messiah")).isEmpty();
+    }
+
+    @Test
+    void compactsTheDeletedBooks() {
+        service.load(LongStream.rangeClosed(1, 3000).mapToObj(id -> book(id, "Dune " + id, "Frank Herbert")).toList());
+
+        LongStream.rangeClosed(1, 2999).forEach(id -> service.removeOnCommit(id).block());
+        service.indexOnCommit(book(1, "Dune", "Brian Herbert")).block();
+
+        assertThat(ids("dune")).containsExactly(1L, 3000L);
+        assertThat(ids("brian")).containsExactly(1L);
+    }
+}
@@ -0,0 +1,164 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.Borrow;
+import com.mycompany.myapp.repository.BorrowRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Test class for the {@link BorrowRetentionService}.
+ */
+class BorrowRetentionServiceTest {
+
+    @TempDir
+    Path archiveDirectory;
+
+    private final TreeMap<Long, Borrow> borrows = new TreeMap<>();
+    private final List<Integer> deletedChunks = new ArrayList<>();
+    // the borrows changed since they were read, which the delete skips
+    private final Set<Long> changedIds = new HashSet<>();
+    private ApplicationProperties applicationProperties;
+    private SimpleMeterRegistry meterRegistry;
+    private BorrowStatisticsService borrowStatisticsService;
+    private TopBooksService topBooksService;
+    private AutocompleteService autocompleteService;
+    private BorrowRetentionService borrowRetentionService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        Instant now = Instant.now();
+        for (long id = 1; id <= 10; id++) {
+            // the even borrows are old, the odd ones recent
+            Instant returnDate = now.minus(id % 2 == 0 ? 400 : 10, ChronoUnit.DAYS);
+            borrows.put(id, new Borrow().id(id).borrowDate(returnDate.minus(7, ChronoUnit.DAYS)).returnDate(returnDate));
+        }
+        BorrowRepository borrowRepository = mock(BorrowRepository.class);
+        when(borrowRepository.findAllReturnedBefore(any(), anyLong(), anyInt())).thenAnswer(invocation -> {
+            Instant cutoff = invocation.getArgument(0);
+            long afterId = invocation.getArgument(1);
+            int size = invocation.getArgument(2);
+            return Flux.fromIterable(new ArrayList<>(borrows.tailMap(afterId, false).values()))
+                .filter(borrow -> borrow.getReturnDate().isBefore(cutoff))
+                .take(size);
+        });
+        when(borrowRepository.deleteAllReturnedBefore(any(), any())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            List<Long> deleted = ids.stream().filter(id -> !changedIds.contains(id)).toList();
+            deletedChunks.add(deleted.size());
+            deleted.forEach(borrows::remove);
+            return Mono.just((long) deleted.size());
+        });
+        applicationProperties = new ApplicationProperties();
+        applicationProperties.getBorrowRetention().setChunkSize(2);
+        applicationProperties.getBorrowRetention().setPauseMillis(1);
+        meterRegistry = new SimpleMeterRegistry();
+        borrowStatisticsService = spy(new BorrowStatisticsService(borrowRepository, applicationProperties));
+        doReturn(Mono.empty()).when(borrowStatisticsService).rebuild();
+        topBooksService = mock(TopBooksService.class);
+        when(topBooksService.rebuild()).thenReturn(Mono.empty());
+        autocompleteService = mock(AutocompleteService.class);
+        when(autocompleteService.rebuild()).thenReturn(Mono.empty());
+        borrowRetentionService = new BorrowRetentionService(
+            borrowRepository,
+            borrowStatisticsService,
+            topBooksService,
+            autocompleteService,
+            new ObjectMapper().registerModule(new JavaTimeModule()),
+            applicationProperties,
+            meterRegistry
+        );
+    }
+
+    @Test
+    void purgesTheOldBorrowsInChunks() {
+        BorrowRetentionService.Progress progress = borrowRetentionService.purge(365).block();
+
+        assertThat(borrows).containsOnlyKeys(1L, 3L, 5L, 7L, 9L);
+        assertThat(deletedChunks).containsExactly(2, 2, 1);
+        assertThat(progress.running()).isFalse();
+        assertThat(progress.deleted()).isEqualTo(5);
+        assertThat(progress.lastId()).isEqualTo(10);
+        assertThat(progress.archive()).isNull();
+        assertThat(meterRegistry.get("borrow.retention.deleted").counter().count()).isEqualTo(5);
+        assertThat(meterRegistry.get("borrow.retention.archived").counter().count()).isZero();
+        verify(topBooksService).rebuild();
+        verify(autocompleteService).rebuild();
+        verify(borrowStatisticsService, never()).rebuild();
+    }
+
+    @Test
+    void rebuildsTheStatisticsWhenAChunkDeletesFewerBorrows() {
+        changedIds.add(4L);
+
+        BorrowRetentionService.Progress progress = borrowRetentionService.purge(365).block();
+
+        assertThat(borrows).containsOnlyKeys(1L, 3L, 4L, 5L, 7L, 9L);
+        assertThat(deletedChunks).containsExactly(1, 2, 1);
+        assertThat(progress.deleted()).isEqualTo(4);
+        verify(borrowStatisticsService).rebuild();
+    }
+
+    @Test
+    void archivesTheBorrowsBeforeDeletingThem() throws IOException {
+        applicationProperties.getBorrowRetention().setArchiveDirectory(archiveDirectory.toString());
+
+        BorrowRetentionService.Progress progress = borrowRetentionService.purge(365).block();
+
+        List<String> lines;
+        try (
+            BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new GZIPInputStream(Files.newInputStream(Path.of(progress.archive()))), StandardCharsets.UTF_8)
+            )
+        ) {
+            lines = reader.lines().toList();
+        }
+        assertThat(lines).hasSize(5);
+        assertThat(lines.get(0)).startsWith("{\"id\":2,");
+        assertThat(meterRegistry.get("borrow.retention.archived").counter().count()).isEqualTo(5);
+    }
+
+    @Test
+    void keepsTheBorrowsReturnedWithinTheRetention() {
+        BorrowRetentionService.Progress progress = borrowRetentionService.purge(500).block();
+
+        assertThat(borrows).hasSize(10);
+        assertThat(progress.deleted()).isZero();
+        assertThat(borrowRetentionService.getProgress()).isEqualTo(progress);
+        verify(topBooksService, never()).rebuild();
+        verify(autocompleteService, never()).rebuild();
+    }
+}
@@ -0,0 +1,167 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.repository.BorrowPerYearProjection;
+import com.mycompany.myapp.repository.BorrowRepository;
+import com.mycompany.myapp.repository.BorrowsPerDayProjection;
+import com.mycompany.myapp.service.BorrowStatisticsService.BorrowDates;
+import com.mycompany.myapp.service.BorrowStatisticsService.Grain;
+import com.mycompany.myapp.service.dto.BorrowStatisticsDTO;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+/**
+ * Test class for the {@link BorrowStatisticsService}.
+ */
+class BorrowStatisticsServiceTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 6, 30);
+
+    private BorrowRepository borrowRepository;
+    private BorrowStatisticsService service;
+
+    @BeforeEach
+    void setUp() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getBorrowStatistics().setLoanDays(14);
+        applicationProperties.getProjections().setReadyTimeoutMillis(10);
+        borrowRepository = mock(BorrowRepository.class);
+        service = new BorrowStatisticsService(borrowRepository, applicationProperties);
+    }
+
+    private static BorrowsPerDayProjection borrowed(LocalDate day, long borrowed, long outstanding, long returnedLate) {
+        return borrowed(day, borrowed, outstanding, returnedLate, null);
+    }
+
+    private static BorrowsPerDayProjection borrowed(LocalDate day, long borrowed, long outstanding, long returnedLate, Long maxId) {
+        BorrowsPerDayProjection row = new BorrowsPerDayProjection();
+        row.setDay(day);
+        row.setBorrowed(borrowed);
+        row.setOutstanding(outstanding);
+        row.setReturnedLate(returnedLate);
+        row.setMaxId(maxId);
+        return row;
+    }
+
+    private static BorrowsPerDayProjection returned(LocalDate day, long returned) {
+        BorrowsPerDayProjection row = new BorrowsPerDayProjection();
+        row.setDay(day);
+        row.setReturned(returned);
+        return row;
+    }
+
+    private static Instant at(LocalDate day) {
+        return day.atTime(12, 0).toInstant(ZoneOffset.UTC);
+    }
+
+    @Test
+    void countsTheBorrowsOfEachPeriod() {
+        service.load(
+            List.of(borrowed(LocalDate.of(2023, 12, 31), 2, 0, 1), borrowed(LocalDate.of(2024, 1, 2), 3, 0, 0)),
+            List.of(returned(LocalDate.of(2024, 1, 10), 4), returned(LocalDate.of(2024, 2, 1), 1))
+        );
+
+        assertThat(service.statistics(Grain.DAY, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31), TODAY)).containsExactly(
+            new BorrowStatisticsDTO("2024-01-02", 3, 0, 0),
+            new BorrowStatisticsDTO("2024-01-10", 0, 4, 0)
+        );
+        assertThat(service.statistics(Grain.MONTH, null, null, TODAY)).containsExactly(
+            new BorrowStatisticsDTO("2023-12", 2, 0, 1),
+            new BorrowStatisticsDTO("2024-01", 3, 4, 0),
+            new BorrowStatisticsDTO("2024-02", 0, 1, 0)
+        );
+        assertThat(service.statistics(Grain.YEAR, LocalDate.of(2024, 3, 1), null, TODAY)).containsExactly(
+            new BorrowStatisticsDTO("2024", 3, 5, 0)
+        );
+    }
+
+    @Test
+    void countsTheBorrowsStillOutAsOverdueOnceTheLoanPeriodIsOver() {
+        service.load(List.of(borrowed(TODAY.minusDays(15), 1, 1, 0), borrowed(TODAY.minusDays(14), 2, 2, 0)), List.of());
+
+        assertThat(service.statistics(Grain.DAY, null, null, TODAY)).containsExactly(
+            new BorrowStatisticsDTO("2024-06-15", 1, 0, 1),
+            new BorrowStatisticsDTO("2024-06-16", 2, 0, 0)
+        );
+        assertThat(service.statistics(Grain.MONTH, null, null, TODAY)).containsExactly(new BorrowStatisticsDTO("2024-06", 3, 0, 1));
+        assertThat(service.statistics(Grain.MONTH, null, null, TODAY.plusDays(1))).containsExactly(
+            new BorrowStatisticsDTO("2024-06", 3, 0, 3)
+        );
+    }
+
+    @Test
+    void recordsTheWrittenBorrowsIncrementally() {
+        service.load(List.of(), List.of());
+        BorrowDates lent = new BorrowDates(at(LocalDate.of(2024, 5, 1)), null);
+        BorrowDates returnedLate = new BorrowDates(lent.borrowDate(), lent.borrowDate().plus(Duration.ofDays(20)));
+
+        service.record(1L, null, lent);
+        assertThat(service.statistics(Grain.MONTH, null, null, TODAY)).containsExactly(new BorrowStatisticsDTO("2024-05", 1, 0, 1));
+
+        service.record(1L, lent, returnedLate);
+        assertThat(service.statistics(Grain.MONTH, null, null, TODAY)).containsExactly(new BorrowStatisticsDTO("2024-05", 1, 1, 1));
+
+        service.record(1L, returnedLate, null);
+        assertThat(service.statistics(Grain.DAY, null, null, TODAY)).isEmpty();
+        assertThat(service.statistics(Grain.YEAR, null, null, TODAY)).isEmpty();
+    }
+
+    @Test
+    void ignoresTheBorrowsWithoutBorrowDate() {
+        service.load(List.of(), List.of());
+
+        service.record(1L, null, new BorrowDates(null, at(TODAY)));
+
+        assertThat(service.statistics(Grain.DAY, null, null, TODAY)).isEmpty();
+    }
+
+    @Test
+    void appliesTheBorrowsRecordedWhileLoadingWhichTheDatabaseDidNotCount() {
+        BorrowDates lent = new BorrowDates(at(TODAY), null);
+        // counted by the database
+        service.record(5L, null, lent);
+        // committed after the database was read
+        service.record(6L, null, lent);
+        service.record(2L, new BorrowDates(at(TODAY.minusDays(1)), null), new BorrowDates(at(TODAY.minusDays(1)), at(TODAY)));
+        service.load(List.of(borrowed(TODAY.minusDays(1), 1, 1, 0, 2L), borrowed(TODAY, 2, 2, 0, 5L)), List.of());
+
+        assertThat(service.statistics(Grain.DAY, null, null, TODAY)).containsExactly(
+            new BorrowStatisticsDTO("2024-06-29", 1, 0, 0),
+            new BorrowStatisticsDTO("2024-06-30", 3, 1, 0)
+        );
+
+        service.record(7L, null, lent);
+
+        assertThat(service.statistics(Grain.DAY, TODAY, null, TODAY)).containsExactly(new BorrowStatisticsDTO("2024-06-30", 4, 1, 0));
+    }
+
+    @Test
+    void aggregatesTheDatabaseUntilTheRollupsAreLoaded() {
+        when(borrowRepository.countBorrowsPerDay(14)).thenReturn(Flux.just(borrowed(LocalDate.of(2024, 1, 2), 3, 0, 0)));
+        when(borrowRepository.countReturnsPerDay()).thenReturn(Flux.just(returned(LocalDate.of(2024, 1, 10), 2)));
+        BorrowPerYearProjection year = new BorrowPerYearProjection();
+        year.setYear(2024);
+        year.setTotal(3L);
+        when(borrowRepository.countBorrowsPerYear()).thenReturn(Flux.just(year));
+
+        assertThat(service.findStatistics(Grain.MONTH, null, null).collectList().block()).containsExactly(
+            new BorrowStatisticsDTO("2024-01", 3, 2, 0)
+        );
+        assertThat(service.findBorrowsPerYear().collectList().block()).containsExactly(year);
+
+        service.load(List.of(), List.of());
+
+        assertThat(service.findStatistics(Grain.MONTH, null, null).collectList().block()).isEmpty();
+        assertThat(service.findBorrowsPerYear().collectList().block()).isEmpty();
+    }
+}
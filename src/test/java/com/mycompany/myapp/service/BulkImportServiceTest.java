@@ -0,0 +1,116 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.Book;
+import com.mycompany.myapp.repository.BookRepository;
+import com.mycompany.myapp.repository.MemberRepository;
+import com.mycompany.myapp.service.dto.BulkImportResultDTO;
+import com.mycompany.myapp.service.dto.BulkImportResultDTO.LineError;
+import jakarta.validation.Validation;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Test class for the {@link BulkImportService}.
+ */
+class BulkImportServiceTest {
+
+    private final List<List<String>> insertedBatches = new ArrayList<>();
+    private ApplicationProperties applicationProperties;
+    private BulkImportService bulkImportService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        BookRepository bookRepository = mock(BookRepository.class);
+        when(bookRepository.insertAll(any())).thenAnswer(invocation -> insert(invocation.getArgument(0)));
+        TransactionalOperator transactionalOperator = mock(TransactionalOperator.class);
+        when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        applicationProperties = new ApplicationProperties();
+        applicationProperties.getBulkImport().setBatchSize(2);
+        BookIndexService bookIndexService = mock(BookIndexService.class);
+        when(bookIndexService.rebuild()).thenReturn(Mono.empty());
+        MemberIndexService memberIndexService = mock(MemberIndexService.class);
+        when(memberIndexService.rebuild()).thenReturn(Mono.empty());
+        bulkImportService = new BulkImportService(
+            bookRepository,
+            mock(MemberRepository.class),
+            new ObjectMapper(),
+            Validation.buildDefaultValidatorFactory().getValidator(),
+            transactionalOperator,
+            applicationProperties,
+            bookIndexService,
+            memberIndexService
+        );
+    }
+
+    /**
+     * Inserts the books, unless one is titled "duplicate", as a unique constraint would.
+     */
+    private Mono<Long> insert(List<Book> books) {
+        return Mono.defer(() -> {
+            if (books.stream().anyMatch(book -> "duplicate".equals(book.getTitle()))) {
+                return Mono.error(new DataIntegrityViolationException("insert", new IllegalStateException("duplicate title")));
+            }
+            insertedBatches.add(books.stream().map(Book::getTitle).toList());
+            return Mono.just((long) books.size());
+        });
+    }
+
+    private static String book(String title) {
+        return "{\"title\":\"" + title + "\",\"author\":\"author\"}";
+    }
+
+    @Test
+    void insertsTheBooksInBatches() {
+        BulkImportResultDTO result = bulkImportService.importBooks(Flux.just(book("a"), book("b"), "", book("c"))).block();
+
+        assertThat(result.getImported()).isEqualTo(3);
+        assertThat(result.getFailed()).isZero();
+        assertThat(insertedBatches).containsExactly(List.of("a", "b"), List.of("c"));
+    }
+
+    @Test
+    void reportsTheLinesWhichCannotBeParsedOrValidated() {
+        BulkImportResultDTO result = bulkImportService
+            .importBooks(Flux.just(book("a"), "{\"title\":", "{\"title\":\"b\"}", "{\"id\":1,\"title\":\"c\",\"author\":\"d\"}", book("e")))
+            .block();
+
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getFailed()).isEqualTo(3);
+        assertThat(result.getErrors()).extracting(LineError::line).containsExactly(2L, 3L, 4L);
+        assertThat(result.getErrors().get(1).message()).isEqualTo("author must not be null");
+        assertThat(insertedBatches).containsExactly(List.of("a", "e"));
+    }
+
+    @Test
+    void insertsAFailedBatchOneByOne() {
+        BulkImportResultDTO result = bulkImportService.importBooks(Flux.just(book("a"), book("duplicate"), book("b"))).block();
+
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getErrors()).containsExactly(new LineError(2, "duplicate title"));
+        assertThat(insertedBatches).containsExactly(List.of("a"), List.of("b"));
+    }
+
+    @Test
+    void countsTheErrorsBeyondTheReportedOnes() {
+        applicationProperties.getBulkImport().setMaxReportedErrors(1);
+
+        BulkImportResultDTO result = bulkImportService.importBooks(Flux.just("x", "y", "z")).block();
+
+        assertThat(result.getFailed()).isEqualTo(3);
+        assertThat(result.getErrors()).extracting(LineError::line).containsExactly(1L);
+    }
+}
@@ -0,0 +1,58 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link FacetBitmap}.
+ */
+class FacetBitmapTest {
+
+    private static long[] filter(int length, int... numbers) {
+        long[] words = new long[length];
+        for (int number : numbers) {
+            words[number >>> 6] |= 1L << number;
+        }
+        return words;
+    }
+
+    @Test
+    void staysAnArrayWhileSparse() {
+        FacetBitmap bitmap = new FacetBitmap();
+        IntStream.range(0, 1000).forEach(i -> bitmap.add(i * 100));
+        bitmap.add(550);
+        bitmap.add(550);
+
+        assertThat(bitmap.isBitmap()).isFalse();
+        assertThat(bitmap.cardinality()).isEqualTo(1001);
+        assertThat(bitmap.andCardinality(filter(1600, 0, 550, 551, 99_900))).isEqualTo(3);
+    }
+
+    @Test
+    void switchesToABitmapOnceDenseAndBack() {
+        FacetBitmap bitmap = new FacetBitmap();
+        IntStream.range(0, 1000).map(i -> 999 - i).forEach(bitmap::add);
+        assertThat(bitmap.isBitmap()).isTrue();
+        assertThat(bitmap.cardinality()).isEqualTo(1000);
+
+        IntStream.range(0, 990).forEach(bitmap::remove);
+        assertThat(bitmap.isBitmap()).isFalse();
+        assertThat(bitmap.cardinality()).isEqualTo(10);
+        long[] union = new long[16];
+        bitmap.orInto(union);
+        assertThat(union).isEqualTo(filter(16, IntStream.range(990, 1000).toArray()));
+    }
+
+    @Test
+    void countsTheIntersectionOfABitmap() {
+        FacetBitmap bitmap = new FacetBitmap();
+        IntStream.range(0, 2000).filter(i -> i % 2 == 0).forEach(bitmap::add);
+        assertThat(bitmap.isBitmap()).isTrue();
+
+        assertThat(bitmap.andCardinality(filter(32, IntStream.range(0, 2000).filter(i -> i % 3 == 0).toArray()))).isEqualTo(334);
+        // a filter shorter than the bitmap
+        assertThat(bitmap.andCardinality(filter(1, 0, 1, 2, 63))).isEqualTo(2);
+    }
+}
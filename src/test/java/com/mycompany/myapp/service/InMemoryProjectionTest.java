@@ -0,0 +1,104 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Test class for the {@link InMemoryProjection}.
+ */
+class InMemoryProjectionTest {
+
+    private InMemoryProjection<List<String>> projection;
+
+    @BeforeEach
+    void setUp() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getProjections().setReadyTimeoutMillis(50);
+        projection = new InMemoryProjection<>("words", new ArrayList<>(), applicationProperties);
+    }
+
+    private static List<String> words(String... words) {
+        return new ArrayList<>(List.of(words));
+    }
+
+    private List<String> state() {
+        return projection.get(List::copyOf);
+    }
+
+    @Test
+    void readsOnceLoaded() {
+        CompletableFuture<List<String>> read = projection.read(List::copyOf).toFuture();
+        assertThat(read).isNotDone();
+
+        projection.load(words("a"));
+
+        assertThat(read).isCompletedWithValue(List.of("a"));
+    }
+
+    @Test
+    void failsWhenNotLoadedInTime() {
+        assertThatThrownBy(() -> projection.read(List::copyOf).block())
+            .isInstanceOf(ProjectionNotReadyException.class)
+            .hasMessage("Not loaded yet: words");
+    }
+
+    @Test
+    void appliesTheChangesOnceLoaded() {
+        projection.change(words -> words.add("early"));
+        assertThat(state()).isEmpty();
+
+        projection.load(words("a"));
+        projection.changeOnCommit(words -> words.add("b")).block();
+
+        assertThat(state()).containsExactly("a", "early", "b");
+        Boolean removed = projection.apply(words -> words.remove("b"));
+        assertThat(removed).isTrue();
+    }
+
+    @Test
+    void replaysTheChangesRecordedWhileRebuilding() {
+        projection.load(words("a"));
+        Sinks.One<List<String>> loaded = Sinks.one();
+        projection.rebuild(loaded.asMono()).subscribe();
+
+        projection.change(words -> words.add("b"));
+        // the previous state is read until the new one is loaded
+        assertThat(state()).containsExactly("a", "b");
+        projection.change(words -> words.add("c"), words -> words.add("replayed"));
+        loaded.tryEmitValue(words("z"));
+
+        assertThat(state()).containsExactly("z", "b", "replayed");
+        projection.change(words -> words.add("d"));
+        assertThat(state()).containsExactly("z", "b", "replayed", "d");
+    }
+
+    @Test
+    void rebuildsOneAtATime() {
+        AtomicInteger reads = new AtomicInteger();
+        Sinks.One<List<String>> loaded = Sinks.one();
+        Mono<List<String>> loader = Mono.defer(() -> {
+            reads.incrementAndGet();
+            return loaded.asMono();
+        });
+
+        CompletableFuture<Void> first = projection.rebuild(loader).toFuture();
+        CompletableFuture<Void> second = projection.rebuild(loader).toFuture();
+        loaded.tryEmitValue(words("a"));
+
+        assertThat(first).isCompleted();
+        assertThat(second).isCompleted();
+        assertThat(reads).hasValue(1);
+        projection.rebuild(Mono.just(words("b"))).block();
+        assertThat(state()).containsExactly("b");
+    }
+}
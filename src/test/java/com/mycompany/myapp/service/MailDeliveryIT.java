@@ -0,0 +1,64 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.GreenMailUtil;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.mycompany.myapp.IntegrationTest;
+import jakarta.mail.internet.MimeMessage;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Integration tests for the delivery of the emails, through an in-process SMTP server.
+ */
+@IntegrationTest
+class MailDeliveryIT {
+
+    private static final long DELIVERY_TIMEOUT_MILLIS = 5000;
+
+    @RegisterExtension
+    static final GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @DynamicPropertySource
+    static void mailProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.mail.host", () -> ServerSetupTest.SMTP.getBindAddress());
+        registry.add("spring.mail.port", () -> ServerSetupTest.SMTP.getPort());
+    }
+
+    @Autowired
+    private JHipsterProperties jHipsterProperties;
+
+    @Autowired
+    private MailService mailService;
+
+    @Test
+    void deliversTheEmail() throws Exception {
+        mailService.sendEmail("john.doe@example.com", "testSubject", "testContent", false, false);
+
+        assertThat(greenMail.waitForIncomingEmail(DELIVERY_TIMEOUT_MILLIS, 1)).isTrue();
+        MimeMessage message = greenMail.getReceivedMessages()[0];
+        assertThat(message.getSubject()).isEqualTo("testSubject");
+        assertThat(message.getAllRecipients()[0]).hasToString("john.doe@example.com");
+        assertThat(message.getFrom()[0]).hasToString(jHipsterProperties.getMail().getFrom());
+        assertThat(GreenMailUtil.getBody(message)).isEqualTo("testContent");
+    }
+
+    @Test
+    void deliversEveryEmailOfABatch() {
+        IntStream.range(0, 10).forEach(i ->
+            mailService.sendEmail("user" + i + "@example.com", "testSubject" + i, "testContent", false, false)
+        );
+
+        assertThat(greenMail.waitForIncomingEmail(DELIVERY_TIMEOUT_MILLIS, 10)).isTrue();
+        assertThat(greenMail.getReceivedMessages())
+            .extracting(MimeMessage::getSubject)
+            .containsExactlyInAnyOrderElementsOf(IntStream.range(0, 10).mapToObj(i -> "testSubject" + i).toList());
+    }
+}
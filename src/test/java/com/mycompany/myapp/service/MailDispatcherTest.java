@@ -0,0 +1,155 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+
+/**
+ * Test class for the {@link MailDispatcher}.
+ */
+class MailDispatcherTest {
+
+    private static final long TIMEOUT_MILLIS = 5000;
+
+    private JavaMailSender javaMailSender;
+    private ApplicationProperties applicationProperties;
+    private SimpleMeterRegistry meterRegistry;
+    private MailDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        javaMailSender = mock(JavaMailSender.class);
+        when(javaMailSender.createMimeMessage()).thenAnswer(invocation -> new MimeMessage((Session) null));
+        applicationProperties = new ApplicationProperties();
+        applicationProperties.getMail().setWorkers(1);
+        applicationProperties.getMail().setInitialBackoffMillis(1);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        dispatcher.destroy();
+    }
+
+    private double messages(String result) {
+        return meterRegistry.get("mail.messages").tag("result", result).counter().count();
+    }
+
+    @Test
+    void sendsTheQueuedEmailsInOneBatch() throws Exception {
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Integer> batchSizes = new ArrayList<>();
+        doAnswer(invocation -> {
+            batchSizes.add(invocation.getArguments().length);
+            sending.countDown();
+            release.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            return null;
+        })
+            .when(javaMailSender)
+            .send(any(MimeMessage[].class));
+        dispatcher = new MailDispatcher(javaMailSender, applicationProperties, meterRegistry);
+
+        // the worker is busy with the first email while the next ones are queued
+        dispatcher.submit("first@example.com", message -> message.setSubject("first"));
+        assertThat(sending.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)).isTrue();
+        for (int i = 0; i < 3; i++) {
+            dispatcher.submit("next@example.com", message -> message.setSubject("next"));
+        }
+        assertThat(meterRegistry.get("mail.queue.size").gauge().value()).isEqualTo(3);
+        release.countDown();
+
+        verify(javaMailSender, timeout(TIMEOUT_MILLIS).times(2)).send(any(MimeMessage[].class));
+        dispatcher.destroy();
+        assertThat(batchSizes).containsExactly(1, 3);
+        assertThat(messages("sent")).isEqualTo(4);
+        assertThat(meterRegistry.get("mail.send").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void sendsAgainOnlyTheFailedEmails() throws Exception {
+        List<Integer> batchSizes = new ArrayList<>();
+        doAnswer(invocation -> {
+            Object[] batch = invocation.getArguments();
+            batchSizes.add(batch.length);
+            if (batch.length == 2) {
+                throw new MailSendException(Map.of(batch[1], new IllegalStateException("mailbox unavailable")));
+            }
+            return null;
+        })
+            .when(javaMailSender)
+            .send(any(MimeMessage[].class));
+        dispatcher = new MailDispatcher(javaMailSender, applicationProperties, meterRegistry);
+        CountDownLatch preparing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        dispatcher.submit("blocker@example.com", message -> {
+            preparing.countDown();
+            release.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        });
+        assertThat(preparing.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)).isTrue();
+        dispatcher.submit("ok@example.com", message -> message.setSubject("ok"));
+        dispatcher.submit("retried@example.com", message -> message.setSubject("retried"));
+        release.countDown();
+
+        // the blocker is sent alone, then the two others in a batch where the second one fails
+        verify(javaMailSender, timeout(TIMEOUT_MILLIS).times(3)).send(any(MimeMessage[].class));
+        dispatcher.destroy();
+        assertThat(batchSizes).containsExactly(1, 2, 1);
+        assertThat(messages("sent")).isEqualTo(3);
+        assertThat(messages("failed")).isZero();
+    }
+
+    @Test
+    void givesUpAfterTheLastAttempt() throws Exception {
+        doThrow(new MailSendException("SMTP server unavailable")).when(javaMailSender).send(any(MimeMessage[].class));
+        dispatcher = new MailDispatcher(javaMailSender, applicationProperties, meterRegistry);
+
+        dispatcher.submit("john.doe@example.com", message -> message.setSubject("subject"));
+
+        verify(javaMailSender, timeout(TIMEOUT_MILLIS).times(3)).send(any(MimeMessage[].class));
+        dispatcher.destroy();
+        assertThat(messages("failed")).isEqualTo(1);
+        assertThat(messages("sent")).isZero();
+    }
+
+    @Test
+    void dropsTheEmailsWhenTheQueueIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        doNothing().when(javaMailSender).send(any(MimeMessage[].class));
+        applicationProperties.getMail().setQueueCapacity(1);
+        dispatcher = new MailDispatcher(javaMailSender, applicationProperties, meterRegistry);
+
+        CountDownLatch preparing = new CountDownLatch(1);
+        dispatcher.submit("blocker@example.com", message -> {
+            preparing.countDown();
+            release.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        });
+        assertThat(preparing.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)).isTrue();
+
+        assertThat(dispatcher.submit("queued@example.com", message -> {})).isTrue();
+        assertThat(dispatcher.submit("dropped@example.com", message -> {})).isFalse();
+        release.countDown();
+        assertThat(messages("rejected")).isEqualTo(1);
+    }
+}
@@ -0,0 +1,124 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.repository.BookRepository;
+import com.mycompany.myapp.repository.BorrowRepository;
+import com.mycompany.myapp.repository.BorrowsPerBookAndDayProjection;
+import com.mycompany.myapp.service.TopBooksService.BookCount;
+import com.mycompany.myapp.service.TopBooksService.BookDay;
+import com.mycompany.myapp.service.TopBooksService.Window;
+import java.time.LocalDate;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link TopBooksService}.
+ */
+class TopBooksServiceTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 6, 30);
+
+    private TopBooksService service;
+
+    @BeforeEach
+    void setUp() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getProjections().setReadyTimeoutMillis(10);
+        service = new TopBooksService(mock(BorrowRepository.class), mock(BookRepository.class), applicationProperties);
+    }
+
+    private static BorrowsPerBookAndDayProjection row(long bookId, LocalDate day, long total, long maxId) {
+        BorrowsPerBookAndDayProjection row = new BorrowsPerBookAndDayProjection();
+        row.setBookId(bookId);
+        row.setDay(day);
+        row.setTotal(total);
+        row.setMaxId(maxId);
+        return row;
+    }
+
+    @Test
+    void ranksTheMostBorrowedFirst() {
+        service.seed(List.of(row(1L, TODAY, 2, 10L), row(2L, TODAY, 5, 11L), row(3L, TODAY, 2, 12L)), TODAY);
+
+        assertThat(service.top(Window.ALL, 10, TODAY)).containsExactly(
+            new BookCount(2L, 5),
+            new BookCount(1L, 2),
+            new BookCount(3L, 2)
+        );
+        assertThat(service.top(Window.ALL, 1, TODAY)).containsExactly(new BookCount(2L, 5));
+    }
+
+    @Test
+    void countsEachWindowOverItsDays() {
+        service.seed(
+            List.of(row(1L, TODAY, 1, 1L), row(2L, TODAY.minusDays(10), 3, 2L), row(3L, TODAY.minusDays(100), 5, 3L)),
+            TODAY
+        );
+
+        assertThat(service.top(Window.WEEK, 10, TODAY)).containsExactly(new BookCount(1L, 1));
+        assertThat(service.top(Window.MONTH, 10, TODAY)).containsExactly(new BookCount(2L, 3), new BookCount(1L, 1));
+        assertThat(service.top(Window.YEAR, 10, TODAY)).containsExactly(
+            new BookCount(3L, 5),
+            new BookCount(2L, 3),
+            new BookCount(1L, 1)
+        );
+        assertThat(service.top(Window.ALL, 1, TODAY)).containsExactly(new BookCount(3L, 5));
+    }
+
+    @Test
+    void slidesTheWindowsAsDaysGoBy() {
+        service.seed(List.of(row(1L, TODAY.minusDays(6), 4, 1L)), TODAY);
+        service.record(2L, null, new BookDay(2L, TODAY.plusDays(1)));
+
+        assertThat(service.top(Window.WEEK, 10, TODAY)).containsExactly(new BookCount(1L, 4));
+        assertThat(service.top(Window.WEEK, 10, TODAY.plusDays(1))).containsExactly(new BookCount(2L, 1));
+        assertThat(service.top(Window.MONTH, 10, TODAY.plusDays(1))).containsExactly(new BookCount(1L, 4), new BookCount(2L, 1));
+        assertThat(service.top(Window.YEAR, 10, TODAY.plusDays(400))).isEmpty();
+        assertThat(service.top(Window.ALL, 10, TODAY.plusDays(400))).containsExactly(new BookCount(1L, 4), new BookCount(2L, 1));
+    }
+
+    @Test
+    void recordsBorrowsIncrementally() {
+        service.seed(List.of(row(1L, TODAY, 2, 1L)), TODAY);
+        service.record(2L, null, new BookDay(2L, TODAY));
+        service.record(3L, null, new BookDay(2L, TODAY));
+        service.record(4L, null, new BookDay(2L, TODAY));
+
+        assertThat(service.top(Window.WEEK, 10, TODAY)).containsExactly(new BookCount(2L, 3), new BookCount(1L, 2));
+    }
+
+    @Test
+    void movesTheChangedBorrowsAndSubtractsTheDeletedOnes() {
+        service.seed(List.of(row(1L, TODAY, 2, 2L), row(2L, TODAY.minusDays(10), 1, 3L)), TODAY);
+        // a borrow moved to another book, and another one moved out of the week
+        service.record(1L, new BookDay(1L, TODAY), new BookDay(2L, TODAY));
+        service.record(3L, new BookDay(2L, TODAY.minusDays(10)), new BookDay(2L, TODAY.minusDays(1)));
+
+        assertThat(service.top(Window.WEEK, 10, TODAY)).containsExactly(new BookCount(2L, 2), new BookCount(1L, 1));
+        assertThat(service.top(Window.ALL, 10, TODAY)).containsExactly(new BookCount(2L, 2), new BookCount(1L, 1));
+
+        service.record(2L, new BookDay(1L, TODAY), null);
+
+        assertThat(service.top(Window.ALL, 10, TODAY)).containsExactly(new BookCount(2L, 2));
+        assertThat(service.top(Window.WEEK, 10, TODAY.plusDays(1))).containsExactly(new BookCount(2L, 2));
+    }
+
+    @Test
+    void replaysTheBorrowsRecordedWhileSeedingOnlyOnce() {
+        service.record(5L, null, new BookDay(1L, TODAY));
+        service.record(6L, null, new BookDay(1L, TODAY));
+        service.seed(List.of(row(1L, TODAY, 1, 5L)), TODAY);
+
+        assertThat(service.top(Window.ALL, 10, TODAY)).containsExactly(new BookCount(1L, 2));
+    }
+
+    @Test
+    void failsWhenTheCountersAreNotSeededInTime() {
+        assertThatThrownBy(() -> service.findTopBooks(Window.ALL, 10).blockLast()).isInstanceOf(ProjectionNotReadyException.class);
+    }
+}
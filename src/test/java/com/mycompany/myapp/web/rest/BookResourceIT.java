@@ -3,6 +3,8 @@ package com.mycompany.myapp.web.rest;
 import static com.mycompany.myapp.domain.BookAsserts.*;
 import static com.mycompany.myapp.web.rest.TestUtil.createUpdateProxyForBean;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.is;
 
@@ -11,6 +13,10 @@ import com.mycompany.myapp.IntegrationTest;
 import com.mycompany.myapp.domain.Book;
 import com.mycompany.myapp.repository.BookRepository;
 import com.mycompany.myapp.repository.EntityManager;
+import com.mycompany.myapp.service.dto.AutocompleteSuggestionDTO;
+import com.mycompany.myapp.service.dto.BookSearchResultDTO;
+import com.mycompany.myapp.service.dto.IdsRequestDTO;
+import com.mycompany.myapp.web.util.KeysetPaginationUtil;
 import java.time.Duration;
 import java.util.List;
 import java.util.Random;
@@ -205,6 +211,32 @@ class BookResourceIT {
         assertSameRepositoryCount(databaseSizeBeforeTest);
     }
 
+    @Test
+    void importBooks() throws Exception {
+        long databaseSizeBeforeImport = getRepositoryCount();
+        String lines = om.writeValueAsString(book) + "\n\n{\"title\":\"" + UPDATED_TITLE + "\"}\n" + om.writeValueAsString(book) + "\n";
+
+        webTestClient
+            .post()
+            .uri(ENTITY_API_URL + "/bulk")
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .bodyValue(lines)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.imported")
+            .isEqualTo(2)
+            .jsonPath("$.failed")
+            .isEqualTo(1)
+            .jsonPath("$.errors[0].line")
+            .isEqualTo(3)
+            .jsonPath("$.errors[0].message")
+            .isEqualTo("author must not be null");
+
+        assertThat(getRepositoryCount()).isEqualTo(databaseSizeBeforeImport + 2);
+    }
+
     @Test
     void getAllBooksAsStream() {
         // Initialize the database
@@ -264,6 +296,344 @@ class BookResourceIT {
             .value(hasItem(DEFAULT_AVAILABLE));
     }
 
+    @Test
+    void getAllBooksWithKeysetPagination() {
+        // Initialize the database
+        bookRepository.save(createEntity()).block();
+        bookRepository.save(createEntity()).block();
+
+        // Get the first page
+        var firstPage = webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?size=1")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBodyList(Book.class)
+            .hasSize(1)
+            .returnResult();
+        String nextCursor = firstPage.getResponseHeaders().getFirst(KeysetPaginationUtil.NEXT_CURSOR_HEADER);
+        assertThat(nextCursor).isNotNull();
+        Long lastId = firstPage.getResponseBody().get(0).getId();
+
+        // Get the second page, which starts after the first one
+        List<Book> secondPage = webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?size=1&after={after}", nextCursor)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBodyList(Book.class)
+            .hasSize(1)
+            .returnResult()
+            .getResponseBody();
+        assertThat(secondPage.get(0).getId()).isGreaterThan(lastId);
+
+        // An invalid cursor is rejected
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?after=not-a-cursor")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isBadRequest();
+    }
+
+    @Test
+    void getAllBooksByCriteria() {
+        // Initialize the database
+        insertedBook = bookRepository.save(book).block();
+        Book other = bookRepository.save(createUpdatedEntity()).block();
+
+        // Only the books matching every filter are read
+        webTestClient
+            .get()
+            .uri(
+                ENTITY_API_URL + "?author.contains={author}&publishedYear.greaterThan={year}&price.in={prices}&available.equals=true",
+                "BBB",
+                DEFAULT_PUBLISHED_YEAR,
+                UPDATED_PRICE + "," + (UPDATED_PRICE + 1)
+            )
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[*].id")
+            .value(contains(other.getId().intValue()));
+
+        // The wildcards of the filters are matched literally
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?author.contains={author}", "A%")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBodyList(Book.class)
+            .hasSize(0);
+
+        // The matching books are counted
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "/count?author.equals={author}", DEFAULT_AUTHOR)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .json("1");
+
+        bookRepository.deleteById(other.getId()).block();
+    }
+
+    @Test
+    void searchBooks() throws Exception {
+        // Create the book through the API, which indexes it
+        book.setTitle("The Unsearchable Quixotry");
+        insertedBook = webTestClient
+            .post()
+            .uri(ENTITY_API_URL)
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(om.writeValueAsBytes(book))
+            .exchange()
+            .expectStatus()
+            .isCreated()
+            .expectBody(Book.class)
+            .returnResult()
+            .getResponseBody();
+
+        // The book is found by a word, and by a part of a word
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "/search?q={q}", "quixotry")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .valueEquals("X-Total-Count", "1")
+            .expectBody()
+            .jsonPath("$.[*].id")
+            .value(contains(insertedBook.getId().intValue()));
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "/search?q={q}", "SEARCHAB")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[*].title")
+            .value(contains("The Unsearchable Quixotry"));
+
+        // A blank query is rejected
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "/search?q={q}", " ")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isBadRequest();
+
+        // The deleted book isn't found anymore
+        webTestClient.delete().uri(ENTITY_API_URL_ID, insertedBook.getId()).exchange().expectStatus().isNoContent();
+        insertedBook = null;
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "/search?q={q}", "quixotry")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBodyList(BookSearchResultDTO.class)
+            .hasSize(0);
+    }
+
+    @Test
+    void autocompleteBooks() throws Exception {
+        // Create the book through the API, which indexes it
+        book.setTitle("The Xylophonist Almanac");
+        book.setAuthor("Zebediah Quenby");
+        insertedBook = webTestClient
+            .post()
+            .uri(ENTITY_API_URL)
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(om.writeValueAsBytes(book))
+            .exchange()
+            .expectStatus()
+            .isCreated()
+            .expectBody(Book.class)
+            .returnResult()
+            .getResponseBody();
+
+        // The title is completed from the prefix of any of its words
+        webTestClient
+            .get()
+            .uri("/api/autocomplete?q={q}&types={types}", "xyloph", "title")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[*].text")
+            .value(contains("The Xylophonist Almanac"));
+        webTestClient
+            .get()
+            .uri("/api/autocomplete?q={q}", "QUENB")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[*].type")
+            .value(contains("author"));
+
+        // An unknown type, or too many suggestions, are rejected
+        webTestClient
+            .get()
+            .uri("/api/autocomplete?q={q}&types={types}", "xyloph", "publisher")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isBadRequest();
+        webTestClient
+            .get()
+            .uri("/api/autocomplete?q={q}&limit={limit}", "xyloph", 1000)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isBadRequest();
+
+        // The deleted book isn't completed anymore
+        webTestClient.delete().uri(ENTITY_API_URL_ID, insertedBook.getId()).exchange().expectStatus().isNoContent();
+        insertedBook = null;
+        webTestClient
+            .get()
+            .uri("/api/autocomplete?q={q}", "xyloph")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBodyList(AutocompleteSuggestionDTO.class)
+            .hasSize(0);
+    }
+
+    @Test
+    void getBookFacets() throws Exception {
+        // Create the book through the API, which counts it
+        book.setAuthor("Ottoline Facetworth");
+        book.setPublishedYear(1987);
+        book.setPrice(15D);
+        book.setAvailable(true);
+        insertedBook = webTestClient
+            .post()
+            .uri(ENTITY_API_URL)
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(om.writeValueAsBytes(book))
+            .exchange()
+            .expectStatus()
+            .isCreated()
+            .expectBody(Book.class)
+            .returnResult()
+            .getResponseBody();
+
+        // The book is counted in each of its facet values
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "/facets?author={author}", "Ottoline Facetworth")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.total")
+            .isEqualTo(1)
+            .jsonPath("$.facets.decade[?(@.value == '1980')].count")
+            .value(hasItem(greaterThanOrEqualTo(1)))
+            .jsonPath("$.facets.price[?(@.value == '10-20')].count")
+            .value(hasItem(greaterThanOrEqualTo(1)));
+
+        // A selection the book doesn't match
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "/facets?author={author}&available={available}", "Ottoline Facetworth", false)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.total")
+            .isEqualTo(0);
+
+        // The deleted book isn't counted anymore
+        webTestClient.delete().uri(ENTITY_API_URL_ID, insertedBook.getId()).exchange().expectStatus().isNoContent();
+        insertedBook = null;
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "/facets?author={author}", "Ottoline Facetworth")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.total")
+            .isEqualTo(0);
+    }
+
+    @Test
+    void getAvailableBooks() throws Exception {
+        // Create the book through the API, which records its availability
+        book.setAvailable(true);
+        insertedBook = webTestClient
+            .post()
+            .uri(ENTITY_API_URL)
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(om.writeValueAsBytes(book))
+            .exchange()
+            .expectStatus()
+            .isCreated()
+            .expectBody(Book.class)
+            .returnResult()
+            .getResponseBody();
+        String after = KeysetPaginationUtil.encodeCursor(insertedBook.getId() - 1);
+
+        // The book is the first available one after the previous id
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "/available?after={after}&size=1", after)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[0].id")
+            .isEqualTo(insertedBook.getId().intValue());
+
+        // The unavailable book isn't found anymore
+        insertedBook.setAvailable(false);
+        webTestClient
+            .put()
+            .uri(ENTITY_API_URL_ID, insertedBook.getId())
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(om.writeValueAsBytes(insertedBook))
+            .exchange()
+            .expectStatus()
+            .isOk();
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "/available?after={after}&size=1", after)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[?(@.id == " + insertedBook.getId() + ")]")
+            .doesNotExist();
+    }
+
     @Test
     void getBook() {
         // Initialize the database
@@ -294,6 +664,32 @@ class BookResourceIT {
             .value(is(DEFAULT_AVAILABLE));
     }
 
+    @Test
+    void getBooksByIds() throws Exception {
+        // Initialize the database
+        insertedBook = bookRepository.save(book).block();
+        Book other = bookRepository.save(createUpdatedEntity()).block();
+
+        IdsRequestDTO request = new IdsRequestDTO();
+        request.setIds(List.of(other.getId(), Long.MAX_VALUE, book.getId()));
+
+        webTestClient
+            .post()
+            .uri(ENTITY_API_URL + "/getByIds")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(om.writeValueAsBytes(request))
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[*].id")
+            .value(contains(other.getId().intValue(), book.getId().intValue()))
+            .jsonPath("$.[*].title")
+            .value(contains(UPDATED_TITLE, DEFAULT_TITLE));
+
+        bookRepository.deleteById(other.getId()).block();
+    }
+
     @Test
     void getNonExistingBook() {
         // Get the book
@@ -306,6 +702,31 @@ class BookResourceIT {
             .isNotFound();
     }
 
+    @Test
+    void getTopBooksWithInvalidParameters() {
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "/top?n={n}", 0)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isBadRequest()
+            .expectBody()
+            .jsonPath("$.message")
+            .isEqualTo("error.topsizeinvalid");
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "/top?window={window}", "2d")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isBadRequest()
+            .expectBody()
+            .jsonPath("$.message")
+            .isEqualTo("error.windowinvalid");
+    }
+
     @Test
     void putExistingBook() throws Exception {
         // Initialize the database
@@ -8,9 +8,12 @@ import static org.hamcrest.Matchers.is;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.domain.Book;
 import com.mycompany.myapp.domain.Borrow;
+import com.mycompany.myapp.repository.BookRepository;
 import com.mycompany.myapp.repository.BorrowRepository;
 import com.mycompany.myapp.repository.EntityManager;
+import com.mycompany.myapp.web.util.KeysetPaginationUtil;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
@@ -22,6 +25,8 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.reactive.server.WebTestClient;
@@ -52,6 +57,9 @@ class BorrowResourceIT {
     @Autowired
     private BorrowRepository borrowRepository;
 
+    @Autowired
+    private BookRepository bookRepository;
+
     @Autowired
     private EntityManager em;
 
@@ -62,6 +70,10 @@ class BorrowResourceIT {
 
     private Borrow insertedBorrow;
 
+    private Book insertedBook;
+
+    private Book otherInsertedBook;
+
     /**
      * Create an entity for this test.
      *
@@ -102,6 +114,14 @@ class BorrowResourceIT {
             insertedBorrow = null;
         }
         deleteEntities(em);
+        if (insertedBook != null) {
+            bookRepository.delete(insertedBook).block();
+            insertedBook = null;
+        }
+        if (otherInsertedBook != null) {
+            bookRepository.delete(otherInsertedBook).block();
+            otherInsertedBook = null;
+        }
     }
 
     @Test
@@ -127,6 +147,37 @@ class BorrowResourceIT {
         insertedBorrow = returnedBorrow;
     }
 
+    @Test
+    void createBorrowOfBorrowedBook() throws Exception {
+        Book book = bookRepository.save(BookResourceIT.createEntity().available(true)).block();
+        insertedBook = book;
+        borrow.setBook(book);
+
+        webTestClient
+            .post()
+            .uri(ENTITY_API_URL)
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(om.writeValueAsBytes(borrow))
+            .exchange()
+            .expectStatus()
+            .isCreated();
+        assertThat(bookRepository.findById(book.getId()).block().getAvailable()).isFalse();
+
+        long databaseSizeBeforeCreate = getRepositoryCount();
+
+        // The book is already borrowed, so it can't be lent again
+        webTestClient
+            .post()
+            .uri(ENTITY_API_URL)
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(om.writeValueAsBytes(createEntity().book(book)))
+            .exchange()
+            .expectStatus()
+            .isEqualTo(HttpStatus.CONFLICT);
+
+        assertSameRepositoryCount(databaseSizeBeforeCreate);
+    }
+
     @Test
     void createBorrowWithExistingId() throws Exception {
         // Create the Borrow with an existing ID
@@ -221,6 +272,149 @@ class BorrowResourceIT {
             .value(hasItem(DEFAULT_RETURN_DATE.toString()));
     }
 
+    @Test
+    void getAllBorrowsWithKeysetPagination() {
+        // Initialize the database
+        insertedBorrow = borrowRepository.save(borrow).block();
+        Borrow other = borrowRepository.save(createEntity()).block();
+
+        // Get the first page, which links to the next one
+        var firstPage = webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?size=1")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBodyList(Borrow.class)
+            .hasSize(1)
+            .returnResult();
+        String nextCursor = firstPage.getResponseHeaders().getFirst(KeysetPaginationUtil.NEXT_CURSOR_HEADER);
+        assertThat(nextCursor).isNotNull();
+        assertThat(firstPage.getResponseHeaders().getFirst(HttpHeaders.LINK))
+            .contains("size=1")
+            .contains("after=" + nextCursor)
+            .endsWith("; rel=\"next\"");
+        Long lastId = firstPage.getResponseBody().get(0).getId();
+
+        // Get the second page, which starts after the first one, and is the last one
+        var secondPage = webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?size=1&after={after}", nextCursor)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .doesNotExist(KeysetPaginationUtil.NEXT_CURSOR_HEADER)
+            .expectHeader()
+            .doesNotExist(HttpHeaders.LINK)
+            .expectBodyList(Borrow.class)
+            .hasSize(1)
+            .returnResult()
+            .getResponseBody();
+        assertThat(secondPage.get(0).getId()).isGreaterThan(lastId);
+        assertThat(List.of(lastId, secondPage.get(0).getId())).containsExactlyInAnyOrder(borrow.getId(), other.getId());
+    }
+
+    @Test
+    void getAllBorrowsExpandsTheRelationsOnRequest() {
+        // Initialize the database
+        Book book = bookRepository.save(BookResourceIT.createEntity()).block();
+        insertedBook = book;
+        insertedBorrow = borrowRepository.save(borrow.book(book)).block();
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[*].bookId")
+            .value(hasItem(book.getId().intValue()))
+            .jsonPath("$.[*].book")
+            .isEmpty();
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?expand=book")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[*].book.id")
+            .value(hasItem(book.getId().intValue()))
+            .jsonPath("$.[*].book.title")
+            .value(hasItem(book.getTitle()))
+            .jsonPath("$.[*].member")
+            .isEmpty();
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?expand=library")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isBadRequest();
+    }
+
+    @Test
+    void getAllBorrowsNormalizedSendsEachBookOnce() {
+        // Initialize the database
+        Book book = bookRepository.save(BookResourceIT.createEntity()).block();
+        insertedBook = book;
+        insertedBorrow = borrowRepository.save(borrow.book(book)).block();
+        borrowRepository.save(createEntity().book(book)).block();
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?shape=normalized&expand=book")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.borrows.length()")
+            .isEqualTo(2)
+            .jsonPath("$.borrows[*].bookId")
+            .value(hasItem(book.getId().intValue()))
+            .jsonPath("$.borrows[*].book")
+            .isEmpty()
+            .jsonPath("$.books.length()")
+            .isEqualTo(1)
+            .jsonPath("$.books[0].id")
+            .isEqualTo(book.getId().intValue())
+            .jsonPath("$.members")
+            .isEmpty();
+    }
+
+    @Test
+    void getAllBorrowsNormalizedExpandsAllTheRelationsAPageAtATime() {
+        // Initialize the database
+        Book book = bookRepository.save(BookResourceIT.createEntity()).block();
+        insertedBook = book;
+        insertedBorrow = borrowRepository.save(borrow.book(book)).block();
+        borrowRepository.save(createEntity().book(book)).block();
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?shape=normalized&size=1")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .exists(KeysetPaginationUtil.NEXT_CURSOR_HEADER)
+            .expectBody()
+            .jsonPath("$.borrows.length()")
+            .isEqualTo(1)
+            .jsonPath("$.books[0].id")
+            .isEqualTo(book.getId().intValue());
+    }
+
     @Test
     void getBorrow() {
         // Initialize the database
@@ -472,6 +666,86 @@ class BorrowResourceIT {
         assertDecrementedRepositoryCount(databaseSizeBeforeDelete);
     }
 
+    @Test
+    void deleteUnreturnedBorrowReleasesItsBook() throws Exception {
+        Book book = bookRepository.save(BookResourceIT.createEntity().available(true)).block();
+        insertedBook = book;
+        Borrow lent = lend(createEntity().returnDate(null).book(book));
+        assertThat(bookRepository.findById(book.getId()).block().getAvailable()).isFalse();
+
+        webTestClient
+            .delete()
+            .uri(ENTITY_API_URL_ID, lent.getId())
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isNoContent();
+
+        // The book is no longer held by the deleted borrow, so it can be lent again
+        assertThat(bookRepository.findById(book.getId()).block().getAvailable()).isTrue();
+        lend(createEntity().returnDate(null).book(book));
+    }
+
+    @Test
+    void putUnreturnedBorrowOnAnotherBook() throws Exception {
+        Book book = bookRepository.save(BookResourceIT.createEntity().available(true)).block();
+        insertedBook = book;
+        Book otherBook = bookRepository.save(BookResourceIT.createEntity().available(true)).block();
+        otherInsertedBook = otherBook;
+        Borrow lent = lend(createEntity().returnDate(null).book(book));
+
+        webTestClient
+            .put()
+            .uri(ENTITY_API_URL_ID, lent.getId())
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(om.writeValueAsBytes(lent.book(otherBook)))
+            .exchange()
+            .expectStatus()
+            .isOk();
+
+        // The borrow released its old book and holds the new one
+        assertThat(bookRepository.findById(book.getId()).block().getAvailable()).isTrue();
+        assertThat(bookRepository.findById(otherBook.getId()).block().getAvailable()).isFalse();
+        assertThat(borrowRepository.findById(lent.getId()).block().getBookId()).isEqualTo(otherBook.getId());
+    }
+
+    @Test
+    void putUnreturnedBorrowOnBorrowedBook() throws Exception {
+        Book book = bookRepository.save(BookResourceIT.createEntity().available(true)).block();
+        insertedBook = book;
+        Book otherBook = bookRepository.save(BookResourceIT.createEntity().available(true)).block();
+        otherInsertedBook = otherBook;
+        Borrow lent = lend(createEntity().returnDate(null).book(book));
+        lend(createEntity().returnDate(null).book(otherBook));
+
+        // The other book is already borrowed, so the borrow can't be moved on it
+        webTestClient
+            .put()
+            .uri(ENTITY_API_URL_ID, lent.getId())
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(om.writeValueAsBytes(lent.book(otherBook)))
+            .exchange()
+            .expectStatus()
+            .isEqualTo(HttpStatus.CONFLICT);
+
+        assertThat(bookRepository.findById(book.getId()).block().getAvailable()).isFalse();
+        assertThat(borrowRepository.findById(lent.getId()).block().getBookId()).isEqualTo(book.getId());
+    }
+
+    private Borrow lend(Borrow borrow) throws Exception {
+        return webTestClient
+            .post()
+            .uri(ENTITY_API_URL)
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(om.writeValueAsBytes(borrow))
+            .exchange()
+            .expectStatus()
+            .isCreated()
+            .expectBody(Borrow.class)
+            .returnResult()
+            .getResponseBody();
+    }
+
     protected long getRepositoryCount() {
         return borrowRepository.count().block();
     }
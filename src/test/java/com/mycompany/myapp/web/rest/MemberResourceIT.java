@@ -3,6 +3,7 @@ package com.mycompany.myapp.web.rest;
 import static com.mycompany.myapp.domain.MemberAsserts.*;
 import static com.mycompany.myapp.web.rest.TestUtil.createUpdateProxyForBean;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.is;
 
@@ -11,17 +12,21 @@ import com.mycompany.myapp.IntegrationTest;
 import com.mycompany.myapp.domain.Member;
 import com.mycompany.myapp.repository.EntityManager;
 import com.mycompany.myapp.repository.MemberRepository;
+import com.mycompany.myapp.service.dto.IdsRequestDTO;
+import com.mycompany.myapp.web.util.KeysetPaginationUtil;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.reactive.server.WebTestClient;
@@ -211,6 +216,40 @@ class MemberResourceIT {
         assertSameRepositoryCount(databaseSizeBeforeTest);
     }
 
+    @Test
+    void importMembers() throws Exception {
+        long databaseSizeBeforeImport = getRepositoryCount();
+        String lines =
+            om.writeValueAsString(member) +
+            "\n\n{\"name\":\"" +
+            UPDATED_NAME +
+            "\",\"joinDate\":\"" +
+            UPDATED_JOIN_DATE +
+            "\"}\n" +
+            om.writeValueAsString(createUpdatedEntity()) +
+            "\n";
+
+        webTestClient
+            .post()
+            .uri(ENTITY_API_URL + "/bulk")
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .bodyValue(lines)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.imported")
+            .isEqualTo(2)
+            .jsonPath("$.failed")
+            .isEqualTo(1)
+            .jsonPath("$.errors[0].line")
+            .isEqualTo(3)
+            .jsonPath("$.errors[0].message")
+            .isEqualTo("email must not be null");
+
+        assertThat(getRepositoryCount()).isEqualTo(databaseSizeBeforeImport + 2);
+    }
+
     @Test
     void getAllMembersAsStream() {
         // Initialize the database
@@ -266,6 +305,108 @@ class MemberResourceIT {
             .value(hasItem(DEFAULT_JOIN_DATE.toString()));
     }
 
+    @Test
+    void getAllMembersWithKeysetPagination() {
+        // Initialize the database
+        insertedMember = memberRepository.save(member).block();
+        Member other = memberRepository.save(createUpdatedEntity()).block();
+
+        // Get the first page, which links to the next one
+        var firstPage = webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?size=1")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBodyList(Member.class)
+            .hasSize(1)
+            .returnResult();
+        String nextCursor = firstPage.getResponseHeaders().getFirst(KeysetPaginationUtil.NEXT_CURSOR_HEADER);
+        assertThat(nextCursor).isNotNull();
+        assertThat(firstPage.getResponseHeaders().getFirst(HttpHeaders.LINK))
+            .contains("size=1")
+            .contains("after=" + nextCursor)
+            .endsWith("; rel=\"next\"");
+        Long lastId = firstPage.getResponseBody().get(0).getId();
+
+        // Get the second page, which starts after the first one, and is the last one
+        var secondPage = webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?size=1&after={after}", nextCursor)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .doesNotExist(KeysetPaginationUtil.NEXT_CURSOR_HEADER)
+            .expectHeader()
+            .doesNotExist(HttpHeaders.LINK)
+            .expectBodyList(Member.class)
+            .hasSize(1)
+            .returnResult()
+            .getResponseBody();
+        assertThat(secondPage.get(0).getId()).isGreaterThan(lastId);
+        assertThat(List.of(lastId, secondPage.get(0).getId())).containsExactlyInAnyOrder(member.getId(), other.getId());
+    }
+
+    @Test
+    void getAllMembersByCriteria() {
+        // Initialize the database
+        insertedMember = memberRepository.save(member).block();
+        Member other = memberRepository.save(createUpdatedEntity()).block();
+
+        // Only the members matching every filter are read
+        webTestClient
+            .get()
+            .uri(
+                ENTITY_API_URL + "?name.contains={name}&email.in={emails}&joinDate.greaterThan={joinDate}",
+                "BBB",
+                UPDATED_EMAIL + "," + DEFAULT_EMAIL,
+                DEFAULT_JOIN_DATE
+            )
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[*].id")
+            .value(contains(other.getId().intValue()));
+
+        // The wildcards of the filters are matched literally
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?name.contains={name}", "A%")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBodyList(Member.class)
+            .hasSize(0);
+
+        // The matching members are counted
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "/count?email.equals={email}", DEFAULT_EMAIL)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .json("1");
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "/count?name.in={names}", DEFAULT_NAME + "," + UPDATED_NAME)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .json("2");
+
+        memberRepository.deleteById(other.getId()).block();
+    }
+
     @Test
     void getMember() {
         // Initialize the database
@@ -292,6 +433,48 @@ class MemberResourceIT {
             .value(is(DEFAULT_JOIN_DATE.toString()));
     }
 
+    @Test
+    void getMembersByIds() throws Exception {
+        // Initialize the database
+        insertedMember = memberRepository.save(member).block();
+        Member other = memberRepository.save(createUpdatedEntity()).block();
+
+        IdsRequestDTO request = new IdsRequestDTO();
+        request.setIds(List.of(other.getId(), Long.MAX_VALUE, member.getId()));
+
+        // The members are read in the order of the ids, without the missing ones
+        webTestClient
+            .post()
+            .uri(ENTITY_API_URL + "/getMembersByIds")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(om.writeValueAsBytes(request))
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[*].id")
+            .value(contains(other.getId().intValue(), member.getId().intValue()))
+            .jsonPath("$.[*].name")
+            .value(contains(UPDATED_NAME, DEFAULT_NAME));
+
+        memberRepository.deleteById(other.getId()).block();
+    }
+
+    @Test
+    void getMembersByTooManyIds() throws Exception {
+        IdsRequestDTO request = new IdsRequestDTO();
+        request.setIds(LongStream.rangeClosed(1, IdsRequestDTO.MAX_IDS + 1).boxed().toList());
+
+        webTestClient
+            .post()
+            .uri(ENTITY_API_URL + "/getMembersByIds")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(om.writeValueAsBytes(request))
+            .exchange()
+            .expectStatus()
+            .isBadRequest();
+    }
+
     @Test
     void getNonExistingMember() {
         // Get the member
@@ -12,6 +12,7 @@ import com.mycompany.myapp.repository.UserRepository;
 import com.mycompany.myapp.security.AuthoritiesConstants;
 import com.mycompany.myapp.service.dto.AdminUserDTO;
 import com.mycompany.myapp.service.mapper.UserMapper;
+import com.mycompany.myapp.web.util.KeysetPaginationUtil;
 import java.util.*;
 import java.util.function.Consumer;
 import org.apache.commons.lang3.RandomStringUtils;
@@ -268,6 +269,55 @@ class UserResourceIT {
         assertThat(foundUser.getLangKey()).isEqualTo(DEFAULT_LANGKEY);
     }
 
+    @Test
+    void getAllUsersWithAuthoritiesOfThePageOnly() {
+        AdminUserDTO admin = webTestClient
+            .get()
+            .uri("/api/admin/users?sort=login,asc&page=0&size=50")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .returnResult(AdminUserDTO.class)
+            .getResponseBody()
+            .filter(found -> "admin".equals(found.getLogin()))
+            .blockFirst();
+        assertThat(admin.getAuthorities()).contains(AuthoritiesConstants.ADMIN);
+    }
+
+    @Test
+    void getAllUsersWithKeysetPagination() {
+        // Initialize the database
+        userRepository.save(user).block();
+
+        var firstPage = webTestClient
+            .get()
+            .uri("/api/admin/users?after=&size=1")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .returnResult(AdminUserDTO.class);
+        String cursor = firstPage.getResponseHeaders().getFirst(KeysetPaginationUtil.NEXT_CURSOR_HEADER);
+        List<AdminUserDTO> firstUsers = firstPage.getResponseBody().collectList().block();
+        assertThat(firstUsers).hasSize(1);
+        assertThat(cursor).isNotNull();
+
+        List<AdminUserDTO> nextUsers = webTestClient
+            .get()
+            .uri("/api/admin/users?after={cursor}&size=1", cursor)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .returnResult(AdminUserDTO.class)
+            .getResponseBody()
+            .collectList()
+            .block();
+        assertThat(nextUsers).hasSize(1);
+        assertThat(nextUsers.get(0).getId()).isGreaterThan(firstUsers.get(0).getId());
+    }
+
     @Test
     void getUser() {
         // Initialize the database
@@ -158,6 +158,21 @@ class ExceptionTranslatorIT {
             .isEqualTo("test response status");
     }
 
+    @Test
+    void testRejectedExecution() {
+        webTestClient
+            .get()
+            .uri("/api/exception-translator-test/rejected-execution")
+            .exchange()
+            .expectStatus()
+            .isEqualTo(HttpStatus.SERVICE_UNAVAILABLE)
+            .expectHeader()
+            .contentType(MediaType.APPLICATION_PROBLEM_JSON)
+            .expectBody()
+            .jsonPath("$.message")
+            .isEqualTo("error.http.503");
+    }
+
     @Test
     void testInternalServerError() {
         webTestClient
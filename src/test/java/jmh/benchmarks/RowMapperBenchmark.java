@@ -0,0 +1,133 @@
+package jmh.benchmarks;
+
+import com.mycompany.myapp.domain.Book;
+import com.mycompany.myapp.domain.Borrow;
+import com.mycompany.myapp.domain.Member;
+import com.mycompany.myapp.repository.rowmapper.BookRowMapper;
+import com.mycompany.myapp.repository.rowmapper.BorrowRowMapper;
+import com.mycompany.myapp.repository.rowmapper.ColumnConverter;
+import com.mycompany.myapp.repository.rowmapper.InMemoryResult;
+import com.mycompany.myapp.repository.rowmapper.MemberRowMapper;
+import io.r2dbc.spi.Row;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the index based row mappers with the name based mapping they replaced, on the borrow/member/book join.
+ * <p>
+ * Run its {@code main} method from the IDE, after {@code ./mvnw test-compile} generated the benchmark classes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RowMapperBenchmark {
+
+    private static final int ROWS = 1000;
+
+    private List<Row> rows;
+    private ColumnConverter converter;
+    private BorrowRowMapper borrowMapper;
+    private MemberRowMapper memberMapper;
+    private BookRowMapper bookMapper;
+
+    @Setup
+    public void setUp() {
+        LocalDateTime date = LocalDateTime.of(2024, 3, 1, 10, 0);
+        Map<String, Object> columns = new LinkedHashMap<>();
+        columns.put("e_id", 10L);
+        columns.put("e_borrow_date", date);
+        columns.put("e_return_date", date.plusDays(14));
+        columns.put("e_member_id", 2L);
+        columns.put("e_book_id", 3L);
+        columns.put("member_id", 2L);
+        columns.put("member_name", "Ada");
+        columns.put("member_email", "ada@example.com");
+        columns.put("member_join_date", date);
+        columns.put("book_id", 3L);
+        columns.put("book_title", "Dune");
+        columns.put("book_author", "Herbert");
+        columns.put("book_published_year", 1965);
+        columns.put("book_price", 9.5);
+        columns.put("book_available", true);
+        rows = InMemoryResult.of(columns, ROWS).rows();
+        converter = InMemoryResult.columnConverter();
+        borrowMapper = new BorrowRowMapper(converter);
+        memberMapper = new MemberRowMapper(converter);
+        bookMapper = new BookRowMapper(converter);
+    }
+
+    @Benchmark
+    public void compiled(Blackhole blackhole) {
+        for (Row row : rows) {
+            Borrow entity = borrowMapper.apply(row, "e");
+            entity.setMember(memberMapper.apply(row, "member"));
+            entity.setBook(bookMapper.apply(row, "book"));
+            blackhole.consume(entity);
+        }
+    }
+
+    @Benchmark
+    public void byName(Blackhole blackhole) {
+        for (Row row : rows) {
+            Borrow entity = borrowByName(row, "e");
+            entity.setMember(memberByName(row, "member"));
+            entity.setBook(bookByName(row, "book"));
+            blackhole.consume(entity);
+        }
+    }
+
+    private Borrow borrowByName(Row row, String prefix) {
+        Borrow entity = new Borrow();
+        entity.setId(converter.fromRow(row, prefix + "_id", Long.class));
+        entity.setBorrowDate(converter.fromRow(row, prefix + "_borrow_date", Instant.class));
+        entity.setReturnDate(converter.fromRow(row, prefix + "_return_date", Instant.class));
+        entity.setMemberId(converter.fromRow(row, prefix + "_member_id", Long.class));
+        entity.setBookId(converter.fromRow(row, prefix + "_book_id", Long.class));
+        return entity;
+    }
+
+    private Member memberByName(Row row, String prefix) {
+        Member entity = new Member();
+        entity.setId(converter.fromRow(row, prefix + "_id", Long.class));
+        entity.setName(converter.fromRow(row, prefix + "_name", String.class));
+        entity.setEmail(converter.fromRow(row, prefix + "_email", String.class));
+        entity.setJoinDate(converter.fromRow(row, prefix + "_join_date", Instant.class));
+        return entity;
+    }
+
+    private Book bookByName(Row row, String prefix) {
+        Book entity = new Book();
+        entity.setId(converter.fromRow(row, prefix + "_id", Long.class));
+        entity.setTitle(converter.fromRow(row, prefix + "_title", String.class));
+        entity.setAuthor(converter.fromRow(row, prefix + "_author", String.class));
+        entity.setPublishedYear(converter.fromRow(row, prefix + "_published_year", Integer.class));
+        entity.setPrice(converter.fromRow(row, prefix + "_price", Double.class));
+        entity.setAvailable(converter.fromRow(row, prefix + "_available", Boolean.class));
+        return entity;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(RowMapperBenchmark.class.getSimpleName()).build()).run();
+    }
+}